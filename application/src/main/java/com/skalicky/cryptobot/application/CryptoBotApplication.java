@@ -21,18 +21,40 @@ package com.skalicky.cryptobot.application;
 import com.beust.jcommander.JCommander;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.businesslogic.api.CryptoBotOrchestratingLogic;
 import com.skalicky.cryptobot.businesslogic.api.model.VolumeMultiplierBo;
 import com.skalicky.cryptobot.businesslogic.impl.CryptoBotLogic;
 import com.skalicky.cryptobot.businesslogic.impl.CryptoBotOrchestratingLogicImpl;
 import com.skalicky.cryptobot.businesslogic.impl.datetime.LocalDateTimeProviderImpl;
+import com.skalicky.cryptobot.businesslogic.impl.store.InMemoryLastBuyOrderStateRepository;
+import com.skalicky.cryptobot.businesslogic.impl.store.JsonFileLastBuyOrderStateRepository;
+import com.skalicky.cryptobot.businesslogic.impl.store.LastBuyOrderStateRepository;
+import com.skalicky.cryptobot.businesslogic.impl.valuation.PortfolioValuationLogic;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPrivateApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
 import com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.KrakenPrivateApiConnectorImpl;
 import com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.KrakenPublicApiConnectorImpl;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.KrakenWebSocketMarketDataConnectorImpl;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.RetryingKrakenPrivateApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.RetryingKrakenPublicApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics.KrakenMetrics;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring.KrakenRequestMonitor;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.ratelimit.KrakenRateLimiter;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.retry.KrakenCircuitBreaker;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.retry.KrakenRetryPolicy;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.retry.KrakenRetryingCallExecutor;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPrivateApiFacade;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPublicApiFacade;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.CurrencyPairBoToKrakenMarketNameConverter;
-import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenCurrencyNameToCurrencyBoEnumConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.CurrencyPairBoToKrakenWebSocketPairNameConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenAssetNameToAssetBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToClosedOrderBoConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToFixedPointTickerBoConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToKrakenAssetMetadataConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToKrakenAssetPairMetadataConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToOpenOrderBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToTickerBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMarketNameToCurrencyPairBoEnumConverter;
@@ -41,32 +63,127 @@ import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.Kra
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.OrderTypeBoEnumToKrakenOrderTypeConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.PriceOrderTypeBoEnumToKrakenOrderTypeConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.InMemoryKrakenOrderJournal;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.JsonFileKrakenOrderJournal;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic.KrakenPrivateApiFacadeImpl;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic.KrakenPublicApiFacadeImpl;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic.KrakenStreamingPublicApiFacadeImpl;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataCache;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
 import com.skalicky.cryptobot.exchange.shared.connector.impl.logic.RestConnectorSupport;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.converter.EpochSecondBigDecimalToLocalDateTimeConverter;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.converter.LocalDateTimeToEpochSecondLongConverter;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util.DateTimeUtil;
+import com.skalicky.cryptobot.exchange.slack.connector.api.logic.SlackConnector;
 import com.skalicky.cryptobot.exchange.slack.connector.impl.logic.SlackConnectorImpl;
 import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
+import com.skalicky.cryptobot.exchange.slack.connectorfacade.impl.logic.AsyncBatchingSlackFacade;
 import com.skalicky.cryptobot.exchange.slack.connectorfacade.impl.logic.SlackFacadeImpl;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPublicApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.ClosedOrderBoToStoredClosedOrderDtoConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.StoredClosedOrderDtoToClosedOrderBoConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic.CachingPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic.CachingPublicApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic.ClosedOrderHistoryBackfill;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic.IncrementalClosedOrdersPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.JsonFileClosedOrderBackfillCheckpointRepository;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.JsonFileClosedOrderSyncStateRepository;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import com.skalicky.cryptobot.shared.tracing.OtlpJsonFileSpanExporter;
+import com.skalicky.cryptobot.shared.tracing.Tracer;
+import com.skalicky.cryptobot.shared.tracing.TracingDecorator;
+import edu.self.kraken.api.HttpClientKrakenTransport;
 import edu.self.kraken.api.KrakenApi;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class CryptoBotApplication {
 
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(CryptoBotApplication.class);
     @NotNull
     private static final String KRAKEN_TRADING_PLATFORM_NAME = "kraken";
+    @NotNull
+    private static final URI KRAKEN_WEBSOCKET_URI = URI.create("wss://ws.kraken.com");
+    @NotNull
+    private static final Duration KRAKEN_WEBSOCKET_RECONNECT_DELAY = Duration.ofSeconds(1);
+    /**
+     * Older quotes are not trusted, e.g. because the WebSocket connection silently stalled.
+     */
+    @NotNull
+    private static final Duration KRAKEN_MAX_QUOTE_AGE = Duration.ofSeconds(30);
+    /**
+     * Market data is retrieved often and quickly, an order is rather looked up than waited for.
+     */
+    @NotNull
+    private static final ImmutableMap<KrakenApi.Method, Duration> KRAKEN_TIMEOUTS_BY_METHODS = ImmutableMap.of(
+            KrakenApi.Method.TICKER, Duration.ofSeconds(10),
+            KrakenApi.Method.DEPTH, Duration.ofSeconds(10),
+            KrakenApi.Method.ADD_ORDER, Duration.ofSeconds(15));
+    @NotNull
+    private static final Duration KRAKEN_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    @NotNull
+    private static final Duration KRAKEN_MAX_BACKOFF = Duration.ofSeconds(16);
+    private static final int KRAKEN_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    @NotNull
+    private static final Duration KRAKEN_CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofMinutes(1);
+    /**
+     * Orders which turned out to be placed or not are kept as a record of recent placements only.
+     */
+    private static final int MAX_RESOLVED_ORDER_JOURNAL_ENTRY_COUNT = 100;
+    /**
+     * One thread per independent exchange call of a run, see {@link CryptoBotOrchestratingLogicImpl}.
+     */
+    private static final int EXCHANGE_CALL_THREAD_COUNT = 4;
+    @NotNull
+    private static final Duration SLACK_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    @NotNull
+    private static final Duration SLACK_READ_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SLACK_QUEUE_CAPACITY = 100;
+    /**
+     * Long enough to coalesce all messages of a run, which is completed by a flush anyway.
+     */
+    @NotNull
+    private static final Duration SLACK_COALESCING_WINDOW = Duration.ofMinutes(5);
+    @NotNull
+    private static final Duration SLACK_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    /**
+     * Short enough to report a current value every run, long enough to reuse the valuation within a run.
+     */
+    @NotNull
+    private static final Duration PORTFOLIO_VALUATION_TIME_TO_LIVE = Duration.ofMinutes(1);
+    @NotNull
+    private static final String TRACING_SERVICE_NAME = "crypto-bot";
+    private static final int MAX_ROLLED_TRACE_FILE_COUNT = 5;
 
     public static void main(String[] args) {
         final var arguments = new CryptoBotArguments();
@@ -75,47 +192,167 @@ public class CryptoBotApplication {
                 .build()
                 .parse(args);
 
-        final var currencyPairBoEnumToKrakenMarketNameConverter = new CurrencyPairBoToKrakenMarketNameConverter();
         final var publicApiFacades = new ArrayList<TradingPlatformPublicApiFacade>();
         final var privateApiFacades = new ArrayList<TradingPlatformPrivateApiFacade>();
         final var objectMapper = new ObjectMapper();
         objectMapper.enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
         final String tradingPlatformName = arguments.getTradingPlatformName();
+        final Tracer tracer = initializeTracer(arguments);
+        final KrakenMetrics krakenMetrics;
+        final Runnable tradingPlatformMetadataLoad;
         if (KRAKEN_TRADING_PLATFORM_NAME.equals(tradingPlatformName)) {
-            final KrakenApi krakenApi = initializeKrakenApi(arguments);
-            publicApiFacades.add(initializeKrakenPublicApiFacade(krakenApi, objectMapper,
-                    currencyPairBoEnumToKrakenMarketNameConverter));
-            privateApiFacades.add(initializeKrakenPrivateApiFacade(krakenApi, objectMapper,
-                    currencyPairBoEnumToKrakenMarketNameConverter));
+            krakenMetrics = new KrakenMetrics(arguments.getTradingPlatformAccountName(), Clock.systemUTC());
+            final KrakenApi krakenApi = initializeKrakenApi(arguments, krakenMetrics, tracer);
+            final KrakenRetryingCallExecutor krakenRetryingCallExecutor = initializeKrakenRetryingCallExecutor(
+                    arguments, krakenMetrics);
+            final KrakenAssetMetadataCache krakenAssetMetadataCache = initializeKrakenAssetMetadataCache(krakenApi,
+                    krakenRetryingCallExecutor, objectMapper, arguments);
+            tradingPlatformMetadataLoad = krakenAssetMetadataCache::load;
+            final var currencyPairBoEnumToKrakenMarketNameConverter = new CurrencyPairBoToKrakenMarketNameConverter(
+                    krakenAssetMetadataCache);
+            final KrakenPublicApiFacade krakenPublicApiFacade = initializeKrakenPublicApiFacade(krakenApi,
+                    krakenRetryingCallExecutor, objectMapper, currencyPairBoEnumToKrakenMarketNameConverter,
+                    krakenAssetMetadataCache, tracer);
+            publicApiFacades.add(TracingDecorator.decorate(TradingPlatformPublicApiFacade.class,
+                    decorateWithTickerCache(arguments.isTradingPlatformMarketDataStream()
+                            ? initializeKrakenStreamingPublicApiFacade(krakenPublicApiFacade, objectMapper, arguments,
+                            krakenAssetMetadataCache)
+                            : krakenPublicApiFacade, arguments.getTradingPlatformTickerCacheTtlInSeconds()),
+                    tracer));
+            privateApiFacades.add(TracingDecorator.decorate(TradingPlatformPrivateApiFacade.class,
+                    decorateWithBalanceCache(decorateWithClosedOrdersStore(
+                            initializeKrakenPrivateApiFacade(krakenApi, krakenRetryingCallExecutor, objectMapper,
+                                    currencyPairBoEnumToKrakenMarketNameConverter, krakenAssetMetadataCache,
+                                    arguments.getOrderJournalFile(), tracer),
+                            arguments.getClosedOrdersStoreFile(), arguments.getBackfillClosedOrdersSince()),
+                            arguments.getTradingPlatformBalanceCacheTtlInSeconds()),
+                    tracer));
         } else {
             throw new IllegalArgumentException("Unsupported trading platform [" + tradingPlatformName + "]");
         }
-        final RestConnectorSupport restConnectorSupport = new RestConnectorSupport(objectMapper);
-        final SlackFacade slackFacade = initializeSlackFacade(arguments.getSlackWebhookUrl(), restConnectorSupport);
+        final RestConnectorSupport restConnectorSupport = new RestConnectorSupport(objectMapper,
+                SLACK_CONNECT_TIMEOUT, SLACK_READ_TIMEOUT);
+        final AsyncBatchingSlackFacade slackFacade = initializeSlackFacade(arguments.getSlackWebhookUrl(),
+                restConnectorSupport, tracer);
         final var cryptoBotLogic = new CryptoBotLogic(ImmutableList.copyOf(publicApiFacades),
                 ImmutableList.copyOf(privateApiFacades), slackFacade);
+        final ExecutorService exchangeCallExecutor = initializeExchangeCallExecutor();
+        if (StringUtils.isNotEmpty(arguments.getBackfillClosedOrdersSince())) {
+            backfillClosedOrders(ImmutableList.copyOf(privateApiFacades), arguments, exchangeCallExecutor);
+        }
         final var cryptoBotOrchestratingLogic = new CryptoBotOrchestratingLogicImpl(cryptoBotLogic,
-                new LocalDateTimeProviderImpl());
+                new LocalDateTimeProviderImpl(), exchangeCallExecutor,
+                Duration.ofSeconds(arguments.getRunDeadlineInSeconds()),
+                initializeLastBuyOrderStateRepository(arguments.getLastBuyOrderStateFile()),
+                Duration.ofHours(arguments.getLastBuyOrderStateMaxAgeInHours()), tracer);
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = parseVolumeMultipliersArgument(
                 arguments);
+        final var portfolioValuationLogic = new PortfolioValuationLogic(ImmutableList.copyOf(publicApiFacades),
+                ImmutableList.copyOf(privateApiFacades), slackFacade, Clock.systemUTC(),
+                PORTFOLIO_VALUATION_TIME_TO_LIVE);
+        final Runnable botRun = () -> {
+            executeBotRun(tradingPlatformMetadataLoad, cryptoBotOrchestratingLogic, arguments,
+                    volumeMultiplierOrderedAscByPrice, slackFacade);
+            if (StringUtils.isNotEmpty(arguments.getPortfolioReportingCurrency())) {
+                executePortfolioValuation(portfolioValuationLogic, arguments, slackFacade);
+            }
+            // One Slack message per run.
+            slackFacade.flush();
+        };
+        final ObjectMapper metricsObjectMapper = createMetricsObjectMapper();
+        if (arguments.isDaemon()) {
+            final var daemon = new CryptoBotDaemon(botRun,
+                    Duration.ofMinutes(arguments.getDaemonIntervalInMinutes()));
+            final MetricsHttpServer metricsHttpServer = arguments.getMetricsPort() > 0
+                    ? new MetricsHttpServer(arguments.getMetricsPort(), krakenMetrics::snapshot, metricsObjectMapper)
+                    : null;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                daemon.stop();
+                if (metricsHttpServer != null) {
+                    metricsHttpServer.stop();
+                }
+                writeMetrics(krakenMetrics, metricsObjectMapper, arguments.getMetricsFile());
+                slackFacade.shutdown(SLACK_SHUTDOWN_TIMEOUT);
+            }, "crypto-bot-daemon-shutdown"));
+            if (metricsHttpServer != null) {
+                metricsHttpServer.start();
+            }
+            daemon.start();
+        } else {
+            botRun.run();
+            writeMetrics(krakenMetrics, metricsObjectMapper, arguments.getMetricsFile());
+            slackFacade.shutdown(SLACK_SHUTDOWN_TIMEOUT);
+        }
+    }
+
+    @NotNull
+    private static ObjectMapper createMetricsObjectMapper() {
+        return JsonFileSupport.createObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * A failure is only logged since the metrics are not worth failing the run for.
+     */
+    private static void writeMetrics(@NotNull final KrakenMetrics krakenMetrics,
+                                     @NotNull final ObjectMapper metricsObjectMapper,
+                                     @Nullable final String metricsFile) {
+        if (StringUtils.isEmpty(metricsFile)) {
+            return;
+        }
+        final Path file = Paths.get(metricsFile);
         try {
-            cryptoBotOrchestratingLogic.orchestrateExecution(tradingPlatformName,
+            JsonFileSupport.writeAtomically(metricsObjectMapper, file, krakenMetrics.snapshot());
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Writing of the metrics to " + file + " failed", ex);
+        }
+    }
+
+    /**
+     * The metadata of the trading platform is loaded within the run, hence its failure is reported like any other and
+     * an expired metadata is refreshed by the next run of a daemon.
+     */
+    private static void executeBotRun(@NotNull final Runnable tradingPlatformMetadataLoad,
+                                      @NotNull final CryptoBotOrchestratingLogic cryptoBotOrchestratingLogic,
+                                      @NotNull final CryptoBotArguments arguments,
+                                      @NotNull final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice,
+                                      @NotNull final SlackFacade slackFacade) {
+        try {
+            tradingPlatformMetadataLoad.run();
+            cryptoBotOrchestratingLogic.orchestrateExecution(arguments.getTradingPlatformName(),
                     arguments.getVolumeInBaseCurrencyToInvestPerRun(),
                     volumeMultiplierOrderedAscByPrice,
                     arguments.getBaseCurrency(), arguments.getQuoteCurrency(),
                     arguments.getOffsetRatioOfLimitPriceToBidPriceInDecimal(),
                     arguments.getMinOffsetFromOpenDateTimeOfLastBuyOrderInHours());
         } catch (Exception ex) {
-            ex.printStackTrace();
-            if (arguments.getSlackWebhookUrl() != null) {
-                final String stackTrace = ExceptionUtils.getStackTrace(ex);
-                final var maxLength = 512;
-                final boolean showDots = stackTrace.length() > maxLength;
-                slackFacade.sendMessage("Exception: "
-                        + stackTrace.substring(0, Math.min(maxLength, stackTrace.length()))
-                        + (showDots ? "..." : ""));
-            }
+            reportException(ex, arguments, slackFacade);
+        }
+    }
+
+    private static void executePortfolioValuation(@NotNull final PortfolioValuationLogic portfolioValuationLogic,
+                                                  @NotNull final CryptoBotArguments arguments,
+                                                  @NotNull final SlackFacade slackFacade) {
+        try {
+            portfolioValuationLogic.reportValuation(arguments.getTradingPlatformName(),
+                    Objects.requireNonNull(arguments.getPortfolioReportingCurrency()));
+        } catch (Exception ex) {
+            reportException(ex, arguments, slackFacade);
+        }
+    }
+
+    private static void reportException(@NotNull final Exception ex,
+                                        @NotNull final CryptoBotArguments arguments,
+                                        @NotNull final SlackFacade slackFacade) {
+        ex.printStackTrace();
+        if (arguments.getSlackWebhookUrl() != null) {
+            final String stackTrace = ExceptionUtils.getStackTrace(ex);
+            final var maxLength = 512;
+            final boolean showDots = stackTrace.length() > maxLength;
+            slackFacade.sendMessage("Exception: "
+                    + stackTrace.substring(0, Math.min(maxLength, stackTrace.length()))
+                    + (showDots ? "..." : ""));
         }
     }
 
@@ -137,25 +374,92 @@ public class CryptoBotApplication {
                 .collect(ImmutableList.toImmutableList());
     }
 
+    /**
+     * Daemon threads in order not to prevent the JVM from exiting after a single run.
+     */
     @NotNull
-    private static KrakenApi initializeKrakenApi(@NotNull final CryptoBotArguments arguments) {
-        final var krakenApi = new KrakenApi();
+    private static ExecutorService initializeExchangeCallExecutor() {
+        final var threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(EXCHANGE_CALL_THREAD_COUNT, runnable -> {
+            final var thread = new Thread(runnable, "crypto-bot-exchange-call-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Traces are appended to the trace file by the thread ending the run, which is negligible compared to the calls
+     * of the run.
+     */
+    @NotNull
+    private static Tracer initializeTracer(@NotNull final CryptoBotArguments arguments) {
+        final String traceFile = arguments.getTraceFile();
+        if (StringUtils.isEmpty(traceFile)) {
+            return Tracer.disabled();
+        }
+        return new Tracer(Clock.systemUTC(), new OtlpJsonFileSpanExporter(Paths.get(traceFile),
+                arguments.getTraceFileMaxSizeInMegabytes() * 1024L * 1024L, MAX_ROLLED_TRACE_FILE_COUNT,
+                TRACING_SERVICE_NAME, new ObjectMapper()));
+    }
+
+    @NotNull
+    private static KrakenApi initializeKrakenApi(@NotNull final CryptoBotArguments arguments,
+                                                 @NotNull final KrakenMetrics krakenMetrics,
+                                                 @NotNull final Tracer tracer) {
+        final var krakenTransport = new HttpClientKrakenTransport(
+                Duration.ofSeconds(arguments.getTradingPlatformConnectTimeoutInSeconds()),
+                Duration.ofSeconds(arguments.getTradingPlatformReadTimeoutInSeconds()));
+        final var krakenApi = new KrakenApi(krakenTransport);
+        krakenApi.setBaseUrl(StringUtils.defaultIfEmpty(arguments.getTradingPlatformBaseUrl(), null));
         krakenApi.setKey(arguments.getTradingPlatformKey());
         krakenApi.setSecret(arguments.getTradingPlatformSecret());
+        krakenApi.setRequestThrottle(new KrakenRateLimiter(KrakenRateLimiter.Tier.valueOf(
+                arguments.getTradingPlatformVerificationTier().toUpperCase(Locale.ROOT))));
+        final Duration readTimeout = Duration.ofSeconds(arguments.getTradingPlatformReadTimeoutInSeconds());
+        KRAKEN_TIMEOUTS_BY_METHODS.forEach((method, timeout) ->
+                krakenApi.setTimeout(method, timeout.compareTo(readTimeout) < 0 ? timeout : readTimeout));
+        krakenApi.setRequestObserver(new KrakenRequestMonitor(krakenMetrics, tracer));
         return krakenApi;
     }
 
+    /**
+     * One circuit breaker for all calls since an outage of Kraken affects them all.
+     */
+    @NotNull
+    private static KrakenRetryingCallExecutor initializeKrakenRetryingCallExecutor(@NotNull final CryptoBotArguments arguments,
+                                                                                   @NotNull final KrakenMetrics krakenMetrics) {
+        final int maxAttempts = arguments.getTradingPlatformMaxAttempts();
+        return new KrakenRetryingCallExecutor(
+                KrakenRetryPolicy.forIdempotentCalls(maxAttempts, KRAKEN_INITIAL_BACKOFF, KRAKEN_MAX_BACKOFF),
+                ImmutableMap.of(KrakenApi.Method.ADD_ORDER, KrakenRetryPolicy.forNonIdempotentCalls(maxAttempts,
+                        KRAKEN_INITIAL_BACKOFF, KRAKEN_MAX_BACKOFF)),
+                new KrakenCircuitBreaker(KRAKEN_CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                        KRAKEN_CIRCUIT_BREAKER_OPEN_DURATION, Clock.systemUTC()),
+                duration -> Thread.sleep(duration.toMillis()),
+                () -> ThreadLocalRandom.current().nextDouble(),
+                krakenMetrics);
+    }
+
     @NotNull
     private static KrakenPrivateApiFacade initializeKrakenPrivateApiFacade(@NotNull final KrakenApi krakenApi,
+                                                                           @NotNull final KrakenRetryingCallExecutor krakenRetryingCallExecutor,
                                                                            @NotNull final ObjectMapper objectMapper,
-                                                                           @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter) {
-        final var krakenPrivateApiConnector = new KrakenPrivateApiConnectorImpl(krakenApi, objectMapper);
+                                                                           @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter,
+                                                                           @NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier,
+                                                                           @Nullable final String orderJournalFile,
+                                                                           @NotNull final Tracer tracer) {
+        final KrakenPrivateApiConnector krakenPrivateApiConnector = TracingDecorator.decorate(
+                KrakenPrivateApiConnector.class, new RetryingKrakenPrivateApiConnector(
+                        new KrakenPrivateApiConnectorImpl(krakenApi, objectMapper), krakenRetryingCallExecutor),
+                tracer);
         final var orderTypeBoEnumToKrakenOrderTypeConverter = new OrderTypeBoEnumToKrakenOrderTypeConverter();
         final var priceOrderTypeBoEnumToKrakenOrderTypeConverter = new PriceOrderTypeBoEnumToKrakenOrderTypeConverter();
-        final var krakenCurrencyNameToCurrencyBoEnumConverter = new KrakenCurrencyNameToCurrencyBoEnumConverter();
+        final var krakenAssetNameToAssetBoConverter = new KrakenAssetNameToAssetBoConverter(
+                krakenAssetMetadataRegistrySupplier);
         final var krakenOrderTypeToOrderTypeBoEnumConverter = new KrakenOrderTypeToOrderTypeBoEnumConverter();
         final var krakenOrderTypeToPriceOrderTypeBoEnumConverter = new KrakenOrderTypeToPriceOrderTypeBoEnumConverter();
-        final var krakenMarketNameToCurrencyPairBoEnumConverter = new KrakenMarketNameToCurrencyPairBoEnumConverter();
+        final var krakenMarketNameToCurrencyPairBoEnumConverter = new KrakenMarketNameToCurrencyPairBoEnumConverter(
+                krakenAssetMetadataRegistrySupplier);
         final var epochSecondBigDecimalToLocalDateTimeConverter = new EpochSecondBigDecimalToLocalDateTimeConverter();
         final var pairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter =
                 new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter();
@@ -178,26 +482,168 @@ public class CryptoBotApplication {
                 currencyPairBoEnumToKrakenMarketNameConverter,
                 orderTypeBoEnumToKrakenOrderTypeConverter,
                 priceOrderTypeBoEnumToKrakenOrderTypeConverter,
-                krakenCurrencyNameToCurrencyBoEnumConverter,
+                krakenAssetNameToAssetBoConverter,
                 krakenMapEntryToOpenOrderBoConverter,
                 krakenMapEntryToClosedOrderBoConverter,
-                new LocalDateTimeToEpochSecondLongConverter());
+                new LocalDateTimeToEpochSecondLongConverter(),
+                krakenAssetMetadataRegistrySupplier,
+                StringUtils.isEmpty(orderJournalFile)
+                        ? new InMemoryKrakenOrderJournal()
+                        : new JsonFileKrakenOrderJournal(Paths.get(orderJournalFile),
+                        MAX_RESOLVED_ORDER_JOURNAL_ENTRY_COUNT),
+                // Kraken accepts 32-bit signed integers.
+                () -> ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE),
+                Clock.systemUTC());
+    }
+
+    @NotNull
+    private static KrakenAssetMetadataCache initializeKrakenAssetMetadataCache(@NotNull final KrakenApi krakenApi,
+                                                                               @NotNull final KrakenRetryingCallExecutor krakenRetryingCallExecutor,
+                                                                               @NotNull final ObjectMapper objectMapper,
+                                                                               @NotNull final CryptoBotArguments arguments) {
+        final String cacheFile = arguments.getTradingPlatformMetadataCacheFile();
+        return new KrakenAssetMetadataCache(new RetryingKrakenPublicApiConnector(
+                new KrakenPublicApiConnectorImpl(krakenApi, objectMapper), krakenRetryingCallExecutor),
+                new KrakenMapEntryToKrakenAssetPairMetadataConverter(),
+                new KrakenMapEntryToKrakenAssetMetadataConverter(),
+                StringUtils.isEmpty(cacheFile) ? null : Paths.get(cacheFile),
+                Duration.ofHours(arguments.getTradingPlatformMetadataCacheTtlInHours()), Clock.systemUTC());
+    }
+
+    @NotNull
+    private static TradingPlatformPrivateApiFacade decorateWithClosedOrdersStore(@NotNull final TradingPlatformPrivateApiFacade privateApiFacade,
+                                                                                 @Nullable final String closedOrdersStoreFile,
+                                                                                 @Nullable final String backfillClosedOrdersSince) {
+        if (StringUtils.isEmpty(closedOrdersStoreFile)) {
+            return privateApiFacade;
+        } else {
+            final var repository = new JsonFileClosedOrderSyncStateRepository(Paths.get(closedOrdersStoreFile),
+                    new ClosedOrderBoToStoredClosedOrderDtoConverter(),
+                    new StoredClosedOrderDtoToClosedOrderBoConverter());
+            // Keeps the backfilled orders although the executions ask for the recent ones only.
+            final LocalDateTime retainedSince = StringUtils.isEmpty(backfillClosedOrdersSince) ? null
+                    : LocalDate.parse(backfillClosedOrdersSince).atStartOfDay();
+            return new IncrementalClosedOrdersPrivateApiFacade(privateApiFacade, repository,
+                    Clock.system(DateTimeUtil.BERLIN_ZONE_ID), retainedSince);
+        }
+    }
+
+    /**
+     * Without a file, the state is reused between runs of a daemon only.
+     */
+    @NotNull
+    private static LastBuyOrderStateRepository initializeLastBuyOrderStateRepository(@Nullable final String lastBuyOrderStateFile) {
+        if (StringUtils.isEmpty(lastBuyOrderStateFile)) {
+            return new InMemoryLastBuyOrderStateRepository();
+        } else {
+            return new JsonFileLastBuyOrderStateRepository(Paths.get(lastBuyOrderStateFile));
+        }
+    }
+
+    /**
+     * Outermost decorator in order to see fills among the closed orders returned by the other decorators.
+     */
+    @NotNull
+    private static TradingPlatformPrivateApiFacade decorateWithBalanceCache(@NotNull final TradingPlatformPrivateApiFacade privateApiFacade,
+                                                                            final int balanceCacheTtlInSeconds) {
+        if (balanceCacheTtlInSeconds <= 0) {
+            return privateApiFacade;
+        } else {
+            return new CachingPrivateApiFacade(privateApiFacade, Clock.systemUTC(),
+                    Duration.ofSeconds(balanceCacheTtlInSeconds));
+        }
+    }
+
+    @NotNull
+    private static TradingPlatformPublicApiFacade decorateWithTickerCache(@NotNull final TradingPlatformPublicApiFacade publicApiFacade,
+                                                                          final int tickerCacheTtlInSeconds) {
+        if (tickerCacheTtlInSeconds <= 0) {
+            return publicApiFacade;
+        } else {
+            return new CachingPublicApiFacade(publicApiFacade, Clock.systemUTC(),
+                    Duration.ofSeconds(tickerCacheTtlInSeconds));
+        }
+    }
+
+    private static void backfillClosedOrders(@NotNull final ImmutableList<TradingPlatformPrivateApiFacade> privateApiFacades,
+                                             @NotNull final CryptoBotArguments arguments,
+                                             @NotNull final ExecutorService exchangeCallExecutor) {
+        final String closedOrdersStoreFile = arguments.getClosedOrdersStoreFile();
+        if (StringUtils.isEmpty(closedOrdersStoreFile)) {
+            throw new IllegalArgumentException("Backfill of closed orders requires the argument closedOrdersStoreFile");
+        }
+        final var closedOrderBoToStoredClosedOrderDtoConverter = new ClosedOrderBoToStoredClosedOrderDtoConverter();
+        final var storedClosedOrderDtoToClosedOrderBoConverter = new StoredClosedOrderDtoToClosedOrderBoConverter();
+        final LocalDateTime from = LocalDate.parse(Objects.requireNonNull(arguments.getBackfillClosedOrdersSince()))
+                .atStartOfDay();
+        privateApiFacades.forEach(privateApiFacade -> new ClosedOrderHistoryBackfill(privateApiFacade,
+                new JsonFileClosedOrderBackfillCheckpointRepository(Paths.get(closedOrdersStoreFile + ".backfill"),
+                        closedOrderBoToStoredClosedOrderDtoConverter, storedClosedOrderDtoToClosedOrderBoConverter),
+                new JsonFileClosedOrderSyncStateRepository(Paths.get(closedOrdersStoreFile),
+                        closedOrderBoToStoredClosedOrderDtoConverter, storedClosedOrderDtoToClosedOrderBoConverter),
+                exchangeCallExecutor, EXCHANGE_CALL_THREAD_COUNT, Clock.system(DateTimeUtil.BERLIN_ZONE_ID))
+                .backfill(from));
     }
 
     @NotNull
     private static KrakenPublicApiFacade initializeKrakenPublicApiFacade(@NotNull final KrakenApi krakenApi,
+                                                                         @NotNull final KrakenRetryingCallExecutor krakenRetryingCallExecutor,
                                                                          @NotNull final ObjectMapper objectMapper,
-                                                                         @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter) {
-        final var krakenPublicApiConnector = new KrakenPublicApiConnectorImpl(krakenApi, objectMapper);
+                                                                         @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter,
+                                                                         @NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier,
+                                                                         @NotNull final Tracer tracer) {
+        final KrakenPublicApiConnector krakenPublicApiConnector = TracingDecorator.decorate(
+                KrakenPublicApiConnector.class, new RetryingKrakenPublicApiConnector(
+                        new KrakenPublicApiConnectorImpl(krakenApi, objectMapper), krakenRetryingCallExecutor),
+                tracer);
         final var krakenMapEntryToTickerBoConverter = new KrakenMapEntryToTickerBoConverter();
+        final var krakenMapEntryToFixedPointTickerBoConverter = new KrakenMapEntryToFixedPointTickerBoConverter();
         return new KrakenPublicApiFacadeImpl(krakenPublicApiConnector, currencyPairBoEnumToKrakenMarketNameConverter,
-                krakenMapEntryToTickerBoConverter);
+                krakenMapEntryToTickerBoConverter, krakenMapEntryToFixedPointTickerBoConverter,
+                krakenAssetMetadataRegistrySupplier);
+    }
+
+    @NotNull
+    private static KrakenPublicApiFacade initializeKrakenStreamingPublicApiFacade(@NotNull final KrakenPublicApiFacade krakenPublicApiFacade,
+                                                                                  @NotNull final ObjectMapper objectMapper,
+                                                                                  @NotNull final CryptoBotArguments arguments,
+                                                                                  @NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
+        final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "kraken-market-data-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var krakenMarketDataConnector = new KrakenWebSocketMarketDataConnectorImpl(KRAKEN_WEBSOCKET_URI,
+                HttpClient.newHttpClient(), objectMapper, reconnectScheduler, KRAKEN_WEBSOCKET_RECONNECT_DELAY,
+                Clock.systemUTC());
+        final var currencyPairBoToKrakenWebSocketPairNameConverter = new CurrencyPairBoToKrakenWebSocketPairNameConverter(
+                krakenAssetMetadataRegistrySupplier);
+        // Subscribed before the first run so that its ticker is already streamed.
+        try {
+            krakenMarketDataConnector.subscribe(ImmutableList.of(
+                    currencyPairBoToKrakenWebSocketPairNameConverter.convert(new CurrencyPairBo(
+                            CurrencyBoEnum.getByLabel(arguments.getQuoteCurrency()),
+                            CurrencyBoEnum.getByLabel(arguments.getBaseCurrency())))));
+        } catch (@NotNull final RuntimeException ex) {
+            logger.warn("Market data of the traded pair could not be subscribed, the first run subscribes it", ex);
+        }
+        krakenMarketDataConnector.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(krakenMarketDataConnector::close,
+                "kraken-market-data-shutdown"));
+        return new KrakenStreamingPublicApiFacadeImpl(krakenMarketDataConnector, krakenPublicApiFacade,
+                currencyPairBoToKrakenWebSocketPairNameConverter, Clock.systemUTC(), KRAKEN_MAX_QUOTE_AGE);
     }
 
     @NotNull
-    private static SlackFacade initializeSlackFacade(@Nullable final String slackWebhookUrl,
-                                                     @NotNull final RestConnectorSupport restConnectorSupport) {
-        final var slackConnector = new SlackConnectorImpl(restConnectorSupport, slackWebhookUrl);
-        return new SlackFacadeImpl(slackConnector);
+    private static AsyncBatchingSlackFacade initializeSlackFacade(@Nullable final String slackWebhookUrl,
+                                                                  @NotNull final RestConnectorSupport restConnectorSupport,
+                                                                  @NotNull final Tracer tracer) {
+        // Messages are sent by a background thread, hence each message is traced on its own.
+        final SlackConnector slackConnector = TracingDecorator.decorate(SlackConnector.class,
+                new SlackConnectorImpl(restConnectorSupport, slackWebhookUrl), tracer);
+        final var slackFacade = new AsyncBatchingSlackFacade(new SlackFacadeImpl(slackConnector),
+                SLACK_QUEUE_CAPACITY, SLACK_COALESCING_WINDOW);
+        slackFacade.start();
+        return slackFacade;
     }
 }
@@ -102,6 +102,55 @@ public class CryptoBotArguments {
             required = true)
     private String tradingPlatformSecret = "";
 
+    @Nullable
+    @Parameter(names = {"--tradingPlatformBaseUrl"},
+            description = "Base URL of the REST API of the trading platform, e.g. http://127.0.0.1:8090 of a local" +
+                    " simulator. Default value is the URL of the trading platform itself.")
+    private String tradingPlatformBaseUrl;
+
+    @Parameter(names = {"--tradingPlatformConnectTimeoutInSeconds"},
+            description = "Maximal time in seconds to establish a connection to the trading platform." +
+                    " Default value is 10.")
+    private int tradingPlatformConnectTimeoutInSeconds = 10;
+
+    @Parameter(names = {"--tradingPlatformReadTimeoutInSeconds"},
+            description = "Maximal time in seconds to wait for a response of the trading platform." +
+                    " Default value is 30.")
+    private int tradingPlatformReadTimeoutInSeconds = 30;
+
+    @Parameter(names = {"--tradingPlatformMaxAttempts"},
+            description = "Maximal count of attempts of a call to the trading platform which failed transiently," +
+                    " e.g. because the trading platform was temporarily unavailable. Default value is 3.")
+    private int tradingPlatformMaxAttempts = 3;
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--tradingPlatformVerificationTier"},
+            description = "Verification tier of the trading platform account which determines the API rate limits." +
+                    " Supported values for kraken: starter, intermediate, pro. Default value is starter.")
+    private String tradingPlatformVerificationTier = "starter";
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--tradingPlatformAccountName"},
+            description = "Name of the trading platform account the metrics are tagged with, e.g. to tell apart" +
+                    " the metrics of several bots. Default value is default.")
+    private String tradingPlatformAccountName = "default";
+
+    @Parameter(names = {"--tradingPlatformMarketDataStream"},
+            description = "Flag without value. Streams prices from the trading platform via WebSocket instead of" +
+                    " retrieving them via REST API at the moment they are needed.")
+    private boolean tradingPlatformMarketDataStream = false;
+
+    @Parameter(names = {"--runDeadlineInSeconds"},
+            description = "Maximal time in seconds to retrieve orders, balance and ticker from the trading platform" +
+                    " within one run. Default value is 120.")
+    private int runDeadlineInSeconds = 120;
+
     /**
      * Initialized to avoid nullability.
      */
@@ -120,11 +169,100 @@ public class CryptoBotArguments {
                     " Default value is 24.")
     private int minOffsetFromOpenDateTimeOfLastBuyOrderInHours = 24;
 
+    @Nullable
+    @Parameter(names = {"--lastBuyOrderStateFile"},
+            description = "JSON file storing the open date-time of the last order. When set, runs within" +
+                    " 'minOffsetFromOpenDateTimeOfLastBuyOrderInHours' from it finish without calling the trading" +
+                    " platform.")
+    private String lastBuyOrderStateFile;
+
+    @Parameter(names = {"--lastBuyOrderStateMaxAgeInHours"},
+            description = "Time in hours after which the stored open date-time of the last order is reconciled with" +
+                    " the orders on the trading platform, e.g. to notice orders placed manually. Default value is 24.")
+    private int lastBuyOrderStateMaxAgeInHours = 24;
+
+    @Nullable
+    @Parameter(names = {"--orderJournalFile"},
+            description = "JSON file storing the orders before they are sent to the trading platform. When set, an" +
+                    " order whose placement failed ambiguously is looked up even after a restart.")
+    private String orderJournalFile;
+
     @Nullable
     @Parameter(names = {"--slackWebhookUrl"},
             description = "Slack Webhook to notify the user about placing of orders, open and closed orders, etc.")
     private String slackWebhookUrl;
 
+    @Nullable
+    @Parameter(names = {"--closedOrdersStoreFile"},
+            description = "JSON file storing the closed orders already retrieved from the trading platform. When set," +
+                    " only the orders closed since the last run are retrieved.")
+    private String closedOrdersStoreFile;
+
+    @Nullable
+    @Parameter(names = {"--tradingPlatformMetadataCacheFile"},
+            description = "JSON file storing metadata of assets and asset pairs retrieved from the trading platform, e.g." +
+                    " decimals of prices and minimum order volumes. When set, the metadata is retrieved again only" +
+                    " after 'tradingPlatformMetadataCacheTtlInHours'.")
+    private String tradingPlatformMetadataCacheFile;
+
+    @Parameter(names = {"--tradingPlatformMetadataCacheTtlInHours"},
+            description = "Time in hours for which the metadata stored in 'tradingPlatformMetadataCacheFile' is used" +
+                    " without retrieving it again.")
+    private int tradingPlatformMetadataCacheTtlInHours = 24;
+
+    @Parameter(names = {"--tradingPlatformTickerCacheTtlInSeconds"},
+            description = "Time in seconds for which a ticker retrieved from the trading platform is reused. 0 disables" +
+                    " the cache. Default value is 10.")
+    private int tradingPlatformTickerCacheTtlInSeconds = 10;
+
+    @Parameter(names = {"--tradingPlatformBalanceCacheTtlInSeconds"},
+            description = "Time in seconds for which balances retrieved from the trading platform are reused unless an" +
+                    " order is placed or filled meanwhile. 0 disables the cache. Default value is 60.")
+    private int tradingPlatformBalanceCacheTtlInSeconds = 60;
+
+    @Nullable
+    @Parameter(names = {"--portfolioReportingCurrency"},
+            description = "Label of a currency, e.g. EUR. When set, every execution reports the value of all assets" +
+                    " held on the trading platform in this currency.")
+    private String portfolioReportingCurrency;
+
+    @Nullable
+    @Parameter(names = {"--backfillClosedOrdersSince"},
+            description = "Date in the format yyyy-MM-dd. Before the first execution, all orders closed since then are" +
+                    " retrieved and stored, see 'closedOrdersStoreFile'. An interrupted backfill is resumed.")
+    private String backfillClosedOrdersSince;
+
+    @Parameter(names = {"--daemon"},
+            description = "Keeps the bot running and executes it periodically, see 'daemonIntervalInMinutes'." +
+                    " Without this flag, the bot is executed once and terminates.")
+    private boolean daemon = false;
+
+    @Parameter(names = {"--daemonIntervalInMinutes"},
+            description = "Interval in minutes between the end of one execution and the start of the next one." +
+                    " Relevant only in the daemon mode. Default value is 60.")
+    private int daemonIntervalInMinutes = 60;
+
+    @Parameter(names = {"--metricsPort"},
+            description = "Port on localhost serving the metrics of the calls to the trading platform in JSON at" +
+                    " /metrics. Relevant only in the daemon mode. Default value 0 disables it.")
+    private int metricsPort = 0;
+
+    @Nullable
+    @Parameter(names = {"--metricsFile"},
+            description = "JSON file the metrics of the calls to the trading platform are written to at the end of" +
+                    " the execution, resp. when the daemon is stopped.")
+    private String metricsFile;
+
+    @Nullable
+    @Parameter(names = {"--traceFile"},
+            description = "File the traces of runs are appended to in the OTLP JSON format of OpenTelemetry, one" +
+                    " line per trace. Not set by default, i.e. runs are not traced.")
+    private String traceFile;
+
+    @Parameter(names = {"--traceFileMaxSizeInMegabytes"},
+            description = "Size in megabytes at which the trace file is rolled. Default value is 10.")
+    private int traceFileMaxSizeInMegabytes = 10;
+
     @NotNull
     public String getBaseCurrency() {
         return baseCurrency;
@@ -188,6 +326,73 @@ public class CryptoBotArguments {
         this.tradingPlatformSecret = tradingPlatformSecret;
     }
 
+    @Nullable
+    public String getTradingPlatformBaseUrl() {
+        return tradingPlatformBaseUrl;
+    }
+
+    public void setTradingPlatformBaseUrl(@Nullable final String tradingPlatformBaseUrl) {
+        this.tradingPlatformBaseUrl = tradingPlatformBaseUrl;
+    }
+
+    public int getTradingPlatformConnectTimeoutInSeconds() {
+        return tradingPlatformConnectTimeoutInSeconds;
+    }
+
+    public void setTradingPlatformConnectTimeoutInSeconds(final int tradingPlatformConnectTimeoutInSeconds) {
+        this.tradingPlatformConnectTimeoutInSeconds = tradingPlatformConnectTimeoutInSeconds;
+    }
+
+    public int getTradingPlatformReadTimeoutInSeconds() {
+        return tradingPlatformReadTimeoutInSeconds;
+    }
+
+    public void setTradingPlatformReadTimeoutInSeconds(final int tradingPlatformReadTimeoutInSeconds) {
+        this.tradingPlatformReadTimeoutInSeconds = tradingPlatformReadTimeoutInSeconds;
+    }
+
+    public int getTradingPlatformMaxAttempts() {
+        return tradingPlatformMaxAttempts;
+    }
+
+    public void setTradingPlatformMaxAttempts(final int tradingPlatformMaxAttempts) {
+        this.tradingPlatformMaxAttempts = tradingPlatformMaxAttempts;
+    }
+
+    @NotNull
+    public String getTradingPlatformVerificationTier() {
+        return tradingPlatformVerificationTier;
+    }
+
+    public void setTradingPlatformVerificationTier(@NotNull final String tradingPlatformVerificationTier) {
+        this.tradingPlatformVerificationTier = tradingPlatformVerificationTier;
+    }
+
+    @NotNull
+    public String getTradingPlatformAccountName() {
+        return tradingPlatformAccountName;
+    }
+
+    public void setTradingPlatformAccountName(@NotNull final String tradingPlatformAccountName) {
+        this.tradingPlatformAccountName = tradingPlatformAccountName;
+    }
+
+    public boolean isTradingPlatformMarketDataStream() {
+        return tradingPlatformMarketDataStream;
+    }
+
+    public void setTradingPlatformMarketDataStream(final boolean tradingPlatformMarketDataStream) {
+        this.tradingPlatformMarketDataStream = tradingPlatformMarketDataStream;
+    }
+
+    public int getRunDeadlineInSeconds() {
+        return runDeadlineInSeconds;
+    }
+
+    public void setRunDeadlineInSeconds(final int runDeadlineInSeconds) {
+        this.runDeadlineInSeconds = runDeadlineInSeconds;
+    }
+
     @NotNull
     public BigDecimal getOffsetRatioOfLimitPriceToBidPriceInDecimal() {
         return offsetRatioOfLimitPriceToBidPriceInDecimal;
@@ -205,6 +410,32 @@ public class CryptoBotArguments {
         this.minOffsetFromOpenDateTimeOfLastBuyOrderInHours = minOffsetFromOpenDateTimeOfLastBuyOrderInHours;
     }
 
+    @Nullable
+    public String getLastBuyOrderStateFile() {
+        return lastBuyOrderStateFile;
+    }
+
+    public void setLastBuyOrderStateFile(@Nullable final String lastBuyOrderStateFile) {
+        this.lastBuyOrderStateFile = lastBuyOrderStateFile;
+    }
+
+    public int getLastBuyOrderStateMaxAgeInHours() {
+        return lastBuyOrderStateMaxAgeInHours;
+    }
+
+    public void setLastBuyOrderStateMaxAgeInHours(final int lastBuyOrderStateMaxAgeInHours) {
+        this.lastBuyOrderStateMaxAgeInHours = lastBuyOrderStateMaxAgeInHours;
+    }
+
+    @Nullable
+    public String getOrderJournalFile() {
+        return orderJournalFile;
+    }
+
+    public void setOrderJournalFile(@Nullable final String orderJournalFile) {
+        this.orderJournalFile = orderJournalFile;
+    }
+
     @Nullable
     public String getSlackWebhookUrl() {
         return slackWebhookUrl;
@@ -213,4 +444,114 @@ public class CryptoBotArguments {
     public void setSlackWebhookUrl(@Nullable final String slackWebhookUrl) {
         this.slackWebhookUrl = slackWebhookUrl;
     }
+
+    @Nullable
+    public String getClosedOrdersStoreFile() {
+        return closedOrdersStoreFile;
+    }
+
+    public void setClosedOrdersStoreFile(@Nullable final String closedOrdersStoreFile) {
+        this.closedOrdersStoreFile = closedOrdersStoreFile;
+    }
+
+    @Nullable
+    public String getTradingPlatformMetadataCacheFile() {
+        return tradingPlatformMetadataCacheFile;
+    }
+
+    public void setTradingPlatformMetadataCacheFile(@Nullable final String tradingPlatformMetadataCacheFile) {
+        this.tradingPlatformMetadataCacheFile = tradingPlatformMetadataCacheFile;
+    }
+
+    public int getTradingPlatformMetadataCacheTtlInHours() {
+        return tradingPlatformMetadataCacheTtlInHours;
+    }
+
+    public void setTradingPlatformMetadataCacheTtlInHours(final int tradingPlatformMetadataCacheTtlInHours) {
+        this.tradingPlatformMetadataCacheTtlInHours = tradingPlatformMetadataCacheTtlInHours;
+    }
+
+    public int getTradingPlatformTickerCacheTtlInSeconds() {
+        return tradingPlatformTickerCacheTtlInSeconds;
+    }
+
+    public void setTradingPlatformTickerCacheTtlInSeconds(final int tradingPlatformTickerCacheTtlInSeconds) {
+        this.tradingPlatformTickerCacheTtlInSeconds = tradingPlatformTickerCacheTtlInSeconds;
+    }
+
+    public int getTradingPlatformBalanceCacheTtlInSeconds() {
+        return tradingPlatformBalanceCacheTtlInSeconds;
+    }
+
+    public void setTradingPlatformBalanceCacheTtlInSeconds(final int tradingPlatformBalanceCacheTtlInSeconds) {
+        this.tradingPlatformBalanceCacheTtlInSeconds = tradingPlatformBalanceCacheTtlInSeconds;
+    }
+
+    @Nullable
+    public String getPortfolioReportingCurrency() {
+        return portfolioReportingCurrency;
+    }
+
+    public void setPortfolioReportingCurrency(@Nullable final String portfolioReportingCurrency) {
+        this.portfolioReportingCurrency = portfolioReportingCurrency;
+    }
+
+    @Nullable
+    public String getBackfillClosedOrdersSince() {
+        return backfillClosedOrdersSince;
+    }
+
+    public void setBackfillClosedOrdersSince(@Nullable final String backfillClosedOrdersSince) {
+        this.backfillClosedOrdersSince = backfillClosedOrdersSince;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    public void setDaemon(final boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    public int getDaemonIntervalInMinutes() {
+        return daemonIntervalInMinutes;
+    }
+
+    public void setDaemonIntervalInMinutes(final int daemonIntervalInMinutes) {
+        this.daemonIntervalInMinutes = daemonIntervalInMinutes;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public void setMetricsPort(final int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+
+    @Nullable
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(@Nullable final String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    @Nullable
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    public void setTraceFile(@Nullable final String traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    public int getTraceFileMaxSizeInMegabytes() {
+        return traceFileMaxSizeInMegabytes;
+    }
+
+    public void setTraceFileMaxSizeInMegabytes(final int traceFileMaxSizeInMegabytes) {
+        this.traceFileMaxSizeInMegabytes = traceFileMaxSizeInMegabytes;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.application;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the bot running in a single JVM and triggers a bot run periodically, i.e. the wired object graph, HTTP
+ * clients and warmed-up code are reused across runs instead of starting a new JVM per run.
+ */
+public class CryptoBotDaemon {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(CryptoBotDaemon.class);
+    @NotNull
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+
+    @NotNull
+    private final Runnable botRun;
+    @NotNull
+    private final Duration interval;
+    @NotNull
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    public CryptoBotDaemon(@NotNull final Runnable botRun,
+                           @NotNull final Duration interval) {
+        this(botRun, interval, Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "crypto-bot-daemon")));
+    }
+
+    CryptoBotDaemon(@NotNull final Runnable botRun,
+                    @NotNull final Duration interval,
+                    @NotNull final ScheduledExecutorService scheduledExecutorService) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive [" + interval + "]");
+        }
+        this.botRun = botRun;
+        this.interval = interval;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    /**
+     * Triggers the first run immediately. Each next run starts the given interval after the previous one
+     * has finished, hence runs never overlap.
+     */
+    public void start() {
+        logger.info("Starting daemon with the interval [{}] between runs", interval);
+        scheduledExecutorService.scheduleWithFixedDelay(this::runSafely, 0, interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets a running run finish and cancels all further runs.
+     */
+    public void stop() {
+        logger.info("Stopping daemon");
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                scheduledExecutorService.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            scheduledExecutorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * An exception escaping a scheduled task would suppress all its subsequent runs, hence it is caught here.
+     */
+    private void runSafely() {
+        try {
+            botRun.run();
+        } catch (RuntimeException ex) {
+            logger.error("Run of the bot failed", ex);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.function.Supplier;
+
+/**
+ * Serves the current metrics in JSON at GET /metrics. Bound to the loopback address only, hence the metrics are not
+ * exposed outside the machine.
+ */
+public class MetricsHttpServer {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+    @NotNull
+    private static final String PATH = "/metrics";
+    private static final int STOP_DELAY_IN_SECONDS = 1;
+
+    @NotNull
+    private final HttpServer httpServer;
+
+    /**
+     * @param port 0 to bind to any free port, see {@link #getPort()}
+     */
+    public MetricsHttpServer(final int port,
+                             @NotNull final Supplier<?> metricsSupplier,
+                             @NotNull final ObjectMapper objectMapper) {
+        try {
+            this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (@NotNull final IOException ex) {
+            throw new UncheckedIOException("Binding of the metrics endpoint to the port " + port + " failed", ex);
+        }
+        httpServer.createContext(PATH, exchange -> handle(exchange, metricsSupplier, objectMapper));
+    }
+
+    public void start() {
+        httpServer.start();
+        logger.info("Serving metrics at http://localhost:" + getPort() + PATH);
+    }
+
+    public void stop() {
+        httpServer.stop(STOP_DELAY_IN_SECONDS);
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private static void handle(@NotNull final HttpExchange exchange,
+                               @NotNull final Supplier<?> metricsSupplier,
+                               @NotNull final ObjectMapper objectMapper) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] body = objectMapper.writeValueAsBytes(metricsSupplier.get());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.application;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class CryptoBotDaemonUTest {
+
+    @NotNull
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    public void shutdownExecutor() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void test_start_when_runFails_then_nextRunsAreStillExecuted() throws Exception {
+        // Given
+        final var runCount = new AtomicInteger();
+        final var threeRunsExecuted = new CountDownLatch(3);
+        final Runnable failingRun = () -> {
+            runCount.incrementAndGet();
+            threeRunsExecuted.countDown();
+            throw new IllegalStateException("EService:Unavailable");
+        };
+        final var daemon = new CryptoBotDaemon(failingRun, Duration.ofMillis(1), scheduledExecutorService);
+
+        // When
+        daemon.start();
+
+        // Then
+        then(threeRunsExecuted.await(10, TimeUnit.SECONDS)).isTrue();
+        then(runCount.get()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void test_stop_when_started_then_noFurtherRuns() throws Exception {
+        // Given
+        final var runCount = new AtomicInteger();
+        final var firstRunExecuted = new CountDownLatch(1);
+        final Runnable run = () -> {
+            runCount.incrementAndGet();
+            firstRunExecuted.countDown();
+        };
+        final var daemon = new CryptoBotDaemon(run, Duration.ofHours(1), scheduledExecutorService);
+        daemon.start();
+        then(firstRunExecuted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        daemon.stop();
+
+        // Then
+        then(scheduledExecutorService.isTerminated()).isTrue();
+        then(runCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_constructor_when_zeroInterval_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(
+                () -> new CryptoBotDaemon(() -> {
+                }, Duration.ZERO, scheduledExecutorService));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Interval must be positive [PT0S]");
+    }
+}
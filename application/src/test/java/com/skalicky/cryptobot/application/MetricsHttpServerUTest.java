@@ -0,0 +1,81 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class MetricsHttpServerUTest {
+
+    @NotNull
+    private final MetricsHttpServer server = new MetricsHttpServer(0, () -> Map.of("account", "default"),
+            new ObjectMapper());
+    @NotNull
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void test_get_when_started_then_metricsAsJson() throws Exception {
+        // Given
+        server.start();
+
+        // When
+        final HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(metricsUri()).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        then(response.statusCode()).isEqualTo(200);
+        then(response.headers().firstValue("Content-Type")).hasValue("application/json");
+        then(response.body()).isEqualTo("{\"account\":\"default\"}");
+    }
+
+    @Test
+    public void test_post_when_started_then_methodNotAllowed() throws Exception {
+        // Given
+        server.start();
+
+        // When
+        final HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(metricsUri())
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        then(response.statusCode()).isEqualTo(405);
+        then(response.headers().firstValue("Allow")).hasValue("GET");
+    }
+
+    @NotNull
+    private URI metricsUri() {
+        return URI.create("http://127.0.0.1:" + server.getPort() + "/metrics");
+    }
+}
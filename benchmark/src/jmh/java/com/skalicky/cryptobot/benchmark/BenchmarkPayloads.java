@@ -0,0 +1,58 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Recorded responses of Kraken stored in src/jmh/resources/payloads.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    @NotNull
+    public static byte[] read(@NotNull final String payloadFileName) {
+        try (InputStream inputStream = BenchmarkPayloads.class.getResourceAsStream("/payloads/" + payloadFileName)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("No payload " + payloadFileName);
+            }
+            return inputStream.readAllBytes();
+        } catch (@NotNull final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Configured in the same way as the object mapper of the application.
+     */
+    @NotNull
+    public static ObjectMapper createObjectMapper() {
+        final var objectMapper = new ObjectMapper();
+        objectMapper.enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+        return objectMapper;
+    }
+}
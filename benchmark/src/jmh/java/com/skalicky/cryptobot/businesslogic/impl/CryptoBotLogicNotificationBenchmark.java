@@ -0,0 +1,95 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderStateBoEnum;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBoBuilder.aOpenOrderBo;
+
+/**
+ * Measures the formatting of the notifications about open and closed orders. The notifications are neither logged,
+ * since the log level is WARN, nor sent to Slack.
+ */
+@State(Scope.Thread)
+public class CryptoBotLogicNotificationBenchmark {
+
+    @NotNull
+    private static final String TRADING_PLATFORM_NAME = "kraken";
+    @NotNull
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 3, 1, 0, 0);
+
+    @NotNull
+    private CryptoBotLogic cryptoBotLogic;
+    @NotNull
+    private ImmutableList<OpenOrderBo> openOrders;
+    @NotNull
+    private ImmutableList<ClosedOrderBo> closedOrders;
+    @Nullable
+    private String lastMessage;
+
+    @Setup
+    public void setUp() {
+        cryptoBotLogic = new CryptoBotLogic(ImmutableList.of(), ImmutableList.of(), text -> lastMessage = text);
+        openOrders = IntStream.range(0, 5)
+                .mapToObj(i -> aOpenOrderBo()
+                        .withOrderId("P0000" + i)
+                        .withDesiredPrice(BigDecimal.valueOf(7230 - i * 10))
+                        .withOpenDateTime(FROM.plusHours(i))
+                        .withExpirationDateTime(FROM.plusHours(36 + i))
+                        .withStatus(OrderStateBoEnum.NEW)
+                        .build())
+                .collect(ImmutableList.toImmutableList());
+        closedOrders = IntStream.range(0, 50)
+                .mapToObj(i -> aClosedOrderBo()
+                        .withOrderId("O000" + i)
+                        .withOpenDateTime(FROM.plusDays(i))
+                        .withCloseDateTime(FROM.plusDays(i).plusMinutes(15))
+                        .withTradeIds(ImmutableList.of("T000" + i))
+                        .build())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @Nullable
+    @Benchmark
+    public String reportOpenOrders() {
+        cryptoBotLogic.reportOpenOrders(openOrders, TRADING_PLATFORM_NAME);
+        return lastMessage;
+    }
+
+    @Nullable
+    @Benchmark
+    public String reportClosedOrders() {
+        cryptoBotLogic.reportClosedOrders(closedOrders, FROM, TRADING_PLATFORM_NAME);
+        return lastMessage;
+    }
+}
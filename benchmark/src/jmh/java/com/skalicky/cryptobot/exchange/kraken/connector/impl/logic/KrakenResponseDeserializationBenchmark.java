@@ -0,0 +1,89 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skalicky.cryptobot.benchmark.BenchmarkPayloads;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Measures the deserialization of recorded responses the same way as the connectors do it.
+ */
+@State(Scope.Benchmark)
+public class KrakenResponseDeserializationBenchmark {
+
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<KrakenClosedOrderResultDto>> closedOrdersResponseTypeReference =
+            new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<KrakenOpenOrderResultDto>> openOrdersResponseTypeReference =
+            new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, Map<String, Object>>>> tickerResponseTypeReference =
+            new TypeReference<>() {
+            };
+
+    @NotNull
+    private ObjectMapper objectMapper;
+    @NotNull
+    private byte[] closedOrdersPayload;
+    @NotNull
+    private byte[] openOrdersPayload;
+    @NotNull
+    private byte[] tickerPayload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkPayloads.createObjectMapper();
+        closedOrdersPayload = BenchmarkPayloads.read("closed-orders.json");
+        openOrdersPayload = BenchmarkPayloads.read("open-orders.json");
+        tickerPayload = BenchmarkPayloads.read("ticker.json");
+    }
+
+    @NotNull
+    @Benchmark
+    public KrakenResponseDto<KrakenClosedOrderResultDto> readClosedOrders() throws IOException {
+        return objectMapper.readValue(closedOrdersPayload, closedOrdersResponseTypeReference);
+    }
+
+    @NotNull
+    @Benchmark
+    public KrakenResponseDto<KrakenOpenOrderResultDto> readOpenOrders() throws IOException {
+        return objectMapper.readValue(openOrdersPayload, openOrdersResponseTypeReference);
+    }
+
+    @NotNull
+    @Benchmark
+    public KrakenResponseDto<Map<String, Map<String, Object>>> readTicker() throws IOException {
+        return objectMapper.readValue(tickerPayload, tickerResponseTypeReference);
+    }
+}
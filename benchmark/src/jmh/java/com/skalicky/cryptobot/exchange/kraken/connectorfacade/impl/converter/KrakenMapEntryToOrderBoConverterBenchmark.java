@@ -0,0 +1,107 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.benchmark.BenchmarkPayloads;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.converter.EpochSecondBigDecimalToLocalDateTimeConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
+
+/**
+ * Measures the conversion of all orders of the recorded responses to BOs. The responses are deserialized beforehand.
+ */
+@State(Scope.Benchmark)
+public class KrakenMapEntryToOrderBoConverterBenchmark {
+
+    @NotNull
+    private KrakenMapEntryToClosedOrderBoConverter closedOrderConverter;
+    @NotNull
+    private KrakenMapEntryToOpenOrderBoConverter openOrderConverter;
+    @NotNull
+    private ImmutableList<Map.Entry<String, KrakenClosedOrderDto>> closedOrderEntries;
+    @NotNull
+    private ImmutableList<Map.Entry<String, KrakenOpenOrderDto>> openOrderEntries;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Supplier<KrakenAssetMetadataRegistry> assetMetadataRegistrySupplier = aKrakenAssetMetadataRegistry()
+                .buildSupplier();
+        closedOrderConverter = new KrakenMapEntryToClosedOrderBoConverter(
+                new KrakenOrderTypeToOrderTypeBoEnumConverter(),
+                new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
+                new KrakenMarketNameToCurrencyPairBoEnumConverter(assetMetadataRegistrySupplier),
+                new EpochSecondBigDecimalToLocalDateTimeConverter(),
+                new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter());
+        openOrderConverter = new KrakenMapEntryToOpenOrderBoConverter(
+                new KrakenOrderTypeToOrderTypeBoEnumConverter(),
+                new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
+                new KrakenMarketNameToCurrencyPairBoEnumConverter(assetMetadataRegistrySupplier),
+                new EpochSecondBigDecimalToLocalDateTimeConverter(),
+                new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter());
+
+        final ObjectMapper objectMapper = BenchmarkPayloads.createObjectMapper();
+        final KrakenClosedOrderResultDto closedOrderResult = Objects.requireNonNull(objectMapper.readValue(
+                BenchmarkPayloads.read("closed-orders.json"),
+                new TypeReference<KrakenResponseDto<KrakenClosedOrderResultDto>>() {
+                }).getResult());
+        closedOrderEntries = ImmutableList.copyOf(Objects.requireNonNull(closedOrderResult.getClosed()).entrySet());
+        final KrakenOpenOrderResultDto openOrderResult = Objects.requireNonNull(objectMapper.readValue(
+                BenchmarkPayloads.read("open-orders.json"),
+                new TypeReference<KrakenResponseDto<KrakenOpenOrderResultDto>>() {
+                }).getResult());
+        openOrderEntries = ImmutableList.copyOf(Objects.requireNonNull(openOrderResult.getOpen()).entrySet());
+    }
+
+    @NotNull
+    @Benchmark
+    public ImmutableList<ClosedOrderBo> convertClosedOrders() {
+        return closedOrderEntries.stream()
+                .map(closedOrderConverter::convert)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @NotNull
+    @Benchmark
+    public ImmutableList<OpenOrderBo> convertOpenOrders() {
+        return openOrderEntries.stream()
+                .map(openOrderConverter::convert)
+                .collect(ImmutableList.toImmutableList());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Measures the preparation of a private request, i.e. the nonce, the POST data and mainly the signature. The transport
+ * answers right away with a short response, hence no network is involved.
+ */
+@State(Scope.Thread)
+public class KrakenApiQueryPrivateBenchmark {
+
+    @NotNull
+    private static final byte[] RESPONSE = "{\"error\":[],\"result\":{\"ZEUR\":\"100.7896\"}}"
+            .getBytes(StandardCharsets.UTF_8);
+    @NotNull
+    private static final Map<String, String> ADD_ORDER_PARAMETERS = Map.of(
+            "pair", "XBTEUR",
+            "type", "buy",
+            "ordertype", "limit",
+            "price", "7230.4",
+            "volume", "0.012345",
+            "oflags", "fciq",
+            "expiretm", "+129600",
+            "userref", "12345");
+
+    @NotNull
+    private KrakenApi krakenApi;
+
+    @Setup
+    public void setUp() {
+        krakenApi = new KrakenApi((url, headers, postData) -> new ByteArrayInputStream(RESPONSE));
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+    }
+
+    @NotNull
+    @Benchmark
+    public String queryPrivateWithoutParameters() throws Exception {
+        return krakenApi.queryPrivate(KrakenApi.Method.BALANCE, null, Map.of());
+    }
+
+    @NotNull
+    @Benchmark
+    public String queryPrivateAddOrder() throws Exception {
+        return krakenApi.queryPrivate(KrakenApi.Method.ADD_ORDER, null, ADD_ORDER_PARAMETERS);
+    }
+}
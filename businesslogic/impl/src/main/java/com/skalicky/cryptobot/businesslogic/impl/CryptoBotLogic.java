@@ -22,6 +22,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.skalicky.cryptobot.businesslogic.api.model.VolumeMultiplierBo;
 import com.skalicky.cryptobot.businesslogic.impl.constants.CryptoBotBusinessLogicConstants;
+import com.skalicky.cryptobot.businesslogic.impl.jfr.OrchestrationPhaseEnum;
+import com.skalicky.cryptobot.businesslogic.impl.jfr.OrchestrationPhaseEvent;
 import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
@@ -90,7 +92,7 @@ public class CryptoBotLogic {
         }
         final String message = messageBuilder.toString();
         logger.info(message);
-        slackFacade.sendMessage(message);
+        sendSlackMessage(message, tradingPlatformName);
     }
 
     @NotNull
@@ -122,37 +124,66 @@ public class CryptoBotLogic {
         }
         final String message = messageBuilder.toString();
         logger.info(message);
-        slackFacade.sendMessage(message);
+        sendSlackMessage(message, tradingPlatformName);
     }
 
-    void placeBuyOrderIfEnoughAvailable(@NotNull final String tradingPlatformName,
-                                        @NotNull final BigDecimal volumeInBaseCurrencyToInvestPerRun,
-                                        @NotNull final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice,
-                                        @NotNull final String baseCurrencyLabel,
-                                        @NotNull final String quoteCurrencyLabel,
-                                        @NotNull final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal) {
-        final TradingPlatformPrivateApiFacade privateApiFacade = privateApiFacadesByPlatformNames.get(
-                tradingPlatformName);
-        if (privateApiFacade == null) {
+    @NotNull
+    BigDecimal retrieveBaseCurrencyBalance(@NotNull final String tradingPlatformName,
+                                           @NotNull final String baseCurrencyLabel) {
+        final TradingPlatformPrivateApiFacade facade = privateApiFacadesByPlatformNames.get(tradingPlatformName);
+        if (facade == null) {
             throw new IllegalArgumentException("No private API facade for the trading platform \""
                     + tradingPlatformName + "\"");
         }
-        final TradingPlatformPublicApiFacade publicApiFacade = publicApiFacadesByPlatformNames.get(tradingPlatformName);
-        if (publicApiFacade == null) {
+
+        final CurrencyBoEnum baseCurrency = CurrencyBoEnum.getByLabel(baseCurrencyLabel);
+        final BigDecimal baseCurrencyAmount = facade.getAccountBalance().get(baseCurrency);
+        return baseCurrencyAmount == null ? BigDecimal.ZERO : baseCurrencyAmount;
+    }
+
+    @NotNull
+    TickerBo retrieveTicker(@NotNull final String tradingPlatformName,
+                            @NotNull final String baseCurrencyLabel,
+                            @NotNull final String quoteCurrencyLabel) {
+        final TradingPlatformPublicApiFacade facade = publicApiFacadesByPlatformNames.get(tradingPlatformName);
+        if (facade == null) {
             throw new IllegalArgumentException("No public API facade for the trading platform \""
                     + tradingPlatformName + "\"");
         }
-        final var tickerMessage = "Going to retrieve a ticker for currencies quote " + quoteCurrencyLabel
-                + " and base " + baseCurrencyLabel + " on " + tradingPlatformName + ".";
-        logger.info(tickerMessage);
-        slackFacade.sendMessage(tickerMessage);
 
-        final CurrencyBoEnum baseCurrency = CurrencyBoEnum.getByLabel(baseCurrencyLabel);
-        final BigDecimal baseCurrencyAmount = privateApiFacade.getAccountBalance().get(baseCurrency);
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.getByLabel(quoteCurrencyLabel),
+                CurrencyBoEnum.getByLabel(baseCurrencyLabel));
+        return facade.getTicker(currencyPair);
+    }
 
-        final CurrencyBoEnum quoteCurrency = CurrencyBoEnum.getByLabel(quoteCurrencyLabel);
-        final var currencyPair = new CurrencyPairBo(quoteCurrency, baseCurrency);
-        final TickerBo ticker = publicApiFacade.getTicker(currencyPair);
+    /**
+     * Decides about a purchase based on the already retrieved balance of the base currency and ticker, see
+     * {@link #retrieveBaseCurrencyBalance(String, String)} and {@link #retrieveTicker(String, String, String)}.
+     *
+     * @return true if a BUY order has been placed
+     */
+    boolean placeBuyOrderIfEnoughAvailable(@NotNull final String tradingPlatformName,
+                                           @NotNull final BigDecimal volumeInBaseCurrencyToInvestPerRun,
+                                           @NotNull final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice,
+                                           @NotNull final String baseCurrencyLabel,
+                                           @NotNull final String quoteCurrencyLabel,
+                                           @NotNull final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal,
+                                           @NotNull final BigDecimal baseCurrencyAmount,
+                                           @NotNull final TickerBo ticker) {
+        final TradingPlatformPrivateApiFacade privateApiFacade = privateApiFacadesByPlatformNames.get(
+                tradingPlatformName);
+        if (privateApiFacade == null) {
+            throw new IllegalArgumentException("No private API facade for the trading platform \""
+                    + tradingPlatformName + "\"");
+        }
+        final var tickerMessage = "Retrieved a ticker for currencies quote " + quoteCurrencyLabel
+                + " and base " + baseCurrencyLabel + " on " + tradingPlatformName + ": bid " + ticker.getBidPrice()
+                + ", ask " + ticker.getAskPrice() + ".";
+        logger.info(tickerMessage);
+        sendSlackMessage(tickerMessage, tradingPlatformName);
+
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.getByLabel(quoteCurrencyLabel),
+                CurrencyBoEnum.getByLabel(baseCurrencyLabel));
 
         final BigDecimal price = ticker.getBidPrice().multiply(BigDecimal.ONE.subtract(
                 offsetRatioOfLimitPriceToBidPriceInDecimal));
@@ -185,17 +216,24 @@ public class CryptoBotLogic {
                     + ". Limit price of 1 " + quoteCurrencyLabel + " = " + price + " " + baseCurrencyLabel
                     + ". Order expiration is in " + orderExpirationInSecondsFromNow + " seconds from now.";
             logger.info(orderPlacedMessage);
-            slackFacade.sendMessage(orderPlacedMessage);
-
+            sendSlackMessage(orderPlacedMessage, tradingPlatformName);
+            return true;
         } else {
             final var message = "Too little base currency [" + baseCurrencyAmount + " "
                     + baseCurrencyLabel + "]. Needed volume to invest per run is "
                     + adjustedVolumeInBaseCurrency + " " + baseCurrencyLabel;
             logger.warn(message);
-            slackFacade.sendMessage(message);
+            sendSlackMessage(message, tradingPlatformName);
+            return false;
         }
     }
 
+    private void sendSlackMessage(@NotNull final String message,
+                                  @NotNull final String tradingPlatformName) {
+        OrchestrationPhaseEvent.record(OrchestrationPhaseEnum.SLACK_NOTIFICATION, tradingPlatformName,
+                () -> slackFacade.sendMessage(message));
+    }
+
     @NotNull
     private BigDecimal selectVolumeMultiplier(@NotNull final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice,
                                               @NotNull final BigDecimal price) {
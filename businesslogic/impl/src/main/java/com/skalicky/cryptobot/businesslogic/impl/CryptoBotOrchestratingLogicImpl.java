@@ -23,18 +23,44 @@ import com.skalicky.cryptobot.businesslogic.api.CryptoBotOrchestratingLogic;
 import com.skalicky.cryptobot.businesslogic.api.model.VolumeMultiplierBo;
 import com.skalicky.cryptobot.businesslogic.impl.constants.CryptoBotBusinessLogicConstants;
 import com.skalicky.cryptobot.businesslogic.impl.datetime.LocalDateTimeProvider;
+import com.skalicky.cryptobot.businesslogic.impl.jfr.OrchestrationPhaseEnum;
+import com.skalicky.cryptobot.businesslogic.impl.jfr.OrchestrationPhaseEvent;
+import com.skalicky.cryptobot.businesslogic.impl.store.LastBuyOrderState;
+import com.skalicky.cryptobot.businesslogic.impl.store.LastBuyOrderStateRepository;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import com.skalicky.cryptobot.shared.tracing.Span;
+import com.skalicky.cryptobot.shared.tracing.SpanKindEnum;
+import com.skalicky.cryptobot.shared.tracing.Tracer;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+/**
+ * Retrieves closed orders, open orders, the balance and the ticker concurrently on the given executor since they do
+ * not depend on each other. The run fails if these retrievals do not finish within the given deadline.
+ * <p>
+ * The open date-time of the last order is stored locally. As long as the stored one is not older than the given
+ * maximal age and the minimal offset from it is not satisfied yet, the run finishes without calling the trading
+ * platform at all. Otherwise the stored one is reconciled with the orders on the trading platform.
+ * <p>
+ * Each phase of a run is recorded as an {@link OrchestrationPhaseEvent} and traced as a span within the span of the
+ * run. The span of the run is the root of a trace unless a span is current when the run starts.
+ */
 public class CryptoBotOrchestratingLogicImpl implements CryptoBotOrchestratingLogic {
 
     @NotNull
@@ -44,11 +70,37 @@ public class CryptoBotOrchestratingLogicImpl implements CryptoBotOrchestratingLo
     private final CryptoBotLogic cryptoBotLogic;
     @NotNull
     private final LocalDateTimeProvider localDateTimeProvider;
+    @NotNull
+    private final Executor executor;
+    @NotNull
+    private final Duration runDeadline;
+    @NotNull
+    private final LastBuyOrderStateRepository lastBuyOrderStateRepository;
+    /**
+     * Covers orders placed outside of this bot, e.g. manually.
+     */
+    @NotNull
+    private final Duration lastBuyOrderStateMaxAge;
+    @NotNull
+    private final Tracer tracer;
 
     public CryptoBotOrchestratingLogicImpl(@NotNull final CryptoBotLogic cryptoBotLogic,
-                                           @NotNull final LocalDateTimeProvider localDateTimeProvider) {
+                                           @NotNull final LocalDateTimeProvider localDateTimeProvider,
+                                           @NotNull final Executor executor,
+                                           @NotNull final Duration runDeadline,
+                                           @NotNull final LastBuyOrderStateRepository lastBuyOrderStateRepository,
+                                           @NotNull final Duration lastBuyOrderStateMaxAge,
+                                           @NotNull final Tracer tracer) {
+        if (runDeadline.isNegative() || runDeadline.isZero()) {
+            throw new IllegalArgumentException("Run deadline must be positive [" + runDeadline + "]");
+        }
         this.cryptoBotLogic = cryptoBotLogic;
         this.localDateTimeProvider = localDateTimeProvider;
+        this.executor = tracer.wrap(executor);
+        this.runDeadline = runDeadline;
+        this.lastBuyOrderStateRepository = lastBuyOrderStateRepository;
+        this.lastBuyOrderStateMaxAge = lastBuyOrderStateMaxAge;
+        this.tracer = tracer;
     }
 
     @Override
@@ -59,30 +111,157 @@ public class CryptoBotOrchestratingLogicImpl implements CryptoBotOrchestratingLo
                                      @NotNull final String quoteCurrencyLabel,
                                      @NotNull final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal,
                                      final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours) {
+        try (final Span span = tracer.startSpan("CryptoBotOrchestratingLogic.orchestrateExecution",
+                SpanKindEnum.INTERNAL)) {
+            span.setAttribute("tradingPlatform", tradingPlatformName)
+                    .setAttribute("currencyPair", quoteCurrencyLabel + "-" + baseCurrencyLabel);
+            try {
+                orchestrateTracedExecution(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                        volumeMultiplierOrderedAscByPrice, baseCurrencyLabel, quoteCurrencyLabel,
+                        offsetRatioOfLimitPriceToBidPriceInDecimal, minOffsetFromOpenDateTimeOfLastBuyOrderInHours);
+            } catch (@NotNull final RuntimeException | Error ex) {
+                span.recordFailure(ex);
+                throw ex;
+            }
+        }
+    }
 
-        final LocalDateTime from = localDateTimeProvider.now().minusDays(3);
-        final ImmutableList<ClosedOrderBo> closedOrdersWithTrades = cryptoBotLogic.retrieveClosedOrdersWithTrades(from,
-                tradingPlatformName);
-
-        final ImmutableList<OpenOrderBo> openOrders = cryptoBotLogic.retrieveOpenOrders(tradingPlatformName);
-
-        final LocalDateTime orderLatestOpenDateTime = extractOrderLatestOpenDateTime(closedOrdersWithTrades,
-                openOrders);
-        final boolean minOffsetSatisfied = orderLatestOpenDateTime.plusHours(
-                minOffsetFromOpenDateTimeOfLastBuyOrderInHours).compareTo(localDateTimeProvider.now()) <= 0;
-        if (minOffsetSatisfied) {
-            // The offset is applied to the reporting as well to reduce disturbance.
-            cryptoBotLogic.reportClosedOrders(closedOrdersWithTrades, from, tradingPlatformName);
-            cryptoBotLogic.reportOpenOrders(openOrders, tradingPlatformName);
-
-            cryptoBotLogic.placeBuyOrderIfEnoughAvailable(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
-                    volumeMultiplierOrderedAscByPrice, baseCurrencyLabel, quoteCurrencyLabel,
-                    offsetRatioOfLimitPriceToBidPriceInDecimal);
-        } else {
+    private void orchestrateTracedExecution(@NotNull final String tradingPlatformName,
+                                            @NotNull final BigDecimal volumeInBaseCurrencyToInvestPerRun,
+                                            @NotNull final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice,
+                                            @NotNull final String baseCurrencyLabel,
+                                            @NotNull final String quoteCurrencyLabel,
+                                            @NotNull final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal,
+                                            final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours) {
+
+        final LocalDateTime runStart = localDateTimeProvider.now();
+        final LastBuyOrderState storedState = lastBuyOrderStateRepository.load();
+        if (storedState != null && storedState.getLastBuyOrderOpenDateTime() != null
+                && storedState.getReconciledAt().plus(lastBuyOrderStateMaxAge).isAfter(runStart)
+                && storedState.getLastBuyOrderOpenDateTime().plusHours(
+                minOffsetFromOpenDateTimeOfLastBuyOrderInHours).isAfter(runStart)) {
             logger.info(
-                    "A minimal required offset [{} hours] from open date-time of the last BUY order [{}] is not satisfied.",
+                    "A minimal required offset [{} hours] from open date-time of the last BUY order [{}] stored locally is not satisfied.",
                     minOffsetFromOpenDateTimeOfLastBuyOrderInHours,
-                    orderLatestOpenDateTime.format(CryptoBotBusinessLogicConstants.NOTIFICATION_DATE_TIME_FORMATTER));
+                    storedState.getLastBuyOrderOpenDateTime().format(
+                            CryptoBotBusinessLogicConstants.NOTIFICATION_DATE_TIME_FORMATTER));
+            return;
+        }
+
+        final long deadlineInNanos = System.nanoTime() + runDeadline.toNanos();
+        final LocalDateTime from = runStart.minusDays(3);
+        // The private calls of one API key are sent one by one by the connector since the trading platform requires
+        // increasing nonces, hence the order retrievals below actually overlap only with the public ticker retrieval.
+        final CompletableFuture<ImmutableList<ClosedOrderBo>> closedOrdersWithTradesFuture =
+                CompletableFuture.supplyAsync(() -> executePhase(
+                        OrchestrationPhaseEnum.CLOSED_ORDERS_RETRIEVAL, tradingPlatformName,
+                        () -> cryptoBotLogic.retrieveClosedOrdersWithTrades(from, tradingPlatformName)), executor);
+        final CompletableFuture<ImmutableList<OpenOrderBo>> openOrdersFuture = CompletableFuture.supplyAsync(
+                () -> executePhase(OrchestrationPhaseEnum.OPEN_ORDERS_RETRIEVAL,
+                        tradingPlatformName, () -> cryptoBotLogic.retrieveOpenOrders(tradingPlatformName)),
+                executor);
+        final CompletableFuture<LocalDateTime> orderLatestOpenDateTimeFuture = closedOrdersWithTradesFuture
+                .thenCombine(openOrdersFuture, (closedOrdersWithTrades, openOrders) -> executePhase(
+                        OrchestrationPhaseEnum.DECISION, tradingPlatformName,
+                        () -> extractOrderLatestOpenDateTime(closedOrdersWithTrades, openOrders)));
+        // Retrieved in advance, i.e. before it is known whether it is needed, since the public call neither waits for
+        // the private ones nor increases the API call counter. The balance is retrieved only once it is needed.
+        final CompletableFuture<TickerBo> tickerFuture = CompletableFuture.supplyAsync(
+                () -> executePhase(OrchestrationPhaseEnum.TICKER_RETRIEVAL, tradingPlatformName,
+                        () -> cryptoBotLogic.retrieveTicker(tradingPlatformName, baseCurrencyLabel,
+                                quoteCurrencyLabel)),
+                executor);
+
+        try {
+            final LocalDateTime orderLatestOpenDateTime = await(orderLatestOpenDateTimeFuture, deadlineInNanos);
+            saveLastBuyOrderState(new LastBuyOrderState(
+                    orderLatestOpenDateTime.equals(LocalDateTime.MIN) ? null : orderLatestOpenDateTime, runStart));
+            final boolean minOffsetSatisfied = orderLatestOpenDateTime.plusHours(
+                    minOffsetFromOpenDateTimeOfLastBuyOrderInHours).compareTo(localDateTimeProvider.now()) <= 0;
+            if (minOffsetSatisfied) {
+                final CompletableFuture<BigDecimal> baseCurrencyAmountFuture = CompletableFuture.supplyAsync(
+                        () -> executePhase(OrchestrationPhaseEnum.BALANCE_RETRIEVAL, tradingPlatformName,
+                                () -> cryptoBotLogic.retrieveBaseCurrencyBalance(tradingPlatformName,
+                                        baseCurrencyLabel)),
+                        executor);
+                final BigDecimal baseCurrencyAmount;
+                try {
+                    // The offset is applied to the reporting as well to reduce disturbance.
+                    cryptoBotLogic.reportClosedOrders(closedOrdersWithTradesFuture.join(), from, tradingPlatformName);
+                    cryptoBotLogic.reportOpenOrders(openOrdersFuture.join(), tradingPlatformName);
+
+                    baseCurrencyAmount = await(baseCurrencyAmountFuture, deadlineInNanos);
+                } finally {
+                    baseCurrencyAmountFuture.cancel(false);
+                }
+                final TickerBo ticker = await(tickerFuture, deadlineInNanos);
+                final boolean orderPlaced = executePhase(OrchestrationPhaseEnum.ORDER_PLACEMENT,
+                        tradingPlatformName, () -> cryptoBotLogic.placeBuyOrderIfEnoughAvailable(tradingPlatformName,
+                                volumeInBaseCurrencyToInvestPerRun, volumeMultiplierOrderedAscByPrice,
+                                baseCurrencyLabel, quoteCurrencyLabel, offsetRatioOfLimitPriceToBidPriceInDecimal,
+                                baseCurrencyAmount, ticker));
+                if (orderPlaced) {
+                    // The order is opened a moment after the run start, hence the stored one never postpones the next run.
+                    saveLastBuyOrderState(new LastBuyOrderState(runStart, runStart));
+                }
+            } else {
+                logger.info(
+                        "A minimal required offset [{} hours] from open date-time of the last BUY order [{}] is not satisfied.",
+                        minOffsetFromOpenDateTimeOfLastBuyOrderInHours,
+                        orderLatestOpenDateTime.format(CryptoBotBusinessLogicConstants.NOTIFICATION_DATE_TIME_FORMATTER));
+            }
+        } finally {
+            // No-op for already completed futures. Prevents not yet started retrievals from running after the run.
+            Stream.of(closedOrdersWithTradesFuture, openOrdersFuture, tickerFuture) //
+                    .forEach(future -> future.cancel(false));
+        }
+    }
+
+    /**
+     * Executes the phase within a span as well as a {@link OrchestrationPhaseEvent}.
+     */
+    @NotNull
+    private <T> T executePhase(@NotNull final OrchestrationPhaseEnum phase,
+                               @NotNull final String tradingPlatformName,
+                               @NotNull final Supplier<T> step) {
+        return tracer.trace(phase.name(), SpanKindEnum.INTERNAL,
+                () -> OrchestrationPhaseEvent.record(phase, tradingPlatformName, step));
+    }
+
+    /**
+     * A state which could not be saved only costs the next run calls of the trading platform.
+     */
+    private void saveLastBuyOrderState(@NotNull final LastBuyOrderState state) {
+        try {
+            lastBuyOrderStateRepository.save(state);
+        } catch (@NotNull final RuntimeException ex) {
+            logger.error("Last BUY order state could not be saved", ex);
+        }
+    }
+
+    /**
+     * Waits for the future until the deadline and rethrows its failure as it was thrown by the task.
+     */
+    @NotNull
+    private <T> T await(@NotNull final CompletableFuture<T> future,
+                        final long deadlineInNanos) {
+        try {
+            return future.get(Math.max(0, deadlineInNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } catch (final TimeoutException e) {
+            throw new IllegalStateException("The run has not finished within the deadline [" + runDeadline + "]",
+                    e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The run has been interrupted", e);
         }
     }
 
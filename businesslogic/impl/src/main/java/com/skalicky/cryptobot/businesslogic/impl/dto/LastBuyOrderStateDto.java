@@ -0,0 +1,48 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+
+public class LastBuyOrderStateDto {
+    @Nullable
+    private LocalDateTime lastBuyOrderOpenDateTime;
+    @Nullable
+    private LocalDateTime reconciledAt;
+
+    @Nullable
+    public LocalDateTime getLastBuyOrderOpenDateTime() {
+        return lastBuyOrderOpenDateTime;
+    }
+
+    public void setLastBuyOrderOpenDateTime(@Nullable final LocalDateTime lastBuyOrderOpenDateTime) {
+        this.lastBuyOrderOpenDateTime = lastBuyOrderOpenDateTime;
+    }
+
+    @Nullable
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(@Nullable final LocalDateTime reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * JDK Flight Recorder event covering one phase of a run. Phases retrieving data from the trading platform run
+ * concurrently, hence their events are recorded in threads of the executor of the run.
+ * <p>
+ * The event is disabled unless a recording is started, e.g. by {@code jcmd <pid> JFR.start}. Then it costs only
+ * a check whether it is enabled.
+ */
+@Name("com.skalicky.cryptobot.OrchestrationPhase")
+@Label("Orchestration Phase")
+@Category({"Crypto Bot", "Orchestration"})
+@Description("Phase of a run of the bot")
+public class OrchestrationPhaseEvent extends Event {
+
+    @Label("Phase")
+    @Nullable
+    String phase;
+
+    @Label("Trading Platform")
+    @Nullable
+    String tradingPlatform;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @NotNull
+    public static <T> T record(@NotNull final OrchestrationPhaseEnum phase,
+                               @NotNull final String tradingPlatformName,
+                               @NotNull final Supplier<T> step) {
+        final var event = new OrchestrationPhaseEvent();
+        event.begin();
+        try {
+            final T result = step.get();
+            event.succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.tradingPlatform = tradingPlatformName;
+                event.commit();
+            }
+        }
+    }
+
+    public static void record(@NotNull final OrchestrationPhaseEnum phase,
+                              @NotNull final String tradingPlatformName,
+                              @NotNull final Runnable step) {
+        record(phase, tradingPlatformName, () -> {
+            step.run();
+            return Boolean.TRUE;
+        });
+    }
+}
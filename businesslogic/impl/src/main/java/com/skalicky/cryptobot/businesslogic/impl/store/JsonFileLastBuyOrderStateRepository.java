@@ -0,0 +1,79 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skalicky.cryptobot.businesslogic.impl.dto.LastBuyOrderStateDto;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Stores the state as a JSON file which is replaced atomically. An unreadable file is treated as no state, i.e. the
+ * next run reconciles with the trading platform.
+ */
+public class JsonFileLastBuyOrderStateRepository implements LastBuyOrderStateRepository {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileLastBuyOrderStateRepository.class);
+
+    @NotNull
+    private final Path file;
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+
+    public JsonFileLastBuyOrderStateRepository(@NotNull final Path file) {
+        this.file = file;
+    }
+
+    @Nullable
+    @Override
+    public LastBuyOrderState load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            final LastBuyOrderStateDto dto = objectMapper.readValue(file.toFile(), LastBuyOrderStateDto.class);
+            return new LastBuyOrderState(dto.getLastBuyOrderOpenDateTime(),
+                    Objects.requireNonNull(dto.getReconciledAt()));
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Last BUY order state could not be loaded from [" + file + "], going to reconcile", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(@NotNull final LastBuyOrderState state) {
+        final var dto = new LastBuyOrderStateDto();
+        dto.setLastBuyOrderOpenDateTime(state.getLastBuyOrderOpenDateTime());
+        dto.setReconciledAt(state.getReconciledAt());
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, file, dto);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Last BUY order state could not be saved to [" + file + "]", ex);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.store;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+
+public final class LastBuyOrderState {
+    /**
+     * Null if there has been no order yet.
+     */
+    @Nullable
+    private final LocalDateTime lastBuyOrderOpenDateTime;
+    /**
+     * When the state has been compared with the orders on the trading platform for the last time.
+     */
+    @NotNull
+    private final LocalDateTime reconciledAt;
+
+    public LastBuyOrderState(@Nullable final LocalDateTime lastBuyOrderOpenDateTime,
+                             @NotNull final LocalDateTime reconciledAt) {
+        this.lastBuyOrderOpenDateTime = lastBuyOrderOpenDateTime;
+        this.reconciledAt = reconciledAt;
+    }
+
+    @Nullable
+    public LocalDateTime getLastBuyOrderOpenDateTime() {
+        return lastBuyOrderOpenDateTime;
+    }
+
+    @NotNull
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.valuation;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public final class PortfolioValuationBo {
+    @NotNull
+    private final AssetBo reportingAsset;
+    @NotNull
+    private final BigDecimal totalValue;
+    /**
+     * In the reporting asset.
+     */
+    @NotNull
+    private final ImmutableMap<AssetBo, BigDecimal> valuesByAssets;
+    /**
+     * Held assets without any market to the reporting asset, they are not included in {@link #totalValue}.
+     */
+    @NotNull
+    private final ImmutableSet<AssetBo> unvaluedAssets;
+    @NotNull
+    private final Instant valuedAt;
+
+    public PortfolioValuationBo(@NotNull final AssetBo reportingAsset,
+                                @NotNull final BigDecimal totalValue,
+                                @NotNull final ImmutableMap<AssetBo, BigDecimal> valuesByAssets,
+                                @NotNull final ImmutableSet<AssetBo> unvaluedAssets,
+                                @NotNull final Instant valuedAt) {
+        this.reportingAsset = reportingAsset;
+        this.totalValue = totalValue;
+        this.valuesByAssets = valuesByAssets;
+        this.unvaluedAssets = unvaluedAssets;
+        this.valuedAt = valuedAt;
+    }
+
+    @NotNull
+    public AssetBo getReportingAsset() {
+        return reportingAsset;
+    }
+
+    @NotNull
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    @NotNull
+    public ImmutableMap<AssetBo, BigDecimal> getValuesByAssets() {
+        return valuesByAssets;
+    }
+
+    @NotNull
+    public ImmutableSet<AssetBo> getUnvaluedAssets() {
+        return unvaluedAssets;
+    }
+
+    @NotNull
+    public Instant getValuedAt() {
+        return valuedAt;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "PortfolioValuationBo{" +
+                "reportingAsset=" + reportingAsset +
+                ", totalValue=" + totalValue +
+                ", valuesByAssets=" + valuesByAssets +
+                ", unvaluedAssets=" + unvaluedAssets +
+                ", valuedAt=" + valuedAt +
+                '}';
+    }
+}
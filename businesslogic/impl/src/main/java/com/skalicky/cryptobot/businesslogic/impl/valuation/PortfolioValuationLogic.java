@@ -0,0 +1,159 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.valuation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformDesignated;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPublicApiFacade;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Values all assets held on a trading platform in a reporting asset. Balances are retrieved by one request and
+ * prices of all held assets by another one, regardless of the number of assets. Valuations are reused for the given
+ * time to live, hence repeated reports within one run do not call the trading platform again.
+ */
+public class PortfolioValuationLogic {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioValuationLogic.class);
+    private static final int VALUE_SCALE = 8;
+
+    @NotNull
+    private final ImmutableMap<String, TradingPlatformPublicApiFacade> publicApiFacadesByPlatformNames;
+    @NotNull
+    private final ImmutableMap<String, TradingPlatformPrivateApiFacade> privateApiFacadesByPlatformNames;
+    @NotNull
+    private final SlackFacade slackFacade;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final Duration timeToLive;
+    @NotNull
+    private final ConcurrentMap<String, PortfolioValuationBo> valuationsByKeys = new ConcurrentHashMap<>();
+
+    public PortfolioValuationLogic(@NotNull final ImmutableList<TradingPlatformPublicApiFacade> publicApiFacades,
+                                   @NotNull final ImmutableList<TradingPlatformPrivateApiFacade> privateApiFacades,
+                                   @NotNull final SlackFacade slackFacade,
+                                   @NotNull final Clock clock,
+                                   @NotNull final Duration timeToLive) {
+        this.publicApiFacadesByPlatformNames = ImmutableMap.copyOf(publicApiFacades.stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        TradingPlatformDesignated::getTradingPlatform, Function.identity())));
+        this.privateApiFacadesByPlatformNames = ImmutableMap.copyOf(privateApiFacades.stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        TradingPlatformDesignated::getTradingPlatform, Function.identity())));
+        this.slackFacade = slackFacade;
+        this.clock = clock;
+        this.timeToLive = timeToLive;
+    }
+
+    @NotNull
+    public PortfolioValuationBo valuate(@NotNull final String tradingPlatformName,
+                                        @NotNull final String reportingAssetLabel) {
+        final String key = tradingPlatformName + "/" + reportingAssetLabel;
+        final PortfolioValuationBo cachedValuation = valuationsByKeys.get(key);
+        final Instant now = clock.instant();
+        if (cachedValuation != null && cachedValuation.getValuedAt().plus(timeToLive).isAfter(now)) {
+            return cachedValuation;
+        }
+        final PortfolioValuationBo valuation = computeValuation(tradingPlatformName,
+                AssetBo.valueOf(reportingAssetLabel), now);
+        valuationsByKeys.put(key, valuation);
+        return valuation;
+    }
+
+    public void reportValuation(@NotNull final String tradingPlatformName,
+                                @NotNull final String reportingAssetLabel) {
+        final PortfolioValuationBo valuation = valuate(tradingPlatformName, reportingAssetLabel);
+        final String reportingAssetString = " " + valuation.getReportingAsset().getLabel();
+        final var messageBuilder = new StringBuilder("Portfolio on ").append(tradingPlatformName).append(": ")
+                .append(valuation.getTotalValue().toPlainString()).append(reportingAssetString);
+        valuation.getValuesByAssets().entrySet().stream() //
+                .sorted(Map.Entry.<AssetBo, BigDecimal>comparingByValue().reversed()) //
+                .forEach(e -> messageBuilder.append(System.lineSeparator())
+                        .append(e.getKey().getLabel()).append(" ")
+                        .append(e.getValue().toPlainString()).append(reportingAssetString));
+        if (!valuation.getUnvaluedAssets().isEmpty()) {
+            messageBuilder.append(System.lineSeparator()).append("Not valued: ").append(valuation.getUnvaluedAssets());
+        }
+        final String message = messageBuilder.toString();
+        logger.info(message);
+        slackFacade.sendMessage(message);
+    }
+
+    /**
+     * Values of single assets are independent of each other, hence computed in parallel.
+     */
+    @NotNull
+    private PortfolioValuationBo computeValuation(@NotNull final String tradingPlatformName,
+                                                  @NotNull final AssetBo reportingAsset,
+                                                  @NotNull final Instant now) {
+        final TradingPlatformPrivateApiFacade privateApiFacade = privateApiFacadesByPlatformNames.get(
+                tradingPlatformName);
+        if (privateApiFacade == null) {
+            throw new IllegalArgumentException("No private API facade for the trading platform \""
+                    + tradingPlatformName + "\"");
+        }
+        final TradingPlatformPublicApiFacade publicApiFacade = publicApiFacadesByPlatformNames.get(
+                tradingPlatformName);
+        if (publicApiFacade == null) {
+            throw new IllegalArgumentException("No public API facade for the trading platform \""
+                    + tradingPlatformName + "\"");
+        }
+
+        final ImmutableMap<AssetBo, BigDecimal> balancesByAssets = privateApiFacade.getAssetBalances().entrySet()
+                .stream() //
+                .filter(e -> e.getValue().signum() != 0) //
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        final ImmutableMap<AssetBo, BigDecimal> pricesByAssets = balancesByAssets.isEmpty() ? ImmutableMap.of()
+                : publicApiFacade.getAssetPrices(balancesByAssets.keySet(), reportingAsset);
+
+        final ImmutableMap<AssetBo, BigDecimal> valuesByAssets = balancesByAssets.entrySet().parallelStream() //
+                .filter(e -> pricesByAssets.containsKey(e.getKey())) //
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> e.getValue()
+                        .multiply(pricesByAssets.get(e.getKey()))
+                        .setScale(VALUE_SCALE, RoundingMode.HALF_UP)));
+        final BigDecimal totalValue = valuesByAssets.values().parallelStream() //
+                .reduce(BigDecimal.ZERO.setScale(VALUE_SCALE), BigDecimal::add);
+        final ImmutableSet<AssetBo> unvaluedAssets = balancesByAssets.keySet().stream() //
+                .filter(asset -> !pricesByAssets.containsKey(asset)) //
+                .sorted(Comparator.comparing(AssetBo::getLabel)) //
+                .collect(ImmutableSet.toImmutableSet());
+        return new PortfolioValuationBo(reportingAsset, totalValue, valuesByAssets, unvaluedAssets, now);
+    }
+}
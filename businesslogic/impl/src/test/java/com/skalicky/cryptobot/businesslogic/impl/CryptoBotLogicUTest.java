@@ -376,6 +376,75 @@ public class CryptoBotLogicUTest {
                 " partially executed -> trades exist @ open 06.03. 18:15 close 07.03. 08:05 @ 2 trades");
     }
 
+    @Test
+    public void test_retrieveBaseCurrencyBalance_when_currencyInBalance_then_itsAmount() {
+        // Given
+        given(privateApiFacade.getAccountBalance()).willReturn(ImmutableMap.of(
+                CurrencyBoEnum.EUR, new BigDecimal("30.5"), CurrencyBoEnum.BTC, new BigDecimal("0.2")));
+
+        // When
+        final BigDecimal actualBaseCurrencyAmount = cryptoBotLogic.retrieveBaseCurrencyBalance(
+                KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // Then
+        verify(publicApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getAccountBalance();
+
+        then(actualBaseCurrencyAmount).isEqualTo(new BigDecimal("30.5"));
+    }
+
+    @Test
+    public void test_retrieveBaseCurrencyBalance_when_currencyNotInBalance_then_zero() {
+        // Given
+        given(privateApiFacade.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.BTC,
+                new BigDecimal("0.2")));
+
+        // When
+        final BigDecimal actualBaseCurrencyAmount = cryptoBotLogic.retrieveBaseCurrencyBalance(
+                KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // Then
+        verify(publicApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getAccountBalance();
+
+        then(actualBaseCurrencyAmount).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    public void test_retrieveTicker_when_unsupportedTradingPlatform_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> cryptoBotLogic.retrieveTicker("bittrex", "EUR",
+                "BTC"));
+
+        // Then
+        verify(publicApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getTradingPlatform();
+
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No public API facade for the trading platform \"bittrex\"");
+    }
+
+    @Test
+    public void test_retrieveTicker_when_supportedTradingPlatform_then_tickerOfCurrencyPair() {
+        // Given
+        final var ticker = new TickerBo("XXBTZEUR", new BigDecimal(25100), new BigDecimal(25000));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+        given(publicApiFacade.getTicker(currencyPair)).willReturn(ticker);
+
+        // When
+        final TickerBo actualTicker = cryptoBotLogic.retrieveTicker(KRAKEN_TRADING_PLATFORM_NAME, "EUR", "BTC");
+
+        // Then
+        verify(publicApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getTradingPlatform();
+        verify(publicApiFacade).getTicker(currencyPair);
+
+        then(actualTicker).isSameAs(ticker);
+    }
+
     @Test
     public void test_placeBuyOrderIfEnoughAvailable_when_unsupportedTradingPlatform_then_exception() {
         // Given
@@ -384,7 +453,8 @@ public class CryptoBotLogicUTest {
 
         // When
         final Throwable caughtThrowable = catchThrowable(() -> cryptoBotLogic.placeBuyOrderIfEnoughAvailable(
-                "bittrex", BigDecimal.TEN, volumeMultiplierOrderedAscByPrice, "BTC", "XMR", new BigDecimal("0.01")));
+                "bittrex", BigDecimal.TEN, volumeMultiplierOrderedAscByPrice, "BTC", "XMR", new BigDecimal("0.01"),
+                BigDecimal.TEN, new TickerBo("XXMRXXBT", new BigDecimal("0.0051"), new BigDecimal("0.005"))));
 
         // Then
         verify(publicApiFacade).getTradingPlatform();
@@ -398,10 +468,8 @@ public class CryptoBotLogicUTest {
     @Test
     public void test_placeBuyOrderIfEnoughAvailable_when_volumeMultiplier2_and_tooLittleBaseCurrency_then_noPurchase_and_appropriateMessageIsToBeSentViaSlack() {
         // Given
-        given(privateApiFacade.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal(11)));
+        final var baseCurrencyAmount = new BigDecimal(11);
         final var ticker = new TickerBo("XXBTZEUR", new BigDecimal(25100), new BigDecimal(25000));
-        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
-        given(publicApiFacade.getTicker(currencyPair)).willReturn(ticker);
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
                 new VolumeMultiplierBo(null, new BigDecimal(2)));
@@ -409,15 +477,13 @@ public class CryptoBotLogicUTest {
         // When
         cryptoBotLogic.placeBuyOrderIfEnoughAvailable(
                 KRAKEN_TRADING_PLATFORM_NAME, BigDecimal.TEN, volumeMultiplierOrderedAscByPrice, "EUR", "BTC",
-                new BigDecimal("0.01"));
+                new BigDecimal("0.01"), baseCurrencyAmount, ticker);
 
         // Then
         verify(publicApiFacade).getTradingPlatform();
         verify(privateApiFacade).getTradingPlatform();
-        verify(privateApiFacade).getAccountBalance();
-        verify(publicApiFacade).getTicker(currencyPair);
         verify(slackFacade).sendMessage(
-                "Going to retrieve a ticker for currencies quote BTC and base EUR on kraken.");
+                "Retrieved a ticker for currencies quote BTC and base EUR on kraken: bid 25000, ask 25100.");
         verify(slackFacade).sendMessage(
                 "Too little base currency [11 EUR]. Needed volume to invest per run is 20 EUR");
     }
@@ -425,10 +491,9 @@ public class CryptoBotLogicUTest {
     @Test
     public void test_placeBuyOrderIfEnoughAvailable_when_enoughBaseCurrency_and_slackUrl_then_noPurchase_and_slackMessageSent() {
         // Given
-        given(privateApiFacade.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal(30)));
+        final var baseCurrencyAmount = new BigDecimal(30);
         final var ticker = new TickerBo("XXBTZEUR", BigDecimal.TEN, new BigDecimal(9));
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
-        given(publicApiFacade.getTicker(currencyPair)).willReturn(ticker);
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
                 new VolumeMultiplierBo(null, BigDecimal.ONE));
@@ -436,18 +501,16 @@ public class CryptoBotLogicUTest {
         // When
         cryptoBotLogic.placeBuyOrderIfEnoughAvailable(
                 KRAKEN_TRADING_PLATFORM_NAME, new BigDecimal(20), volumeMultiplierOrderedAscByPrice, "EUR", "BTC",
-                new BigDecimal("0.001"));
+                new BigDecimal("0.001"), baseCurrencyAmount, ticker);
 
         // Then
         verify(publicApiFacade).getTradingPlatform();
-        verify(publicApiFacade).getTicker(currencyPair);
         verify(privateApiFacade).getTradingPlatform();
-        verify(privateApiFacade).getAccountBalance();
         verify(privateApiFacade).placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
                 new BigDecimal("2.2244466689"), new BigDecimal("8.991"),
                 true, 129_600);
         verify(slackFacade).sendMessage(
-                "Going to retrieve a ticker for currencies quote BTC and base EUR on kraken.");
+                "Retrieved a ticker for currencies quote BTC and base EUR on kraken: bid 9, ask 10.");
         verify(slackFacade).sendMessage(
                 "limit order to buy 2.2244466689 BTC for 20 EUR successfully placed on kraken." +
                         " Limit price of 1 BTC = 8.991 EUR." +
@@ -457,10 +520,9 @@ public class CryptoBotLogicUTest {
     @Test
     public void test_placeBuyOrderIfEnoughAvailable_when_volumeMultiplierDifferentFrom1_then_volumeToPurchaseDifferentFromInput() {
         // Given
-        given(privateApiFacade.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal(30)));
+        final var baseCurrencyAmount = new BigDecimal(30);
         final var ticker = new TickerBo("XXBTZEUR", new BigDecimal(25100), new BigDecimal(25000));
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
-        given(publicApiFacade.getTicker(currencyPair)).willReturn(ticker);
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
                 new VolumeMultiplierBo(new BigDecimal("25000.000001"), new BigDecimal("1.5")),
@@ -469,18 +531,16 @@ public class CryptoBotLogicUTest {
         // When
         cryptoBotLogic.placeBuyOrderIfEnoughAvailable(
                 KRAKEN_TRADING_PLATFORM_NAME, new BigDecimal(20), volumeMultiplierOrderedAscByPrice, "EUR", "BTC",
-                BigDecimal.ZERO);
+                BigDecimal.ZERO, baseCurrencyAmount, ticker);
 
         // Then
         verify(publicApiFacade).getTradingPlatform();
-        verify(publicApiFacade).getTicker(currencyPair);
         verify(privateApiFacade).getTradingPlatform();
-        verify(privateApiFacade).getAccountBalance();
         verify(privateApiFacade).placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
                 new BigDecimal("0.0012000000"), new BigDecimal(25000),
                 true, 129_600);
         verify(slackFacade).sendMessage(
-                "Going to retrieve a ticker for currencies quote BTC and base EUR on kraken.");
+                "Retrieved a ticker for currencies quote BTC and base EUR on kraken: bid 25000, ask 25100.");
         verify(slackFacade).sendMessage(
                 "limit order to buy 0.0012000000 BTC for 30.0 EUR successfully placed on kraken." +
                         " Limit price of 1 BTC = 25000 EUR." +
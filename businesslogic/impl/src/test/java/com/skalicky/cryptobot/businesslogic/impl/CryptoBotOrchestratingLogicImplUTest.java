@@ -22,16 +22,28 @@ import com.google.common.collect.ImmutableList;
 import com.skalicky.cryptobot.businesslogic.api.model.VolumeMultiplierBo;
 import com.skalicky.cryptobot.businesslogic.impl.datetime.FixableLocalDateTimeProvider;
 import com.skalicky.cryptobot.businesslogic.impl.datetime.FixableLocalDateTimeProviderImpl;
+import com.skalicky.cryptobot.businesslogic.impl.store.InMemoryLastBuyOrderStateRepository;
+import com.skalicky.cryptobot.businesslogic.impl.store.LastBuyOrderState;
+import com.skalicky.cryptobot.businesslogic.impl.store.LastBuyOrderStateRepository;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBoBuilder;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import com.skalicky.cryptobot.shared.tracing.Span;
+import com.skalicky.cryptobot.shared.tracing.Tracer;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.BDDAssertions.catchThrowable;
 import static org.assertj.core.api.BDDAssertions.then;
@@ -44,13 +56,19 @@ import static org.mockito.BDDMockito.willDoNothing;
 
 public class CryptoBotOrchestratingLogicImplUTest {
 
+    @NotNull
+    private static final Duration LAST_BUY_ORDER_STATE_MAX_AGE = Duration.ofHours(24);
+
     @NotNull
     private final CryptoBotLogic cryptoBotLogic = mock(CryptoBotLogic.class);
     @NotNull
     private final FixableLocalDateTimeProvider fixableLocalDateTimeProvider = new FixableLocalDateTimeProviderImpl();
     @NotNull
+    private final LastBuyOrderStateRepository lastBuyOrderStateRepository = new InMemoryLastBuyOrderStateRepository();
+    @NotNull
     private final CryptoBotOrchestratingLogicImpl cryptoBotOrchestratingLogicImpl = new CryptoBotOrchestratingLogicImpl(
-            cryptoBotLogic, fixableLocalDateTimeProvider);
+            cryptoBotLogic, fixableLocalDateTimeProvider, Runnable::run, Duration.ofMinutes(1),
+            lastBuyOrderStateRepository, LAST_BUY_ORDER_STATE_MAX_AGE, Tracer.disabled());
 
     @AfterEach
     public void assertAndCleanMocks() {
@@ -70,6 +88,9 @@ public class CryptoBotOrchestratingLogicImplUTest {
         final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
         final String baseCurrencyLabel = "USDT";
         final String quoteCurrencyLabel = "MNR";
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel)).willReturn(
+                ticker);
         final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
         final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours = 36;
 
@@ -84,6 +105,8 @@ public class CryptoBotOrchestratingLogicImplUTest {
 
         // Then
         verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel);
 
         then(caughtThrowable).isInstanceOf(IllegalArgumentException.class);
     }
@@ -116,6 +139,9 @@ public class CryptoBotOrchestratingLogicImplUTest {
         final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
         final String baseCurrencyLabel = "USDT";
         final String quoteCurrencyLabel = "MNR";
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel)).willReturn(
+                ticker);
         final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
@@ -130,6 +156,7 @@ public class CryptoBotOrchestratingLogicImplUTest {
         // Then
         verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
         verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel);
     }
 
     @Test
@@ -160,6 +187,9 @@ public class CryptoBotOrchestratingLogicImplUTest {
         final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
         final String baseCurrencyLabel = "USDT";
         final String quoteCurrencyLabel = "MNR";
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel)).willReturn(
+                ticker);
         final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
@@ -174,6 +204,7 @@ public class CryptoBotOrchestratingLogicImplUTest {
         // Then
         verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
         verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel);
     }
 
     @Test
@@ -204,6 +235,12 @@ public class CryptoBotOrchestratingLogicImplUTest {
         final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
         final String baseCurrencyLabel = "USDT";
         final String quoteCurrencyLabel = "MNR";
+        final BigDecimal baseCurrencyAmount = new BigDecimal("1000");
+        given(cryptoBotLogic.retrieveBaseCurrencyBalance(tradingPlatformName, baseCurrencyLabel)).willReturn(
+                baseCurrencyAmount);
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel)).willReturn(
+                ticker);
         final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
 
         final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
@@ -220,8 +257,220 @@ public class CryptoBotOrchestratingLogicImplUTest {
         verify(cryptoBotLogic).reportClosedOrders(closedOrdersWithTrades, expectedFrom, tradingPlatformName);
         verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
         verify(cryptoBotLogic).reportOpenOrders(openOrders, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveBaseCurrencyBalance(tradingPlatformName, baseCurrencyLabel);
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, baseCurrencyLabel, quoteCurrencyLabel);
         verify(cryptoBotLogic).placeBuyOrderIfEnoughAvailable(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
                 volumeMultiplierOrderedAscByPrice, baseCurrencyLabel, quoteCurrencyLabel,
-                offsetRatioOfLimitPriceToBidPriceInDecimal);
+                offsetRatioOfLimitPriceToBidPriceInDecimal, baseCurrencyAmount, ticker);
+    }
+
+    @Test
+    public void test_orchestrateExecution_when_storedStateFresh_and_minOffsetNotSatisfied_then_noRetrieval() {
+        // Given
+        final LocalDateTime now = fixableLocalDateTimeProvider.fix();
+        final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours = 48;
+        lastBuyOrderStateRepository.save(new LastBuyOrderState(now.minusHours(47), now.minusHours(23)));
+
+        final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
+                new VolumeMultiplierBo(null, BigDecimal.ONE));
+
+        // When
+        cryptoBotOrchestratingLogicImpl.orchestrateExecution("bittrex", new BigDecimal("155"),
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", new BigDecimal("0.025"),
+                minOffsetFromOpenDateTimeOfLastBuyOrderInHours);
+
+        // Then
+        // No interaction with the crypto bot logic, see assertAndCleanMocks.
+        then(lastBuyOrderStateRepository.load().getReconciledAt()).isEqualTo(now.minusHours(23));
+    }
+
+    @Test
+    public void test_orchestrateExecution_when_storedStateStale_then_reconciledWithTradingPlatform() {
+        // Given
+        final LocalDateTime now = fixableLocalDateTimeProvider.fix();
+        final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours = 48;
+        lastBuyOrderStateRepository.save(new LastBuyOrderState(now.minusHours(47),
+                now.minus(LAST_BUY_ORDER_STATE_MAX_AGE)));
+
+        final String tradingPlatformName = "bittrex";
+        final LocalDateTime expectedFrom = now.minusDays(3);
+        final ImmutableList<ClosedOrderBo> closedOrdersWithTrades = ImmutableList.of(
+                ClosedOrderBoBuilder.aClosedOrderBo().withOpenDateTime(now.minusHours(47)).build());
+        given(cryptoBotLogic.retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName)).willReturn(
+                closedOrdersWithTrades);
+        final LocalDateTime manualOrderOpenDateTime = now.minusHours(2);
+        final ImmutableList<OpenOrderBo> openOrders = ImmutableList.of(
+                OpenOrderBoBuilder.aOpenOrderBo().withOpenDateTime(manualOrderOpenDateTime).build());
+        given(cryptoBotLogic.retrieveOpenOrders(tradingPlatformName)).willReturn(openOrders);
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, "USDT", "MNR")).willReturn(
+                new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5")));
+
+        final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
+                new VolumeMultiplierBo(null, BigDecimal.ONE));
+
+        // When
+        cryptoBotOrchestratingLogicImpl.orchestrateExecution(tradingPlatformName, new BigDecimal("155"),
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", new BigDecimal("0.025"),
+                minOffsetFromOpenDateTimeOfLastBuyOrderInHours);
+
+        // Then
+        verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, "USDT", "MNR");
+
+        final LastBuyOrderState storedState = lastBuyOrderStateRepository.load();
+        then(storedState.getLastBuyOrderOpenDateTime()).isEqualTo(manualOrderOpenDateTime);
+        then(storedState.getReconciledAt()).isEqualTo(now);
+    }
+
+    @Test
+    public void test_orchestrateExecution_when_orderPlaced_then_nextRunFinishesWithoutRetrieval() {
+        // Given
+        final LocalDateTime now = fixableLocalDateTimeProvider.fix();
+        final int minOffsetFromOpenDateTimeOfLastBuyOrderInHours = 48;
+
+        final String tradingPlatformName = "bittrex";
+        final LocalDateTime expectedFrom = now.minusDays(3);
+        final ImmutableList<ClosedOrderBo> closedOrdersWithTrades = ImmutableList.of();
+        given(cryptoBotLogic.retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName)).willReturn(
+                closedOrdersWithTrades);
+        final ImmutableList<OpenOrderBo> openOrders = ImmutableList.of();
+        given(cryptoBotLogic.retrieveOpenOrders(tradingPlatformName)).willReturn(openOrders);
+        final BigDecimal baseCurrencyAmount = new BigDecimal("1000");
+        given(cryptoBotLogic.retrieveBaseCurrencyBalance(tradingPlatformName, "USDT")).willReturn(
+                baseCurrencyAmount);
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, "USDT", "MNR")).willReturn(ticker);
+        final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
+        final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
+        final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
+                new VolumeMultiplierBo(null, BigDecimal.ONE));
+        given(cryptoBotLogic.placeBuyOrderIfEnoughAvailable(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", offsetRatioOfLimitPriceToBidPriceInDecimal,
+                baseCurrencyAmount, ticker)).willReturn(true);
+
+        // When
+        cryptoBotOrchestratingLogicImpl.orchestrateExecution(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", offsetRatioOfLimitPriceToBidPriceInDecimal,
+                minOffsetFromOpenDateTimeOfLastBuyOrderInHours);
+        cryptoBotOrchestratingLogicImpl.orchestrateExecution(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", offsetRatioOfLimitPriceToBidPriceInDecimal,
+                minOffsetFromOpenDateTimeOfLastBuyOrderInHours);
+
+        // Then
+        verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).reportClosedOrders(closedOrdersWithTrades, expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).reportOpenOrders(openOrders, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveBaseCurrencyBalance(tradingPlatformName, "USDT");
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, "USDT", "MNR");
+        verify(cryptoBotLogic).placeBuyOrderIfEnoughAvailable(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", offsetRatioOfLimitPriceToBidPriceInDecimal,
+                baseCurrencyAmount, ticker);
+
+        final LastBuyOrderState storedState = lastBuyOrderStateRepository.load();
+        then(storedState.getLastBuyOrderOpenDateTime()).isEqualTo(now);
+        then(storedState.getReconciledAt()).isEqualTo(now);
+    }
+
+    @Test
+    public void test_orchestrateExecution_when_tracerEnabled_then_phasesTracedWithinSpanOfRun_evenOnExecutorThreads() {
+        // Given
+        final LocalDateTime now = fixableLocalDateTimeProvider.fix();
+        final String tradingPlatformName = "bittrex";
+        final LocalDateTime expectedFrom = now.minusDays(3);
+        final ImmutableList<ClosedOrderBo> closedOrdersWithTrades = ImmutableList.of();
+        given(cryptoBotLogic.retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName)).willReturn(
+                closedOrdersWithTrades);
+        final ImmutableList<OpenOrderBo> openOrders = ImmutableList.of();
+        given(cryptoBotLogic.retrieveOpenOrders(tradingPlatformName)).willReturn(openOrders);
+        final BigDecimal baseCurrencyAmount = new BigDecimal("1000");
+        given(cryptoBotLogic.retrieveBaseCurrencyBalance(tradingPlatformName, "USDT")).willReturn(
+                baseCurrencyAmount);
+        final var ticker = new TickerBo("MNRUSDT", new BigDecimal("0.51"), new BigDecimal("0.5"));
+        given(cryptoBotLogic.retrieveTicker(tradingPlatformName, "USDT", "MNR")).willReturn(ticker);
+        final BigDecimal volumeInBaseCurrencyToInvestPerRun = new BigDecimal("155");
+        final BigDecimal offsetRatioOfLimitPriceToBidPriceInDecimal = new BigDecimal("0.025");
+        final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
+                new VolumeMultiplierBo(null, BigDecimal.ONE));
+
+        final List<ImmutableList<Span>> exportedTraces = new CopyOnWriteArrayList<>();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final var tracedCryptoBotOrchestratingLogic = new CryptoBotOrchestratingLogicImpl(cryptoBotLogic,
+                fixableLocalDateTimeProvider, executorService, Duration.ofMinutes(1), lastBuyOrderStateRepository,
+                LAST_BUY_ORDER_STATE_MAX_AGE, new Tracer(Clock.systemUTC(), exportedTraces::add));
+
+        // When
+        try {
+            tracedCryptoBotOrchestratingLogic.orchestrateExecution(tradingPlatformName,
+                    volumeInBaseCurrencyToInvestPerRun, volumeMultiplierOrderedAscByPrice, "USDT", "MNR",
+                    offsetRatioOfLimitPriceToBidPriceInDecimal, 48);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Then
+        verify(cryptoBotLogic).retrieveClosedOrdersWithTrades(expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).reportClosedOrders(closedOrdersWithTrades, expectedFrom, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveOpenOrders(tradingPlatformName);
+        verify(cryptoBotLogic).reportOpenOrders(openOrders, tradingPlatformName);
+        verify(cryptoBotLogic).retrieveBaseCurrencyBalance(tradingPlatformName, "USDT");
+        verify(cryptoBotLogic).retrieveTicker(tradingPlatformName, "USDT", "MNR");
+        verify(cryptoBotLogic).placeBuyOrderIfEnoughAvailable(tradingPlatformName, volumeInBaseCurrencyToInvestPerRun,
+                volumeMultiplierOrderedAscByPrice, "USDT", "MNR", offsetRatioOfLimitPriceToBidPriceInDecimal,
+                baseCurrencyAmount, ticker);
+
+        then(exportedTraces).hasSize(1);
+        final ImmutableList<Span> spans = exportedTraces.get(0);
+        final Span runSpan = spans.get(spans.size() - 1);
+        then(runSpan.getName()).isEqualTo("CryptoBotOrchestratingLogic.orchestrateExecution");
+        then(runSpan.getParentSpanId()).isNull();
+        then(spans.subList(0, spans.size() - 1))
+                .extracting(Span::getName)
+                .containsExactlyInAnyOrder("CLOSED_ORDERS_RETRIEVAL", "OPEN_ORDERS_RETRIEVAL", "BALANCE_RETRIEVAL",
+                        "TICKER_RETRIEVAL", "DECISION", "ORDER_PLACEMENT");
+        then(spans.subList(0, spans.size() - 1))
+                .allSatisfy(span -> {
+                    then(span.getTraceId()).isEqualTo(runSpan.getTraceId());
+                    then(span.getParentSpanId()).isEqualTo(runSpan.getSpanId());
+                });
+    }
+
+    @Test
+    public void test_orchestrateExecution_when_retrievalsNotFinishedWithinDeadline_then_exception() {
+        // Given
+        fixableLocalDateTimeProvider.fix();
+        final var deadline = Duration.ofMillis(50);
+        // The executor never runs the retrievals, hence they never finish.
+        final var cryptoBotOrchestratingLogicWithStuckExecutor = new CryptoBotOrchestratingLogicImpl(cryptoBotLogic,
+                fixableLocalDateTimeProvider, runnable -> {
+        }, deadline, lastBuyOrderStateRepository, LAST_BUY_ORDER_STATE_MAX_AGE, Tracer.disabled());
+
+        final ImmutableList<VolumeMultiplierBo> volumeMultiplierOrderedAscByPrice = ImmutableList.of(
+                new VolumeMultiplierBo(null, BigDecimal.ONE));
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(
+                () -> cryptoBotOrchestratingLogicWithStuckExecutor.orchestrateExecution("bittrex",
+                        new BigDecimal("155"), volumeMultiplierOrderedAscByPrice, "USDT", "MNR",
+                        new BigDecimal("0.025"), 36));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The run has not finished within the deadline [PT0.05S]");
+    }
+
+    @Test
+    public void test_constructor_when_zeroRunDeadline_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new CryptoBotOrchestratingLogicImpl(cryptoBotLogic,
+                fixableLocalDateTimeProvider, Runnable::run, Duration.ZERO, lastBuyOrderStateRepository,
+                LAST_BUY_ORDER_STATE_MAX_AGE, Tracer.disabled()));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Run deadline must be positive [PT0S]");
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class OrchestrationPhaseEventUTest {
+
+    @NotNull
+    private static final String EVENT_NAME = "com.skalicky.cryptobot.OrchestrationPhase";
+
+    @Test
+    public void test_record_when_stepSucceeds_then_resultReturned_and_eventCommitted(
+            @TempDir @NotNull final Path temporaryDirectory) throws Exception {
+        final String result;
+        final Path recordingFile = temporaryDirectory.resolve("recording.jfr");
+        try (final var recording = new Recording()) {
+            recording.enable(EVENT_NAME).withoutThreshold();
+            recording.start();
+
+            // When
+            result = OrchestrationPhaseEvent.record(OrchestrationPhaseEnum.TICKER_RETRIEVAL, "kraken", () -> "ticker");
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Then
+        then(result).isEqualTo("ticker");
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        then(events).hasSize(1);
+        then(events.get(0).getEventType().getName()).isEqualTo(EVENT_NAME);
+        then(events.get(0).getString("phase")).isEqualTo("TICKER_RETRIEVAL");
+        then(events.get(0).getString("tradingPlatform")).isEqualTo("kraken");
+        then(events.get(0).getBoolean("succeeded")).isTrue();
+    }
+
+    @Test
+    public void test_record_when_stepFails_then_failureRethrown_and_eventCommitted(
+            @TempDir @NotNull final Path temporaryDirectory) throws Exception {
+        final var failure = new IllegalStateException("EService:Unavailable");
+        final Throwable caughtThrowable;
+        final Path recordingFile = temporaryDirectory.resolve("recording.jfr");
+        try (final var recording = new Recording()) {
+            recording.enable(EVENT_NAME).withoutThreshold();
+            recording.start();
+
+            // When
+            caughtThrowable = catchThrowable(() -> OrchestrationPhaseEvent.record(
+                    OrchestrationPhaseEnum.ORDER_PLACEMENT, "kraken", () -> {
+                        throw failure;
+                    }));
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Then
+        then(caughtThrowable).isSameAs(failure);
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        then(events).hasSize(1);
+        then(events.get(0).getString("phase")).isEqualTo("ORDER_PLACEMENT");
+        then(events.get(0).getBoolean("succeeded")).isFalse();
+    }
+}
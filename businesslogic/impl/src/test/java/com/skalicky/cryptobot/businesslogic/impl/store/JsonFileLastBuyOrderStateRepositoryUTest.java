@@ -0,0 +1,92 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.store;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class JsonFileLastBuyOrderStateRepositoryUTest {
+
+    @Test
+    public void test_load_when_fileDoesNotExist_then_null(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var repository = new JsonFileLastBuyOrderStateRepository(
+                temporaryDirectory.resolve("last-buy-order.json"));
+
+        // When
+        final LastBuyOrderState state = repository.load();
+
+        // Then
+        then(state).isNull();
+    }
+
+    @Test
+    public void test_load_when_reconciledAtMissing_then_null(@TempDir @NotNull final Path temporaryDirectory) throws IOException {
+        // Given
+        final Path file = temporaryDirectory.resolve("last-buy-order.json");
+        Files.write(file, "{\"lastBuyOrderOpenDateTime\":\"2021-06-20T12:00:00\"}".getBytes(StandardCharsets.UTF_8));
+        final var repository = new JsonFileLastBuyOrderStateRepository(file);
+
+        // When
+        final LastBuyOrderState state = repository.load();
+
+        // Then
+        then(state).isNull();
+    }
+
+    @Test
+    public void test_load_when_stateSaved_then_sameStateIsLoaded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var repository = new JsonFileLastBuyOrderStateRepository(
+                temporaryDirectory.resolve("store").resolve("last-buy-order.json"));
+        final var savedState = new LastBuyOrderState(LocalDateTime.of(2021, 6, 19, 8, 30, 15),
+                LocalDateTime.of(2021, 6, 20, 12, 0));
+
+        // When
+        repository.save(savedState);
+        final LastBuyOrderState loadedState = repository.load();
+
+        // Then
+        then(loadedState).usingRecursiveComparison().isEqualTo(savedState);
+    }
+
+    @Test
+    public void test_load_when_stateWithoutOrderSaved_then_stateWithoutOrderIsLoaded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var repository = new JsonFileLastBuyOrderStateRepository(
+                temporaryDirectory.resolve("last-buy-order.json"));
+        final var savedState = new LastBuyOrderState(null, LocalDateTime.of(2021, 6, 20, 12, 0));
+
+        // When
+        repository.save(savedState);
+        final LastBuyOrderState loadedState = repository.load();
+
+        // Then
+        then(loadedState).usingRecursiveComparison().isEqualTo(savedState);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.businesslogic.impl.valuation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPublicApiFacade;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.BDDAssertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.times;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+
+public class PortfolioValuationLogicUTest {
+
+    @NotNull
+    private static final String KRAKEN_TRADING_PLATFORM_NAME = "kraken";
+    @NotNull
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+    @NotNull
+    private static final AssetBo BTC = AssetBo.valueOf("BTC");
+    @NotNull
+    private static final AssetBo EUR = AssetBo.valueOf("EUR");
+    @NotNull
+    private static final AssetBo DOT = AssetBo.valueOf("DOT");
+    @NotNull
+    private static final AssetBo UNLISTED = AssetBo.valueOf("UNLISTED");
+
+    @NotNull
+    private final TradingPlatformPublicApiFacade publicApiFacade = mock(TradingPlatformPublicApiFacade.class);
+    @NotNull
+    private final TradingPlatformPrivateApiFacade privateApiFacade = mock(TradingPlatformPrivateApiFacade.class);
+    @NotNull
+    private final SlackFacade slackFacade = mock(SlackFacade.class);
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-01T10:00:00Z"));
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(publicApiFacade, privateApiFacade, slackFacade);
+        reset(publicApiFacade, privateApiFacade, slackFacade);
+    }
+
+    @NotNull
+    private PortfolioValuationLogic createLogic() {
+        given(publicApiFacade.getTradingPlatform()).willReturn(KRAKEN_TRADING_PLATFORM_NAME);
+        given(privateApiFacade.getTradingPlatform()).willReturn(KRAKEN_TRADING_PLATFORM_NAME);
+        final var logic = new PortfolioValuationLogic(ImmutableList.of(publicApiFacade),
+                ImmutableList.of(privateApiFacade), slackFacade, clock, TIME_TO_LIVE);
+        verify(publicApiFacade).getTradingPlatform();
+        verify(privateApiFacade).getTradingPlatform();
+        return logic;
+    }
+
+    private void givenBalancesAndPrices() {
+        given(privateApiFacade.getAssetBalances()).willReturn(ImmutableMap.of(
+                BTC, new BigDecimal("0.5"),
+                EUR, new BigDecimal("100"),
+                DOT, new BigDecimal("10"),
+                UNLISTED, new BigDecimal("3"),
+                AssetBo.valueOf("ETH"), BigDecimal.ZERO));
+        given(publicApiFacade.getAssetPrices(Set.of(BTC, EUR, DOT, UNLISTED), EUR)).willReturn(ImmutableMap.of(
+                BTC, new BigDecimal("30000"),
+                EUR, BigDecimal.ONE,
+                DOT, new BigDecimal("21.4")));
+    }
+
+    @Test
+    public void test_valuate_when_assetsWithAndWithoutPrice_then_pricedAssetsSummed_and_othersUnvalued() {
+        // Given
+        final PortfolioValuationLogic logic = createLogic();
+        givenBalancesAndPrices();
+
+        // When
+        final PortfolioValuationBo valuation = logic.valuate(KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // Then
+        verify(privateApiFacade).getAssetBalances();
+        verify(publicApiFacade).getAssetPrices(Set.of(BTC, EUR, DOT, UNLISTED), EUR);
+
+        then(valuation.getReportingAsset()).isSameAs(EUR);
+        then(valuation.getTotalValue()).isEqualByComparingTo("15314");
+        then(valuation.getValuesByAssets()).containsOnly(
+                entry(BTC, new BigDecimal("15000.00000000")),
+                entry(EUR, new BigDecimal("100.00000000")),
+                entry(DOT, new BigDecimal("214.00000000")));
+        then(valuation.getUnvaluedAssets()).containsExactly(UNLISTED);
+    }
+
+    @Test
+    public void test_valuate_when_calledAgainWithinTimeToLive_then_cachedValuation_and_afterwardsRetrievedAgain() {
+        // Given
+        final PortfolioValuationLogic logic = createLogic();
+        givenBalancesAndPrices();
+        final PortfolioValuationBo firstValuation = logic.valuate(KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // When
+        clock.advance(TIME_TO_LIVE.minusSeconds(1));
+        final PortfolioValuationBo cachedValuation = logic.valuate(KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+        clock.advance(Duration.ofSeconds(1));
+        final PortfolioValuationBo newValuation = logic.valuate(KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // Then
+        verify(privateApiFacade, times(2)).getAssetBalances();
+        verify(publicApiFacade, times(2)).getAssetPrices(Set.of(BTC, EUR, DOT, UNLISTED), EUR);
+
+        then(cachedValuation).isSameAs(firstValuation);
+        then(newValuation).isNotSameAs(firstValuation);
+    }
+
+    @Test
+    public void test_reportValuation_then_slackMessageWithAssetsOrderedByValue() {
+        // Given
+        final PortfolioValuationLogic logic = createLogic();
+        givenBalancesAndPrices();
+
+        // When
+        logic.reportValuation(KRAKEN_TRADING_PLATFORM_NAME, "EUR");
+
+        // Then
+        verify(privateApiFacade).getAssetBalances();
+        verify(publicApiFacade).getAssetPrices(Set.of(BTC, EUR, DOT, UNLISTED), EUR);
+        verify(slackFacade).sendMessage("Portfolio on kraken: 15314.00000000 EUR"
+                + System.lineSeparator() + "BTC 15000.00000000 EUR"
+                + System.lineSeparator() + "DOT 214.00000000 EUR"
+                + System.lineSeparator() + "EUR 100.00000000 EUR"
+                + System.lineSeparator() + "Not valued: [UNLISTED]");
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+public class KrakenAssetDto {
+    @Nullable
+    private String altname;
+    @Nullable
+    private Integer decimals;
+    @Nullable
+    private Integer display_decimals;
+
+    @Nullable
+    public String getAltname() {
+        return altname;
+    }
+
+    public void setAltname(@Nullable final String altname) {
+        this.altname = altname;
+    }
+
+    @Nullable
+    public Integer getDecimals() {
+        return decimals;
+    }
+
+    public void setDecimals(@Nullable final Integer decimals) {
+        this.decimals = decimals;
+    }
+
+    @Nullable
+    public Integer getDisplay_decimals() {
+        return display_decimals;
+    }
+
+    public void setDisplay_decimals(@Nullable final Integer display_decimals) {
+        this.display_decimals = display_decimals;
+    }
+}
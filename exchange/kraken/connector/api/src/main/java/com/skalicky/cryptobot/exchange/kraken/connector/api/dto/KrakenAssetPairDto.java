@@ -0,0 +1,103 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+public class KrakenAssetPairDto {
+    @Nullable
+    private String altname;
+    @Nullable
+    private String wsname;
+    @Nullable
+    private String base;
+    @Nullable
+    private String quote;
+    @Nullable
+    private Integer pair_decimals;
+    @Nullable
+    private Integer lot_decimals;
+    @Nullable
+    private BigDecimal ordermin;
+
+    @Nullable
+    public String getAltname() {
+        return altname;
+    }
+
+    public void setAltname(@Nullable final String altname) {
+        this.altname = altname;
+    }
+
+    @Nullable
+    public String getWsname() {
+        return wsname;
+    }
+
+    public void setWsname(@Nullable final String wsname) {
+        this.wsname = wsname;
+    }
+
+    @Nullable
+    public String getBase() {
+        return base;
+    }
+
+    public void setBase(@Nullable final String base) {
+        this.base = base;
+    }
+
+    @Nullable
+    public String getQuote() {
+        return quote;
+    }
+
+    public void setQuote(@Nullable final String quote) {
+        this.quote = quote;
+    }
+
+    @Nullable
+    public Integer getPair_decimals() {
+        return pair_decimals;
+    }
+
+    public void setPair_decimals(@Nullable final Integer pair_decimals) {
+        this.pair_decimals = pair_decimals;
+    }
+
+    @Nullable
+    public Integer getLot_decimals() {
+        return lot_decimals;
+    }
+
+    public void setLot_decimals(@Nullable final Integer lot_decimals) {
+        this.lot_decimals = lot_decimals;
+    }
+
+    @Nullable
+    public BigDecimal getOrdermin() {
+        return ordermin;
+    }
+
+    public void setOrdermin(@Nullable final BigDecimal ordermin) {
+        this.ordermin = ordermin;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Price levels are lists of the price, the volume and the timestamp, e.g. ["8903.30000", "1.234", 1616663113].
+ */
+public class KrakenDepthDto {
+    @Nullable
+    private List<List<Object>> asks;
+    @Nullable
+    private List<List<Object>> bids;
+
+    @Nullable
+    public List<List<Object>> getAsks() {
+        return asks;
+    }
+
+    public void setAsks(@Nullable final List<List<Object>> asks) {
+        this.asks = asks;
+    }
+
+    @Nullable
+    public List<List<Object>> getBids() {
+        return bids;
+    }
+
+    public void setBids(@Nullable final List<List<Object>> bids) {
+        this.bids = bids;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.dto;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Best bid and ask of a pair as last pushed by Kraken's WebSocket market-data feed.
+ */
+public final class KrakenQuoteDto {
+    /**
+     * WebSocket pair name, e.g. XBT/EUR.
+     */
+    @NotNull
+    private final String pairName;
+    @NotNull
+    private final BigDecimal bidPrice;
+    @NotNull
+    private final BigDecimal askPrice;
+    @NotNull
+    private final Instant receivedAt;
+
+    public KrakenQuoteDto(@NotNull final String pairName,
+                          @NotNull final BigDecimal bidPrice,
+                          @NotNull final BigDecimal askPrice,
+                          @NotNull final Instant receivedAt) {
+        this.pairName = pairName;
+        this.bidPrice = bidPrice;
+        this.askPrice = askPrice;
+        this.receivedAt = receivedAt;
+    }
+
+    @NotNull
+    public String getPairName() {
+        return pairName;
+    }
+
+    @NotNull
+    public BigDecimal getBidPrice() {
+        return bidPrice;
+    }
+
+    @NotNull
+    public BigDecimal getAskPrice() {
+        return askPrice;
+    }
+
+    @NotNull
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "KrakenQuoteDto{" +
+                "pairName='" + pairName + '\'' +
+                ", bidPrice=" + bidPrice +
+                ", askPrice=" + askPrice +
+                ", receivedAt=" + receivedAt +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.error;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+/**
+ * A failed call to Kraken, either an error response or a failed request. Extends {@link IllegalStateException}
+ * which used to be thrown for error responses, hence existing callers are not affected.
+ */
+public class KrakenApiException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private final KrakenErrorCategoryEnum category;
+    @NotNull
+    private final ImmutableList<String> errors;
+
+    /**
+     * The message consists of the errors, e.g. "[EService:Unavailable]".
+     */
+    public KrakenApiException(@NotNull final List<String> errors) {
+        super(errors.toString());
+        this.category = KrakenErrorClassifier.classify(errors);
+        this.errors = ImmutableList.copyOf(errors);
+    }
+
+    public KrakenApiException(@NotNull final KrakenErrorCategoryEnum category,
+                              @NotNull final String message,
+                              @NotNull final Throwable cause) {
+        super(message, cause);
+        this.category = category;
+        this.errors = ImmutableList.of();
+    }
+
+    public KrakenApiException(@NotNull final KrakenErrorCategoryEnum category,
+                              @NotNull final String message) {
+        super(message);
+        this.category = category;
+        this.errors = ImmutableList.of();
+    }
+
+    /**
+     * A request which could not be sent or whose response could not be read is retryable unless the waiting for it
+     * has been interrupted. A timeout is retryable as well although {@link SocketTimeoutException} is an
+     * {@link InterruptedIOException}.
+     */
+    @NotNull
+    public static KrakenApiException ofFailedRequest(@NotNull final String methodName,
+                                                     @NotNull final Exception cause) {
+        final KrakenErrorCategoryEnum category = cause instanceof IOException
+                && (!(cause instanceof InterruptedIOException) || cause instanceof SocketTimeoutException)
+                ? KrakenErrorCategoryEnum.RETRYABLE
+                : KrakenErrorCategoryEnum.FATAL;
+        return new KrakenApiException(category, "Call of Kraken method " + methodName + " failed", cause);
+    }
+
+    @NotNull
+    public KrakenErrorCategoryEnum getCategory() {
+        return category;
+    }
+
+    /**
+     * Empty if the call failed without a response.
+     */
+    @NotNull
+    public ImmutableList<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.error;
+
+/**
+ * Categories of failures of calls to Kraken, see {@link KrakenErrorClassifier}.
+ */
+public enum KrakenErrorCategoryEnum {
+    /**
+     * Kraken is temporarily not able to process the call, or the call did not reach Kraken or its response got lost.
+     */
+    RETRYABLE,
+    /**
+     * Kraken rejected the call since the rate limit of the API key or of an order book was exceeded.
+     */
+    RATE_LIMIT,
+    /**
+     * Kraken rejected the call since its nonce was not higher than the one of the previous call. Kraken did not
+     * process the call.
+     */
+    INVALID_NONCE,
+    /**
+     * Kraken rejected the call, e.g. because of invalid arguments or insufficient funds, and a repeated call would be
+     * rejected as well.
+     */
+    FATAL
+}
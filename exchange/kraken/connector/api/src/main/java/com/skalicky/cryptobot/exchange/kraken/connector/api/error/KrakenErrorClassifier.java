@@ -0,0 +1,73 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.error;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Classifies errors returned by Kraken, e.g. "EService:Unavailable", see
+ * https://docs.kraken.com/rest/#section/General-Usage/Requests-Responses-and-Errors
+ */
+public final class KrakenErrorClassifier {
+
+    private KrakenErrorClassifier() {
+    }
+
+    /**
+     * Errors of one response are classified by the most severe one, i.e. a fatal error wins over the others.
+     */
+    @NotNull
+    public static KrakenErrorCategoryEnum classify(@NotNull final List<String> errors) {
+        KrakenErrorCategoryEnum category = null;
+        for (final String error : errors) {
+            final KrakenErrorCategoryEnum errorCategory = classify(error);
+            if (errorCategory == KrakenErrorCategoryEnum.FATAL) {
+                return errorCategory;
+            }
+            if (category == null) {
+                category = errorCategory;
+            }
+        }
+        return category == null ? KrakenErrorCategoryEnum.FATAL : category;
+    }
+
+    @NotNull
+    public static KrakenErrorCategoryEnum classify(@NotNull final String error) {
+        if (error.startsWith("EAPI:Rate limit exceeded")
+                || error.startsWith("EOrder:Rate limit exceeded")
+                || error.startsWith("EGeneral:Too many requests")
+                || error.startsWith("EGeneral:Temporary lockout")
+                || error.startsWith("EService:Throttled")) {
+            return KrakenErrorCategoryEnum.RATE_LIMIT;
+        }
+        if (error.startsWith("EAPI:Invalid nonce")) {
+            return KrakenErrorCategoryEnum.INVALID_NONCE;
+        }
+        if (error.startsWith("EService:Unavailable")
+                || error.startsWith("EService:Busy")
+                || error.startsWith("EService:Deadline elapsed")
+                || error.startsWith("EService:Market in cancel_only mode")
+                || error.startsWith("EGeneral:Internal error")) {
+            return KrakenErrorCategoryEnum.RETRYABLE;
+        }
+        return KrakenErrorCategoryEnum.FATAL;
+    }
+}
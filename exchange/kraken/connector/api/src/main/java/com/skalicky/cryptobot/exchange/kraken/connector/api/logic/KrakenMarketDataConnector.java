@@ -0,0 +1,43 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.api.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenQuoteDto;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the latest quotes of subscribed pairs pushed by Kraken. Pair names are WebSocket pair names, e.g. XBT/EUR.
+ */
+public interface KrakenMarketDataConnector {
+
+    /**
+     * Subscriptions survive reconnects. Subscribing to an already subscribed pair has no effect.
+     */
+    void subscribe(@NotNull ImmutableList<String> pairNames);
+
+    /**
+     * @return null if no quote of the pair has been received yet
+     */
+    @Nullable
+    KrakenQuoteDto getLatestQuote(@NotNull String pairName);
+
+    void close();
+}
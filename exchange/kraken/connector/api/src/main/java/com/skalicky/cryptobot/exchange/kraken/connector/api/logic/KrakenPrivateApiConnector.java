@@ -33,10 +33,35 @@ public interface KrakenPrivateApiConnector {
     @NotNull
     KrakenResponseDto<KrakenOpenOrderResultDto> openOrders(boolean includeTrades);
 
+    /**
+     * Retrieves open orders placed with the given user reference only.
+     */
+    @NotNull
+    KrakenResponseDto<KrakenOpenOrderResultDto> openOrders(boolean includeTrades,
+                                                           int userReference);
+
     @NotNull
     KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(boolean includeTrades,
                                                                @NotNull Long fromInEpochSeconds);
 
+    /**
+     * Retrieves orders placed with the given user reference only.
+     */
+    @NotNull
+    KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(boolean includeTrades,
+                                                               @NotNull Long fromInEpochSeconds,
+                                                               int userReference);
+
+    /**
+     * Retrieves one page of orders closed between the given epoch seconds. A page starts at the given offset and
+     * contains at most 50 orders, the most recent ones first.
+     */
+    @NotNull
+    KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(boolean includeTrades,
+                                                               @NotNull Long fromInEpochSeconds,
+                                                               @NotNull Long toInEpochSeconds,
+                                                               int offset);
+
     @NotNull
     KrakenResponseDto<Map<String, BigDecimal>> balance();
 
@@ -47,5 +72,6 @@ public interface KrakenPrivateApiConnector {
                                                         @NotNull BigDecimal price,
                                                         @NotNull BigDecimal volumeInQuoteCurrency,
                                                         @NotNull ImmutableList<String> orderFlags,
-                                                        long orderExpirationInSecondsFromNow);
+                                                        long orderExpirationInSecondsFromNow,
+                                                        int userReference);
 }
@@ -19,6 +19,9 @@
 package com.skalicky.cryptobot.exchange.kraken.connector.api.logic;
 
 import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
 import org.jetbrains.annotations.NotNull;
 
@@ -28,4 +31,22 @@ public interface KrakenPublicApiConnector {
 
     @NotNull
     KrakenResponseDto<Map<String, Map<String, Object>>> ticker(@NotNull ImmutableList<String> marketNames);
+
+    /**
+     * Retrieves at most the given count of best price levels per side of the order book of the market.
+     */
+    @NotNull
+    KrakenResponseDto<Map<String, KrakenDepthDto>> depth(@NotNull String marketName, int count);
+
+    /**
+     * Retrieves all tradable asset pairs.
+     */
+    @NotNull
+    KrakenResponseDto<Map<String, KrakenAssetPairDto>> assetPairs();
+
+    /**
+     * Retrieves all assets.
+     */
+    @NotNull
+    KrakenResponseDto<Map<String, KrakenAssetDto>> assets();
 }
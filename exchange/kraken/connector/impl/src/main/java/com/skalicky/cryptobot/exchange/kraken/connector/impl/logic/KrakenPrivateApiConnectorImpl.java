@@ -25,6 +25,7 @@ import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAddOrderRe
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPrivateApiConnector;
 import edu.self.kraken.api.KrakenApi;
 import org.jetbrains.annotations.NotNull;
@@ -37,6 +38,23 @@ import java.util.Collections;
 import java.util.Map;
 
 public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector {
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<KrakenOpenOrderResultDto>>
+            openOrdersResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<KrakenClosedOrderResultDto>>
+            closedOrdersResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, BigDecimal>>>
+            balanceResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<KrakenAddOrderResultDto>>
+            addOrderResponseTypeReference = new TypeReference<>() {
+            };
+
     @NotNull
     private final KrakenApi krakenApi;
     @NotNull
@@ -54,11 +72,25 @@ public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector
         final var parameters = Collections.singletonMap(
                 "trades", String.valueOf(includeTrades));
         try {
-            final String responseString = krakenApi.queryPrivate(KrakenApi.Method.OPEN_ORDERS, parameters);
-            return objectMapper.readValue(responseString, new TypeReference<>() {
-            });
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.OPEN_ORDERS, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, openOrdersResponseTypeReference));
         } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
-            throw new RuntimeException(exception);
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.OPEN_ORDERS.name, exception);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenOpenOrderResultDto> openOrders(final boolean includeTrades,
+                                                                  final int userReference) {
+        final Map<String, String> parameters = Collections.unmodifiableMap(Map.of(
+                "trades", String.valueOf(includeTrades),
+                "userref", String.valueOf(userReference)));
+        try {
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.OPEN_ORDERS, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, openOrdersResponseTypeReference));
+        } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.OPEN_ORDERS.name, exception);
         }
     }
 
@@ -70,11 +102,46 @@ public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector
                 "trades", String.valueOf(includeTrades),
                 "start", String.valueOf(fromInEpochSeconds)));
         try {
-            final String responseString = krakenApi.queryPrivate(KrakenApi.Method.CLOSED_ORDERS, parameters);
-            return objectMapper.readValue(responseString, new TypeReference<>() {
-            });
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.CLOSED_ORDERS, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, closedOrdersResponseTypeReference));
+        } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.CLOSED_ORDERS.name, exception);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(final boolean includeTrades,
+                                                                      @NotNull final Long fromInEpochSeconds,
+                                                                      final int userReference) {
+        final Map<String, String> parameters = Collections.unmodifiableMap(Map.of(
+                "trades", String.valueOf(includeTrades),
+                "start", String.valueOf(fromInEpochSeconds),
+                "userref", String.valueOf(userReference)));
+        try {
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.CLOSED_ORDERS, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, closedOrdersResponseTypeReference));
+        } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.CLOSED_ORDERS.name, exception);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(final boolean includeTrades,
+                                                                      @NotNull final Long fromInEpochSeconds,
+                                                                      @NotNull final Long toInEpochSeconds,
+                                                                      final int offset) {
+        final Map<String, String> parameters = Collections.unmodifiableMap(Map.of(
+                "trades", String.valueOf(includeTrades),
+                "start", String.valueOf(fromInEpochSeconds),
+                "end", String.valueOf(toInEpochSeconds),
+                "ofs", String.valueOf(offset)));
+        try {
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.CLOSED_ORDERS, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, closedOrdersResponseTypeReference));
         } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
-            throw new RuntimeException(exception);
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.CLOSED_ORDERS.name, exception);
         }
     }
 
@@ -82,11 +149,10 @@ public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector
     @Override
     public KrakenResponseDto<Map<String, BigDecimal>> balance() {
         try {
-            final String responseString = krakenApi.queryPrivate(KrakenApi.Method.BALANCE);
-            return objectMapper.readValue(responseString, new TypeReference<>() {
-            });
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.BALANCE, Collections.emptyMap(),
+                    responseBody -> objectMapper.readValue(responseBody, balanceResponseTypeReference));
         } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
-            throw new RuntimeException(exception);
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.BALANCE.name, exception);
         }
     }
 
@@ -98,7 +164,8 @@ public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector
                                                                @NotNull final BigDecimal price,
                                                                @NotNull final BigDecimal volumeInQuoteCurrency,
                                                                @NotNull final ImmutableList<String> orderFlags,
-                                                               final long orderExpirationInSecondsFromNow) {
+                                                               final long orderExpirationInSecondsFromNow,
+                                                               final int userReference) {
         final Map<String, String> parameters = Collections.unmodifiableMap(Map.of(
                 "pair", krakenMarketName,
                 "type", krakenOrderType,
@@ -106,14 +173,14 @@ public class KrakenPrivateApiConnectorImpl implements KrakenPrivateApiConnector
                 "price", price.toPlainString(),
                 "volume", volumeInQuoteCurrency.toPlainString(),
                 "oflags", String.join(",", orderFlags),
-                "expiretm", "+" + orderExpirationInSecondsFromNow
+                "expiretm", "+" + orderExpirationInSecondsFromNow,
+                "userref", String.valueOf(userReference)
         ));
         try {
-            final String responseString = krakenApi.queryPrivate(KrakenApi.Method.ADD_ORDER, parameters);
-            return objectMapper.readValue(responseString, new TypeReference<>() {
-            });
+            return krakenApi.queryPrivateStreamed(KrakenApi.Method.ADD_ORDER, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, addOrderResponseTypeReference));
         } catch (final IOException | InvalidKeyException | NoSuchAlgorithmException exception) {
-            throw new RuntimeException(exception);
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.ADD_ORDER.name, exception);
         }
     }
 }
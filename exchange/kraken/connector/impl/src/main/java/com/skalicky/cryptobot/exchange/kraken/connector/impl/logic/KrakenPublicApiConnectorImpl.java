@@ -19,9 +19,14 @@
 package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
 import edu.self.kraken.api.KrakenApi;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +36,23 @@ import java.util.Collections;
 import java.util.Map;
 
 public class KrakenPublicApiConnectorImpl implements KrakenPublicApiConnector {
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, Map<String, Object>>>>
+            tickerResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, KrakenDepthDto>>>
+            depthResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, KrakenAssetPairDto>>>
+            assetPairsResponseTypeReference = new TypeReference<>() {
+            };
+    @NotNull
+    private static final TypeReference<KrakenResponseDto<Map<String, KrakenAssetDto>>>
+            assetsResponseTypeReference = new TypeReference<>() {
+            };
+
     @NotNull
     private final KrakenApi krakenApi;
     @NotNull
@@ -51,11 +73,58 @@ public class KrakenPublicApiConnectorImpl implements KrakenPublicApiConnector {
 
         final Map<String, String> parameters = Collections.singletonMap("pair", String.join(",", marketNames));
         try {
-            final String responseString = krakenApi.queryPublic(KrakenApi.Method.TICKER, parameters);
-            return objectMapper.readValue(responseString, new TypeReference<>() {
-            });
+            return krakenApi.queryPublicStreamed(KrakenApi.Method.TICKER, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, tickerResponseTypeReference));
+        } catch (final IOException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.TICKER.name, exception);
+        }
+    }
+
+    @Override
+    @NotNull
+    public KrakenResponseDto<Map<String, KrakenDepthDto>> depth(@NotNull final String marketName, final int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive [" + count + "]");
+        }
+
+        final Map<String, String> parameters = Collections.unmodifiableMap(Map.of(
+                "pair", marketName,
+                "count", String.valueOf(count)));
+        try {
+            return krakenApi.queryPublicStreamed(KrakenApi.Method.DEPTH, parameters,
+                    responseBody -> objectMapper.readValue(responseBody, depthResponseTypeReference));
+        } catch (final IOException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.DEPTH.name, exception);
+        }
+    }
+
+    /**
+     * Kraken keeps extending the metadata of assets and asset pairs, hence only the needed properties are mapped and
+     * the others are ignored.
+     */
+    @Override
+    @NotNull
+    public KrakenResponseDto<Map<String, KrakenAssetPairDto>> assetPairs() {
+        try {
+            return krakenApi.queryPublicStreamed(KrakenApi.Method.ASSET_PAIRS, Collections.emptyMap(),
+                    responseBody -> objectMapper.readerFor(assetPairsResponseTypeReference)
+                            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                            .readValue(responseBody));
+        } catch (final IOException exception) {
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.ASSET_PAIRS.name, exception);
+        }
+    }
+
+    @Override
+    @NotNull
+    public KrakenResponseDto<Map<String, KrakenAssetDto>> assets() {
+        try {
+            return krakenApi.queryPublicStreamed(KrakenApi.Method.ASSETS, Collections.emptyMap(),
+                    responseBody -> objectMapper.readerFor(assetsResponseTypeReference)
+                            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                            .readValue(responseBody));
         } catch (final IOException exception) {
-            throw new RuntimeException(exception);
+            throw KrakenApiException.ofFailedRequest(KrakenApi.Method.ASSETS.name, exception);
         }
     }
 }
@@ -0,0 +1,287 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenQuoteDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenMarketDataConnector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes to the public channels "ticker" and "spread" of Kraken's WebSocket API and keeps the latest best bid
+ * and ask of each subscribed pair in memory.
+ * <p>
+ * A dropped connection is re-established with an exponential back-off and all pairs are subscribed again.
+ */
+public class KrakenWebSocketMarketDataConnectorImpl implements KrakenMarketDataConnector {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenWebSocketMarketDataConnectorImpl.class);
+    @NotNull
+    private static final ImmutableList<String> CHANNEL_NAMES = ImmutableList.of("ticker", "spread");
+    @NotNull
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(1);
+
+    @NotNull
+    private final URI uri;
+    @NotNull
+    private final HttpClient httpClient;
+    @NotNull
+    private final ObjectMapper objectMapper;
+    @NotNull
+    private final ScheduledExecutorService reconnectScheduler;
+    @NotNull
+    private final Duration initialReconnectDelay;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final Set<String> subscribedPairNames = ConcurrentHashMap.newKeySet();
+    @NotNull
+    private final Map<String, KrakenQuoteDto> quotesByPairNames = new ConcurrentHashMap<>();
+    /**
+     * Guarded by this. Null while disconnected.
+     */
+    @Nullable
+    private WebSocket webSocket;
+    /**
+     * Guarded by this. WebSocket allows only one outstanding send, hence sends are chained.
+     */
+    @NotNull
+    private CompletableFuture<WebSocket> lastSend = new CompletableFuture<>();
+    /**
+     * Guarded by this.
+     */
+    @NotNull
+    private Duration reconnectDelay;
+    /**
+     * Guarded by this.
+     */
+    private boolean closed = false;
+
+    public KrakenWebSocketMarketDataConnectorImpl(@NotNull final URI uri,
+                                                  @NotNull final HttpClient httpClient,
+                                                  @NotNull final ObjectMapper objectMapper,
+                                                  @NotNull final ScheduledExecutorService reconnectScheduler,
+                                                  @NotNull final Duration initialReconnectDelay,
+                                                  @NotNull final Clock clock) {
+        this.uri = uri;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.reconnectScheduler = reconnectScheduler;
+        this.initialReconnectDelay = initialReconnectDelay;
+        this.reconnectDelay = initialReconnectDelay;
+        this.clock = clock;
+    }
+
+    public void start() {
+        connect();
+    }
+
+    @Override
+    public synchronized void subscribe(@NotNull final ImmutableList<String> pairNames) {
+        final ImmutableList<String> newPairNames = pairNames.stream() //
+                .filter(subscribedPairNames::add) //
+                .collect(ImmutableList.toImmutableList());
+        if (webSocket != null) {
+            sendSubscriptions(newPairNames);
+        }
+    }
+
+    @Nullable
+    @Override
+    public KrakenQuoteDto getLatestQuote(@NotNull final String pairName) {
+        return quotesByPairNames.get(pairName);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (webSocket != null) {
+            lastSend = lastSend.thenCompose(w -> w.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+            webSocket = null;
+        }
+    }
+
+    private void connect() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+        httpClient.newWebSocketBuilder() //
+                .buildAsync(uri, new Listener()) //
+                .whenComplete((w, ex) -> {
+                    if (ex != null) {
+                        logger.warn("Connection to " + uri + " failed", ex);
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private synchronized void onOpen(@NotNull final WebSocket openedWebSocket) {
+        logger.info("Connected to {}", uri);
+        webSocket = openedWebSocket;
+        lastSend = CompletableFuture.completedFuture(openedWebSocket);
+        reconnectDelay = initialReconnectDelay;
+        sendSubscriptions(ImmutableList.copyOf(subscribedPairNames));
+    }
+
+    private synchronized void scheduleReconnect() {
+        webSocket = null;
+        if (closed) {
+            return;
+        }
+        logger.info("Reconnecting to {} in {}", uri, reconnectDelay);
+        reconnectScheduler.schedule(this::connect, reconnectDelay.toMillis(), TimeUnit.MILLISECONDS);
+        final Duration doubledReconnectDelay = reconnectDelay.multipliedBy(2);
+        reconnectDelay = doubledReconnectDelay.compareTo(MAX_RECONNECT_DELAY) > 0
+                ? MAX_RECONNECT_DELAY
+                : doubledReconnectDelay;
+    }
+
+    /**
+     * Must be called while holding the lock of this.
+     */
+    private void sendSubscriptions(@NotNull final ImmutableList<String> pairNames) {
+        if (pairNames.isEmpty()) {
+            return;
+        }
+        for (final String channelName : CHANNEL_NAMES) {
+            final ObjectNode message = objectMapper.createObjectNode();
+            message.put("event", "subscribe");
+            pairNames.forEach(message.putArray("pair")::add);
+            message.putObject("subscription").put("name", channelName);
+            final String text = message.toString();
+            lastSend = lastSend.thenCompose(w -> w.sendText(text, true));
+        }
+        lastSend.whenComplete((w, ex) -> {
+            if (ex != null) {
+                logger.warn("Subscription of " + pairNames + " could not be sent", ex);
+            }
+        });
+    }
+
+    private void handleMessage(@NotNull final String text) {
+        try {
+            final JsonNode message = objectMapper.readTree(text);
+            if (message.isArray()) {
+                handleChannelMessage(message);
+            } else if ("subscriptionStatus".equals(message.path("event").asText())
+                    && "error".equals(message.path("status").asText())) {
+                logger.warn("Subscription failed: {}", text);
+            }
+        } catch (@NotNull final JsonProcessingException | RuntimeException ex) {
+            logger.warn("Unexpected message [" + text + "]", ex);
+        }
+    }
+
+    /**
+     * Input data structure:
+     *
+     * <pre>
+     *     [channelID, {"a": [price, wholeLotVolume, lotVolume], "b": [...], ...}, "ticker", pair]
+     *     [channelID, [bid, ask, timestamp, bidVolume, askVolume], "spread", pair]
+     * </pre>
+     */
+    private void handleChannelMessage(@NotNull final JsonNode message) {
+        final int size = message.size();
+        if (size < 4) {
+            return;
+        }
+        final String channelName = message.get(size - 2).asText();
+        final String pairName = message.get(size - 1).asText();
+        final JsonNode payload = message.get(1);
+        final String bidPrice;
+        final String askPrice;
+        if ("ticker".equals(channelName)) {
+            bidPrice = payload.path("b").path(0).asText();
+            askPrice = payload.path("a").path(0).asText();
+        } else if ("spread".equals(channelName)) {
+            bidPrice = payload.path(0).asText();
+            askPrice = payload.path(1).asText();
+        } else {
+            return;
+        }
+        quotesByPairNames.put(pairName, new KrakenQuoteDto(pairName, new BigDecimal(bidPrice),
+                new BigDecimal(askPrice), clock.instant()));
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        @NotNull
+        private final StringBuilder textParts = new StringBuilder();
+
+        @Override
+        public void onOpen(@NotNull final WebSocket openedWebSocket) {
+            KrakenWebSocketMarketDataConnectorImpl.this.onOpen(openedWebSocket);
+            openedWebSocket.request(1);
+        }
+
+        @Nullable
+        @Override
+        public CompletionStage<?> onText(@NotNull final WebSocket receivingWebSocket,
+                                         @NotNull final CharSequence data,
+                                         final boolean last) {
+            textParts.append(data);
+            if (last) {
+                handleMessage(textParts.toString());
+                textParts.setLength(0);
+            }
+            receivingWebSocket.request(1);
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public CompletionStage<?> onClose(@NotNull final WebSocket closedWebSocket,
+                                          final int statusCode,
+                                          @NotNull final String reason) {
+            logger.info("Connection to {} closed [{}, {}]", uri, statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(@NotNull final WebSocket failedWebSocket,
+                            @NotNull final Throwable error) {
+            logger.warn("Connection to " + uri + " failed", error);
+            scheduleReconnect();
+        }
+    }
+}
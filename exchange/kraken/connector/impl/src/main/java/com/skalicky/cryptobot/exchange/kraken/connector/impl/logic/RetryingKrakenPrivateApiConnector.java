@@ -0,0 +1,110 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAddOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPrivateApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.retry.KrakenRetryingCallExecutor;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Retries failed calls of the delegate according to the retry policies of their methods.
+ */
+public class RetryingKrakenPrivateApiConnector implements KrakenPrivateApiConnector {
+    @NotNull
+    private final KrakenPrivateApiConnector delegate;
+    @NotNull
+    private final KrakenRetryingCallExecutor retryingCallExecutor;
+
+    public RetryingKrakenPrivateApiConnector(@NotNull final KrakenPrivateApiConnector delegate,
+                                             @NotNull final KrakenRetryingCallExecutor retryingCallExecutor) {
+        this.delegate = delegate;
+        this.retryingCallExecutor = retryingCallExecutor;
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenOpenOrderResultDto> openOrders(final boolean includeTrades) {
+        return retryingCallExecutor.execute(KrakenApi.Method.OPEN_ORDERS, () -> delegate.openOrders(includeTrades));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenOpenOrderResultDto> openOrders(final boolean includeTrades,
+                                                                  final int userReference) {
+        return retryingCallExecutor.execute(KrakenApi.Method.OPEN_ORDERS,
+                () -> delegate.openOrders(includeTrades, userReference));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(final boolean includeTrades,
+                                                                      @NotNull final Long fromInEpochSeconds) {
+        return retryingCallExecutor.execute(KrakenApi.Method.CLOSED_ORDERS,
+                () -> delegate.closedOrders(includeTrades, fromInEpochSeconds));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(final boolean includeTrades,
+                                                                      @NotNull final Long fromInEpochSeconds,
+                                                                      final int userReference) {
+        return retryingCallExecutor.execute(KrakenApi.Method.CLOSED_ORDERS,
+                () -> delegate.closedOrders(includeTrades, fromInEpochSeconds, userReference));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenClosedOrderResultDto> closedOrders(final boolean includeTrades,
+                                                                      @NotNull final Long fromInEpochSeconds,
+                                                                      @NotNull final Long toInEpochSeconds,
+                                                                      final int offset) {
+        return retryingCallExecutor.execute(KrakenApi.Method.CLOSED_ORDERS,
+                () -> delegate.closedOrders(includeTrades, fromInEpochSeconds, toInEpochSeconds, offset));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<Map<String, BigDecimal>> balance() {
+        return retryingCallExecutor.execute(KrakenApi.Method.BALANCE, delegate::balance);
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<KrakenAddOrderResultDto> addOrder(@NotNull final String krakenMarketName,
+                                                               @NotNull final String krakenOrderType,
+                                                               @NotNull final String krakenPriceOrderType,
+                                                               @NotNull final BigDecimal price,
+                                                               @NotNull final BigDecimal volumeInQuoteCurrency,
+                                                               @NotNull final ImmutableList<String> orderFlags,
+                                                               final long orderExpirationInSecondsFromNow,
+                                                               final int userReference) {
+        return retryingCallExecutor.execute(KrakenApi.Method.ADD_ORDER,
+                () -> delegate.addOrder(krakenMarketName, krakenOrderType, krakenPriceOrderType, price,
+                        volumeInQuoteCurrency, orderFlags, orderExpirationInSecondsFromNow, userReference));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.retry.KrakenRetryingCallExecutor;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Retries failed calls of the delegate according to the retry policies of their methods.
+ */
+public class RetryingKrakenPublicApiConnector implements KrakenPublicApiConnector {
+    @NotNull
+    private final KrakenPublicApiConnector delegate;
+    @NotNull
+    private final KrakenRetryingCallExecutor retryingCallExecutor;
+
+    public RetryingKrakenPublicApiConnector(@NotNull final KrakenPublicApiConnector delegate,
+                                            @NotNull final KrakenRetryingCallExecutor retryingCallExecutor) {
+        this.delegate = delegate;
+        this.retryingCallExecutor = retryingCallExecutor;
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<Map<String, Map<String, Object>>> ticker(@NotNull final ImmutableList<String> marketNames) {
+        return retryingCallExecutor.execute(KrakenApi.Method.TICKER, () -> delegate.ticker(marketNames));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<Map<String, KrakenDepthDto>> depth(@NotNull final String marketName,
+                                                                final int count) {
+        return retryingCallExecutor.execute(KrakenApi.Method.DEPTH, () -> delegate.depth(marketName, count));
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<Map<String, KrakenAssetPairDto>> assetPairs() {
+        return retryingCallExecutor.execute(KrakenApi.Method.ASSET_PAIRS, delegate::assetPairs);
+    }
+
+    @NotNull
+    @Override
+    public KrakenResponseDto<Map<String, KrakenAssetDto>> assets() {
+        return retryingCallExecutor.execute(KrakenApi.Method.ASSETS, delegate::assets);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import com.google.common.collect.ImmutableSortedMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of one Kraken API method. Thread-safe.
+ */
+class KrakenMethodMetrics {
+
+    @NotNull
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    @NotNull
+    private final LongAdder requestCount = new LongAdder();
+    @NotNull
+    private final LongAdder failedRequestCount = new LongAdder();
+    @NotNull
+    private final LongAdder sentByteCount = new LongAdder();
+    @NotNull
+    private final LongAdder receivedByteCount = new LongAdder();
+    @NotNull
+    private final LongAdder apiCost = new LongAdder();
+    @NotNull
+    private final Map<String, LongAdder> errorCountsByCodes = new ConcurrentHashMap<>();
+
+    void recordRequest(final long durationInNanos,
+                       final long sentByteCount,
+                       final long receivedByteCount,
+                       final int apiCost,
+                       final boolean failed) {
+        latencyHistogram.record(TimeUnit.NANOSECONDS.toMicros(durationInNanos));
+        requestCount.increment();
+        if (failed) {
+            failedRequestCount.increment();
+        }
+        this.sentByteCount.add(sentByteCount);
+        this.receivedByteCount.add(receivedByteCount);
+        this.apiCost.add(apiCost);
+    }
+
+    void recordError(@NotNull final String errorCode) {
+        errorCountsByCodes.computeIfAbsent(errorCode, code -> new LongAdder()).increment();
+    }
+
+    @NotNull
+    KrakenMethodMetricsSnapshot snapshot(@NotNull final String methodName) {
+        final var errorCounts = ImmutableSortedMap.<String, Long>naturalOrder();
+        errorCountsByCodes.forEach((errorCode, count) -> errorCounts.put(errorCode, count.sum()));
+        return new KrakenMethodMetricsSnapshot(methodName, requestCount.sum(), failedRequestCount.sum(),
+                errorCounts.build(), sentByteCount.sum(), receivedByteCount.sum(), apiCost.sum(),
+                latencyHistogram.snapshot());
+    }
+}
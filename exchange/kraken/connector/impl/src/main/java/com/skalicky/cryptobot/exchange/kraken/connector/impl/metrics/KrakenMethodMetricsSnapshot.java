@@ -0,0 +1,105 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import com.google.common.collect.ImmutableSortedMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Metrics of one Kraken API method collected so far.
+ */
+public class KrakenMethodMetricsSnapshot {
+
+    @NotNull
+    private final String method;
+    private final long requestCount;
+    private final long failedRequestCount;
+    @NotNull
+    private final ImmutableSortedMap<String, Long> errorCountsByCodes;
+    private final long sentByteCount;
+    private final long receivedByteCount;
+    private final long apiCost;
+    @NotNull
+    private final LatencySnapshot latency;
+
+    public KrakenMethodMetricsSnapshot(@NotNull final String method,
+                                       final long requestCount,
+                                       final long failedRequestCount,
+                                       @NotNull final ImmutableSortedMap<String, Long> errorCountsByCodes,
+                                       final long sentByteCount,
+                                       final long receivedByteCount,
+                                       final long apiCost,
+                                       @NotNull final LatencySnapshot latency) {
+        this.method = method;
+        this.requestCount = requestCount;
+        this.failedRequestCount = failedRequestCount;
+        this.errorCountsByCodes = errorCountsByCodes;
+        this.sentByteCount = sentByteCount;
+        this.receivedByteCount = receivedByteCount;
+        this.apiCost = apiCost;
+        this.latency = latency;
+    }
+
+    /**
+     * Name of the method in the Kraken API, e.g. "Balance".
+     */
+    @NotNull
+    public String getMethod() {
+        return method;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Requests which have not received a complete response, e.g. due to a timeout.
+     */
+    public long getFailedRequestCount() {
+        return failedRequestCount;
+    }
+
+    /**
+     * Errors returned by Kraken, e.g. "EAPI:Invalid nonce", without their additional text.
+     */
+    @NotNull
+    public ImmutableSortedMap<String, Long> getErrorCountsByCodes() {
+        return errorCountsByCodes;
+    }
+
+    public long getSentByteCount() {
+        return sentByteCount;
+    }
+
+    public long getReceivedByteCount() {
+        return receivedByteCount;
+    }
+
+    /**
+     * By how much the requests have increased the API counter of the API key in total.
+     */
+    public long getApiCost() {
+        return apiCost;
+    }
+
+    @NotNull
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring.KrakenRequestListener;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects latencies, failures, Kraken error codes, transferred bytes and API counter costs per Kraken API method of
+ * one account. Requests are recorded as a {@link KrakenRequestListener} of {@link KrakenApi}, i.e. each attempt of a
+ * retried call separately. Errors are recorded by the caller reading the responses.
+ * <p>
+ * Thread-safe. Recording neither blocks nor allocates once a method has been called.
+ */
+public class KrakenMetrics implements KrakenRequestListener {
+
+    @NotNull
+    private final String account;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final Instant startedAt;
+    /**
+     * Sorted by method to keep the order of the snapshots stable.
+     */
+    @NotNull
+    private final Map<KrakenApi.Method, KrakenMethodMetrics> metricsByMethods = new ConcurrentSkipListMap<>();
+
+    public KrakenMetrics(@NotNull final String account,
+                         @NotNull final Clock clock) {
+        this.account = account;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+    }
+
+    @Override
+    public void requestCompleted(@NotNull final KrakenApi.Method method,
+                                 final long durationInNanos,
+                                 final long sentByteCount,
+                                 final long receivedByteCount,
+                                 final int apiCost,
+                                 @Nullable final Exception failure) {
+        metricsOf(method).recordRequest(durationInNanos, sentByteCount, receivedByteCount, apiCost, failure != null);
+    }
+
+    /**
+     * @param error an error returned by Kraken, e.g. "EGeneral:Invalid arguments:volume"
+     */
+    public void recordError(@NotNull final KrakenApi.Method method,
+                            @NotNull final String error) {
+        metricsOf(method).recordError(errorCodeOf(error));
+    }
+
+    @NotNull
+    public KrakenMetricsSnapshot snapshot() {
+        return new KrakenMetricsSnapshot(account, startedAt, clock.instant(), metricsByMethods.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey().name))
+                .collect(ImmutableList.toImmutableList()));
+    }
+
+    @NotNull
+    private KrakenMethodMetrics metricsOf(@NotNull final KrakenApi.Method method) {
+        return metricsByMethods.computeIfAbsent(method, m -> new KrakenMethodMetrics());
+    }
+
+    /**
+     * Strips the additional text of the error, e.g. the name of an invalid argument, since the number of different
+     * errors would be unbounded otherwise.
+     */
+    @NotNull
+    static String errorCodeOf(@NotNull final String error) {
+        final int categoryEnd = error.indexOf(':');
+        if (categoryEnd < 0) {
+            return error;
+        }
+        final int messageEnd = error.indexOf(':', categoryEnd + 1);
+        return messageEnd < 0 ? error : error.substring(0, messageEnd);
+    }
+}
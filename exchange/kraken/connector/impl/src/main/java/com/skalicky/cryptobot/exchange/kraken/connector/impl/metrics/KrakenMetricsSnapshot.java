@@ -0,0 +1,75 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+
+/**
+ * Metrics of all Kraken API methods called on behalf of one account so far.
+ */
+public class KrakenMetricsSnapshot {
+
+    @NotNull
+    private final String account;
+    @NotNull
+    private final Instant startedAt;
+    @NotNull
+    private final Instant takenAt;
+    @NotNull
+    private final ImmutableList<KrakenMethodMetricsSnapshot> methods;
+
+    public KrakenMetricsSnapshot(@NotNull final String account,
+                                 @NotNull final Instant startedAt,
+                                 @NotNull final Instant takenAt,
+                                 @NotNull final ImmutableList<KrakenMethodMetricsSnapshot> methods) {
+        this.account = account;
+        this.startedAt = startedAt;
+        this.takenAt = takenAt;
+        this.methods = methods;
+    }
+
+    @NotNull
+    public String getAccount() {
+        return account;
+    }
+
+    /**
+     * Since when the metrics are collected.
+     */
+    @NotNull
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    @NotNull
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Only methods which have been called at least once.
+     */
+    @NotNull
+    public ImmutableList<KrakenMethodMetricsSnapshot> getMethods() {
+        return methods;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in microseconds with a bounded relative error, in the manner of HdrHistogram. Each power of
+ * two is divided into {@value #SUB_BUCKET_COUNT} equally wide buckets, hence a recorded value is off by less than
+ * 1 / {@value #SUB_BUCKET_COUNT} (~3 %) of itself and the histogram has a fixed size regardless of the range of the
+ * recorded values.
+ * <p>
+ * Thread-safe without locking. A snapshot taken concurrently with recording may miss the values being recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * Enough for every non-negative long.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    @NotNull
+    private final AtomicLongArray countsByBuckets = new AtomicLongArray(BUCKET_COUNT);
+    @NotNull
+    private final LongAdder totalCount = new LongAdder();
+    @NotNull
+    private final LongAdder totalInMicros = new LongAdder();
+    @NotNull
+    private final AtomicLong minInMicros = new AtomicLong(Long.MAX_VALUE);
+    @NotNull
+    private final AtomicLong maxInMicros = new AtomicLong();
+
+    /**
+     * Negative values, e.g. caused by a clock adjustment, are recorded as zero.
+     */
+    public void record(final long valueInMicros) {
+        final long value = Math.max(0, valueInMicros);
+        countsByBuckets.incrementAndGet(bucketIndexOf(value));
+        totalCount.increment();
+        totalInMicros.add(value);
+        minInMicros.accumulateAndGet(value, Math::min);
+        maxInMicros.accumulateAndGet(value, Math::max);
+    }
+
+    @NotNull
+    public LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; ++bucketIndex) {
+            counts[bucketIndex] = countsByBuckets.get(bucketIndex);
+            count += counts[bucketIndex];
+        }
+        if (count == 0) {
+            return new LatencySnapshot(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        final long max = maxInMicros.get();
+        return new LatencySnapshot(count,
+                minInMicros.get(),
+                totalInMicros.sum() / Math.max(1, totalCount.sum()),
+                percentile(counts, count, max, 500),
+                percentile(counts, count, max, 900),
+                percentile(counts, count, max, 990),
+                percentile(counts, count, max, 999),
+                max);
+    }
+
+    /**
+     * The rank is computed in integers since e.g. 0.999 * 1000 is slightly more than 999 in doubles.
+     *
+     * @return the highest value equivalent to the values at the given per mille, but never more than the maximum
+     */
+    private static long percentile(@NotNull final long[] counts,
+                                   final long count,
+                                   final long max,
+                                   final long perMille) {
+        final long rank = Math.max(1, (perMille * count + 999) / 1000);
+        long cumulativeCount = 0;
+        for (int bucketIndex = 0; bucketIndex < counts.length; ++bucketIndex) {
+            cumulativeCount += counts[bucketIndex];
+            if (cumulativeCount >= rank) {
+                return Math.min(highestValueOf(bucketIndex), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketIndexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long highestValueOf(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        final int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        final long lowestValue = (long) (SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
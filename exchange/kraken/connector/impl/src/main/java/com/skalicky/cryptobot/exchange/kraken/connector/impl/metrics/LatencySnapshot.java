@@ -0,0 +1,84 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+/**
+ * Latencies in microseconds recorded by a {@link LatencyHistogram} so far. All values are 0 if nothing is recorded.
+ */
+public class LatencySnapshot {
+
+    private final long count;
+    private final long minInMicros;
+    private final long meanInMicros;
+    private final long p50InMicros;
+    private final long p90InMicros;
+    private final long p99InMicros;
+    private final long p999InMicros;
+    private final long maxInMicros;
+
+    public LatencySnapshot(final long count,
+                           final long minInMicros,
+                           final long meanInMicros,
+                           final long p50InMicros,
+                           final long p90InMicros,
+                           final long p99InMicros,
+                           final long p999InMicros,
+                           final long maxInMicros) {
+        this.count = count;
+        this.minInMicros = minInMicros;
+        this.meanInMicros = meanInMicros;
+        this.p50InMicros = p50InMicros;
+        this.p90InMicros = p90InMicros;
+        this.p99InMicros = p99InMicros;
+        this.p999InMicros = p999InMicros;
+        this.maxInMicros = maxInMicros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMinInMicros() {
+        return minInMicros;
+    }
+
+    public long getMeanInMicros() {
+        return meanInMicros;
+    }
+
+    public long getP50InMicros() {
+        return p50InMicros;
+    }
+
+    public long getP90InMicros() {
+        return p90InMicros;
+    }
+
+    public long getP99InMicros() {
+        return p99InMicros;
+    }
+
+    public long getP999InMicros() {
+        return p999InMicros;
+    }
+
+    public long getMaxInMicros() {
+        return maxInMicros;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * JDK Flight Recorder event covering one HTTP request to the Kraken API, i.e. one attempt of a call.
+ */
+@Name("com.skalicky.cryptobot.KrakenRequest")
+@Label("Kraken Request")
+@Category({"Crypto Bot", "Exchange"})
+@Description("HTTP request to the Kraken API")
+class KrakenRequestEvent extends Event {
+
+    @Label("Method")
+    @Nullable
+    String method;
+
+    @Label("Status")
+    @Description("OK, or the simple name of the exception the request failed with")
+    @Nullable
+    String status;
+
+    @Label("Sent Bytes")
+    @DataAmount
+    long sentByteCount;
+
+    @Label("Received Bytes")
+    @DataAmount
+    long receivedByteCount;
+}
@@ -0,0 +1,47 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring;
+
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Gets notified about each request sent to the Kraken API, e.g. to collect metrics. Called by the thread which has
+ * sent the request, hence it should return quickly.
+ */
+@FunctionalInterface
+public interface KrakenRequestListener {
+
+    /**
+     * Called when a request has completed, i.e. its response has been read, or when it has failed.
+     *
+     * @param durationInNanos   from sending the request until the response has been read or the request has failed
+     * @param sentByteCount     the size of the POST data
+     * @param receivedByteCount the number of bytes of the response body read
+     * @param apiCost           by how much the request has increased the API counter of the API key
+     * @param failure           null if a response has been read
+     */
+    void requestCompleted(@NotNull KrakenApi.Method method,
+                          long durationInNanos,
+                          long sentByteCount,
+                          long receivedByteCount,
+                          int apiCost,
+                          @Nullable Exception failure);
+}
@@ -0,0 +1,120 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.ratelimit.KrakenRateLimiter;
+import com.skalicky.cryptobot.shared.tracing.Span;
+import com.skalicky.cryptobot.shared.tracing.SpanKindEnum;
+import com.skalicky.cryptobot.shared.tracing.Tracer;
+import edu.self.kraken.api.KrakenApi;
+import edu.self.kraken.api.KrakenRequestObserver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Observes each request of {@link KrakenApi}: commits a {@link KrakenRequestEvent}, traces the request as a child of
+ * the current span and notifies the listener, e.g. the metrics.
+ */
+public class KrakenRequestMonitor implements KrakenRequestObserver {
+
+    @Nullable
+    private final KrakenRequestListener requestListener;
+    @NotNull
+    private final Tracer tracer;
+
+    /**
+     * @param requestListener null for none
+     */
+    public KrakenRequestMonitor(@Nullable final KrakenRequestListener requestListener,
+                                @NotNull final Tracer tracer) {
+        this.requestListener = requestListener;
+        this.tracer = tracer;
+    }
+
+    @NotNull
+    @Override
+    public Observation requestStarted(@NotNull final KrakenApi.Method method,
+                                      @NotNull final URL url,
+                                      @Nullable final String postData) {
+        return new MonitoredRequest(method, url, postData);
+    }
+
+    private final class MonitoredRequest implements Observation {
+
+        @NotNull
+        private final KrakenApi.Method method;
+        @NotNull
+        private final URL url;
+        private final long sentByteCount;
+        @NotNull
+        private final KrakenRequestEvent event = new KrakenRequestEvent();
+        @NotNull
+        private final Span span;
+        private final long startNanos;
+        @Nullable
+        private CountingInputStream countingResponseBody;
+
+        private MonitoredRequest(@NotNull final KrakenApi.Method method,
+                                 @NotNull final URL url,
+                                 @Nullable final String postData) {
+            this.method = method;
+            this.url = url;
+            // the POST data is URL encoded, hence its length equals its size in bytes
+            this.sentByteCount = postData == null ? 0 : postData.length();
+            event.begin();
+            this.span = tracer.startSpan("KrakenApi." + method.name, SpanKindEnum.CLIENT);
+            this.startNanos = System.nanoTime();
+        }
+
+        @NotNull
+        @Override
+        public InputStream observeResponseBody(@NotNull final InputStream responseBody) {
+            countingResponseBody = new CountingInputStream(responseBody);
+            return countingResponseBody;
+        }
+
+        @Override
+        public void requestCompleted(@Nullable final Exception failure) {
+            final long receivedByteCount = countingResponseBody == null ? 0 : countingResponseBody.getCount();
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method.name;
+                event.status = failure == null ? "OK" : failure.getClass().getSimpleName();
+                event.sentByteCount = sentByteCount;
+                event.receivedByteCount = receivedByteCount;
+                event.commit();
+            }
+            span.setAttribute("http.method", "POST")
+                    .setAttribute("http.url", url.toString())
+                    .setAttribute("http.request_content_length", sentByteCount)
+                    .setAttribute("http.response_content_length", receivedByteCount);
+            if (failure != null) {
+                span.recordFailure(failure);
+            }
+            span.close();
+            if (requestListener != null) {
+                requestListener.requestCompleted(method, System.nanoTime() - startNanos, sentByteCount,
+                        receivedByteCount, KrakenRateLimiter.costOf(method), failure);
+            }
+        }
+    }
+}
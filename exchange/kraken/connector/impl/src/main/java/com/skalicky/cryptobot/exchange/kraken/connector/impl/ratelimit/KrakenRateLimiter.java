@@ -0,0 +1,243 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.ratelimit;
+
+import edu.self.kraken.api.KrakenApi;
+import edu.self.kraken.api.KrakenRequestThrottle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Models the rate limits Kraken applies to an API key and paces the calls so that they do not fail with
+ * "EAPI:Rate limit exceeded" or "EOrder:Rate limit exceeded".
+ * <p>
+ * Private calls increase the API counter of the key by their cost, see {@link #costOf(KrakenApi.Method)}, and the
+ * counter decays over time. A call exceeding the maximum of the counter waits until enough of it has decayed. Orders
+ * are limited by a separate counter per currency pair which is increased by each AddOrder. The limits depend on the
+ * verification tier of the account.
+ * <p>
+ * An instance is thread-safe and is to be shared by all calls using the same API key. Callers are served in the order
+ * of their arrival, hence a call cannot be starved by cheaper calls overtaking it.
+ */
+public class KrakenRateLimiter implements KrakenRequestThrottle {
+
+    @NotNull
+    private static final String PAIR = "pair";
+
+    private final double maxApiCounter;
+    private final double apiCounterDecayPerSecond;
+    private final double maxTradingCounter;
+    private final double tradingCounterDecayPerSecond;
+    @NotNull
+    private final LongSupplier nanoTimeSupplier;
+
+    @NotNull
+    private final DecayingCounter apiCounter;
+    @NotNull
+    private final Map<String, DecayingCounter> tradingCountersByPairs = new HashMap<>();
+    /**
+     * Callers waiting in {@link #acquire(KrakenApi.Method, Map)} in the order of their arrival.
+     */
+    @NotNull
+    private final Deque<Object> waitingCallers = new ArrayDeque<>();
+
+    /**
+     * @param tier the verification tier of the account owning the API key
+     */
+    public KrakenRateLimiter(@NotNull final Tier tier) {
+        this(tier.maxApiCounter, tier.apiCounterDecayPerSecond, tier.maxTradingCounter,
+                tier.tradingCounterDecayPerSecond, System::nanoTime);
+    }
+
+    KrakenRateLimiter(final double maxApiCounter,
+                      final double apiCounterDecayPerSecond,
+                      final double maxTradingCounter,
+                      final double tradingCounterDecayPerSecond,
+                      @NotNull final LongSupplier nanoTimeSupplier) {
+        this.maxApiCounter = maxApiCounter;
+        this.apiCounterDecayPerSecond = apiCounterDecayPerSecond;
+        this.maxTradingCounter = maxTradingCounter;
+        this.tradingCounterDecayPerSecond = tradingCounterDecayPerSecond;
+        this.nanoTimeSupplier = nanoTimeSupplier;
+        this.apiCounter = new DecayingCounter(maxApiCounter, apiCounterDecayPerSecond, nanoTimeSupplier.getAsLong());
+    }
+
+    /**
+     * Returns by how much the API counter is increased by the given method. Ledger and trade history methods cost 2,
+     * AddOrder and CancelOrder are limited by the trading counters instead and public methods are not counted at all.
+     */
+    public static int costOf(@NotNull final KrakenApi.Method method) {
+        if (method.isPublic) {
+            return 0;
+        }
+        switch (method) {
+            case CLOSED_ORDERS:
+            case QUERY_ORDERS:
+            case TRADES_HISTORY:
+            case QUERY_TRADES:
+            case LEDGERS:
+            case QUERY_LEDGERS:
+                return 2;
+            case ADD_ORDER:
+            case CANCEL_ORDER:
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Waits until the given call fits into the counters and increases them.
+     *
+     * @param parameters used to determine the currency pair of an order
+     */
+    @Override
+    public synchronized void acquire(@NotNull final KrakenApi.Method method,
+                                     @Nullable final Map<String, String> parameters) throws InterruptedException {
+        final int apiCost = costOf(method);
+        final DecayingCounter tradingCounter;
+        if (method == KrakenApi.Method.ADD_ORDER && parameters != null && parameters.get(PAIR) != null) {
+            tradingCounter = tradingCountersByPairs.computeIfAbsent(parameters.get(PAIR),
+                    pair -> new DecayingCounter(maxTradingCounter, tradingCounterDecayPerSecond,
+                            nanoTimeSupplier.getAsLong()));
+        } else {
+            tradingCounter = null;
+        }
+
+        final var caller = new Object();
+        waitingCallers.addLast(caller);
+        try {
+            while (true) {
+                if (waitingCallers.peekFirst() != caller) {
+                    // waits until the callers which have arrived earlier are through
+                    wait();
+                    continue;
+                }
+                final long now = nanoTimeSupplier.getAsLong();
+                long waitNanos = apiCounter.nanosUntilFits(apiCost, now);
+                if (tradingCounter != null) {
+                    waitNanos = Math.max(waitNanos, tradingCounter.nanosUntilFits(1, now));
+                }
+                if (waitNanos <= 0) {
+                    apiCounter.increase(apiCost, now);
+                    if (tradingCounter != null) {
+                        tradingCounter.increase(1, now);
+                    }
+                    return;
+                }
+                // releases the monitor, hence later callers can queue up meanwhile
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            }
+        } finally {
+            // also when interrupted, otherwise the later callers would wait forever
+            waitingCallers.remove(caller);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns how many points can be currently spent without waiting, e.g. to distribute calls among several API keys.
+     */
+    public synchronized double getHeadroom() {
+        return maxApiCounter - apiCounter.valueAt(nanoTimeSupplier.getAsLong());
+    }
+
+    /**
+     * Returns how many orders of the given currency pair can be currently placed without waiting.
+     *
+     * @param pair e.g. XXBTZEUR
+     */
+    public synchronized double getTradingHeadroom(@NotNull final String pair) {
+        final DecayingCounter tradingCounter = tradingCountersByPairs.get(pair);
+        return tradingCounter == null
+                ? maxTradingCounter
+                : maxTradingCounter - tradingCounter.valueAt(nanoTimeSupplier.getAsLong());
+    }
+
+    /**
+     * Verification tiers of Kraken accounts along with their limits.
+     */
+    public enum Tier {
+
+        STARTER(15, 0.33, 60, 1),
+        INTERMEDIATE(20, 0.5, 125, 2.34),
+        PRO(20, 1, 180, 3.75),
+        ;
+
+        private final double maxApiCounter;
+        private final double apiCounterDecayPerSecond;
+        private final double maxTradingCounter;
+        private final double tradingCounterDecayPerSecond;
+
+        Tier(final double maxApiCounter,
+             final double apiCounterDecayPerSecond,
+             final double maxTradingCounter,
+             final double tradingCounterDecayPerSecond) {
+            this.maxApiCounter = maxApiCounter;
+            this.apiCounterDecayPerSecond = apiCounterDecayPerSecond;
+            this.maxTradingCounter = maxTradingCounter;
+            this.tradingCounterDecayPerSecond = tradingCounterDecayPerSecond;
+        }
+    }
+
+    /**
+     * A counter decreasing linearly over time down to zero. Not thread-safe.
+     */
+    private static final class DecayingCounter {
+
+        private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+        private final double max;
+        private final double decayPerSecond;
+        private double value;
+        private long updatedAtNanos;
+
+        private DecayingCounter(final double max,
+                                final double decayPerSecond,
+                                final long nowNanos) {
+            this.max = max;
+            this.decayPerSecond = decayPerSecond;
+            this.updatedAtNanos = nowNanos;
+        }
+
+        private double valueAt(final long nowNanos) {
+            final double decay = (nowNanos - updatedAtNanos) / NANOS_PER_SECOND * decayPerSecond;
+            return Math.max(0, value - decay);
+        }
+
+        private long nanosUntilFits(final int cost,
+                                    final long nowNanos) {
+            final double excess = valueAt(nowNanos) + cost - max;
+            return excess <= 0 ? 0 : (long) Math.ceil(excess / decayPerSecond * NANOS_PER_SECOND);
+        }
+
+        private void increase(final int cost,
+                              final long nowNanos) {
+            value = valueAt(nowNanos) + cost;
+            updatedAtNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Stops calling Kraken after the given count of consecutive transient failures. Calls fail fast while the breaker is
+ * open. After the open duration, one trial call is let through and closes the breaker if it succeeds, otherwise the
+ * breaker stays open for another open duration.
+ * <p>
+ * An instance is thread-safe and is to be shared by all calls to Kraken since an outage affects them all.
+ */
+public class KrakenCircuitBreaker {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenCircuitBreaker.class);
+
+    private final int failureThreshold;
+    @NotNull
+    private final Duration openDuration;
+    @NotNull
+    private final Clock clock;
+
+    private int consecutiveFailureCount;
+    @Nullable
+    private Instant openedAt;
+    private boolean trialCallInProgress;
+
+    public KrakenCircuitBreaker(final int failureThreshold,
+                                @NotNull final Duration openDuration,
+                                @NotNull final Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if the call is the trial call
+     * @throws KrakenApiException if the breaker is open
+     */
+    public synchronized boolean acquirePermission(@NotNull final String methodName) {
+        if (openedAt == null) {
+            return false;
+        }
+        if (trialCallInProgress || clock.instant().isBefore(openedAt.plus(openDuration))) {
+            throw new KrakenApiException(KrakenErrorCategoryEnum.RETRYABLE, "Call of Kraken method " + methodName
+                    + " not attempted since the circuit breaker is open since " + openedAt);
+        }
+        trialCallInProgress = true;
+        return true;
+    }
+
+    /**
+     * To be called when the trial call ended neither with {@link #onSuccess()} nor with {@link #onFailure()}, e.g. by
+     * an {@link Error}. The breaker stays open and lets the next call through as the trial call.
+     */
+    public synchronized void releaseTrialPermission() {
+        trialCallInProgress = false;
+    }
+
+    /**
+     * To be called when Kraken responded, even with an error which is not transient.
+     */
+    public synchronized void onSuccess() {
+        if (openedAt != null) {
+            logger.info("Circuit breaker of Kraken closed");
+        }
+        consecutiveFailureCount = 0;
+        openedAt = null;
+        trialCallInProgress = false;
+    }
+
+    public synchronized void onFailure() {
+        ++consecutiveFailureCount;
+        if (trialCallInProgress || (openedAt == null && consecutiveFailureCount >= failureThreshold)) {
+            openedAt = clock.instant();
+            trialCallInProgress = false;
+            logger.warn("Circuit breaker of Kraken opened for " + openDuration + " after " + consecutiveFailureCount
+                    + " consecutive failures");
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return openedAt != null;
+    }
+}
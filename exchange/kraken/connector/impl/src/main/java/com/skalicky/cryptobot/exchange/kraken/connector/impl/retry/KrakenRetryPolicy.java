@@ -0,0 +1,98 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.google.common.collect.ImmutableSet;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Which failures of a call to Kraken are retried, how often and how long to back off between the attempts.
+ */
+public class KrakenRetryPolicy {
+    private final int maxAttempts;
+    @NotNull
+    private final Duration initialBackoff;
+    @NotNull
+    private final Duration maxBackoff;
+    @NotNull
+    private final ImmutableSet<KrakenErrorCategoryEnum> retriedCategories;
+
+    public KrakenRetryPolicy(final int maxAttempts,
+                             @NotNull final Duration initialBackoff,
+                             @NotNull final Duration maxBackoff,
+                             @NotNull final ImmutableSet<KrakenErrorCategoryEnum> retriedCategories) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed, got [" + maxAttempts + "]");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retriedCategories = retriedCategories;
+    }
+
+    /**
+     * Retries all transient failures, which is safe for calls not changing anything at Kraken. An invalid nonce is not
+     * retried since it indicates a bug in the generation of nonces rather than a transient failure.
+     */
+    @NotNull
+    public static KrakenRetryPolicy forIdempotentCalls(final int maxAttempts,
+                                                       @NotNull final Duration initialBackoff,
+                                                       @NotNull final Duration maxBackoff) {
+        return new KrakenRetryPolicy(maxAttempts, initialBackoff, maxBackoff, ImmutableSet.of(
+                KrakenErrorCategoryEnum.RETRYABLE, KrakenErrorCategoryEnum.RATE_LIMIT));
+    }
+
+    /**
+     * Retries only failures for which Kraken guarantees the call has not been processed. A call which failed
+     * ambiguously, e.g. with a timeout, is not retried since it might have placed an order already.
+     */
+    @NotNull
+    public static KrakenRetryPolicy forNonIdempotentCalls(final int maxAttempts,
+                                                          @NotNull final Duration initialBackoff,
+                                                          @NotNull final Duration maxBackoff) {
+        return new KrakenRetryPolicy(maxAttempts, initialBackoff, maxBackoff, ImmutableSet.of(
+                KrakenErrorCategoryEnum.RATE_LIMIT));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetried(@NotNull final KrakenErrorCategoryEnum category) {
+        return retriedCategories.contains(category);
+    }
+
+    /**
+     * The backoff doubles with each attempt up to the maximum. Half of it is randomized by the given jitter between 0
+     * and 1, hence bots hit by the same outage do not retry in lockstep.
+     *
+     * @param failedAttempt starts with 1
+     */
+    @NotNull
+    public Duration backoffAfter(final int failedAttempt,
+                                 final double jitter) {
+        final long exponentialBackoffInMillis = initialBackoff.toMillis() << Math.min(failedAttempt - 1, 30);
+        final long cappedBackoffInMillis = Math.min(Math.max(exponentialBackoffInMillis, 0), maxBackoff.toMillis());
+        final long halfBackoffInMillis = cappedBackoffInMillis / 2;
+        return Duration.ofMillis(cappedBackoffInMillis - halfBackoffInMillis + (long) (halfBackoffInMillis * jitter));
+    }
+}
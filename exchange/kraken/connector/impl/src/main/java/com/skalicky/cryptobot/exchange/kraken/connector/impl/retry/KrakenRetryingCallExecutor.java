@@ -0,0 +1,147 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorClassifier;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics.KrakenMetrics;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Executes calls to Kraken according to the retry policy of their method, guarded by a circuit breaker. An error
+ * response which is not retried, or is retried too often, is returned as it is. A failed request is rethrown. Errors
+ * returned by Kraken are counted in the metrics, in each attempt.
+ */
+public class KrakenRetryingCallExecutor {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenRetryingCallExecutor.class);
+
+    @NotNull
+    private final KrakenRetryPolicy defaultRetryPolicy;
+    @NotNull
+    private final ImmutableMap<KrakenApi.Method, KrakenRetryPolicy> retryPoliciesByMethods;
+    @NotNull
+    private final KrakenCircuitBreaker circuitBreaker;
+    @NotNull
+    private final Sleeper sleeper;
+    @NotNull
+    private final DoubleSupplier jitterSupplier;
+    @NotNull
+    private final KrakenMetrics metrics;
+
+    public KrakenRetryingCallExecutor(@NotNull final KrakenRetryPolicy defaultRetryPolicy,
+                                      @NotNull final ImmutableMap<KrakenApi.Method, KrakenRetryPolicy> retryPoliciesByMethods,
+                                      @NotNull final KrakenCircuitBreaker circuitBreaker,
+                                      @NotNull final Sleeper sleeper,
+                                      @NotNull final DoubleSupplier jitterSupplier,
+                                      @NotNull final KrakenMetrics metrics) {
+        this.defaultRetryPolicy = defaultRetryPolicy;
+        this.retryPoliciesByMethods = retryPoliciesByMethods;
+        this.circuitBreaker = circuitBreaker;
+        this.sleeper = sleeper;
+        this.jitterSupplier = jitterSupplier;
+        this.metrics = metrics;
+    }
+
+    @NotNull
+    public <T> KrakenResponseDto<T> execute(@NotNull final KrakenApi.Method method,
+                                            @NotNull final Supplier<KrakenResponseDto<T>> call) {
+        final KrakenRetryPolicy retryPolicy = retryPoliciesByMethods.getOrDefault(method, defaultRetryPolicy);
+        for (int attempt = 1; ; ++attempt) {
+            final boolean trialCall = circuitBreaker.acquirePermission(method.name);
+            try {
+                final KrakenResponseDto<T> response = call.get();
+                if (response.getError() == null || response.getError().isEmpty()) {
+                    circuitBreaker.onSuccess();
+                    return response;
+                }
+                response.getError().forEach(error -> metrics.recordError(method, error));
+                final KrakenErrorCategoryEnum category = KrakenErrorClassifier.classify(response.getError());
+                record(category);
+                if (category == KrakenErrorCategoryEnum.INVALID_NONCE) {
+                    logger.error("Kraken method " + method.name + " was rejected due to an invalid nonce. Nonces of "
+                            + "the API key are not increasing, e.g. because the key is used by another client too.");
+                }
+                if (!retryPolicy.isRetried(category) || attempt >= retryPolicy.getMaxAttempts()) {
+                    return response;
+                }
+                logger.warn("Kraken method " + method.name + " returned " + response.getError() + " in attempt "
+                        + attempt + ", going to retry");
+            } catch (@NotNull final KrakenApiException ex) {
+                ex.getErrors().forEach(error -> metrics.recordError(method, error));
+                record(ex.getCategory());
+                if (!retryPolicy.isRetried(ex.getCategory()) || attempt >= retryPolicy.getMaxAttempts()) {
+                    throw ex;
+                }
+                logger.warn("Kraken method " + method.name + " failed in attempt " + attempt + ", going to retry",
+                        ex);
+            } catch (@NotNull final RuntimeException ex) {
+                // Not a failure of Kraken, e.g. a missing API secret.
+                circuitBreaker.onSuccess();
+                throw ex;
+            } catch (@NotNull final Throwable ex) {
+                // E.g. an OutOfMemoryError, which says nothing about Kraken, but must not block later trial calls.
+                if (trialCall) {
+                    circuitBreaker.releaseTrialPermission();
+                }
+                throw ex;
+            }
+            backOff(method, retryPolicy.backoffAfter(attempt, jitterSupplier.getAsDouble()));
+        }
+    }
+
+    /**
+     * Only transient failures indicate that Kraken is in trouble.
+     */
+    private void record(@NotNull final KrakenErrorCategoryEnum category) {
+        if (category == KrakenErrorCategoryEnum.RETRYABLE || category == KrakenErrorCategoryEnum.RATE_LIMIT) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void backOff(@NotNull final KrakenApi.Method method,
+                         @NotNull final Duration backoff) {
+        try {
+            sleeper.sleep(backoff);
+        } catch (@NotNull final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException(KrakenErrorCategoryEnum.FATAL,
+                    "Interrupted while backing off before a retry of Kraken method " + method.name, ex);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Sleeper {
+
+        void sleep(@NotNull Duration duration) throws InterruptedException;
+    }
+}
@@ -20,14 +20,16 @@ import edu.self.kraken.api.KrakenApi.Method;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -43,6 +45,7 @@ class ApiRequest {
     private static final String ERROR_NULL_METHOD = "The API method can't be null.";
     private static final String ERROR_NULL_SIGNATURE = "The signature can't be null.";
     private static final String ERROR_NULL_KEY = "The key can't be null.";
+    private static final String ERROR_NULL_BASE_URL = "The base URL can't be null.";
     private static final String ERROR_NO_PARAMETERS = "The parameters can't be null or empty.";
     private static final String ERROR_INCOMPLETE_PRIVATE_METHOD = "A private method request requires the API key, the message signature and the method parameters.";
 
@@ -50,14 +53,19 @@ class ApiRequest {
     private static final String REQUEST_API_SIGN = "API-Sign";
     private static final String REQUEST_API_KEY = "API-Key";
     private static final String REQUEST_USER_AGENT = "User-Agent";
-    private static final String REQUEST_POST = "POST";
 
-    private static final String PUBLIC_URL = "https://api.kraken.com/0/public/";
-    private static final String PRIVATE_URL = "https://api.kraken.com/0/private/";
+    static final String DEFAULT_BASE_URL = "https://api.kraken.com";
+    private static final String PUBLIC_PATH = "/0/public/";
+    private static final String PRIVATE_PATH = "/0/private/";
 
     private static final String AMPERSAND = "&";
     private static final String EQUAL_SIGN = "=";
 
+    /**
+     * The scheme, host and port the API paths are appended to.
+     */
+    private String baseUrl = DEFAULT_BASE_URL;
+
     /**
      * The request URL.
      */
@@ -78,65 +86,114 @@ class ApiRequest {
      */
     private StringBuilder postData;
 
+    /**
+     * The API method.
+     */
+    private Method method;
+
     /**
      * Tells whether the API method is public or private.
      */
     private boolean isPublic;
 
+    /**
+     * The maximal time to wait for the response, or null for the default
+     * timeout of the transport.
+     */
+    private Duration timeout;
+
+    /**
+     * Observes the request, or null.
+     */
+    private KrakenRequestObserver requestObserver;
+
+    /**
+     * The transport sending the request.
+     */
+    private final KrakenTransport transport;
+
+    /**
+     * @param transport the transport sending the request
+     */
+    ApiRequest(KrakenTransport transport) {
+        this.transport = transport;
+    }
+
     /**
      * Executes the request and returns its response.
      *
      * @return the request's response
-     * @throws IOException if the underlying {@link HttpsURLConnection} could
-     *                     not be set up or executed
+     * @throws IOException if the request could not be set up or executed by
+     *                     the {@link KrakenTransport}
      */
     public String execute() throws IOException {
-        logger.debug("At the beginning of execution: " + this);
+        final String responseString = execute(ApiRequest::readString);
+        logger.debug("At the end of execution: response=" + responseString);
+        return responseString;
+    }
 
-        HttpsURLConnection connection = null;
-        try {
-            connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestMethod(REQUEST_POST);
-            connection.addRequestProperty(REQUEST_USER_AGENT, GITHUB_NYG);
+    /**
+     * Executes the request and lets the given reader consume the response body
+     * as it is received.
+     *
+     * @param responseReader the reader of the response body
+     * @param <T>            the type the response is read into
+     * @return the read response
+     * @throws IOException if the request could not be set up or executed by
+     *                     the {@link KrakenTransport}, or if the response
+     *                     could not be read
+     */
+    public <T> T execute(KrakenResponseReader<T> responseReader) throws IOException {
+        logger.debug("At the beginning of execution: " + this);
 
-            // set key & signature is method is private
-            if (!isPublic) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(REQUEST_USER_AGENT, GITHUB_NYG);
 
-                if (key == null || signature == null || postData == null) {
-                    throw new IllegalStateException(ERROR_INCOMPLETE_PRIVATE_METHOD);
-                }
+        // set key & signature is method is private
+        if (!isPublic) {
 
-                connection.addRequestProperty(REQUEST_API_KEY, key);
-                connection.addRequestProperty(REQUEST_API_SIGN, signature);
+            if (key == null || signature == null || postData == null) {
+                throw new IllegalStateException(ERROR_INCOMPLETE_PRIVATE_METHOD);
             }
 
-            // write POST data to request
-            if (postData != null && !postData.toString().isEmpty()) {
-
-                connection.setDoOutput(true);
+            headers.put(REQUEST_API_KEY, key);
+            headers.put(REQUEST_API_SIGN, signature);
+        }
 
-                try (OutputStreamWriter out = new OutputStreamWriter(connection.getOutputStream())) {
-                    out.write(postData.toString());
-                }
+        String postDataString = postData == null ? null : postData.toString();
+
+        // execute request and read response; closing the stream releases the connection for reuse
+        KrakenRequestObserver.Observation observation = requestObserver == null
+                ? null
+                : requestObserver.requestStarted(method, url, postDataString);
+        Exception failure = null;
+        try (InputStream responseBody = timeout == null
+                ? transport.post(url, headers, postDataString)
+                : transport.post(url, headers, postDataString, timeout)) {
+            return responseReader.read(observation == null
+                    ? responseBody
+                    : observation.observeResponseBody(responseBody));
+        } catch (IOException | RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            if (observation != null) {
+                observation.requestCompleted(failure);
             }
+        }
+    }
 
-            // execute request and read response
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-
-                StringBuilder response = new StringBuilder();
-                String line;
+    private static String readString(InputStream responseBody) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8));
 
-                while ((line = in.readLine()) != null) {
-                    response.append(line);
-                }
+        StringBuilder response = new StringBuilder();
+        String line;
 
-                final String responseString = response.toString();
-                logger.debug("At the end of execution: response=" + responseString);
-                return responseString;
-            }
-        } finally {
-            connection.disconnect();
+        while ((line = in.readLine()) != null) {
+            response.append(line);
         }
+
+        return response.toString();
     }
 
     /**
@@ -153,11 +210,28 @@ class ApiRequest {
             throw new IllegalArgumentException(ERROR_NULL_METHOD);
         }
 
+        this.method = method;
         isPublic = method.isPublic;
-        url = new URL((isPublic ? PUBLIC_URL : PRIVATE_URL) + method.name);
+        url = new URL(baseUrl + (isPublic ? PUBLIC_PATH : PRIVATE_PATH) + method.name);
         return url.getPath();
     }
 
+    /**
+     * Sets the base URL of the API. To be set before the API method.
+     *
+     * @param baseUrl the base URL without a trailing slash, e.g.
+     *                http://localhost:8090 of a simulator
+     * @throws IllegalArgumentException if the base URL is null
+     */
+    public void setBaseUrl(String baseUrl) {
+
+        if (baseUrl == null) {
+            throw new IllegalArgumentException(ERROR_NULL_BASE_URL);
+        }
+
+        this.baseUrl = baseUrl;
+    }
+
     /**
      * Sets the parameters of the API method. Only supports "1-dimension" map.
      * Nulls for keys or values are converted to the string "null".
@@ -183,6 +257,25 @@ class ApiRequest {
         return postData.toString();
     }
 
+    /**
+     * Sets the maximal time to wait for the response.
+     *
+     * @param timeout the timeout, null for the default timeout of the
+     *                transport
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the observer of the request.
+     *
+     * @param requestObserver the observer, null for none
+     */
+    public void setRequestObserver(KrakenRequestObserver requestObserver) {
+        this.requestObserver = requestObserver;
+    }
+
     /**
      * Sets the value of the API-Key request property.
      *
@@ -0,0 +1,113 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A {@link KrakenTransport} backed by a single {@link HttpClient}. The client
+ * keeps a pool of keep-alive connections and resumes TLS sessions, hence
+ * consecutive requests do not pay for a new TCP and TLS handshake.
+ */
+public class HttpClientKrakenTransport implements KrakenTransport {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String FORM_URLENCODED = "application/x-www-form-urlencoded";
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    public HttpClientKrakenTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * @param connectTimeout the maximal time to establish a new connection
+     * @param readTimeout    the maximal time to wait for a response once the
+     *                       request has been sent
+     */
+    public HttpClientKrakenTransport(Duration connectTimeout,
+                                     Duration readTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                // HTTP/1.1 keeps the connections alive and pools them.
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public InputStream post(URL url,
+                            Map<String, String> headers,
+                            String postData) throws IOException {
+        return post(url, headers, postData, readTimeout);
+    }
+
+    @Override
+    public InputStream post(URL url,
+                            Map<String, String> headers,
+                            String postData,
+                            Duration timeout) throws IOException {
+
+        HttpRequest.Builder requestBuilder;
+        try {
+            requestBuilder = HttpRequest.newBuilder(url.toURI()).timeout(timeout);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+        headers.forEach(requestBuilder::header);
+
+        if (postData == null || postData.isEmpty()) {
+            requestBuilder.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            requestBuilder.header(CONTENT_TYPE, FORM_URLENCODED)
+                    .POST(HttpRequest.BodyPublishers.ofString(postData, StandardCharsets.UTF_8));
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the response from " + url, ex);
+        }
+
+        int statusCode = response.statusCode();
+        if (statusCode >= 400) {
+            // Consumes the body so that the connection can be reused.
+            try (InputStream body = response.body()) {
+                body.readAllBytes();
+            }
+            throw new IOException("Server returned HTTP response code: " + statusCode + " for URL: " + url);
+        }
+        return response.body();
+    }
+}
@@ -17,10 +17,15 @@
 package edu.self.kraken.api;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A KrakenApi instance allows querying the Kraken API.
@@ -31,7 +36,8 @@ public class KrakenApi {
 
     private static final String OTP = "otp";
     private static final String NONCE = "nonce";
-    private static final String MICRO_SECONDS = "000";
+    private static final long MICRO_SECONDS_PER_MILLI_SECOND = 1000L;
+    private static final String ERROR_NULL_SECRET = "The API secret must be set to query a private method.";
 
     /**
      * The API key.
@@ -39,9 +45,67 @@ public class KrakenApi {
     private String key;
 
     /**
-     * The API secret.
+     * Signs private requests with the API secret.
      */
-    private String secret;
+    private KrakenRequestSigner signer;
+
+    /**
+     * The transport shared by all requests, hence by their connections.
+     */
+    private final KrakenTransport transport;
+
+    /**
+     * Paces private requests, e.g. according to the rate limits of the API
+     * key. No pacing if null.
+     */
+    private KrakenRequestThrottle requestThrottle;
+
+    /**
+     * Timeouts of the methods which differ from the default timeout of the
+     * transport.
+     */
+    private final Map<Method, Duration> timeoutsByMethods = new EnumMap<>(Method.class);
+
+    /**
+     * Observes each request. None if null.
+     */
+    private KrakenRequestObserver requestObserver;
+
+    /**
+     * The last nonce sent, in microseconds since the epoch.
+     */
+    private final AtomicLong lastNonce = new AtomicLong();
+
+    /**
+     * Held by a private request from the generation of its nonce until its
+     * response is received. Kraken rejects a nonce lower than the one of a
+     * request which arrived before, hence concurrent private requests would
+     * be rejected if they overtook each other on the way. Fair, hence the
+     * requests are sent in the order they were issued.
+     */
+    private final ReentrantLock privateRequestLock = new ReentrantLock(true);
+
+    /**
+     * The scheme, host and port all requests are sent to.
+     */
+    private String baseUrl = ApiRequest.DEFAULT_BASE_URL;
+
+    /**
+     * Creates an instance using a {@link HttpClientKrakenTransport} with
+     * default timeouts.
+     */
+    public KrakenApi() {
+        this(new HttpClientKrakenTransport());
+    }
+
+    /**
+     * Creates an instance sending all requests via the given transport.
+     *
+     * @param transport the transport
+     */
+    public KrakenApi(KrakenTransport transport) {
+        this.transport = transport;
+    }
 
     /**
      * Query a public method of the API with the given parameters.
@@ -55,14 +119,44 @@ public class KrakenApi {
     public String queryPublic(Method method,
                               Map<String, String> parameters) throws IOException {
 
-        ApiRequest request = new ApiRequest();
+        return createPublicRequest(method, parameters).execute();
+    }
+
+    /**
+     * Query a public method of the API with the given parameters and let the
+     * given reader consume the response as it is received.
+     *
+     * @param method         the API method
+     * @param parameters     the method parameters
+     * @param responseReader the reader of the response body
+     * @param <T>            the type the response is read into
+     * @return the read API response
+     * @throws IllegalArgumentException if the API method is null
+     * @throws IOException              if the request could not be created or executed,
+     *                                  or if the response could not be read
+     */
+    public <T> T queryPublicStreamed(Method method,
+                                     Map<String, String> parameters,
+                                     KrakenResponseReader<T> responseReader) throws IOException {
+
+        return createPublicRequest(method, parameters).execute(responseReader);
+    }
+
+    private ApiRequest createPublicRequest(Method method,
+                                           Map<String, String> parameters) throws IOException {
+
+        ApiRequest request = new ApiRequest(transport);
+        request.setBaseUrl(baseUrl);
         request.setMethod(method);
+        request.setTimeout(timeoutsByMethods.get(method));
+        request.setRequestObserver(requestObserver);
 
-        if (parameters != null) {
+        // a public method without parameters is sent without POST data
+        if (parameters != null && !parameters.isEmpty()) {
             request.setParameters(parameters);
         }
 
-        return request.execute();
+        return request;
     }
 
     /**
@@ -92,8 +186,72 @@ public class KrakenApi {
                                String otp,
                                Map<String, String> parameters) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
 
-        ApiRequest request = new ApiRequest();
+        awaitRateLimit(method, parameters);
+        privateRequestLock.lock();
+        try {
+            return createPrivateRequest(method, otp, parameters).execute();
+        } finally {
+            privateRequestLock.unlock();
+        }
+    }
+
+    /**
+     * Query a private method of the API with the given parameters and let the
+     * given reader consume the response as it is received.
+     *
+     * @param method         the private API method
+     * @param parameters     the method parameters
+     * @param responseReader the reader of the response body
+     * @param <T>            the type the response is read into
+     * @return the read API response
+     * @throws IOException              if the request could not be created or executed,
+     *                                  or if the response could not be read
+     * @throws NoSuchAlgorithmException if the SHA-256 or HmacSha512 algorithm
+     *                                  could not be found
+     * @throws InvalidKeyException      if the HMAC key is invalid
+     */
+    public <T> T queryPrivateStreamed(Method method,
+                                      Map<String, String> parameters,
+                                      KrakenResponseReader<T> responseReader) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+
+        awaitRateLimit(method, parameters);
+        privateRequestLock.lock();
+        try {
+            return createPrivateRequest(method, null, parameters).execute(responseReader);
+        } finally {
+            privateRequestLock.unlock();
+        }
+    }
+
+    /**
+     * Waits before the nonce is generated, otherwise requests could be sent
+     * with decreasing nonces and rejected.
+     */
+    private void awaitRateLimit(Method method,
+                                Map<String, String> parameters) throws InterruptedIOException {
+
+        if (requestThrottle != null) {
+            try {
+                requestThrottle.acquire(method, parameters);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interruptedIOException = new InterruptedIOException(
+                        "Interrupted while waiting for the rate limit of " + method.name);
+                interruptedIOException.initCause(ex);
+                throw interruptedIOException;
+            }
+        }
+    }
+
+    private ApiRequest createPrivateRequest(Method method,
+                                            String otp,
+                                            Map<String, String> parameters) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+
+        ApiRequest request = new ApiRequest(transport);
+        request.setBaseUrl(baseUrl);
         request.setKey(key);
+        request.setTimeout(timeoutsByMethods.get(method));
+        request.setRequestObserver(requestObserver);
 
         // clone parameter map
         parameters = parameters == null ? new HashMap<>() : new HashMap<>(parameters);
@@ -103,30 +261,25 @@ public class KrakenApi {
             parameters.put(OTP, otp);
         }
 
-        // generate nonce
-        String nonce = String.valueOf(System.currentTimeMillis()) + MICRO_SECONDS;
+        // generate nonce; Kraken rejects a nonce not greater than the previous one, hence requests created within the
+        // same millisecond get consecutive nonces rather than equal ones
+        String nonce = String.valueOf(lastNonce.updateAndGet(previousNonce -> Math.max(previousNonce + 1,
+                System.currentTimeMillis() * MICRO_SECONDS_PER_MILLI_SECOND)));
         parameters.put(NONCE, nonce);
 
         // set the parameters and retrieve the POST data
         String postData = request.setParameters(parameters);
 
-        // create SHA-256 hash of the nonce and the POST data
-        byte[] sha256 = KrakenUtils.sha256(nonce + postData);
-
         // set the API method and retrieve the path
-        byte[] path = KrakenUtils.stringToBytes(request.setMethod(method));
-
-        // decode the API secret, it's the HMAC key
-        byte[] hmacKey = KrakenUtils.base64Decode(secret);
-
-        // create the HMAC message from the path and the previous hash
-        byte[] hmacMessage = KrakenUtils.concatArrays(path, sha256);
+        String path = request.setMethod(method);
 
-        // create the HMAC-SHA512 digest, encode it and set it as the request signature
-        String hmacDigest = KrakenUtils.base64Encode(KrakenUtils.hmacSha512(hmacKey, hmacMessage));
-        request.setSignature(hmacDigest);
+        // sign the path, the nonce and the POST data with the API secret
+        if (signer == null) {
+            throw new IllegalStateException(ERROR_NULL_SECRET);
+        }
+        request.setSignature(signer.sign(path, nonce, postData));
 
-        return request.execute();
+        return request;
     }
 
     /**
@@ -167,7 +320,56 @@ public class KrakenApi {
      * @param secret the API secret
      */
     public void setSecret(String secret) {
-        this.secret = secret;
+        this.signer = secret == null ? null : new KrakenRequestSigner(secret);
+    }
+
+    /**
+     * Sets the throttle pacing private requests, e.g. a rate limiter of the
+     * API key shared by all instances using the same API key.
+     *
+     * @param requestThrottle the throttle, null for no pacing
+     */
+    public void setRequestThrottle(KrakenRequestThrottle requestThrottle) {
+        this.requestThrottle = requestThrottle;
+    }
+
+    /**
+     * Sets the maximal time to wait for the response of the given method,
+     * e.g. a short one for methods called often and a long one for methods
+     * returning many records. To be set before the first query.
+     *
+     * @param method  the API method
+     * @param timeout the timeout, null for the default timeout of the
+     *                transport
+     */
+    public void setTimeout(Method method,
+                           Duration timeout) {
+        if (timeout == null) {
+            timeoutsByMethods.remove(method);
+        } else {
+            timeoutsByMethods.put(method, timeout);
+        }
+    }
+
+    /**
+     * Sets the observer of each request, e.g. collecting metrics. To be set
+     * before the first query.
+     *
+     * @param requestObserver the observer, null for none
+     */
+    public void setRequestObserver(KrakenRequestObserver requestObserver) {
+        this.requestObserver = requestObserver;
+    }
+
+    /**
+     * Sets the base URL all requests are sent to, e.g. the one of a local
+     * simulator of the API. To be set before the first query.
+     *
+     * @param baseUrl the base URL without a trailing slash, null for
+     *                https://api.kraken.com
+     */
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl == null ? ApiRequest.DEFAULT_BASE_URL : baseUrl;
     }
 
     /**
@@ -0,0 +1,69 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Observes each request sent to the Kraken API, e.g. to collect metrics or to
+ * trace it. Called by the thread which sends the request, hence it should
+ * return quickly.
+ */
+@FunctionalInterface
+public interface KrakenRequestObserver {
+
+    /**
+     * Called right before the request is sent.
+     *
+     * @param method   the API method
+     * @param url      the request URL
+     * @param postData the request's POST data, or null if there is none
+     * @return the observation of this request
+     */
+    Observation requestStarted(KrakenApi.Method method,
+                               URL url,
+                               String postData);
+
+    /**
+     * Observes one request from sending it until its response has been read.
+     */
+    interface Observation {
+
+        /**
+         * Called once the response has been received, e.g. to count the
+         * bytes read.
+         *
+         * @param responseBody the response body
+         * @return the response body to be read, by default the given one
+         */
+        default InputStream observeResponseBody(InputStream responseBody) {
+            return responseBody;
+        }
+
+        /**
+         * Called when the response has been read or when the request has
+         * failed.
+         *
+         * @param failure the exception the request has failed with, null if
+         *                a response has been read
+         */
+        void requestCompleted(Exception failure);
+    }
+}
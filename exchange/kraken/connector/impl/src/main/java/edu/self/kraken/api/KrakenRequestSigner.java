@@ -0,0 +1,124 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Computes the API-Sign header of private requests, i.e. the base64 encoded
+ * HMAC-SHA512 of the URI path and of the SHA-256 of the nonce and the POST
+ * data, keyed by the base64 decoded API secret.
+ * <p>
+ * The secret is decoded only once. {@link Mac} and {@link MessageDigest}
+ * instances are neither thread-safe nor cheap to look up, hence each thread
+ * gets its own initialized instances along with buffers the digests are
+ * written into. An instance can be therefore shared by all threads.
+ */
+final class KrakenRequestSigner {
+
+    private static final String ERROR_NULL_SECRET = "The secret can't be null.";
+    private static final String SHA256 = "SHA-256";
+    private static final String HMAC_SHA512 = "HmacSHA512";
+
+    private final SecretKeySpec hmacKey;
+    private final ThreadLocal<SigningContext> signingContexts = new ThreadLocal<>();
+
+    /**
+     * @param secret the base64 encoded API secret
+     * @throws IllegalArgumentException if the secret is null or not base64
+     *                                  encoded
+     */
+    KrakenRequestSigner(String secret) {
+
+        if (secret == null) {
+            throw new IllegalArgumentException(ERROR_NULL_SECRET);
+        }
+
+        this.hmacKey = new SecretKeySpec(Base64.getDecoder().decode(secret), HMAC_SHA512);
+    }
+
+    /**
+     * Signs a request.
+     *
+     * @param path     the URI path of the request, e.g. /0/private/Balance
+     * @param nonce    the nonce contained in the POST data
+     * @param postData the request's POST data
+     * @return the signature
+     * @throws NoSuchAlgorithmException if the SHA-256 or HmacSha512 algorithm
+     *                                  could not be found
+     * @throws InvalidKeyException      if the HMAC key is invalid
+     */
+    String sign(String path,
+                String nonce,
+                String postData) throws NoSuchAlgorithmException, InvalidKeyException {
+
+        SigningContext context = getSigningContext();
+        try {
+            MessageDigest sha256 = context.sha256;
+            sha256.update(nonce.getBytes(StandardCharsets.UTF_8));
+            sha256.update(postData.getBytes(StandardCharsets.UTF_8));
+            sha256.digest(context.sha256Buffer, 0, context.sha256Buffer.length);
+
+            Mac hmacSha512 = context.hmacSha512;
+            hmacSha512.update(path.getBytes(StandardCharsets.UTF_8));
+            hmacSha512.update(context.sha256Buffer);
+            hmacSha512.doFinal(context.hmacSha512Buffer, 0);
+        } catch (DigestException | ShortBufferException ex) {
+            // cannot happen, the buffers are sized according to the algorithms
+            throw new IllegalStateException(ex);
+        }
+        return Base64.getEncoder().encodeToString(context.hmacSha512Buffer);
+    }
+
+    private SigningContext getSigningContext() throws NoSuchAlgorithmException, InvalidKeyException {
+        SigningContext context = signingContexts.get();
+        if (context == null) {
+            context = new SigningContext(hmacKey);
+            signingContexts.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Initialized algorithms and their output buffers confined to one thread.
+     */
+    private static final class SigningContext {
+
+        private final MessageDigest sha256;
+        private final Mac hmacSha512;
+        private final byte[] sha256Buffer;
+        private final byte[] hmacSha512Buffer;
+
+        private SigningContext(SecretKeySpec hmacKey) throws NoSuchAlgorithmException, InvalidKeyException {
+            this.sha256 = MessageDigest.getInstance(SHA256);
+            this.hmacSha512 = Mac.getInstance(HMAC_SHA512);
+            this.hmacSha512.init(hmacKey);
+            this.sha256Buffer = new byte[sha256.getDigestLength()];
+            this.hmacSha512Buffer = new byte[hmacSha512.getMacLength()];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import java.util.Map;
+
+/**
+ * Paces private requests, e.g. according to the rate limits of the API key.
+ * Called before the nonce of a request is generated.
+ */
+@FunctionalInterface
+public interface KrakenRequestThrottle {
+
+    /**
+     * Waits until the given call may be sent.
+     *
+     * @param method     the API method to be called
+     * @param parameters the parameters of the call, or null if there are none
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire(KrakenApi.Method method,
+                 Map<String, String> parameters) throws InterruptedException;
+}
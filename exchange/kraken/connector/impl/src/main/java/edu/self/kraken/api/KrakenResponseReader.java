@@ -0,0 +1,40 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the body of a Kraken API response while it is being received, e.g.
+ * binds it directly to a target type instead of buffering it as a string
+ * first.
+ *
+ * @param <T> the type the response is read into
+ */
+@FunctionalInterface
+public interface KrakenResponseReader<T> {
+
+    /**
+     * @param responseBody the response body; closed by the caller
+     * @return the read response
+     * @throws IOException if the response could not be read
+     */
+    T read(InputStream responseBody) throws IOException;
+}
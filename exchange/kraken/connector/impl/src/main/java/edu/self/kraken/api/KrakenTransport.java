@@ -0,0 +1,68 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Transports the HTTPS requests of the Kraken API. Allows to replace the way
+ * how connections to Kraken are established and reused.
+ */
+public interface KrakenTransport {
+
+    /**
+     * Sends a POST request and returns the body of its response. The caller
+     * is responsible for closing the returned stream; closing it releases the
+     * underlying connection for reuse.
+     *
+     * @param url      the request URL
+     * @param headers  the request headers
+     * @param postData the request's POST data, or null if there is none
+     * @return the response body
+     * @throws IOException if the request could not be executed or the response
+     *                     status is not successful
+     */
+    InputStream post(URL url,
+                     Map<String, String> headers,
+                     String postData) throws IOException;
+
+    /**
+     * Sends a POST request waiting for its response at most the given time.
+     * Transports without a configurable timeout ignore it.
+     *
+     * @param url      the request URL
+     * @param headers  the request headers
+     * @param postData the request's POST data, or null if there is none
+     * @param timeout  the maximal time to wait for a response once the
+     *                 request has been sent
+     * @return the response body
+     * @throws IOException if the request could not be executed, timed out or
+     *                     the response status is not successful
+     */
+    default InputStream post(URL url,
+                             Map<String, String> headers,
+                             String postData,
+                             Duration timeout) throws IOException {
+        return post(url, headers, postData);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import edu.self.kraken.api.KrakenResponseReader;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+final class KrakenApiAnswers {
+
+    private KrakenApiAnswers() {
+    }
+
+    /**
+     * Lets the {@link KrakenResponseReader} passed as the last argument of a mocked {@code KrakenApi} query read
+     * the given response body.
+     */
+    @NotNull
+    static Answer<Object> respondWith(@NotNull final String responseBody) {
+        return invocation -> {
+            final KrakenResponseReader<?> responseReader = invocation.getArgument(
+                    invocation.getArguments().length - 1);
+            return responseReader.read(new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)));
+        };
+    }
+}
@@ -34,9 +34,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Map;
 
+import static com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.KrakenApiAnswers.respondWith;
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -72,13 +75,14 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(KrakenApi.Method.BALANCE)).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.BALANCE), eq(Collections.emptyMap()), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<Map<String, BigDecimal>> connectorResponse = krakenPrivateApiConnectorImpl.balance();
 
         // Then
-        verify(krakenApi).queryPrivate(KrakenApi.Method.BALANCE);
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.BALANCE), eq(Collections.emptyMap()), any());
 
         then(connectorResponse.getError()).isEmpty();
         then(connectorResponse.getResult()).hasSize(3);
@@ -106,15 +110,25 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.ADD_ORDER), anyMap())).willReturn(krakenApiResponse);
+        final Map<String, String> expectedParameters = Map.of(
+                "pair", "XBTEUR",
+                "type", "buy",
+                "ordertype", "limit",
+                "price", "6000.9",
+                "volume", "0.002",
+                "oflags", "fciq",
+                "expiretm", "+1",
+                "userref", "12345");
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.ADD_ORDER), eq(expectedParameters), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenAddOrderResultDto> connectorResponse = krakenPrivateApiConnectorImpl.addOrder(
                 "XBTEUR", "buy", "limit", new BigDecimal("6000.9"),
-                new BigDecimal("0.002"), ImmutableList.of("fciq"), 1);
+                new BigDecimal("0.002"), ImmutableList.of("fciq"), 1, 12345);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.ADD_ORDER), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.ADD_ORDER), eq(expectedParameters), any());
 
         then(connectorResponse.getError()).isEmpty();
         // Asserts to avoid warnings caused by presence of @Nullable.
@@ -139,15 +153,16 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    \"error\": [\"EGeneral:Permission denied\"]" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.ADD_ORDER), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.ADD_ORDER), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenAddOrderResultDto> connectorResponse = krakenPrivateApiConnectorImpl.addOrder(
                 "LTCEUR", "buy", "market", new BigDecimal(40),
-                BigDecimal.ONE, ImmutableList.of(), 1);
+                BigDecimal.ONE, ImmutableList.of(), 1, 12345);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.ADD_ORDER), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.ADD_ORDER), anyMap(), any());
 
         // isNotNull() to avoid warnings caused by presence of @Nullable.
         then(connectorResponse.getError()) //
@@ -197,14 +212,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenOpenOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.openOrders(false);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any());
 
         then(connectorResponse.getError()).isEmpty();
         // Asserts to avoid warnings caused by presence of @Nullable.
@@ -273,14 +289,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenOpenOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.openOrders(false);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any());
 
         // Asserts to avoid warnings caused by presence of @Nullable.
         then(connectorResponse.getResult()).isNotNull();
@@ -309,14 +326,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenOpenOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.openOrders(false);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.OPEN_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), anyMap(), any());
 
         // Asserts to avoid warnings caused by presence of @Nullable.
         then(connectorResponse.getResult()).isNotNull();
@@ -369,14 +387,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenClosedOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.closedOrders(false, 1583703494L);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any());
 
         then(connectorResponse.getError()).isEmpty();
         // Asserts to avoid warnings caused by presence of @Nullable.
@@ -404,6 +423,41 @@ public class KrakenPrivateApiConnectorImplUTest {
         then(orderDescription.getPrice()).isEqualTo(new BigDecimal("7230.4"));
     }
 
+    @Test
+    public void test_closedOrders_when_pageRequested_then_rangeAndOffsetAreSent() throws Exception {
+
+        // Given
+        // @formatter:off
+        final var krakenApiResponse = "{" +
+                "    \"error\": []," +
+                "    \"result\": {" +
+                "        \"closed\": {}," +
+                "        \"count\": 120" +
+                "    }" +
+                "}";
+        // @formatter:on
+        final Map<String, String> expectedParameters = Map.of(
+                "trades", "true",
+                "start", "1583703494",
+                "end", "1583833094",
+                "ofs", "100");
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), eq(expectedParameters), any()))
+                .willAnswer(respondWith(krakenApiResponse));
+
+        // When
+        final KrakenResponseDto<KrakenClosedOrderResultDto> connectorResponse =
+                krakenPrivateApiConnectorImpl.closedOrders(true, 1583703494L, 1583833094L, 100);
+
+        // Then
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), eq(expectedParameters), any());
+
+        then(connectorResponse.getError()).isEmpty();
+        // Asserts to avoid warnings caused by presence of @Nullable.
+        then(connectorResponse.getResult()).isNotNull();
+        then(connectorResponse.getResult().getCount()).isEqualTo(120);
+        then(connectorResponse.getResult().getClosed()).isEmpty();
+    }
+
     @Test
     public void test_closedOrders_when_includeTradeIsTrue_then_tradesRetrieved() throws Exception {
 
@@ -450,14 +504,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenClosedOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.closedOrders(false, 1583703494L);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any());
 
         // Asserts to avoid warnings caused by presence of @Nullable.
         then(connectorResponse.getResult()).isNotNull();
@@ -487,14 +542,15 @@ public class KrakenPrivateApiConnectorImplUTest {
                 "    }" +
                 "}";
         // @formatter:on
-        given(krakenApi.queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap())).willReturn(krakenApiResponse);
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any()))
+                .willAnswer(respondWith(krakenApiResponse));
 
         // When
         final KrakenResponseDto<KrakenClosedOrderResultDto> connectorResponse =
                 krakenPrivateApiConnectorImpl.closedOrders(false, 1583703494L);
 
         // Then
-        verify(krakenApi).queryPrivate(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap());
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), anyMap(), any());
 
         // Asserts to avoid warnings caused by presence of @Nullable.
         then(connectorResponse.getResult()).isNotNull();
@@ -504,4 +560,74 @@ public class KrakenPrivateApiConnectorImplUTest {
                 .containsOnlyKeys("AAAAAA-YY7YY-4ZZZZZ", "BBBBBB-YY7YY-4ZZZZZ");
         then(connectorResponse.getResult().getCount()).isEqualTo(2);
     }
+
+    @Test
+    public void test_openOrders_when_userReference_then_userReferenceInParameters() throws Exception {
+
+        // Given
+        // @formatter:off
+        final var krakenApiResponse = "{" +
+                "    \"error\": []," +
+                "    \"result\": {" +
+                "        \"open\": {" +
+                "            \"XXXXXX-YYYY5-FFFFFF\": {" +
+                "                \"userref\": 12345," +
+                "                \"status\": \"open\"" +
+                "            }" +
+                "        }" +
+                "    }" +
+                "}";
+        // @formatter:on
+        final Map<String, String> expectedParameters = Map.of(
+                "trades", "false",
+                "userref", "12345");
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), eq(expectedParameters), any()))
+                .willAnswer(respondWith(krakenApiResponse));
+
+        // When
+        final KrakenResponseDto<KrakenOpenOrderResultDto> connectorResponse =
+                krakenPrivateApiConnectorImpl.openOrders(false, 12345);
+
+        // Then
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.OPEN_ORDERS), eq(expectedParameters), any());
+
+        // Asserts to avoid warnings caused by presence of @Nullable.
+        then(connectorResponse.getResult()).isNotNull();
+        then(connectorResponse.getResult().getOpen()) //
+                // Asserts to avoid warnings caused by presence of @Nullable.
+                .isNotNull() //
+                .containsOnlyKeys("XXXXXX-YYYY5-FFFFFF");
+    }
+
+    @Test
+    public void test_closedOrders_when_userReference_then_userReferenceInParameters() throws Exception {
+
+        // Given
+        // @formatter:off
+        final var krakenApiResponse = "{" +
+                "    \"error\": []," +
+                "    \"result\": {" +
+                "        \"closed\": {}," +
+                "        \"count\": 0" +
+                "    }" +
+                "}";
+        // @formatter:on
+        final Map<String, String> expectedParameters = Map.of(
+                "trades", "false",
+                "start", "1583703494",
+                "userref", "12345");
+        given(krakenApi.queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), eq(expectedParameters), any()))
+                .willAnswer(respondWith(krakenApiResponse));
+
+        // When
+        final KrakenResponseDto<KrakenClosedOrderResultDto> connectorResponse =
+                krakenPrivateApiConnectorImpl.closedOrders(false, 1583703494L, 12345);
+
+        // Then
+        verify(krakenApi).queryPrivateStreamed(eq(KrakenApi.Method.CLOSED_ORDERS), eq(expectedParameters), any());
+
+        // Asserts to avoid warnings caused by presence of @Nullable.
+        then(connectorResponse.getResult()).isNotNull();
+        then(connectorResponse.getResult().getClosed()).isEmpty();
+    }
 }
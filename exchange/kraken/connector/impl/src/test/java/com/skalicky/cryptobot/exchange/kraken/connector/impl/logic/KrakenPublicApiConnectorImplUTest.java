@@ -20,6 +20,8 @@ package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
 import edu.self.kraken.api.KrakenApi;
 import org.jetbrains.annotations.NotNull;
@@ -30,7 +32,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static com.skalicky.cryptobot.exchange.kraken.connector.impl.logic.KrakenApiAnswers.respondWith;
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
 import static org.mockito.BDDMockito.reset;
@@ -72,14 +77,15 @@ public class KrakenPublicApiConnectorImplUTest {
                 "}";
         // @formatter:on
         final var marketName = Collections.singletonMap("pair", "XBTEUR");
-        given(krakenApi.queryPublic(KrakenApi.Method.TICKER, marketName)).willReturn(expectedResponse);
+        given(krakenApi.queryPublicStreamed(eq(KrakenApi.Method.TICKER), eq(marketName), any()))
+                .willAnswer(respondWith(expectedResponse));
 
         // When
         final KrakenResponseDto<Map<String, Map<String, Object>>> response =
                 krakenPublicApiConnectorImpl.ticker(ImmutableList.of("XBTEUR"));
 
         // Then
-        verify(krakenApi).queryPublic(KrakenApi.Method.TICKER, marketName);
+        verify(krakenApi).queryPublicStreamed(eq(KrakenApi.Method.TICKER), eq(marketName), any());
 
         then(response.getError()).isEmpty();
         then(response.getResult()).hasSize(1);
@@ -91,4 +97,79 @@ public class KrakenPublicApiConnectorImplUTest {
         @SuppressWarnings("unchecked") final var actualBidData = (List<String>) response.getResult().get(tickerName).get("b");
         then(actualBidData.get(0)).isEqualTo("8902.40000");
     }
+
+    @Test
+    public void test_depth_when_responsePayloadIsValid_then_asksReturned_and_bidsReturned() throws Exception {
+
+        // Given
+        // @formatter:off
+        final var expectedResponse = "{" +
+                "    \"error\": []," +
+                "    \"result\": {" +
+                "        \"XXBTZEUR\": {" +
+                "            \"asks\": [[\"8903.30000\", \"1.234\", 1616663113]]," +
+                "            \"bids\": [[\"8902.40000\", \"2.000\", 1616663113]," +
+                "                       [\"8902.10000\", \"0.500\", 1616663112]]" +
+                "        }" +
+                "    }" +
+                "}";
+        // @formatter:on
+        final var parameters = Map.of("pair", "XBTEUR", "count", "10");
+        given(krakenApi.queryPublicStreamed(eq(KrakenApi.Method.DEPTH), eq(parameters), any()))
+                .willAnswer(respondWith(expectedResponse));
+
+        // When
+        final KrakenResponseDto<Map<String, KrakenDepthDto>> response = krakenPublicApiConnectorImpl.depth("XBTEUR", 10);
+
+        // Then
+        verify(krakenApi).queryPublicStreamed(eq(KrakenApi.Method.DEPTH), eq(parameters), any());
+
+        then(response.getError()).isEmpty();
+        // Asserts to avoid warnings caused by presence of @Nullable.
+        then(response.getResult()).isNotNull();
+        final KrakenDepthDto actualDepth = response.getResult().get("XXBTZEUR");
+        then(actualDepth.getAsks()).containsExactly(List.of("8903.30000", "1.234", 1616663113));
+        then(actualDepth.getBids()).hasSize(2);
+    }
+
+    @Test
+    public void test_assetPairs_when_responsePayloadHasUnknownProperties_then_knownPropertiesReturned() throws Exception {
+
+        // Given
+        // @formatter:off
+        final var expectedResponse = "{" +
+                "    \"error\": []," +
+                "    \"result\": {" +
+                "        \"XXBTZEUR\": {" +
+                "            \"altname\": \"XBTEUR\"," +
+                "            \"wsname\": \"XBT/EUR\"," +
+                "            \"aclass_base\": \"currency\"," +
+                "            \"base\": \"XXBT\"," +
+                "            \"quote\": \"ZEUR\"," +
+                "            \"pair_decimals\": 1," +
+                "            \"lot_decimals\": 8," +
+                "            \"leverage_buy\": [2, 3, 4, 5]," +
+                "            \"ordermin\": \"0.0001\"" +
+                "        }" +
+                "    }" +
+                "}";
+        // @formatter:on
+        given(krakenApi.queryPublicStreamed(eq(KrakenApi.Method.ASSET_PAIRS), eq(Collections.emptyMap()), any()))
+                .willAnswer(respondWith(expectedResponse));
+
+        // When
+        final KrakenResponseDto<Map<String, KrakenAssetPairDto>> response = krakenPublicApiConnectorImpl.assetPairs();
+
+        // Then
+        verify(krakenApi).queryPublicStreamed(eq(KrakenApi.Method.ASSET_PAIRS), eq(Collections.emptyMap()), any());
+
+        then(response.getError()).isEmpty();
+        // Asserts to avoid warnings caused by presence of @Nullable.
+        then(response.getResult()).isNotNull();
+        final KrakenAssetPairDto actualAssetPair = response.getResult().get("XXBTZEUR");
+        then(actualAssetPair.getWsname()).isEqualTo("XBT/EUR");
+        then(actualAssetPair.getPair_decimals()).isEqualTo(1);
+        then(actualAssetPair.getLot_decimals()).isEqualTo(8);
+        then(actualAssetPair.getOrdermin()).isEqualByComparingTo("0.0001");
+    }
 }
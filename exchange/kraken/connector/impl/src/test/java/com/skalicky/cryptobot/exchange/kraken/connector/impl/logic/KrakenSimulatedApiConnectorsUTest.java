@@ -0,0 +1,197 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAddOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.simulator.KrakenSimulator;
+import com.skalicky.cryptobot.exchange.kraken.simulator.KrakenSimulatorExchange;
+import edu.self.kraken.api.HttpClientKrakenTransport;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Runs the real connectors, the real {@link KrakenApi} and the real HTTP transport against the Kraken simulator.
+ */
+public class KrakenSimulatedApiConnectorsUTest {
+
+    @NotNull
+    private static final String API_KEY = "simulatedKey";
+    @NotNull
+    private static final String API_SECRET =
+            "kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==";
+    @NotNull
+    private static final String OTHER_API_SECRET =
+            "AAH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==";
+    private static final int USER_REFERENCE = 4242;
+
+    @NotNull
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+    @NotNull
+    private final KrakenSimulatorExchange exchange = new KrakenSimulatorExchange(Clock.systemUTC(), objectMapper);
+    @NotNull
+    private final KrakenSimulator simulator = new KrakenSimulator(0, API_KEY, API_SECRET, exchange,
+            Clock.systemUTC(), objectMapper);
+
+    @BeforeEach
+    public void startSimulator() {
+        simulator.start();
+    }
+
+    @AfterEach
+    public void stopSimulator() {
+        simulator.close();
+    }
+
+    @Test
+    public void test_publicConnector_when_tickerAndAssetPairsRequested_then_simulatedMarketReturned() {
+        // Given
+        final var publicApiConnector = new KrakenPublicApiConnectorImpl(createKrakenApi(API_SECRET), objectMapper);
+
+        // When
+        final KrakenResponseDto<Map<String, Map<String, Object>>> tickerResponse =
+                publicApiConnector.ticker(ImmutableList.of("XBTEUR"));
+        final KrakenResponseDto<Map<String, KrakenAssetPairDto>> assetPairsResponse = publicApiConnector.assetPairs();
+
+        // Then
+        then(tickerResponse.getError()).isEmpty();
+        then(tickerResponse.getResult()).isNotNull().containsOnlyKeys(KrakenSimulatorExchange.PAIR_NAME);
+        then(tickerResponse.getResult().get(KrakenSimulatorExchange.PAIR_NAME).get("a"))
+                .asList()
+                .first()
+                .isEqualTo("30000.1");
+        then(assetPairsResponse.getError()).isEmpty();
+        then(assetPairsResponse.getResult()).isNotNull().containsOnlyKeys(KrakenSimulatorExchange.PAIR_NAME);
+        then(assetPairsResponse.getResult().get(KrakenSimulatorExchange.PAIR_NAME).getAltname()).isEqualTo("XBTEUR");
+    }
+
+    @Test
+    public void test_privateConnector_when_limitOrderPlacedAndCrossed_then_orderOpenedAndClosedWithTrade() {
+        // Given
+        exchange.setBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME, new BigDecimal("1000"));
+        final var privateApiConnector = new KrakenPrivateApiConnectorImpl(createKrakenApi(API_SECRET), objectMapper);
+
+        // When
+        final KrakenResponseDto<Map<String, BigDecimal>> balanceResponse = privateApiConnector.balance();
+        final KrakenResponseDto<KrakenAddOrderResultDto> addOrderResponse = privateApiConnector.addOrder("XBTEUR",
+                "buy", "limit", new BigDecimal("29000.0"), new BigDecimal("290"), ImmutableList.of("viqc"),
+                60, USER_REFERENCE);
+        final KrakenResponseDto<KrakenOpenOrderResultDto> openOrdersResponse =
+                privateApiConnector.openOrders(false, USER_REFERENCE);
+        exchange.setTicker(new BigDecimal("28900.1"), new BigDecimal("28900.0"));
+        final KrakenResponseDto<KrakenClosedOrderResultDto> closedOrdersResponse =
+                privateApiConnector.closedOrders(true, 0L, USER_REFERENCE);
+
+        // Then
+        then(balanceResponse.getError()).isEmpty();
+        then(balanceResponse.getResult()).isNotNull();
+        then(balanceResponse.getResult().get(KrakenSimulatorExchange.QUOTE_ASSET_NAME))
+                .isEqualByComparingTo("1000");
+
+        then(addOrderResponse.getError()).isEmpty();
+        then(addOrderResponse.getResult()).isNotNull();
+        then(addOrderResponse.getResult().getTxid()).isNotNull().hasSize(1);
+        final String orderId = addOrderResponse.getResult().getTxid().get(0);
+
+        then(openOrdersResponse.getError()).isEmpty();
+        then(openOrdersResponse.getResult()).isNotNull();
+        then(openOrdersResponse.getResult().getOpen()).isNotNull().containsOnlyKeys(orderId);
+
+        then(closedOrdersResponse.getError()).isEmpty();
+        then(closedOrdersResponse.getResult()).isNotNull();
+        then(closedOrdersResponse.getResult().getClosed()).isNotNull().containsOnlyKeys(orderId);
+        final KrakenClosedOrderDto closedOrder = closedOrdersResponse.getResult().getClosed().get(orderId);
+        then(closedOrder.getStatus()).isEqualTo("closed");
+        then(closedOrder.getVol_exec()).isEqualByComparingTo("0.01");
+        then(closedOrder.getTrades()).isNotNull().hasSize(1);
+        then(exchange.getBalance(KrakenSimulatorExchange.BASE_ASSET_NAME)).isEqualByComparingTo("0.01");
+    }
+
+    @Test
+    public void test_privateConnector_when_secretDiffers_then_invalidSignatureError() {
+        // Given
+        final var privateApiConnector = new KrakenPrivateApiConnectorImpl(createKrakenApi(OTHER_API_SECRET),
+                objectMapper);
+
+        // When
+        final KrakenResponseDto<Map<String, BigDecimal>> response = privateApiConnector.balance();
+
+        // Then
+        then(response.getError()).containsExactly("EAPI:Invalid signature");
+        then(response.getResult()).isNull();
+    }
+
+    @Test
+    public void test_privateConnector_when_rateLimitExhausted_then_rateLimitExceededError() {
+        // Given
+        simulator.setRateLimit(2, 0.01);
+        final var privateApiConnector = new KrakenPrivateApiConnectorImpl(createKrakenApi(API_SECRET), objectMapper);
+
+        // When
+        final KrakenResponseDto<Map<String, BigDecimal>> firstResponse = privateApiConnector.balance();
+        final KrakenResponseDto<Map<String, BigDecimal>> secondResponse = privateApiConnector.balance();
+        final KrakenResponseDto<Map<String, BigDecimal>> thirdResponse = privateApiConnector.balance();
+
+        // Then
+        then(firstResponse.getError()).isEmpty();
+        then(secondResponse.getError()).isEmpty();
+        then(thirdResponse.getError()).containsExactly("EAPI:Rate limit exceeded");
+    }
+
+    @Test
+    public void test_privateConnector_when_manyCallsInQuickSuccession_then_noNonceRejected() {
+        // Given
+        simulator.setRateLimit(Integer.MAX_VALUE, 1);
+        final var privateApiConnector = new KrakenPrivateApiConnectorImpl(createKrakenApi(API_SECRET), objectMapper);
+
+        for (int callIndex = 0; callIndex < 50; ++callIndex) {
+            // When
+            final KrakenResponseDto<Map<String, BigDecimal>> response = privateApiConnector.balance();
+
+            // Then
+            then(response.getError()).isEmpty();
+        }
+    }
+
+    @NotNull
+    private KrakenApi createKrakenApi(@NotNull final String apiSecret) {
+        final var krakenApi = new KrakenApi(new HttpClientKrakenTransport());
+        krakenApi.setBaseUrl(simulator.getBaseUrl());
+        krakenApi.setKey(API_KEY);
+        krakenApi.setSecret(apiSecret);
+        return krakenApi;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenQuoteDto;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenWebSocketMarketDataConnectorImplUTest {
+
+    private static final long TIMEOUT_IN_MILLIS = 5_000;
+    @NotNull
+    private static final Instant NOW = Instant.parse("2021-06-20T12:00:00Z");
+
+    @NotNull
+    private final LocalWebSocketServer server = LocalWebSocketServer.start();
+    @NotNull
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor();
+    @NotNull
+    private final KrakenWebSocketMarketDataConnectorImpl connector = new KrakenWebSocketMarketDataConnectorImpl(
+            server.getUri(), HttpClient.newHttpClient(), new ObjectMapper(), reconnectScheduler,
+            Duration.ofMillis(50), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @AfterEach
+    public void closeConnectorAndServer() throws IOException {
+        connector.close();
+        server.close();
+        reconnectScheduler.shutdownNow();
+    }
+
+    @Test
+    public void test_start_when_pairsSubscribed_then_tickerAndSpreadChannelsAreSubscribed() throws Exception {
+        // Given
+        connector.subscribe(ImmutableList.of("XBT/EUR"));
+
+        // When
+        connector.start();
+
+        // Then
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isEqualTo(
+                "{\"event\":\"subscribe\",\"pair\":[\"XBT/EUR\"],\"subscription\":{\"name\":\"ticker\"}}");
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isEqualTo(
+                "{\"event\":\"subscribe\",\"pair\":[\"XBT/EUR\"],\"subscription\":{\"name\":\"spread\"}}");
+        then(connector.getLatestQuote("XBT/EUR")).isNull();
+    }
+
+    @Test
+    public void test_getLatestQuote_when_tickerAndThenSpreadPushed_then_latestBidAndAskAreReturned() throws Exception {
+        // Given
+        connector.subscribe(ImmutableList.of("XBT/EUR"));
+        connector.start();
+        awaitSubscriptions();
+
+        // When
+        server.send("{\"event\":\"heartbeat\"}");
+        server.send("[340,{\"a\":[\"29012.10000\",0,\"0.50000000\"],\"b\":[\"29011.90000\",1,\"1.00000000\"]," +
+                "\"c\":[\"29012.00000\",\"0.01000000\"]},\"ticker\",\"XBT/EUR\"]");
+        final KrakenQuoteDto tickerQuote = awaitQuote("XBT/EUR",
+                q -> q.getAskPrice().compareTo(new BigDecimal("29012.1")) == 0);
+        server.send("[341,[\"29010.50000\",\"29010.60000\",\"1624190400.123456\",\"0.10000000\",\"0.20000000\"]," +
+                "\"spread\",\"XBT/EUR\"]");
+        final KrakenQuoteDto spreadQuote = awaitQuote("XBT/EUR",
+                q -> q.getAskPrice().compareTo(new BigDecimal("29010.6")) == 0);
+
+        // Then
+        then(tickerQuote.getBidPrice()).isEqualByComparingTo("29011.9");
+        then(tickerQuote.getReceivedAt()).isEqualTo(NOW);
+        then(spreadQuote.getPairName()).isEqualTo("XBT/EUR");
+        then(spreadQuote.getBidPrice()).isEqualByComparingTo("29010.5");
+    }
+
+    @Test
+    public void test_subscribe_when_alreadyConnected_then_onlyNewPairsAreSubscribed() throws Exception {
+        // Given
+        connector.subscribe(ImmutableList.of("XBT/EUR"));
+        connector.start();
+        awaitSubscriptions();
+
+        // When
+        connector.subscribe(ImmutableList.of("XBT/EUR", "ETH/EUR"));
+
+        // Then
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isEqualTo(
+                "{\"event\":\"subscribe\",\"pair\":[\"ETH/EUR\"],\"subscription\":{\"name\":\"ticker\"}}");
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isEqualTo(
+                "{\"event\":\"subscribe\",\"pair\":[\"ETH/EUR\"],\"subscription\":{\"name\":\"spread\"}}");
+    }
+
+    @Test
+    public void test_start_when_connectionDropped_then_reconnectedAndResubscribed() throws Exception {
+        // Given
+        connector.subscribe(ImmutableList.of("XBT/EUR"));
+        connector.start();
+        awaitSubscriptions();
+
+        // When
+        server.dropClient();
+
+        // Then
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).contains("\"ticker\"");
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).contains("\"spread\"");
+        then(server.getConnectionCount()).isEqualTo(2);
+    }
+
+    private void awaitSubscriptions() throws InterruptedException {
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isNotNull();
+        then(server.pollReceivedMessage(TIMEOUT_IN_MILLIS)).isNotNull();
+    }
+
+    @NotNull
+    private KrakenQuoteDto awaitQuote(@NotNull final String pairName,
+                                      @NotNull final Predicate<KrakenQuoteDto> condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + Duration.ofMillis(TIMEOUT_IN_MILLIS).toNanos();
+        while (System.nanoTime() < deadline) {
+            @Nullable final KrakenQuoteDto quote = connector.getLatestQuote(pairName);
+            if (quote != null && condition.test(quote)) {
+                return quote;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No matching quote of " + pairName + " within " + TIMEOUT_IN_MILLIS + " ms");
+    }
+}
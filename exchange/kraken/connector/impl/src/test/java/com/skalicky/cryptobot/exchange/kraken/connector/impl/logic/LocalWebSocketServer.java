@@ -0,0 +1,239 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.logic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal WebSocket server (RFC 6455) standing in for Kraken in tests. Serves one client at a time, records text
+ * messages received from the client and pushes text messages to it.
+ */
+final class LocalWebSocketServer implements AutoCloseable {
+
+    @NotNull
+    private static final String ACCEPT_KEY_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    @NotNull
+    private final ServerSocket serverSocket;
+    @NotNull
+    private final BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+    @NotNull
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    @Nullable
+    private volatile Socket clientSocket;
+
+    private LocalWebSocketServer(@NotNull final ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Listens on a free port of the loopback interface.
+     */
+    @NotNull
+    static LocalWebSocketServer start() {
+        final LocalWebSocketServer server;
+        try {
+            server = new LocalWebSocketServer(new ServerSocket(0, 1, InetAddress.getLoopbackAddress()));
+        } catch (@NotNull final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final var acceptThread = new Thread(server::acceptClients, "local-websocket-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return server;
+    }
+
+    @NotNull
+    URI getUri() {
+        return URI.create("ws://" + serverSocket.getInetAddress().getHostAddress() + ":"
+                + serverSocket.getLocalPort() + "/");
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return null if no message has been received within the timeout
+     */
+    @Nullable
+    String pollReceivedMessage(final long timeoutInMillis) throws InterruptedException {
+        return receivedMessages.poll(timeoutInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void send(@NotNull final String text) throws IOException {
+        final Socket socket = clientSocket;
+        if (socket == null) {
+            throw new IllegalStateException("No client connected");
+        }
+        writeFrame(socket.getOutputStream(), OPCODE_TEXT, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Drops the connection without a closing handshake, like a network failure does.
+     */
+    void dropClient() throws IOException {
+        final Socket socket = clientSocket;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        dropClient();
+        serverSocket.close();
+    }
+
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                clientSocket = socket;
+                handshake(socket);
+                connectionCount.incrementAndGet();
+                readFrames(socket);
+            } catch (@NotNull final SocketException ex) {
+                // The client or the server has been closed.
+            } catch (@NotNull final IOException | NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                clientSocket = null;
+            }
+        }
+    }
+
+    private static void handshake(@NotNull final Socket socket) throws IOException, NoSuchAlgorithmException {
+        final String request = readHttpRequestHeader(socket.getInputStream());
+        String key = null;
+        for (final String line : request.split("\r\n")) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        if (key == null) {
+            throw new IOException("Not a WebSocket handshake: " + request);
+        }
+        final byte[] acceptKeyDigest = MessageDigest.getInstance("SHA-1")
+                .digest((key + ACCEPT_KEY_GUID).getBytes(StandardCharsets.US_ASCII));
+        final String response = "HTTP/1.1 101 Switching Protocols\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(acceptKeyDigest) + "\r\n\r\n";
+        socket.getOutputStream().write(response.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    @NotNull
+    private static String readHttpRequestHeader(@NotNull final InputStream inputStream) throws IOException {
+        final var header = new ByteArrayOutputStream();
+        int matchedTerminatorLength = 0;
+        final byte[] terminator = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        while (matchedTerminatorLength < terminator.length) {
+            final int b = inputStream.read();
+            if (b == -1) {
+                throw new SocketException("Closed during the handshake");
+            }
+            header.write(b);
+            matchedTerminatorLength = b == terminator[matchedTerminatorLength] ? matchedTerminatorLength + 1
+                    : (b == terminator[0] ? 1 : 0);
+        }
+        return header.toString(StandardCharsets.US_ASCII);
+    }
+
+    private void readFrames(@NotNull final Socket socket) throws IOException {
+        final var inputStream = new DataInputStream(socket.getInputStream());
+        while (true) {
+            final int firstByte = inputStream.read();
+            if (firstByte == -1) {
+                return;
+            }
+            final int opcode = firstByte & 0x0F;
+            final int secondByte = inputStream.readUnsignedByte();
+            long payloadLength = secondByte & 0x7F;
+            if (payloadLength == 126) {
+                payloadLength = inputStream.readUnsignedShort();
+            } else if (payloadLength == 127) {
+                payloadLength = inputStream.readLong();
+            }
+            // Frames sent by a client are always masked.
+            final byte[] mask = new byte[4];
+            inputStream.readFully(mask);
+            final byte[] payload = new byte[(int) payloadLength];
+            inputStream.readFully(payload);
+            for (int i = 0; i < payload.length; ++i) {
+                payload[i] ^= mask[i % 4];
+            }
+
+            if (opcode == OPCODE_TEXT) {
+                receivedMessages.add(new String(payload, StandardCharsets.UTF_8));
+            } else if (opcode == OPCODE_PING) {
+                writeFrame(socket.getOutputStream(), OPCODE_PONG, payload);
+            } else if (opcode == OPCODE_CLOSE) {
+                writeFrame(socket.getOutputStream(), OPCODE_CLOSE, payload);
+                return;
+            }
+        }
+    }
+
+    private static synchronized void writeFrame(@NotNull final OutputStream outputStream,
+                                                final int opcode,
+                                                @NotNull final byte[] payload) throws IOException {
+        outputStream.write(0x80 | opcode);
+        if (payload.length < 126) {
+            outputStream.write(payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            outputStream.write(126);
+            outputStream.write(payload.length >>> 8);
+            outputStream.write(payload.length & 0xFF);
+        } else {
+            outputStream.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                outputStream.write((int) ((long) payload.length >>> shift) & 0xFF);
+            }
+        }
+        outputStream.write(payload);
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenMetricsUTest {
+
+    @NotNull
+    private final KrakenMetrics metrics = new KrakenMetrics("account-1",
+            Clock.fixed(Instant.parse("2021-06-20T12:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    public void test_snapshot_when_requestsCompleted_then_aggregatedPerMethod_and_orderedByMethod() {
+        // Given
+        metrics.requestCompleted(KrakenApi.Method.CLOSED_ORDERS, TimeUnit.MILLISECONDS.toNanos(300), 50, 4_000, 2,
+                null);
+        metrics.requestCompleted(KrakenApi.Method.CLOSED_ORDERS, TimeUnit.MILLISECONDS.toNanos(10_000), 50, 120, 2,
+                new SocketTimeoutException("Read timed out"));
+        metrics.requestCompleted(KrakenApi.Method.TICKER, TimeUnit.MILLISECONDS.toNanos(80), 0, 600, 0, null);
+
+        // When
+        final KrakenMetricsSnapshot snapshot = metrics.snapshot();
+
+        // Then
+        then(snapshot.getAccount()).isEqualTo("account-1");
+        then(snapshot.getStartedAt()).isEqualTo(Instant.parse("2021-06-20T12:00:00Z"));
+        then(snapshot.getMethods()).extracting(KrakenMethodMetricsSnapshot::getMethod)
+                .containsExactly("Ticker", "ClosedOrders");
+        final KrakenMethodMetricsSnapshot closedOrdersMetrics = snapshot.getMethods().get(1);
+        then(closedOrdersMetrics.getRequestCount()).isEqualTo(2);
+        then(closedOrdersMetrics.getFailedRequestCount()).isEqualTo(1);
+        then(closedOrdersMetrics.getSentByteCount()).isEqualTo(100);
+        then(closedOrdersMetrics.getReceivedByteCount()).isEqualTo(4_120);
+        then(closedOrdersMetrics.getApiCost()).isEqualTo(4);
+        then(closedOrdersMetrics.getErrorCountsByCodes()).isEmpty();
+        then(closedOrdersMetrics.getLatency().getCount()).isEqualTo(2);
+        then(closedOrdersMetrics.getLatency().getMinInMicros()).isEqualTo(300_000);
+        then(closedOrdersMetrics.getLatency().getMaxInMicros()).isEqualTo(10_000_000);
+    }
+
+    @Test
+    public void test_recordError_when_errorsWithAdditionalText_then_countedByCodes() {
+        // When
+        metrics.recordError(KrakenApi.Method.ADD_ORDER, "EGeneral:Invalid arguments:volume");
+        metrics.recordError(KrakenApi.Method.ADD_ORDER, "EGeneral:Invalid arguments:price");
+        metrics.recordError(KrakenApi.Method.ADD_ORDER, "EAPI:Invalid nonce");
+
+        // Then
+        then(metrics.snapshot().getMethods()).hasSize(1);
+        then(metrics.snapshot().getMethods().get(0).getErrorCountsByCodes()).containsExactly(
+                entry("EAPI:Invalid nonce", 1L),
+                entry("EGeneral:Invalid arguments", 2L));
+    }
+
+    @Test
+    public void test_errorCodeOf_when_noCategory_then_errorAsItIs() {
+        then(KrakenMetrics.errorCodeOf("Unknown")).isEqualTo("Unknown");
+    }
+}
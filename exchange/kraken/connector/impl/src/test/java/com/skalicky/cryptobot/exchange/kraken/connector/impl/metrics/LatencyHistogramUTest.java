@@ -0,0 +1,111 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.within;
+
+public class LatencyHistogramUTest {
+
+    @Test
+    public void test_snapshot_when_nothingRecorded_then_allZero() {
+        // Given
+        final var histogram = new LatencyHistogram();
+
+        // When
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        // Then
+        then(snapshot.getCount()).isZero();
+        then(snapshot.getMinInMicros()).isZero();
+        then(snapshot.getP99InMicros()).isZero();
+        then(snapshot.getMaxInMicros()).isZero();
+    }
+
+    @Test
+    public void test_snapshot_when_uniformValues_then_percentilesWithinRelativeError() {
+        // Given
+        final var histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 100_000).forEach(histogram::record);
+
+        // When
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        // Then
+        then(snapshot.getCount()).isEqualTo(100_000);
+        then(snapshot.getMinInMicros()).isEqualTo(1);
+        then(snapshot.getMeanInMicros()).isEqualTo(50_000);
+        then(snapshot.getP50InMicros()).isCloseTo(50_000L, within(50_000L / 32));
+        then(snapshot.getP90InMicros()).isCloseTo(90_000L, within(90_000L / 32));
+        then(snapshot.getP99InMicros()).isCloseTo(99_000L, within(99_000L / 32));
+        then(snapshot.getP999InMicros()).isCloseTo(99_900L, within(99_900L / 32));
+        then(snapshot.getMaxInMicros()).isEqualTo(100_000);
+    }
+
+    @Test
+    public void test_snapshot_when_singleOutlier_then_onlyHighestPercentilesAffected() {
+        // Given
+        final var histogram = new LatencyHistogram();
+        LongStream.range(0, 999).forEach(i -> histogram.record(20_000));
+        histogram.record(5_000_000);
+
+        // When
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        // Then
+        then(snapshot.getP99InMicros()).isCloseTo(20_000L, within(20_000L / 32));
+        then(snapshot.getP999InMicros()).isCloseTo(20_000L, within(20_000L / 32));
+        then(snapshot.getMaxInMicros()).isEqualTo(5_000_000);
+    }
+
+    @Test
+    public void test_record_when_negativeValue_then_recordedAsZero() {
+        // Given
+        final var histogram = new LatencyHistogram();
+
+        // When
+        histogram.record(-5);
+
+        // Then
+        then(histogram.snapshot().getMinInMicros()).isZero();
+        then(histogram.snapshot().getMaxInMicros()).isZero();
+    }
+
+    @Test
+    public void test_bucketIndexOf_when_highestValueOfBucket_then_sameBucket_and_nextValueInNextBucket() {
+        for (final long value : new long[]{0, 31, 32, 33, 63, 64, 65, 1_000, 123_456_789L, Long.MAX_VALUE - 1}) {
+            // Given
+            final int bucketIndex = LatencyHistogram.bucketIndexOf(value);
+
+            // When
+            final long highestValue = LatencyHistogram.highestValueOf(bucketIndex);
+
+            // Then
+            then(highestValue).isGreaterThanOrEqualTo(value);
+            then(LatencyHistogram.bucketIndexOf(highestValue)).isEqualTo(bucketIndex);
+            if (highestValue < Long.MAX_VALUE) {
+                then(LatencyHistogram.bucketIndexOf(highestValue + 1)).isEqualTo(bucketIndex + 1);
+            }
+        }
+    }
+}
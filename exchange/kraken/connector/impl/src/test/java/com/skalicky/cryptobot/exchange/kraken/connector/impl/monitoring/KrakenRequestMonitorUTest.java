@@ -0,0 +1,116 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.monitoring;
+
+import com.skalicky.cryptobot.shared.tracing.Tracer;
+import edu.self.kraken.api.KrakenApi;
+import edu.self.kraken.api.KrakenTransport;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenRequestMonitorUTest {
+
+    @Test
+    public void test_queryPrivate_when_requestListenerSet_then_listenerNotifiedAboutSizesAndCost() throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\"result\":{}}"));
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+        final List<String> notifications = new ArrayList<>();
+        krakenApi.setRequestObserver(new KrakenRequestMonitor(
+                (method, durationInNanos, sentByteCount, receivedByteCount, apiCost, failure) ->
+                        notifications.add(method + " " + sentByteCount + " " + receivedByteCount + " " + apiCost + " "
+                                + failure),
+                Tracer.disabled()));
+
+        // When
+        krakenApi.queryPrivate(KrakenApi.Method.CLOSED_ORDERS, null, Map.of("trades", "true"));
+
+        // Then
+        // "trades=true&nonce=<16 digits>&"
+        then(notifications).containsExactly("CLOSED_ORDERS 35 24 2 null");
+    }
+
+    @Test
+    public void test_queryPublic_when_transportFails_then_listenerNotifiedAboutFailure() {
+        // Given
+        final var timeout = new SocketTimeoutException("Read timed out");
+        final var krakenApi = new KrakenApi((url, headers, postData) -> {
+            throw timeout;
+        });
+        final List<Exception> failures = new ArrayList<>();
+        krakenApi.setRequestObserver(new KrakenRequestMonitor(
+                (method, durationInNanos, sentByteCount, receivedByteCount, apiCost, failure) -> failures.add(failure),
+                Tracer.disabled()));
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> krakenApi.queryPublic(KrakenApi.Method.TIME));
+
+        // Then
+        then(caughtThrowable).isSameAs(timeout);
+        then(failures).containsExactly(timeout);
+    }
+
+    @Test
+    public void test_queryPublic_when_recording_then_krakenRequestEventCommitted(
+            @TempDir @NotNull final Path temporaryDirectory) throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\"result\":{}}"));
+        krakenApi.setRequestObserver(new KrakenRequestMonitor(null, Tracer.disabled()));
+        final Path recordingFile = temporaryDirectory.resolve("recording.jfr");
+        try (final var recording = new Recording()) {
+            recording.enable("com.skalicky.cryptobot.KrakenRequest").withoutThreshold();
+            recording.start();
+
+            // When
+            krakenApi.queryPublic(KrakenApi.Method.TIME);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Then
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        then(events).hasSize(1);
+        then(events.get(0).getString("method")).isEqualTo("Time");
+        then(events.get(0).getString("status")).isEqualTo("OK");
+        then(events.get(0).getLong("sentByteCount")).isZero();
+        then(events.get(0).getLong("receivedByteCount")).isEqualTo(24);
+    }
+
+    @NotNull
+    private static KrakenTransport respondingTransport(@NotNull final String responseBody) {
+        return (url, headers, postData) -> new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8));
+    }
+}
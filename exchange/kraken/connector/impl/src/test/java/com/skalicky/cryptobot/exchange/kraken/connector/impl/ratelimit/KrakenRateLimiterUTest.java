@@ -0,0 +1,162 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.ratelimit;
+
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.within;
+
+public class KrakenRateLimiterUTest {
+
+    @NotNull
+    private final AtomicLong nanoTime = new AtomicLong();
+    @NotNull
+    private final KrakenRateLimiter rateLimiter = new KrakenRateLimiter(15, 0.5, 60, 1, nanoTime::get);
+
+    @Test
+    public void test_costOf_when_historyMethod_then_2() {
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.CLOSED_ORDERS)).isEqualTo(2);
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.TRADES_HISTORY)).isEqualTo(2);
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.LEDGERS)).isEqualTo(2);
+    }
+
+    @Test
+    public void test_costOf_when_otherPrivateMethod_then_1() {
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.BALANCE)).isEqualTo(1);
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.OPEN_ORDERS)).isEqualTo(1);
+    }
+
+    @Test
+    public void test_costOf_when_publicOrOrderMethod_then_0() {
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.TICKER)).isEqualTo(0);
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.ADD_ORDER)).isEqualTo(0);
+        then(KrakenRateLimiter.costOf(KrakenApi.Method.CANCEL_ORDER)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_getHeadroom_when_callsAcquired_then_headroomDecreasedByCosts_and_recoveredByDecay() throws Exception {
+        // When
+        rateLimiter.acquire(KrakenApi.Method.CLOSED_ORDERS, Map.of());
+        rateLimiter.acquire(KrakenApi.Method.OPEN_ORDERS, Map.of());
+
+        // Then
+        then(rateLimiter.getHeadroom()).isCloseTo(12, within(1e-9));
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        then(rateLimiter.getHeadroom()).isCloseTo(14, within(1e-9));
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        then(rateLimiter.getHeadroom()).isCloseTo(15, within(1e-9));
+    }
+
+    @Test
+    public void test_acquire_when_addOrder_then_onlyTradingCounterOfPairIncreased() throws Exception {
+        // When
+        rateLimiter.acquire(KrakenApi.Method.ADD_ORDER, Map.of("pair", "XXBTZEUR"));
+
+        // Then
+        then(rateLimiter.getHeadroom()).isCloseTo(15, within(1e-9));
+        then(rateLimiter.getTradingHeadroom("XXBTZEUR")).isCloseTo(59, within(1e-9));
+        then(rateLimiter.getTradingHeadroom("XETHZEUR")).isCloseTo(60, within(1e-9));
+    }
+
+    @Test
+    public void test_acquire_when_counterExhausted_then_waitsUntilCostDecayed() throws Exception {
+        // Given
+        final var realTimeRateLimiter = new KrakenRateLimiter(2, 20, 60, 1, System::nanoTime);
+        realTimeRateLimiter.acquire(KrakenApi.Method.CLOSED_ORDERS, Map.of());
+
+        // When
+        final long startInNanos = System.nanoTime();
+        realTimeRateLimiter.acquire(KrakenApi.Method.BALANCE, Map.of());
+        final long durationInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startInNanos);
+
+        // Then
+        // 1 point decays in 50 ms.
+        then(durationInMillis).isGreaterThanOrEqualTo(40);
+        then(realTimeRateLimiter.getHeadroom()).isLessThan(1);
+    }
+
+    @Test
+    public void test_acquire_when_cheaperCallArrivesLater_then_callsServedInArrivalOrder() throws Exception {
+        // Given
+        final var realTimeRateLimiter = new KrakenRateLimiter(2, 20, 60, 1, System::nanoTime);
+        realTimeRateLimiter.acquire(KrakenApi.Method.CLOSED_ORDERS, Map.of());
+        final List<KrakenApi.Method> acquiredMethods = Collections.synchronizedList(new ArrayList<>());
+        final var expensiveCall = new Thread(() -> acquireAndRecord(realTimeRateLimiter,
+                KrakenApi.Method.CLOSED_ORDERS, acquiredMethods));
+        expensiveCall.start();
+        while (expensiveCall.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        // 1 point decays in 50 ms, hence the cheap call would fit 50 ms before the expensive one.
+        realTimeRateLimiter.acquire(KrakenApi.Method.BALANCE, Map.of());
+        acquiredMethods.add(KrakenApi.Method.BALANCE);
+        expensiveCall.join();
+
+        // Then
+        then(acquiredMethods).containsExactly(KrakenApi.Method.CLOSED_ORDERS, KrakenApi.Method.BALANCE);
+    }
+
+    @Test
+    public void test_acquire_when_waitingCallerInterrupted_then_laterCallersServed() throws Exception {
+        // Given
+        final var realTimeRateLimiter = new KrakenRateLimiter(2, 20, 60, 1, System::nanoTime);
+        realTimeRateLimiter.acquire(KrakenApi.Method.CLOSED_ORDERS, Map.of());
+        final List<KrakenApi.Method> acquiredMethods = Collections.synchronizedList(new ArrayList<>());
+        final var interruptedCall = new Thread(() -> acquireAndRecord(realTimeRateLimiter,
+                KrakenApi.Method.CLOSED_ORDERS, acquiredMethods));
+        interruptedCall.start();
+        while (interruptedCall.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        interruptedCall.interrupt();
+        interruptedCall.join();
+        realTimeRateLimiter.acquire(KrakenApi.Method.BALANCE, Map.of());
+
+        // Then
+        then(acquiredMethods).isEmpty();
+        then(realTimeRateLimiter.getHeadroom()).isLessThan(1);
+    }
+
+    private static void acquireAndRecord(@NotNull final KrakenRateLimiter rateLimiter,
+                                         @NotNull final KrakenApi.Method method,
+                                         @NotNull final List<KrakenApi.Method> acquiredMethods) {
+        try {
+            rateLimiter.acquire(method, Map.of());
+            acquiredMethods.add(method);
+        } catch (@NotNull final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
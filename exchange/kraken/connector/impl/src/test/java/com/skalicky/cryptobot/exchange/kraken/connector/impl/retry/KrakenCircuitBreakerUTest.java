@@ -0,0 +1,137 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenCircuitBreakerUTest {
+
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+    @NotNull
+    private final KrakenCircuitBreaker circuitBreaker = new KrakenCircuitBreaker(2, Duration.ofMinutes(1), clock);
+
+    @Test
+    public void test_acquirePermission_when_failuresInterruptedBySuccess_then_breakerStaysClosed() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        // When
+        circuitBreaker.acquirePermission("Balance");
+
+        // Then
+        then(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    public void test_acquirePermission_when_failureThresholdReached_then_exception() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofSeconds(59));
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> circuitBreaker.acquirePermission("Balance"));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(KrakenApiException.class)
+                .extracting(t -> ((KrakenApiException) t).getCategory())
+                .isEqualTo(KrakenErrorCategoryEnum.RETRYABLE);
+        then(circuitBreaker.isOpen()).isTrue();
+    }
+
+    @Test
+    public void test_acquirePermission_when_openDurationElapsed_then_onlyOneTrialCallPermitted() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofMinutes(1));
+
+        // When
+        circuitBreaker.acquirePermission("Balance");
+        final Throwable caughtThrowable = catchThrowable(() -> circuitBreaker.acquirePermission("Balance"));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(KrakenApiException.class);
+    }
+
+    @Test
+    public void test_acquirePermission_when_trialCallSucceeded_then_breakerClosed() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofMinutes(1));
+        circuitBreaker.acquirePermission("Balance");
+
+        // When
+        circuitBreaker.onSuccess();
+
+        // Then
+        then(circuitBreaker.isOpen()).isFalse();
+        circuitBreaker.acquirePermission("Balance");
+    }
+
+    @Test
+    public void test_acquirePermission_when_trialCallFailed_then_breakerOpenForAnotherOpenDuration() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofMinutes(1));
+        circuitBreaker.acquirePermission("Balance");
+
+        // When
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofSeconds(59));
+        final Throwable caughtThrowable = catchThrowable(() -> circuitBreaker.acquirePermission("Balance"));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(KrakenApiException.class);
+        clock.advance(Duration.ofSeconds(1));
+        circuitBreaker.acquirePermission("Balance");
+    }
+
+    @Test
+    public void test_acquirePermission_when_trialPermissionReleased_then_nextCallIsTrialCall_and_breakerStaysOpen() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.advance(Duration.ofMinutes(1));
+        then(circuitBreaker.acquirePermission("Balance")).isTrue();
+
+        // When
+        circuitBreaker.releaseTrialPermission();
+
+        // Then
+        then(circuitBreaker.isOpen()).isTrue();
+        then(circuitBreaker.acquirePermission("Balance")).isTrue();
+    }
+}
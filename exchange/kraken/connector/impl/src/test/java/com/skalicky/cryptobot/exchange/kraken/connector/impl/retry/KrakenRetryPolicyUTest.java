@@ -0,0 +1,66 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenRetryPolicyUTest {
+
+    @Test
+    public void test_backoffAfter_when_attemptsIncrease_then_backoffDoublesUpToMaximum() {
+        // Given
+        final var policy = KrakenRetryPolicy.forIdempotentCalls(10, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        // When / Then
+        then(policy.backoffAfter(1, 1.0)).isEqualTo(Duration.ofSeconds(1));
+        then(policy.backoffAfter(2, 1.0)).isEqualTo(Duration.ofSeconds(2));
+        then(policy.backoffAfter(3, 1.0)).isEqualTo(Duration.ofSeconds(4));
+        then(policy.backoffAfter(4, 1.0)).isEqualTo(Duration.ofSeconds(5));
+        then(policy.backoffAfter(64, 1.0)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void test_backoffAfter_when_noJitter_then_halfOfBackoff() {
+        // Given
+        final var policy = KrakenRetryPolicy.forIdempotentCalls(10, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        // When
+        final Duration backoff = policy.backoffAfter(3, 0.0);
+
+        // Then
+        then(backoff).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void test_isRetried_when_nonIdempotentCalls_then_onlyCallsNotProcessedByKrakenRetried() {
+        // Given
+        final var policy = KrakenRetryPolicy.forNonIdempotentCalls(3, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        // When / Then
+        then(policy.isRetried(KrakenErrorCategoryEnum.RATE_LIMIT)).isTrue();
+        then(policy.isRetried(KrakenErrorCategoryEnum.INVALID_NONCE)).isFalse();
+        then(policy.isRetried(KrakenErrorCategoryEnum.RETRYABLE)).isFalse();
+        then(policy.isRetried(KrakenErrorCategoryEnum.FATAL)).isFalse();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connector.impl.retry;
+
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics.KrakenMethodMetricsSnapshot;
+import com.skalicky.cryptobot.exchange.kraken.connector.impl.metrics.KrakenMetrics;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import edu.self.kraken.api.KrakenApi;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenRetryingCallExecutorUTest {
+
+    @NotNull
+    private final List<Duration> backoffs = new ArrayList<>();
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+    @NotNull
+    private final KrakenMetrics metrics = new KrakenMetrics("account", clock);
+    @NotNull
+    private final KrakenCircuitBreaker circuitBreaker = new KrakenCircuitBreaker(3, Duration.ofMinutes(1), clock);
+    @NotNull
+    private final KrakenRetryingCallExecutor executor = new KrakenRetryingCallExecutor(
+            KrakenRetryPolicy.forIdempotentCalls(3, Duration.ofSeconds(1), Duration.ofSeconds(16)),
+            ImmutableMap.of(KrakenApi.Method.ADD_ORDER,
+                    KrakenRetryPolicy.forNonIdempotentCalls(3, Duration.ofSeconds(1), Duration.ofSeconds(16))),
+            circuitBreaker,
+            backoffs::add,
+            () -> 1.0,
+            metrics);
+
+    @Test
+    public void test_execute_when_retryableErrorThenSuccess_then_successReturned() {
+        // Given
+        final var calls = new Calls(errorResponse("EService:Unavailable"), successResponse());
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(response.getResult()).isEqualTo("result");
+        then(calls.count).isEqualTo(2);
+        then(backoffs).containsExactly(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void test_execute_when_fatalError_then_errorResponseReturnedWithoutRetry() {
+        // Given
+        final var calls = new Calls(errorResponse("EOrder:Insufficient funds"));
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(response.getError()).containsExactly("EOrder:Insufficient funds");
+        then(calls.count).isEqualTo(1);
+        then(backoffs).isEmpty();
+    }
+
+    @Test
+    public void test_execute_when_retryableErrorInAllAttempts_then_lastErrorResponseReturned() {
+        // Given
+        final var calls = new Calls(errorResponse("EAPI:Rate limit exceeded"),
+                errorResponse("EAPI:Rate limit exceeded"), errorResponse("EService:Busy"));
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(response.getError()).containsExactly("EService:Busy");
+        then(calls.count).isEqualTo(3);
+        then(backoffs).containsExactly(Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void test_execute_when_errorResponses_then_errorCodesCountedPerAttempt() {
+        // Given
+        final var calls = new Calls(errorResponse("EService:Unavailable"),
+                errorResponse("EGeneral:Invalid arguments:volume"));
+
+        // When
+        executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(metrics.snapshot().getMethods()).hasSize(1);
+        final KrakenMethodMetricsSnapshot balanceMetrics = metrics.snapshot().getMethods().get(0);
+        then(balanceMetrics.getMethod()).isEqualTo("Balance");
+        then(balanceMetrics.getErrorCountsByCodes()).containsExactly(
+                entry("EGeneral:Invalid arguments", 1L),
+                entry("EService:Unavailable", 1L));
+    }
+
+    @Test
+    public void test_execute_when_failedRequestOfIdempotentMethod_then_retried() {
+        // Given
+        final var calls = new Calls(timeout(), successResponse());
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.OPEN_ORDERS, calls);
+
+        // Then
+        then(response.getResult()).isEqualTo("result");
+        then(calls.count).isEqualTo(2);
+    }
+
+    @Test
+    public void test_execute_when_failedRequestOfAddOrder_then_exceptionWithoutRetry() {
+        // Given
+        final KrakenApiException timeout = timeout();
+        final var calls = new Calls(timeout, successResponse());
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> executor.execute(KrakenApi.Method.ADD_ORDER, calls));
+
+        // Then
+        then(caughtThrowable).isSameAs(timeout);
+        then(calls.count).isEqualTo(1);
+        then(backoffs).isEmpty();
+    }
+
+    @Test
+    public void test_execute_when_invalidNonce_then_notRetried_and_errorCounted() {
+        // Given
+        final var calls = new Calls(errorResponse("EAPI:Invalid nonce"), successResponse());
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(response.getError()).containsExactly("EAPI:Invalid nonce");
+        then(calls.count).isEqualTo(1);
+        then(backoffs).isEmpty();
+        then(metrics.snapshot().getMethods().get(0).getErrorCountsByCodes())
+                .containsExactly(entry("EAPI:Invalid nonce", 1L));
+    }
+
+    @Test
+    public void test_execute_when_circuitBreakerOpened_then_nextCallFailsFastWithoutCallingKraken() {
+        // Given
+        executor.execute(KrakenApi.Method.BALANCE, new Calls(errorResponse("EService:Unavailable"),
+                errorResponse("EService:Unavailable"), errorResponse("EService:Unavailable")));
+        final var calls = new Calls(successResponse());
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> executor.execute(KrakenApi.Method.BALANCE, calls));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(KrakenApiException.class)
+                .hasMessageStartingWith("Call of Kraken method Balance not attempted since the circuit breaker is open");
+        then(calls.count).isZero();
+    }
+
+    @Test
+    public void test_execute_when_trialCallThrowsError_then_errorRethrown_and_nextCallIsLetThrough() {
+        // Given
+        executor.execute(KrakenApi.Method.BALANCE, new Calls(errorResponse("EService:Unavailable"),
+                errorResponse("EService:Unavailable"), errorResponse("EService:Unavailable")));
+        clock.advance(Duration.ofMinutes(1));
+        final var error = new StackOverflowError();
+        final Throwable caughtThrowable = catchThrowable(() -> executor.execute(KrakenApi.Method.BALANCE,
+                new Calls(error)));
+        final var calls = new Calls(successResponse());
+
+        // When
+        final KrakenResponseDto<String> response = executor.execute(KrakenApi.Method.BALANCE, calls);
+
+        // Then
+        then(caughtThrowable).isSameAs(error);
+        then(response.getResult()).isEqualTo("result");
+        then(calls.count).isEqualTo(1);
+        then(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @NotNull
+    private static KrakenResponseDto<String> successResponse() {
+        final var response = new KrakenResponseDto<String>();
+        response.setError(List.of());
+        response.setResult("result");
+        return response;
+    }
+
+    @NotNull
+    private static KrakenResponseDto<String> errorResponse(@NotNull final String error) {
+        final var response = new KrakenResponseDto<String>();
+        response.setError(List.of(error));
+        return response;
+    }
+
+    @NotNull
+    private static KrakenApiException timeout() {
+        return KrakenApiException.ofFailedRequest("AddOrder", new SocketTimeoutException("Read timed out"));
+    }
+
+    /**
+     * Returns the given responses, or throws the given exceptions or errors, one per call.
+     */
+    private static final class Calls implements Supplier<KrakenResponseDto<String>> {
+
+        @NotNull
+        private final Deque<Object> outcomes;
+        private int count;
+
+        private Calls(@NotNull final Object... outcomes) {
+            this.outcomes = new ArrayDeque<>(List.of(outcomes));
+        }
+
+        @NotNull
+        @Override
+        @SuppressWarnings("unchecked")
+        public KrakenResponseDto<String> get() {
+            ++count;
+            final Object outcome = outcomes.removeFirst();
+            if (outcome instanceof RuntimeException) {
+                throw (RuntimeException) outcome;
+            }
+            if (outcome instanceof Error) {
+                throw (Error) outcome;
+            }
+            return (KrakenResponseDto<String>) outcome;
+        }
+    }
+}
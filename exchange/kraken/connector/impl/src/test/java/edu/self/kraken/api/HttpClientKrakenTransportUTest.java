@@ -0,0 +1,129 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class HttpClientKrakenTransportUTest {
+
+    @NotNull
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final List<String> requestContentTypes = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final HttpClientKrakenTransport transport = new HttpClientKrakenTransport(Duration.ofSeconds(5),
+            Duration.ofSeconds(5));
+    @NotNull
+    private HttpServer httpServer;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/0/public/Time", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            requestContentTypes.add(String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type")));
+            final byte[] response = "{\"error\":[],\"result\":{\"unixtime\":1583831100}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response);
+            }
+        });
+        httpServer.createContext("/0/public/Unavailable", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        httpServer.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        httpServer.stop(0);
+    }
+
+    @Test
+    public void test_post_when_twoConsecutiveRequests_then_connectionIsReused() throws Exception {
+        // Given
+        final var url = new URL("http://localhost:" + httpServer.getAddress().getPort() + "/0/public/Time");
+
+        // When
+        final String firstResponse = readAndClose(transport.post(url, Map.of(), null));
+        final String secondResponse = readAndClose(transport.post(url, Map.of(), null));
+
+        // Then
+        then(firstResponse).isEqualTo("{\"error\":[],\"result\":{\"unixtime\":1583831100}}");
+        then(secondResponse).isEqualTo(firstResponse);
+        then(clientPorts).hasSize(2);
+        then(clientPorts.get(1)).isEqualTo(clientPorts.get(0));
+    }
+
+    @Test
+    public void test_post_when_postData_then_postDataSentFormUrlEncoded() throws Exception {
+        // Given
+        final var url = new URL("http://localhost:" + httpServer.getAddress().getPort() + "/0/public/Time");
+
+        // When
+        readAndClose(transport.post(url, Map.of("User-Agent", "github.nyg"), "pair=XBTEUR&"));
+
+        // Then
+        then(requestBodies).containsExactly("pair=XBTEUR&");
+        then(requestContentTypes).containsExactly("application/x-www-form-urlencoded");
+    }
+
+    @Test
+    public void test_post_when_errorHttpStatus_then_exception() throws Exception {
+        // Given
+        final var url = new URL("http://localhost:" + httpServer.getAddress().getPort() + "/0/public/Unavailable");
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> transport.post(url, Map.of(), null));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IOException.class)
+                .hasMessage("Server returned HTTP response code: 503 for URL: " + url);
+    }
+
+    @NotNull
+    private static String readAndClose(@NotNull final InputStream inputStream) throws IOException {
+        try (inputStream) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
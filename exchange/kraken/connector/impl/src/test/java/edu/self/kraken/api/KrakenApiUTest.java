@@ -0,0 +1,273 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenApiUTest {
+
+    @NotNull
+    private final List<URL> requestedUrls = new ArrayList<>();
+    @NotNull
+    private final List<Map<String, String>> requestedHeaders = new ArrayList<>();
+    @NotNull
+    private final AtomicBoolean responseBodyClosed = new AtomicBoolean();
+
+    @Test
+    public void test_queryPrivateStreamed_when_responseReaderProvided_then_readerConsumesResponseBody_and_bodyClosed() throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\"result\":{\"ZEUR\":\"100.7896\"}}"));
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+
+        // When
+        final Integer readByteCount = krakenApi.queryPrivateStreamed(KrakenApi.Method.BALANCE, Map.of(),
+                responseBody -> responseBody.readAllBytes().length);
+
+        // Then
+        then(readByteCount).isEqualTo(41);
+        then(responseBodyClosed).isTrue();
+        then(requestedUrls).extracting(URL::toString).containsExactly("https://api.kraken.com/0/private/Balance");
+        then(requestedHeaders).hasSize(1);
+        then(requestedHeaders.get(0)).containsEntry("API-Key", "key").containsKey("API-Sign");
+    }
+
+    @Test
+    public void test_queryPublic_when_multiLineResponse_then_linesJoined() throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\n\"result\":{}}"));
+
+        // When
+        final String response = krakenApi.queryPublic(KrakenApi.Method.TIME);
+
+        // Then
+        then(response).isEqualTo("{\"error\":[],\"result\":{}}");
+        then(responseBodyClosed).isTrue();
+        then(requestedUrls).extracting(URL::toString).containsExactly("https://api.kraken.com/0/public/Time");
+    }
+
+    @Test
+    public void test_query_when_baseUrlSet_then_publicAndPrivateRequestsSentThere() throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\"result\":{}}"));
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+        krakenApi.setBaseUrl("http://127.0.0.1:8090");
+
+        // When
+        krakenApi.queryPublic(KrakenApi.Method.TIME);
+        krakenApi.queryPrivate(KrakenApi.Method.BALANCE);
+
+        // Then
+        then(requestedUrls).extracting(URL::toString).containsExactly("http://127.0.0.1:8090/0/public/Time",
+                "http://127.0.0.1:8090/0/private/Balance");
+    }
+
+    @Test
+    public void test_queryPublicStreamed_when_parametersEmpty_then_requestSentWithoutPostData() throws Exception {
+        // Given
+        final List<String> postDatas = new ArrayList<>();
+        final var krakenApi = new KrakenApi((url, headers, postData) -> {
+            postDatas.add(postData);
+            return new ByteArrayInputStream("{\"error\":[],\"result\":{}}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        // When
+        final Integer readByteCount = krakenApi.queryPublicStreamed(KrakenApi.Method.ASSET_PAIRS, Map.of(),
+                responseBody -> responseBody.readAllBytes().length);
+
+        // Then
+        then(readByteCount).isEqualTo(24);
+        then(postDatas).containsExactly((String) null);
+    }
+
+    @Test
+    public void test_queryPrivate_when_requestsWithinSameMillisecond_then_noncesStillIncrease() throws Exception {
+        // Given
+        final List<Long> nonces = new ArrayList<>();
+        final var krakenApi = new KrakenApi((url, headers, postData) -> {
+            nonces.add(Long.parseLong(postData.replaceAll(".*nonce=(\\d+).*", "$1")));
+            return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+        });
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+        final long startInMicros = System.currentTimeMillis() * 1000;
+
+        // When
+        for (int i = 0; i < 100; ++i) {
+            krakenApi.queryPrivate(KrakenApi.Method.BALANCE);
+        }
+
+        // Then
+        then(nonces).hasSize(100).isSorted().doesNotHaveDuplicates();
+        then(nonces.get(0)).isGreaterThanOrEqualTo(startInMicros);
+    }
+
+    @Test
+    public void test_queryPrivate_when_calledConcurrently_then_requestsSentOneByOne_and_noncesArriveIncreasing() throws Exception {
+        // Given
+        final List<Long> arrivedNonces = Collections.synchronizedList(new ArrayList<>());
+        final var inFlightCount = new AtomicInteger();
+        final var maxInFlightCount = new AtomicInteger();
+        final var krakenApi = new KrakenApi((url, headers, postData) -> {
+            maxInFlightCount.accumulateAndGet(inFlightCount.incrementAndGet(), Math::max);
+            arrivedNonces.add(Long.parseLong(postData.replaceAll(".*nonce=(\\d+).*", "$1")));
+            Thread.yield();
+            inFlightCount.decrementAndGet();
+            return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+        });
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        try {
+            final List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 200; ++i) {
+                responses.add(executor.submit(() -> krakenApi.queryPrivate(KrakenApi.Method.BALANCE)));
+            }
+            for (final Future<String> response : responses) {
+                response.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        then(maxInFlightCount).hasValue(1);
+        then(arrivedNonces).hasSize(200).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void test_queryPublic_when_timeoutOfMethodSet_then_timeoutPassedToTransport_and_otherMethodsUseDefault() throws Exception {
+        // Given
+        final List<Duration> requestedTimeouts = new ArrayList<>();
+        final var krakenApi = new KrakenApi(new KrakenTransport() {
+            @NotNull
+            @Override
+            public InputStream post(@NotNull final URL url,
+                                    @NotNull final Map<String, String> headers,
+                                    @NotNull final String postData) {
+                requestedTimeouts.add(null);
+                return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+            }
+
+            @NotNull
+            @Override
+            public InputStream post(@NotNull final URL url,
+                                    @NotNull final Map<String, String> headers,
+                                    @NotNull final String postData,
+                                    @NotNull final Duration timeout) {
+                requestedTimeouts.add(timeout);
+                return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        krakenApi.setTimeout(KrakenApi.Method.TICKER, Duration.ofSeconds(10));
+
+        // When
+        krakenApi.queryPublic(KrakenApi.Method.TICKER);
+        krakenApi.queryPublic(KrakenApi.Method.TIME);
+
+        // Then
+        then(requestedTimeouts).containsExactly(Duration.ofSeconds(10), null);
+    }
+
+    @Test
+    public void test_queryPrivate_when_requestObserverSet_then_observerSeesRequestAndResponseBody() throws Exception {
+        // Given
+        final var krakenApi = new KrakenApi(respondingTransport("{\"error\":[],\"result\":{}}"));
+        krakenApi.setKey("key");
+        krakenApi.setSecret("kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==");
+        final List<String> notifications = new ArrayList<>();
+        krakenApi.setRequestObserver((method, url, postData) -> {
+            notifications.add("started " + method + " " + url.getPath() + " " + postData.startsWith("trades=true&"));
+            return new KrakenRequestObserver.Observation() {
+                @Override
+                public InputStream observeResponseBody(InputStream responseBody) {
+                    notifications.add("received");
+                    return responseBody;
+                }
+
+                @Override
+                public void requestCompleted(Exception failure) {
+                    notifications.add("completed " + failure);
+                }
+            };
+        });
+
+        // When
+        krakenApi.queryPrivate(KrakenApi.Method.CLOSED_ORDERS, null, Map.of("trades", "true"));
+
+        // Then
+        then(notifications).containsExactly("started CLOSED_ORDERS /0/private/ClosedOrders true", "received",
+                "completed null");
+    }
+
+    @Test
+    public void test_queryPublic_when_transportFails_then_observerNotifiedAboutFailure() {
+        // Given
+        final var timeout = new SocketTimeoutException("Read timed out");
+        final var krakenApi = new KrakenApi((url, headers, postData) -> {
+            throw timeout;
+        });
+        final List<Exception> failures = new ArrayList<>();
+        krakenApi.setRequestObserver((method, url, postData) -> failures::add);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> krakenApi.queryPublic(KrakenApi.Method.TIME));
+
+        // Then
+        then(caughtThrowable).isSameAs(timeout);
+        then(failures).containsExactly(timeout);
+    }
+
+    @NotNull
+    private KrakenTransport respondingTransport(@NotNull final String responseBody) {
+        return (url, headers, postData) -> {
+            requestedUrls.add(url);
+            requestedHeaders.add(headers);
+            return new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                public void close() {
+                    responseBodyClosed.set(true);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package edu.self.kraken.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenRequestSignerUTest {
+
+    /**
+     * Example taken from the Kraken REST API documentation.
+     */
+    @NotNull
+    private static final String SECRET =
+            "kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==";
+    @NotNull
+    private static final String PATH = "/0/private/AddOrder";
+    @NotNull
+    private static final String NONCE = "1616492376594";
+    @NotNull
+    private static final String POST_DATA =
+            "nonce=1616492376594&ordertype=limit&pair=XBTUSD&price=37500&type=buy&volume=1.25";
+    @NotNull
+    private static final String EXPECTED_SIGNATURE =
+            "4/dpxb3iT4tp/ZCVEwSnEsLxx0bqyhLpdfOpc6fn7OR8+UClSV5n9E6aSS8MPtnRfp32bAb0nmbRn6H8ndwLUQ==";
+
+    @Test
+    public void test_sign_when_krakenDocumentationExample_then_documentedSignature() throws Exception {
+        // Given
+        final var signer = new KrakenRequestSigner(SECRET);
+
+        // When
+        final String signature = signer.sign(PATH, NONCE, POST_DATA);
+
+        // Then
+        then(signature).isEqualTo(EXPECTED_SIGNATURE);
+    }
+
+    @Test
+    public void test_sign_when_calledRepeatedly_then_buffersDoNotLeakBetweenCalls() throws Exception {
+        // Given
+        final var signer = new KrakenRequestSigner(SECRET);
+        signer.sign("/0/private/Balance", "1616492376595", "nonce=1616492376595&");
+
+        // When
+        final String signature = signer.sign(PATH, NONCE, POST_DATA);
+
+        // Then
+        then(signature).isEqualTo(EXPECTED_SIGNATURE);
+    }
+
+    @Test
+    public void test_sign_when_sharedByThreads_then_eachThreadComputesCorrectSignature() throws Exception {
+        // Given
+        final var signer = new KrakenRequestSigner(SECRET);
+        final int threadCount = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        final List<Callable<String>> tasks = IntStream.range(0, threadCount * 50) //
+                .mapToObj(i -> (Callable<String>) () -> signer.sign(PATH, NONCE, POST_DATA)) //
+                .collect(Collectors.toList());
+
+        // When
+        final List<Future<String>> signatures;
+        try {
+            signatures = executorService.invokeAll(tasks);
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Then
+        for (final Future<String> signature : signatures) {
+            then(signature.get()).isEqualTo(EXPECTED_SIGNATURE);
+        }
+    }
+
+    @Test
+    public void test_constructor_when_nullSecret_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new KrakenRequestSigner(null));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The secret can't be null.");
+    }
+}
@@ -18,24 +18,26 @@
 
 package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
 
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
-import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Supplier;
+
 public class CurrencyPairBoToKrakenMarketNameConverter
         implements NonnullConverter<CurrencyPairBo, String> {
 
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
+
+    public CurrencyPairBoToKrakenMarketNameConverter(@NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
+    }
+
     @Override
     @NotNull
     public String convert(@NotNull final CurrencyPairBo currencyPair) {
-        final CurrencyBoEnum quoteCurrency = currencyPair.getQuoteCurrency();
-        final CurrencyBoEnum baseCurrency = currencyPair.getBaseCurrency();
-        if (quoteCurrency == CurrencyBoEnum.BTC && baseCurrency == CurrencyBoEnum.EUR) {
-            return "XBTEUR";
-        } else {
-            throw new IllegalArgumentException("Unsupported market [" + quoteCurrency.getLabel() + ", "
-                    + baseCurrency.getLabel() + "]");
-        }
+        return krakenAssetMetadataRegistrySupplier.get().getAssetPair(currencyPair).getMarketName();
     }
 }
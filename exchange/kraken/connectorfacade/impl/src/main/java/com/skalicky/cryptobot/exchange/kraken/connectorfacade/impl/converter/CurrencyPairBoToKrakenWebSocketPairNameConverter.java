@@ -0,0 +1,52 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * WebSocket API of Kraken names pairs differently than its REST API.
+ */
+public class CurrencyPairBoToKrakenWebSocketPairNameConverter
+        implements NonnullConverter<CurrencyPairBo, String> {
+
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
+
+    public CurrencyPairBoToKrakenWebSocketPairNameConverter(@NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
+    }
+
+    @Override
+    @NotNull
+    public String convert(@NotNull final CurrencyPairBo currencyPair) {
+        final String webSocketPairName = krakenAssetMetadataRegistrySupplier.get().getAssetPair(currencyPair)
+                .getWebSocketPairName();
+        if (webSocketPairName == null) {
+            throw new IllegalArgumentException("Market [" + currencyPair.getQuoteCurrency().getLabel() + ", "
+                    + currencyPair.getBaseCurrency().getLabel() + "] is not available via WebSocket API");
+        }
+        return webSocketPairName;
+    }
+}
@@ -18,22 +18,25 @@
 
 package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
 
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
-import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import org.jetbrains.annotations.NotNull;
 
-public class KrakenCurrencyNameToCurrencyBoEnumConverter implements NonnullConverter<String, CurrencyBoEnum> {
+import java.util.function.Supplier;
+
+public class KrakenAssetNameToAssetBoConverter implements NonnullConverter<String, AssetBo> {
+
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
+
+    public KrakenAssetNameToAssetBoConverter(@NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
+    }
 
     @Override
     @NotNull
-    public CurrencyBoEnum convert(@NotNull final String inputEntry) {
-        switch (inputEntry) {
-            case "ZEUR":
-                return CurrencyBoEnum.EUR;
-            case "XXBT":
-                return CurrencyBoEnum.BTC;
-            default:
-                return CurrencyBoEnum.OTHERS;
-        }
+    public AssetBo convert(@NotNull final String krakenAssetName) {
+        return krakenAssetMetadataRegistrySupplier.get().getAsset(krakenAssetName);
     }
 }
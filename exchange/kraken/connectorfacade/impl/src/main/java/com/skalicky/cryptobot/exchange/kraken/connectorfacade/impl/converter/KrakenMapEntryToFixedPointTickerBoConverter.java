@@ -0,0 +1,54 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util.FixedPointUtil;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.FixedPointTickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.PriceBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same input data structure as of {@link KrakenMapEntryToTickerBoConverter}. Prices keep the count of decimals Kraken
+ * formats them with.
+ */
+public class KrakenMapEntryToFixedPointTickerBoConverter
+        implements NonnullConverter<Map.Entry<String, Map<String, Object>>, FixedPointTickerBo> {
+
+    @Override
+    @NotNull
+    public FixedPointTickerBo convert(@NotNull final Map.Entry<String, Map<String, Object>> inputEntry) {
+        @SuppressWarnings("unchecked") final var askArray = (List<String>) inputEntry.getValue().get("a");
+        @SuppressWarnings("unchecked") final var bidArray = (List<String>) inputEntry.getValue().get("b");
+        return new FixedPointTickerBo(
+                inputEntry.getKey(),
+                parsePrice(askArray.get(0)),
+                parsePrice(bidArray.get(0))
+        );
+    }
+
+    @NotNull
+    private static PriceBo parsePrice(@NotNull final String price) {
+        final int scale = FixedPointUtil.countDecimals(price);
+        return new PriceBo(FixedPointUtil.parse(price, scale), scale);
+    }
+}
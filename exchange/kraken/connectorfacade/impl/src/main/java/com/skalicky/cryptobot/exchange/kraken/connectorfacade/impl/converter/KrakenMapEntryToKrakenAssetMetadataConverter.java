@@ -0,0 +1,70 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadata;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Input entry is an asset name (e.g. XXBT) with the asset returned by Kraken.
+ */
+public class KrakenMapEntryToKrakenAssetMetadataConverter
+        implements NonnullConverter<Map.Entry<String, KrakenAssetDto>, KrakenAssetMetadata> {
+
+    /**
+     * Alternative names which Kraken uses instead of the common labels.
+     */
+    @NotNull
+    private static final ImmutableMap<String, String> labelsByAlternativeNames = ImmutableMap.of(
+            "XBT", "BTC",
+            "XDG", "DOGE");
+
+    @Override
+    @NotNull
+    public KrakenAssetMetadata convert(@NotNull final Map.Entry<String, KrakenAssetDto> inputEntry) {
+        final KrakenAssetDto asset = inputEntry.getValue();
+        final String alternativeName = asset.getAltname() == null ? inputEntry.getKey() : asset.getAltname();
+        return new KrakenAssetMetadata(
+                inputEntry.getKey(),
+                alternativeName,
+                AssetBo.valueOf(toLabel(alternativeName)),
+                Objects.requireNonNull(asset.getDecimals()));
+    }
+
+    /**
+     * Keeps a suffix like .S (staked) or .M (opt-in rewards), e.g. XBT.M becomes BTC.M.
+     */
+    @NotNull
+    private static String toLabel(@NotNull final String alternativeName) {
+        final int suffixIndex = alternativeName.indexOf('.');
+        final String prefix = suffixIndex < 0 ? alternativeName : alternativeName.substring(0, suffixIndex);
+        final String label = labelsByAlternativeNames.get(prefix);
+        if (label == null) {
+            return alternativeName;
+        }
+        return suffixIndex < 0 ? label : label + alternativeName.substring(suffixIndex);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetPairMetadata;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Input entry is a pair name (e.g. XXBTZEUR) with the pair returned by Kraken.
+ */
+public class KrakenMapEntryToKrakenAssetPairMetadataConverter
+        implements NonnullConverter<Map.Entry<String, KrakenAssetPairDto>, KrakenAssetPairMetadata> {
+
+    @Override
+    @NotNull
+    public KrakenAssetPairMetadata convert(@NotNull final Map.Entry<String, KrakenAssetPairDto> inputEntry) {
+        final KrakenAssetPairDto assetPair = inputEntry.getValue();
+        return new KrakenAssetPairMetadata(
+                inputEntry.getKey(),
+                Objects.requireNonNull(assetPair.getAltname()),
+                assetPair.getWsname(),
+                Objects.requireNonNull(assetPair.getBase()),
+                Objects.requireNonNull(assetPair.getQuote()),
+                Objects.requireNonNull(assetPair.getPair_decimals()),
+                Objects.requireNonNull(assetPair.getLot_decimals()),
+                assetPair.getOrdermin() == null ? BigDecimal.ZERO : assetPair.getOrdermin());
+    }
+}
@@ -18,21 +18,26 @@
 
 package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
 
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
-import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Supplier;
+
 public class KrakenMarketNameToCurrencyPairBoEnumConverter
         implements NonnullConverter<String, CurrencyPairBo> {
 
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
+
+    public KrakenMarketNameToCurrencyPairBoEnumConverter(@NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
+    }
+
     @Override
     @NotNull
     public CurrencyPairBo convert(@NotNull final String krakenMarketName) {
-        if ("XBTEUR".equals(krakenMarketName)) {
-            return new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
-        } else {
-            throw new IllegalArgumentException("Unsupported Kraken market name [" + krakenMarketName + "]");
-        }
+        return krakenAssetMetadataRegistrySupplier.get().getCurrencyPair(krakenMarketName);
     }
 }
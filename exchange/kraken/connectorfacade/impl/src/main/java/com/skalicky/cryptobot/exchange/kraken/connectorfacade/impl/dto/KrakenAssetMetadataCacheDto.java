@@ -0,0 +1,64 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.dto;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Assets and asset pairs as returned by Kraken along with the time of their retrieval.
+ */
+public class KrakenAssetMetadataCacheDto {
+    @Nullable
+    private Long retrievedAtInEpochMillis;
+    @Nullable
+    private Map<String, KrakenAssetDto> assets;
+    @Nullable
+    private Map<String, KrakenAssetPairDto> assetPairs;
+
+    @Nullable
+    public Long getRetrievedAtInEpochMillis() {
+        return retrievedAtInEpochMillis;
+    }
+
+    public void setRetrievedAtInEpochMillis(@Nullable final Long retrievedAtInEpochMillis) {
+        this.retrievedAtInEpochMillis = retrievedAtInEpochMillis;
+    }
+
+    @Nullable
+    public Map<String, KrakenAssetDto> getAssets() {
+        return assets;
+    }
+
+    public void setAssets(@Nullable final Map<String, KrakenAssetDto> assets) {
+        this.assets = assets;
+    }
+
+    @Nullable
+    public Map<String, KrakenAssetPairDto> getAssetPairs() {
+        return assetPairs;
+    }
+
+    public void setAssetPairs(@Nullable final Map<String, KrakenAssetPairDto> assetPairs) {
+        this.assetPairs = assetPairs;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * An order intended to be placed at Kraken as stored in the order journal.
+ */
+public class KrakenOrderJournalEntryDto {
+    @Nullable
+    private Integer userReference;
+    @Nullable
+    private String krakenMarketName;
+    @Nullable
+    private String krakenOrderType;
+    @Nullable
+    private String krakenPriceOrderType;
+    @Nullable
+    private BigDecimal price;
+    @Nullable
+    private BigDecimal volumeInQuoteCurrency;
+    @Nullable
+    private Long createdAtInEpochSeconds;
+    @Nullable
+    private String state;
+    @Nullable
+    private List<String> transactionIds;
+
+    @Nullable
+    public Integer getUserReference() {
+        return userReference;
+    }
+
+    public void setUserReference(@Nullable final Integer userReference) {
+        this.userReference = userReference;
+    }
+
+    @Nullable
+    public String getKrakenMarketName() {
+        return krakenMarketName;
+    }
+
+    public void setKrakenMarketName(@Nullable final String krakenMarketName) {
+        this.krakenMarketName = krakenMarketName;
+    }
+
+    @Nullable
+    public String getKrakenOrderType() {
+        return krakenOrderType;
+    }
+
+    public void setKrakenOrderType(@Nullable final String krakenOrderType) {
+        this.krakenOrderType = krakenOrderType;
+    }
+
+    @Nullable
+    public String getKrakenPriceOrderType() {
+        return krakenPriceOrderType;
+    }
+
+    public void setKrakenPriceOrderType(@Nullable final String krakenPriceOrderType) {
+        this.krakenPriceOrderType = krakenPriceOrderType;
+    }
+
+    @Nullable
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(@Nullable final BigDecimal price) {
+        this.price = price;
+    }
+
+    @Nullable
+    public BigDecimal getVolumeInQuoteCurrency() {
+        return volumeInQuoteCurrency;
+    }
+
+    public void setVolumeInQuoteCurrency(@Nullable final BigDecimal volumeInQuoteCurrency) {
+        this.volumeInQuoteCurrency = volumeInQuoteCurrency;
+    }
+
+    @Nullable
+    public Long getCreatedAtInEpochSeconds() {
+        return createdAtInEpochSeconds;
+    }
+
+    public void setCreatedAtInEpochSeconds(@Nullable final Long createdAtInEpochSeconds) {
+        this.createdAtInEpochSeconds = createdAtInEpochSeconds;
+    }
+
+    @Nullable
+    public String getState() {
+        return state;
+    }
+
+    public void setState(@Nullable final String state) {
+        this.state = state;
+    }
+
+    @Nullable
+    public List<String> getTransactionIds() {
+        return transactionIds;
+    }
+
+    public void setTransactionIds(@Nullable final List<String> transactionIds) {
+        this.transactionIds = transactionIds;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps pending entries in memory only, hence they survive neither a restart nor a crash.
+ */
+public class InMemoryKrakenOrderJournal implements KrakenOrderJournal {
+
+    @NotNull
+    private final Map<Integer, KrakenOrderJournalEntry> pendingEntriesByUserReferences = new LinkedHashMap<>();
+
+    @NotNull
+    @Override
+    public synchronized ImmutableList<KrakenOrderJournalEntry> loadPending() {
+        return ImmutableList.copyOf(pendingEntriesByUserReferences.values());
+    }
+
+    @Override
+    public synchronized void save(@NotNull final KrakenOrderJournalEntry entry) {
+        if (entry.getState() == KrakenOrderJournalEntryStateEnum.PENDING) {
+            pendingEntriesByUserReferences.put(entry.getUserReference(), entry);
+        } else {
+            pendingEntriesByUserReferences.remove(entry.getUserReference());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.dto.KrakenOrderJournalEntryDto;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stores entries as a JSON file which is replaced atomically. Pending entries are kept until they are resolved,
+ * resolved ones only up to a limit as a record of recent placements.
+ * <p>
+ * Unlike other stores, an unreadable file is a failure since it could hide an order which Kraken has already
+ * accepted.
+ */
+public class JsonFileKrakenOrderJournal implements KrakenOrderJournal {
+
+    @NotNull
+    private static final TypeReference<List<KrakenOrderJournalEntryDto>> entriesTypeReference =
+            new TypeReference<>() {
+            };
+
+    @NotNull
+    private final Path file;
+    private final int maxResolvedEntryCount;
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+
+    public JsonFileKrakenOrderJournal(@NotNull final Path file,
+                                      final int maxResolvedEntryCount) {
+        this.file = file;
+        this.maxResolvedEntryCount = maxResolvedEntryCount;
+    }
+
+    @NotNull
+    @Override
+    public synchronized ImmutableList<KrakenOrderJournalEntry> loadPending() {
+        return read().stream() //
+                .filter(e -> e.getState() == KrakenOrderJournalEntryStateEnum.PENDING) //
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @Override
+    public synchronized void save(@NotNull final KrakenOrderJournalEntry entry) {
+        final var entries = new ArrayList<KrakenOrderJournalEntry>();
+        read().stream() //
+                .filter(e -> e.getUserReference() != entry.getUserReference()) //
+                .forEach(entries::add);
+        entries.add(entry);
+
+        long resolvedEntryCountToRemove = entries.stream() //
+                .filter(e -> e.getState() != KrakenOrderJournalEntryStateEnum.PENDING) //
+                .count() - maxResolvedEntryCount;
+        final var retainedEntries = new ArrayList<KrakenOrderJournalEntry>(entries.size());
+        for (final KrakenOrderJournalEntry e : entries) {
+            if (resolvedEntryCountToRemove > 0 && e.getState() != KrakenOrderJournalEntryStateEnum.PENDING) {
+                --resolvedEntryCountToRemove;
+            } else {
+                retainedEntries.add(e);
+            }
+        }
+        write(retainedEntries);
+    }
+
+    /**
+     * Entries are in the order they were first saved.
+     */
+    @NotNull
+    private List<KrakenOrderJournalEntry> read() {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            final List<KrakenOrderJournalEntryDto> dtos = objectMapper.readValue(file.toFile(), entriesTypeReference);
+            final var entries = new ArrayList<KrakenOrderJournalEntry>(dtos.size());
+            for (final KrakenOrderJournalEntryDto dto : dtos) {
+                entries.add(new KrakenOrderJournalEntry(Objects.requireNonNull(dto.getUserReference()),
+                        Objects.requireNonNull(dto.getKrakenMarketName()),
+                        Objects.requireNonNull(dto.getKrakenOrderType()),
+                        Objects.requireNonNull(dto.getKrakenPriceOrderType()),
+                        Objects.requireNonNull(dto.getPrice()),
+                        Objects.requireNonNull(dto.getVolumeInQuoteCurrency()),
+                        Objects.requireNonNull(dto.getCreatedAtInEpochSeconds()),
+                        KrakenOrderJournalEntryStateEnum.valueOf(Objects.requireNonNull(dto.getState())),
+                        dto.getTransactionIds() == null
+                                ? ImmutableList.of()
+                                : ImmutableList.copyOf(dto.getTransactionIds())));
+            }
+            return entries;
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            throw new IllegalStateException("Kraken order journal could not be loaded from [" + file + "]", ex);
+        }
+    }
+
+    private void write(@NotNull final List<KrakenOrderJournalEntry> entries) {
+        final var dtos = new ArrayList<KrakenOrderJournalEntryDto>(entries.size());
+        for (final KrakenOrderJournalEntry entry : entries) {
+            final var dto = new KrakenOrderJournalEntryDto();
+            dto.setUserReference(entry.getUserReference());
+            dto.setKrakenMarketName(entry.getKrakenMarketName());
+            dto.setKrakenOrderType(entry.getKrakenOrderType());
+            dto.setKrakenPriceOrderType(entry.getKrakenPriceOrderType());
+            dto.setPrice(entry.getPrice());
+            dto.setVolumeInQuoteCurrency(entry.getVolumeInQuoteCurrency());
+            dto.setCreatedAtInEpochSeconds(entry.getCreatedAtInEpochSeconds());
+            dto.setState(entry.getState().name());
+            dto.setTransactionIds(entry.getTransactionIds());
+            dtos.add(dto);
+        }
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, file, dtos);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Kraken order journal could not be saved to [" + file + "]", ex);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A write-ahead journal of orders placed at Kraken. An order is saved as pending before it is sent, hence an order
+ * whose placement failed ambiguously is never forgotten.
+ */
+public interface KrakenOrderJournal {
+
+    @NotNull
+    ImmutableList<KrakenOrderJournalEntry> loadPending();
+
+    /**
+     * Replaces an entry with the same user reference if there is any.
+     */
+    void save(@NotNull KrakenOrderJournalEntry entry);
+}
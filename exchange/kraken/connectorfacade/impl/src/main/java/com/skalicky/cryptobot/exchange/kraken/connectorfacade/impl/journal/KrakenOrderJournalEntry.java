@@ -0,0 +1,144 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * An order intended to be placed at Kraken. The user reference is sent along with the order, hence the order can be
+ * looked up at Kraken even if the response to its placement got lost.
+ */
+public class KrakenOrderJournalEntry {
+    private final int userReference;
+    @NotNull
+    private final String krakenMarketName;
+    @NotNull
+    private final String krakenOrderType;
+    @NotNull
+    private final String krakenPriceOrderType;
+    @NotNull
+    private final BigDecimal price;
+    @NotNull
+    private final BigDecimal volumeInQuoteCurrency;
+    private final long createdAtInEpochSeconds;
+    @NotNull
+    private final KrakenOrderJournalEntryStateEnum state;
+    @NotNull
+    private final ImmutableList<String> transactionIds;
+
+    public KrakenOrderJournalEntry(final int userReference,
+                                   @NotNull final String krakenMarketName,
+                                   @NotNull final String krakenOrderType,
+                                   @NotNull final String krakenPriceOrderType,
+                                   @NotNull final BigDecimal price,
+                                   @NotNull final BigDecimal volumeInQuoteCurrency,
+                                   final long createdAtInEpochSeconds,
+                                   @NotNull final KrakenOrderJournalEntryStateEnum state,
+                                   @NotNull final ImmutableList<String> transactionIds) {
+        this.userReference = userReference;
+        this.krakenMarketName = krakenMarketName;
+        this.krakenOrderType = krakenOrderType;
+        this.krakenPriceOrderType = krakenPriceOrderType;
+        this.price = price;
+        this.volumeInQuoteCurrency = volumeInQuoteCurrency;
+        this.createdAtInEpochSeconds = createdAtInEpochSeconds;
+        this.state = state;
+        this.transactionIds = transactionIds;
+    }
+
+    public int getUserReference() {
+        return userReference;
+    }
+
+    @NotNull
+    public String getKrakenMarketName() {
+        return krakenMarketName;
+    }
+
+    @NotNull
+    public String getKrakenOrderType() {
+        return krakenOrderType;
+    }
+
+    @NotNull
+    public String getKrakenPriceOrderType() {
+        return krakenPriceOrderType;
+    }
+
+    @NotNull
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @NotNull
+    public BigDecimal getVolumeInQuoteCurrency() {
+        return volumeInQuoteCurrency;
+    }
+
+    public long getCreatedAtInEpochSeconds() {
+        return createdAtInEpochSeconds;
+    }
+
+    @NotNull
+    public KrakenOrderJournalEntryStateEnum getState() {
+        return state;
+    }
+
+    @NotNull
+    public ImmutableList<String> getTransactionIds() {
+        return transactionIds;
+    }
+
+    @NotNull
+    public KrakenOrderJournalEntry resolve(@NotNull final KrakenOrderJournalEntryStateEnum newState,
+                                           @NotNull final ImmutableList<String> newTransactionIds) {
+        return new KrakenOrderJournalEntry(userReference, krakenMarketName, krakenOrderType, krakenPriceOrderType,
+                price, volumeInQuoteCurrency, createdAtInEpochSeconds, newState, newTransactionIds);
+    }
+
+    /**
+     * Whether both entries describe the same order regardless of its user reference and state.
+     */
+    public boolean hasSameOrderAs(@NotNull final KrakenOrderJournalEntry other) {
+        return krakenMarketName.equals(other.krakenMarketName)
+                && krakenOrderType.equals(other.krakenOrderType)
+                && krakenPriceOrderType.equals(other.krakenPriceOrderType)
+                && price.compareTo(other.price) == 0
+                && volumeInQuoteCurrency.compareTo(other.volumeInQuoteCurrency) == 0;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "KrakenOrderJournalEntry{" +
+                "userReference=" + userReference +
+                ", krakenMarketName='" + krakenMarketName + '\'' +
+                ", krakenOrderType='" + krakenOrderType + '\'' +
+                ", krakenPriceOrderType='" + krakenPriceOrderType + '\'' +
+                ", price=" + price +
+                ", volumeInQuoteCurrency=" + volumeInQuoteCurrency +
+                ", createdAtInEpochSeconds=" + createdAtInEpochSeconds +
+                ", state=" + state +
+                ", transactionIds=" + transactionIds +
+                '}';
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util.FixedPointUtil;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Maintains an order book from a Kraken snapshot and incremental updates. Price levels are lists of the price, the
+ * volume and further elements which are ignored, e.g. ["8903.30000", "1.234", 1616663113].
+ * <p>
+ * Scales of the book are taken from the count of decimals Kraken formats the snapshot with. Kraken calculates
+ * checksums over these formatted numbers without the decimal point and leading zeros, which are exactly the decimal
+ * representations of the scaled longs.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class KrakenOrderBookMaintainer {
+    private static final int CHECKSUM_LEVEL_COUNT = 10;
+
+    private final int depth;
+    @NotNull
+    private final CRC32 crc32 = new CRC32();
+    @NotNull
+    private final byte[] digitBuffer = new byte[20];
+    @Nullable
+    private MutableOrderBook orderBook;
+
+    public KrakenOrderBookMaintainer(final int depth) {
+        this.depth = depth;
+    }
+
+    @NotNull
+    public OrderBookBo applySnapshot(@NotNull final List<List<Object>> asks,
+                                     @NotNull final List<List<Object>> bids) {
+        final List<Object> firstLevel;
+        if (!asks.isEmpty()) {
+            firstLevel = asks.get(0);
+        } else if (!bids.isEmpty()) {
+            firstLevel = bids.get(0);
+        } else {
+            throw new IllegalArgumentException("Snapshot of the order book is empty");
+        }
+        final var newOrderBook = new MutableOrderBook(FixedPointUtil.countDecimals(getPrice(firstLevel)),
+                FixedPointUtil.countDecimals(getVolume(firstLevel)), depth);
+        asks.forEach(level -> newOrderBook.updateAsk(
+                FixedPointUtil.parse(getPrice(level), newOrderBook.getPriceScale()),
+                FixedPointUtil.parse(getVolume(level), newOrderBook.getVolumeScale())));
+        bids.forEach(level -> newOrderBook.updateBid(
+                FixedPointUtil.parse(getPrice(level), newOrderBook.getPriceScale()),
+                FixedPointUtil.parse(getVolume(level), newOrderBook.getVolumeScale())));
+        orderBook = newOrderBook;
+        return newOrderBook.toOrderBookBo();
+    }
+
+    /**
+     * Applies updates of the book channel of the Kraken WebSocket API and verifies the resulting book against the
+     * checksum sent along. When the verification fails, the book is discarded since it cannot be repaired by further
+     * updates and a new snapshot is needed.
+     */
+    public void applyUpdate(@NotNull final List<List<Object>> asks,
+                            @NotNull final List<List<Object>> bids,
+                            final long expectedChecksum) {
+        final MutableOrderBook currentOrderBook = getMutableOrderBook();
+        for (final List<Object> level : asks) {
+            currentOrderBook.updateAsk(FixedPointUtil.parse(getPrice(level), currentOrderBook.getPriceScale()),
+                    FixedPointUtil.parse(getVolume(level), currentOrderBook.getVolumeScale()));
+        }
+        for (final List<Object> level : bids) {
+            currentOrderBook.updateBid(FixedPointUtil.parse(getPrice(level), currentOrderBook.getPriceScale()),
+                    FixedPointUtil.parse(getVolume(level), currentOrderBook.getVolumeScale()));
+        }
+        final long actualChecksum = calculateChecksum();
+        if (actualChecksum != expectedChecksum) {
+            orderBook = null;
+            throw new IllegalStateException("Checksum of the order book [" + actualChecksum
+                    + "] does not match the expected one [" + expectedChecksum + "]");
+        }
+    }
+
+    /**
+     * @return snapshot of the current book, which is not changed by further updates
+     */
+    @NotNull
+    public OrderBookBo getOrderBook() {
+        return getMutableOrderBook().toOrderBookBo();
+    }
+
+    /**
+     * CRC32 over the price and the volume of the 10 best asks followed by the 10 best bids.
+     */
+    public long calculateChecksum() {
+        final MutableOrderBook currentOrderBook = getMutableOrderBook();
+        crc32.reset();
+        for (int level = 0; level < Math.min(CHECKSUM_LEVEL_COUNT, currentOrderBook.getAskCount()); ++level) {
+            updateChecksum(currentOrderBook.getAskPrice(level));
+            updateChecksum(currentOrderBook.getAskVolume(level));
+        }
+        for (int level = 0; level < Math.min(CHECKSUM_LEVEL_COUNT, currentOrderBook.getBidCount()); ++level) {
+            updateChecksum(currentOrderBook.getBidPrice(level));
+            updateChecksum(currentOrderBook.getBidVolume(level));
+        }
+        return crc32.getValue();
+    }
+
+    private void updateChecksum(final long scaledValue) {
+        int start = digitBuffer.length;
+        long remainder = scaledValue;
+        do {
+            digitBuffer[--start] = (byte) ('0' + remainder % 10);
+            remainder /= 10;
+        } while (remainder > 0);
+        crc32.update(digitBuffer, start, digitBuffer.length - start);
+    }
+
+    @NotNull
+    private MutableOrderBook getMutableOrderBook() {
+        if (orderBook == null) {
+            throw new IllegalStateException("No snapshot of the order book has been applied");
+        }
+        return orderBook;
+    }
+
+    @NotNull
+    private static String getPrice(@NotNull final List<Object> level) {
+        return (String) level.get(0);
+    }
+
+    @NotNull
+    private static String getVolume(@NotNull final List<Object> level) {
+        return (String) level.get(1);
+    }
+}
@@ -20,16 +20,26 @@ package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAddOrderResultDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenClosedOrderResultDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderResultDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenErrorCategoryEnum;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPrivateApiConnector;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournal;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournalEntry;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournalEntryStateEnum;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetPairMetadata;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
@@ -38,15 +48,42 @@ import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.en
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Every order is sent with a generated user reference and saved to an order journal before it is sent. When its
+ * placement fails without a response from Kraken, the order is looked up at Kraken by the user reference, hence the
+ * caller learns whether Kraken accepted it. Orders which could not be looked up stay pending in the journal and are
+ * looked up before the next order is placed. So do orders which were not found within a grace period after their
+ * placement since Kraken might still be processing them, e.g. after "EService:Deadline elapsed".
+ */
 public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenPrivateApiFacadeImpl.class);
+    /**
+     * Tolerates a clock of this machine being ahead of the one of Kraken when looking up closed orders.
+     */
+    @NotNull
+    private static final Duration CLOSED_ORDER_LOOKUP_MARGIN = Duration.ofMinutes(5);
+    /**
+     * An order not found at Kraken within this period after its placement is not considered not placed yet.
+     */
+    @NotNull
+    private static final Duration PLACEMENT_GRACE_PERIOD = Duration.ofMinutes(5);
+
     @NotNull
     private final KrakenPrivateApiConnector krakenPrivateApiConnector;
     @NotNull
@@ -56,30 +93,46 @@ public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
     @NotNull
     private final NonnullConverter<PriceOrderTypeBoEnum, String> priceOrderTypeBoEnumToKrakenOrderTypeConverter;
     @NotNull
-    private final NonnullConverter<String, CurrencyBoEnum> krakenCurrencyNameToCurrencyBoEnumConverter;
+    private final NonnullConverter<String, AssetBo> krakenAssetNameToAssetBoConverter;
     @NotNull
     private final NonnullConverter<Map.Entry<String, KrakenOpenOrderDto>, OpenOrderBo> krakenMapEntryToOpenOrderBoConverter;
     @NotNull
     private final NonnullConverter<Map.Entry<String, KrakenClosedOrderDto>, ClosedOrderBo> krakenMapEntryToClosedOrderBoConverter;
     @NotNull
     private final NonnullConverter<LocalDateTime, Long> localDateTimeToEpochSecondLongConverter;
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
+    @NotNull
+    private final KrakenOrderJournal krakenOrderJournal;
+    @NotNull
+    private final IntSupplier userReferenceSupplier;
+    @NotNull
+    private final Clock clock;
 
     public KrakenPrivateApiFacadeImpl(@NotNull final KrakenPrivateApiConnector krakenPrivateApiConnector,
                                       @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter,
                                       @NotNull final NonnullConverter<OrderTypeBoEnum, String> orderTypeBoEnumToKrakenOrderTypeConverter,
                                       @NotNull final NonnullConverter<PriceOrderTypeBoEnum, String> priceOrderTypeBoEnumToKrakenOrderTypeConverter,
-                                      @NotNull final NonnullConverter<String, CurrencyBoEnum> krakenCurrencyNameToCurrencyBoEnumConverter,
+                                      @NotNull final NonnullConverter<String, AssetBo> krakenAssetNameToAssetBoConverter,
                                       @NotNull final NonnullConverter<Map.Entry<String, KrakenOpenOrderDto>, OpenOrderBo> krakenMapEntryToOpenOrderBoConverter,
                                       @NotNull final NonnullConverter<Map.Entry<String, KrakenClosedOrderDto>, ClosedOrderBo> krakenMapEntryToClosedOrderBoConverter,
-                                      @NotNull final NonnullConverter<LocalDateTime, Long> localDateTimeToEpochSecondLongConverter) {
+                                      @NotNull final NonnullConverter<LocalDateTime, Long> localDateTimeToEpochSecondLongConverter,
+                                      @NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier,
+                                      @NotNull final KrakenOrderJournal krakenOrderJournal,
+                                      @NotNull final IntSupplier userReferenceSupplier,
+                                      @NotNull final Clock clock) {
         this.krakenPrivateApiConnector = krakenPrivateApiConnector;
         this.currencyPairBoEnumToKrakenMarketNameConverter = currencyPairBoEnumToKrakenMarketNameConverter;
         this.orderTypeBoEnumToKrakenOrderTypeConverter = orderTypeBoEnumToKrakenOrderTypeConverter;
         this.priceOrderTypeBoEnumToKrakenOrderTypeConverter = priceOrderTypeBoEnumToKrakenOrderTypeConverter;
-        this.krakenCurrencyNameToCurrencyBoEnumConverter = krakenCurrencyNameToCurrencyBoEnumConverter;
+        this.krakenAssetNameToAssetBoConverter = krakenAssetNameToAssetBoConverter;
         this.krakenMapEntryToOpenOrderBoConverter = krakenMapEntryToOpenOrderBoConverter;
         this.krakenMapEntryToClosedOrderBoConverter = krakenMapEntryToClosedOrderBoConverter;
         this.localDateTimeToEpochSecondLongConverter = localDateTimeToEpochSecondLongConverter;
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
+        this.krakenOrderJournal = krakenOrderJournal;
+        this.userReferenceSupplier = userReferenceSupplier;
+        this.clock = clock;
     }
 
     @NotNull
@@ -89,7 +142,7 @@ public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
                 krakenPrivateApiConnector.openOrders(includeTrades);
 
         if (CollectionUtils.isNotEmpty(response.getError())) {
-            throw new IllegalStateException(response.getError().toString());
+            throw new KrakenApiException(response.getError());
         }
         if (response.getResult() == null || MapUtils.isEmpty(response.getResult().getOpen())) {
             return ImmutableList.of();
@@ -109,7 +162,7 @@ public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
                 krakenPrivateApiConnector.closedOrders(includeTrades, fromInEpochSeconds);
 
         if (CollectionUtils.isNotEmpty(response.getError())) {
-            throw new IllegalStateException(response.getError().toString());
+            throw new KrakenApiException(response.getError());
         }
         if (response.getResult() == null || MapUtils.isEmpty(response.getResult().getClosed())) {
             return ImmutableList.of();
@@ -120,22 +173,69 @@ public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
                 .collect(Collectors.toList()));
     }
 
+    @NotNull
+    @Override
+    public ClosedOrdersPageBo getClosedOrdersPage(final boolean includeTrades,
+                                                  @NotNull final LocalDateTime from,
+                                                  @NotNull final LocalDateTime to,
+                                                  final int offset) {
+        final Long fromInEpochSeconds = localDateTimeToEpochSecondLongConverter.convert(from);
+        final Long toInEpochSeconds = localDateTimeToEpochSecondLongConverter.convert(to);
+        final KrakenResponseDto<KrakenClosedOrderResultDto> response =
+                krakenPrivateApiConnector.closedOrders(includeTrades, fromInEpochSeconds, toInEpochSeconds, offset);
+
+        if (CollectionUtils.isNotEmpty(response.getError())) {
+            throw new KrakenApiException(response.getError());
+        }
+        if (response.getResult() == null || MapUtils.isEmpty(response.getResult().getClosed())) {
+            return new ClosedOrdersPageBo(ImmutableList.of(), 0);
+        }
+
+        final Long totalCount = response.getResult().getCount();
+        return new ClosedOrdersPageBo(ImmutableList.copyOf(response.getResult().getClosed().entrySet().stream() //
+                .map(krakenMapEntryToClosedOrderBoConverter::convert) //
+                .collect(Collectors.toList())),
+                totalCount == null ? response.getResult().getClosed().size() : totalCount.intValue());
+    }
+
     @NotNull
     @Override
     public ImmutableMap<CurrencyBoEnum, BigDecimal> getAccountBalance() {
+        final Map<String, BigDecimal> balancesByKrakenAssetNames = retrieveBalances();
+
+        final var balancesByCurrencies = new EnumMap<CurrencyBoEnum, BigDecimal>(CurrencyBoEnum.class);
+        balancesByKrakenAssetNames.forEach((krakenAssetName, balance) -> {
+            final CurrencyBoEnum currency = krakenAssetNameToAssetBoConverter.convert(krakenAssetName).getCurrency();
+            if (currency != CurrencyBoEnum.OTHERS) {
+                balancesByCurrencies.put(currency, balance);
+            }
+        });
+        return Maps.immutableEnumMap(balancesByCurrencies);
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<AssetBo, BigDecimal> getAssetBalances() {
+        final Map<String, BigDecimal> balancesByKrakenAssetNames = retrieveBalances();
+
+        final var balancesByAssets = ImmutableMap.<AssetBo, BigDecimal>builderWithExpectedSize(
+                balancesByKrakenAssetNames.size());
+        balancesByKrakenAssetNames.forEach((krakenAssetName, balance) ->
+                balancesByAssets.put(krakenAssetNameToAssetBoConverter.convert(krakenAssetName), balance));
+        return balancesByAssets.build();
+    }
+
+    @NotNull
+    private Map<String, BigDecimal> retrieveBalances() {
         final KrakenResponseDto<Map<String, BigDecimal>> response = krakenPrivateApiConnector.balance();
 
         if (CollectionUtils.isNotEmpty(response.getError())) {
-            throw new IllegalStateException(response.getError().toString());
+            throw new KrakenApiException(response.getError());
         }
         if (MapUtils.isEmpty(response.getResult())) {
-            return ImmutableMap.of();
+            return Map.of();
         }
-
-        return ImmutableMap.copyOf(response.getResult().entrySet().stream() //
-                .filter(e -> krakenCurrencyNameToCurrencyBoEnumConverter.convert(e.getKey()) != CurrencyBoEnum.OTHERS) //
-                .collect(Collectors.toUnmodifiableMap(
-                        e -> krakenCurrencyNameToCurrencyBoEnumConverter.convert(e.getKey()), Map.Entry::getValue)));
+        return response.getResult();
     }
 
     @Override
@@ -154,23 +254,134 @@ public class KrakenPrivateApiFacadeImpl implements KrakenPrivateApiFacade {
         if (preferFeeInQuoteCurrency) {
             krakenOrderFlags.add("fciq");
         }
-        final BigDecimal krakenPrice;
-        if (currencyPair.getQuoteCurrency() == CurrencyBoEnum.BTC
-                && currencyPair.getBaseCurrency() == CurrencyBoEnum.EUR) {
-            // Scale set to 1 due to Kraken constraint:
-            // "EOrder:Invalid price:XXBTZEUR price can only be specified up to 1 decimals."
-            krakenPrice = price.setScale(1, RoundingMode.HALF_UP);
-        } else {
-            krakenPrice = price;
+        final KrakenAssetPairMetadata assetPair = krakenAssetMetadataRegistrySupplier.get().getAssetPair(currencyPair);
+        // Scale set due to Kraken constraints like
+        // "EOrder:Invalid price:XXBTZEUR price can only be specified up to 1 decimals."
+        final BigDecimal krakenPrice = price.setScale(assetPair.getPriceDecimals(), RoundingMode.HALF_UP);
+        // Rounded down not to spend more than intended.
+        final BigDecimal krakenVolume = volumeInQuoteCurrency.scale() > assetPair.getVolumeDecimals()
+                ? volumeInQuoteCurrency.setScale(assetPair.getVolumeDecimals(), RoundingMode.DOWN)
+                : volumeInQuoteCurrency;
+        if (krakenVolume.compareTo(assetPair.getMinimumOrderVolume()) < 0) {
+            throw new IllegalArgumentException("Volume [" + krakenVolume + "] is lower than the minimum order volume ["
+                    + assetPair.getMinimumOrderVolume() + "] of the market " + krakenMarketName);
         }
 
-        final KrakenResponseDto<KrakenAddOrderResultDto> response =
-                krakenPrivateApiConnector.addOrder(krakenMarketName,
-                        krakenOrderType, krakenPriceOrderType, krakenPrice, volumeInQuoteCurrency,
-                        ImmutableList.copyOf(krakenOrderFlags), orderExpirationInSecondsFromNow);
+        final ImmutableList<KrakenOrderJournalEntry> placedPendingEntries = resolvePendingEntries();
+        final var entry = new KrakenOrderJournalEntry(userReferenceSupplier.getAsInt(), krakenMarketName,
+                krakenOrderType, krakenPriceOrderType, krakenPrice, krakenVolume, clock.instant().getEpochSecond(),
+                KrakenOrderJournalEntryStateEnum.PENDING, ImmutableList.of());
+        for (final KrakenOrderJournalEntry placedPendingEntry : placedPendingEntries) {
+            if (placedPendingEntry.hasSameOrderAs(entry)) {
+                logger.warn("Order " + entry + " not placed since the same order " + placedPendingEntry
+                        + " has already been placed or may still be placed");
+                return;
+            }
+        }
+        krakenOrderJournal.save(entry);
+
+        final KrakenResponseDto<KrakenAddOrderResultDto> response;
+        try {
+            response = krakenPrivateApiConnector.addOrder(krakenMarketName,
+                    krakenOrderType, krakenPriceOrderType, krakenPrice, krakenVolume,
+                    ImmutableList.copyOf(krakenOrderFlags), orderExpirationInSecondsFromNow,
+                    entry.getUserReference());
+        } catch (@NotNull final RuntimeException ex) {
+            resolveAfterAmbiguousFailure(entry, ex);
+            return;
+        }
 
         if (CollectionUtils.isNotEmpty(response.getError())) {
-            throw new IllegalStateException(response.getError().toString());
+            final var exception = new KrakenApiException(response.getError());
+            // E.g. "EService:Deadline elapsed" does not tell whether the order has been placed.
+            if (exception.getCategory() == KrakenErrorCategoryEnum.RETRYABLE) {
+                resolveAfterAmbiguousFailure(entry, exception);
+                return;
+            }
+            krakenOrderJournal.save(entry.resolve(KrakenOrderJournalEntryStateEnum.NOT_PLACED, ImmutableList.of()));
+            throw exception;
+        }
+        final ImmutableList<String> transactionIds = response.getResult() == null
+                || CollectionUtils.isEmpty(response.getResult().getTxid())
+                ? ImmutableList.of()
+                : ImmutableList.copyOf(response.getResult().getTxid());
+        krakenOrderJournal.save(entry.resolve(KrakenOrderJournalEntryStateEnum.PLACED, transactionIds));
+    }
+
+    /**
+     * Returns normally if the order turned out to be placed, otherwise throws the given failure.
+     */
+    private void resolveAfterAmbiguousFailure(@NotNull final KrakenOrderJournalEntry entry,
+                                              @NotNull final RuntimeException failure) {
+        final KrakenOrderJournalEntry resolvedEntry;
+        try {
+            resolvedEntry = resolve(entry);
+        } catch (@NotNull final RuntimeException lookupEx) {
+            failure.addSuppressed(lookupEx);
+            throw failure;
+        }
+        if (resolvedEntry.getState() != KrakenOrderJournalEntryStateEnum.PLACED) {
+            throw failure;
+        }
+        logger.warn("Order " + resolvedEntry + " placed despite the failure of its placement", failure);
+    }
+
+    /**
+     * Returns the pending entries which turned out to be placed or which are still pending, i.e. might be placed.
+     */
+    @NotNull
+    private ImmutableList<KrakenOrderJournalEntry> resolvePendingEntries() {
+        final var placedEntries = ImmutableList.<KrakenOrderJournalEntry>builder();
+        for (final KrakenOrderJournalEntry pendingEntry : krakenOrderJournal.loadPending()) {
+            final KrakenOrderJournalEntry resolvedEntry = resolve(pendingEntry);
+            logger.warn("Pending order resolved as " + resolvedEntry);
+            if (resolvedEntry.getState() != KrakenOrderJournalEntryStateEnum.NOT_PLACED) {
+                placedEntries.add(resolvedEntry);
+            }
+        }
+        return placedEntries.build();
+    }
+
+    /**
+     * Looks up the order at Kraken by its user reference. Throws an exception and leaves the entry pending when
+     * Kraken cannot be asked. Leaves the entry pending as well when the order is not found within the grace period.
+     */
+    @NotNull
+    private KrakenOrderJournalEntry resolve(@NotNull final KrakenOrderJournalEntry entry) {
+        final ImmutableList<String> transactionIds = lookUpTransactionIds(entry);
+        if (transactionIds.isEmpty() && clock.instant().getEpochSecond()
+                < entry.getCreatedAtInEpochSeconds() + PLACEMENT_GRACE_PERIOD.toSeconds()) {
+            return entry;
+        }
+        final KrakenOrderJournalEntry resolvedEntry = entry.resolve(transactionIds.isEmpty()
+                ? KrakenOrderJournalEntryStateEnum.NOT_PLACED
+                : KrakenOrderJournalEntryStateEnum.PLACED, transactionIds);
+        krakenOrderJournal.save(resolvedEntry);
+        return resolvedEntry;
+    }
+
+    @NotNull
+    private ImmutableList<String> lookUpTransactionIds(@NotNull final KrakenOrderJournalEntry entry) {
+        final KrakenResponseDto<KrakenOpenOrderResultDto> openOrdersResponse =
+                krakenPrivateApiConnector.openOrders(false, entry.getUserReference());
+        if (CollectionUtils.isNotEmpty(openOrdersResponse.getError())) {
+            throw new KrakenApiException(openOrdersResponse.getError());
+        }
+        if (openOrdersResponse.getResult() != null && MapUtils.isNotEmpty(openOrdersResponse.getResult().getOpen())) {
+            return ImmutableList.copyOf(openOrdersResponse.getResult().getOpen().keySet());
+        }
+
+        final KrakenResponseDto<KrakenClosedOrderResultDto> closedOrdersResponse =
+                krakenPrivateApiConnector.closedOrders(false,
+                        entry.getCreatedAtInEpochSeconds() - CLOSED_ORDER_LOOKUP_MARGIN.toSeconds(),
+                        entry.getUserReference());
+        if (CollectionUtils.isNotEmpty(closedOrdersResponse.getError())) {
+            throw new KrakenApiException(closedOrdersResponse.getError());
+        }
+        if (closedOrdersResponse.getResult() != null
+                && MapUtils.isNotEmpty(closedOrdersResponse.getResult().getClosed())) {
+            return ImmutableList.copyOf(closedOrdersResponse.getResult().getClosed().keySet());
         }
+        return ImmutableList.of();
     }
 }
@@ -19,17 +19,35 @@
 package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPublicApiFacade;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistry;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetPairMetadata;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.FixedPointTickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class KrakenPublicApiFacadeImpl implements KrakenPublicApiFacade {
     @NotNull
@@ -38,25 +56,44 @@ public class KrakenPublicApiFacadeImpl implements KrakenPublicApiFacade {
     private final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter;
     @NotNull
     private final NonnullConverter<Map.Entry<String, Map<String, Object>>, TickerBo> krakenMapEntryToTickerBoConverter;
+    @NotNull
+    private final NonnullConverter<Map.Entry<String, Map<String, Object>>, FixedPointTickerBo> krakenMapEntryToFixedPointTickerBoConverter;
+    @NotNull
+    private final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier;
 
     public KrakenPublicApiFacadeImpl(@NotNull final KrakenPublicApiConnector krakenPublicApiConnector,
                                      @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoEnumToKrakenMarketNameConverter,
-                                     @NotNull final NonnullConverter<Map.Entry<String, Map<String, Object>>, TickerBo> krakenMapEntryToTickerBoConverter) {
+                                     @NotNull final NonnullConverter<Map.Entry<String, Map<String, Object>>, TickerBo> krakenMapEntryToTickerBoConverter,
+                                     @NotNull final NonnullConverter<Map.Entry<String, Map<String, Object>>, FixedPointTickerBo> krakenMapEntryToFixedPointTickerBoConverter,
+                                     @NotNull final Supplier<KrakenAssetMetadataRegistry> krakenAssetMetadataRegistrySupplier) {
         this.krakenPublicApiConnector = krakenPublicApiConnector;
         this.currencyPairBoEnumToKrakenMarketNameConverter = currencyPairBoEnumToKrakenMarketNameConverter;
         this.krakenMapEntryToTickerBoConverter = krakenMapEntryToTickerBoConverter;
+        this.krakenMapEntryToFixedPointTickerBoConverter = krakenMapEntryToFixedPointTickerBoConverter;
+        this.krakenAssetMetadataRegistrySupplier = krakenAssetMetadataRegistrySupplier;
     }
 
     @Override
     @NotNull
     public TickerBo getTicker(@NotNull final CurrencyPairBo currencyPair) {
+        return krakenMapEntryToTickerBoConverter.convert(retrieveSingleTickerEntry(currencyPair));
+    }
+
+    @Override
+    @NotNull
+    public FixedPointTickerBo getFixedPointTicker(@NotNull final CurrencyPairBo currencyPair) {
+        return krakenMapEntryToFixedPointTickerBoConverter.convert(retrieveSingleTickerEntry(currencyPair));
+    }
+
+    @NotNull
+    private Map.Entry<String, Map<String, Object>> retrieveSingleTickerEntry(@NotNull final CurrencyPairBo currencyPair) {
         final String marketName = currencyPairBoEnumToKrakenMarketNameConverter.convert(currencyPair);
         final var marketNames = ImmutableList.of(marketName);
         final KrakenResponseDto<Map<String, Map<String, Object>>> response =
                 krakenPublicApiConnector.ticker(marketNames);
 
         if (CollectionUtils.isNotEmpty(response.getError())) {
-            throw new IllegalStateException(response.getError().toString());
+            throw new KrakenApiException(response.getError());
         }
         if (MapUtils.isEmpty(response.getResult())) {
             throw new IllegalArgumentException("No result for the market name " + marketName);
@@ -67,9 +104,141 @@ public class KrakenPublicApiFacadeImpl implements KrakenPublicApiFacade {
         }
 
         return response.getResult().entrySet().stream() //
-                .map(krakenMapEntryToTickerBoConverter::convert) //
                 .findAny() //
                 .orElseThrow(() -> new IllegalStateException("unexpected state"));
     }
 
+    @Override
+    @NotNull
+    public ImmutableMap<CurrencyPairBo, TickerBo> getTickers(@NotNull final Collection<CurrencyPairBo> currencyPairs) {
+        if (currencyPairs.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        final ImmutableMap<String, CurrencyPairBo> currencyPairsByMarketNames = currencyPairs.stream() //
+                .distinct() //
+                .collect(ImmutableMap.toImmutableMap(currencyPairBoEnumToKrakenMarketNameConverter::convert,
+                        Function.identity()));
+        final KrakenResponseDto<Map<String, Map<String, Object>>> response =
+                krakenPublicApiConnector.ticker(currencyPairsByMarketNames.keySet().asList());
+
+        if (CollectionUtils.isNotEmpty(response.getError())) {
+            throw new KrakenApiException(response.getError());
+        }
+        if (MapUtils.isEmpty(response.getResult())) {
+            throw new IllegalArgumentException("No result for the market names " + currencyPairsByMarketNames.keySet());
+        }
+
+        // Kraken returns tickers under pair names (e.g. XXBTZEUR) rather than the requested market names (e.g. XBTEUR).
+        final var tickersByPairNames = ImmutableMap.<String, TickerBo>builder();
+        response.getResult().entrySet().forEach(e -> tickersByPairNames.put(
+                krakenAssetMetadataRegistrySupplier.get().getAssetPair(e.getKey()).getPairName(),
+                krakenMapEntryToTickerBoConverter.convert(e)));
+        final ImmutableMap<String, TickerBo> tickers = tickersByPairNames.build();
+
+        return currencyPairsByMarketNames.entrySet().stream() //
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getValue, e -> {
+                    final TickerBo ticker = tickers.get(
+                            krakenAssetMetadataRegistrySupplier.get().getAssetPair(e.getKey()).getPairName());
+                    if (ticker == null) {
+                        throw new IllegalArgumentException("No result for the market name " + e.getKey());
+                    }
+                    return ticker;
+                }));
+    }
+
+    @Override
+    @NotNull
+    public ImmutableMap<AssetBo, BigDecimal> getAssetPrices(@NotNull final Collection<AssetBo> assets,
+                                                            @NotNull final AssetBo reportingAsset) {
+        final var pricesByAssets = new LinkedHashMap<AssetBo, BigDecimal>();
+        // Several assets may be priced by one pair, e.g. DOT and DOT.S by DOTEUR.
+        final ListMultimap<String, AssetBo> directAssetsByPairNames = MultimapBuilder.hashKeys().arrayListValues()
+                .build();
+        final ListMultimap<String, AssetBo> inverseAssetsByPairNames = MultimapBuilder.hashKeys().arrayListValues()
+                .build();
+        final var marketNames = ImmutableSet.<String>builder();
+        assets.stream().distinct().forEach(asset -> {
+            if (asset == reportingAsset) {
+                pricesByAssets.put(asset, BigDecimal.ONE);
+                return;
+            }
+            final AssetBo tradedAsset = toTradedAsset(asset);
+            final KrakenAssetPairMetadata directAssetPair =
+                    krakenAssetMetadataRegistrySupplier.get().findAssetPair(tradedAsset, reportingAsset);
+            if (directAssetPair != null) {
+                directAssetsByPairNames.put(directAssetPair.getPairName(), asset);
+                marketNames.add(directAssetPair.getMarketName());
+                return;
+            }
+            final KrakenAssetPairMetadata inverseAssetPair =
+                    krakenAssetMetadataRegistrySupplier.get().findAssetPair(reportingAsset, tradedAsset);
+            if (inverseAssetPair != null) {
+                inverseAssetsByPairNames.put(inverseAssetPair.getPairName(), asset);
+                marketNames.add(inverseAssetPair.getMarketName());
+            }
+        });
+        final ImmutableList<String> marketNamesToRetrieve = marketNames.build().asList();
+        if (marketNamesToRetrieve.isEmpty()) {
+            return ImmutableMap.copyOf(pricesByAssets);
+        }
+
+        final KrakenResponseDto<Map<String, Map<String, Object>>> response =
+                krakenPublicApiConnector.ticker(marketNamesToRetrieve);
+
+        if (CollectionUtils.isNotEmpty(response.getError())) {
+            throw new KrakenApiException(response.getError());
+        }
+        if (MapUtils.isEmpty(response.getResult())) {
+            throw new IllegalArgumentException("No result for the market names " + marketNamesToRetrieve);
+        }
+
+        response.getResult().entrySet().forEach(e -> {
+            final String pairName = krakenAssetMetadataRegistrySupplier.get().getAssetPair(e.getKey()).getPairName();
+            final TickerBo ticker = krakenMapEntryToTickerBoConverter.convert(e);
+            directAssetsByPairNames.get(pairName).forEach(directAsset ->
+                    pricesByAssets.put(directAsset, ticker.getBidPrice()));
+            if (ticker.getAskPrice().signum() > 0) {
+                final BigDecimal inversePrice = BigDecimal.ONE.divide(ticker.getAskPrice(), MathContext.DECIMAL64);
+                inverseAssetsByPairNames.get(pairName).forEach(inverseAsset ->
+                        pricesByAssets.put(inverseAsset, inversePrice));
+            }
+        });
+        return ImmutableMap.copyOf(pricesByAssets);
+    }
+
+    /**
+     * Staked and reward variants of assets (e.g. DOT.S or BTC.M) have no markets, they are priced as the asset
+     * itself.
+     */
+    @NotNull
+    private static AssetBo toTradedAsset(@NotNull final AssetBo asset) {
+        final String label = asset.getLabel();
+        final int suffixIndex = label.indexOf('.');
+        return suffixIndex < 0 ? asset : AssetBo.valueOf(label.substring(0, suffixIndex));
+    }
+
+    @Override
+    @NotNull
+    public OrderBookBo getOrderBook(@NotNull final CurrencyPairBo currencyPair, final int depth) {
+        final String marketName = currencyPairBoEnumToKrakenMarketNameConverter.convert(currencyPair);
+        final KrakenResponseDto<Map<String, KrakenDepthDto>> response = krakenPublicApiConnector.depth(marketName, depth);
+
+        if (CollectionUtils.isNotEmpty(response.getError())) {
+            throw new KrakenApiException(response.getError());
+        }
+        if (MapUtils.isEmpty(response.getResult())) {
+            throw new IllegalArgumentException("No result for the market name " + marketName);
+        }
+        final int resultEntryCount = MapUtils.size(response.getResult());
+        if (resultEntryCount > 1) {
+            throw new IllegalStateException("More than one result entries [" + resultEntryCount + "] for the market " + marketName);
+        }
+
+        final KrakenDepthDto depthDto = response.getResult().values().iterator().next();
+        final List<List<Object>> asks = depthDto.getAsks();
+        final List<List<Object>> bids = depthDto.getBids();
+        return new KrakenOrderBookMaintainer(depth).applySnapshot(asks == null ? List.of() : asks,
+                bids == null ? List.of() : bids);
+    }
+
 }
@@ -0,0 +1,122 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenQuoteDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenMarketDataConnector;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPublicApiFacade;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves tickers from the quotes pushed by the WebSocket market-data feed. A pair without a quote received recently
+ * enough is subscribed and its ticker is retrieved via the REST API in the meantime.
+ */
+public class KrakenStreamingPublicApiFacadeImpl implements KrakenPublicApiFacade {
+    @NotNull
+    private final KrakenMarketDataConnector krakenMarketDataConnector;
+    @NotNull
+    private final KrakenPublicApiFacade restPublicApiFacade;
+    @NotNull
+    private final NonnullConverter<CurrencyPairBo, String> currencyPairBoToKrakenWebSocketPairNameConverter;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final Duration maxQuoteAge;
+
+    public KrakenStreamingPublicApiFacadeImpl(@NotNull final KrakenMarketDataConnector krakenMarketDataConnector,
+                                              @NotNull final KrakenPublicApiFacade restPublicApiFacade,
+                                              @NotNull final NonnullConverter<CurrencyPairBo, String> currencyPairBoToKrakenWebSocketPairNameConverter,
+                                              @NotNull final Clock clock,
+                                              @NotNull final Duration maxQuoteAge) {
+        this.krakenMarketDataConnector = krakenMarketDataConnector;
+        this.restPublicApiFacade = restPublicApiFacade;
+        this.currencyPairBoToKrakenWebSocketPairNameConverter = currencyPairBoToKrakenWebSocketPairNameConverter;
+        this.clock = clock;
+        this.maxQuoteAge = maxQuoteAge;
+    }
+
+    @Override
+    @NotNull
+    public TickerBo getTicker(@NotNull final CurrencyPairBo currencyPair) {
+        final TickerBo ticker = findStreamedTicker(currencyPair);
+        return ticker == null ? restPublicApiFacade.getTicker(currencyPair) : ticker;
+    }
+
+    @Override
+    @NotNull
+    public ImmutableMap<CurrencyPairBo, TickerBo> getTickers(@NotNull final Collection<CurrencyPairBo> currencyPairs) {
+        final Map<CurrencyPairBo, TickerBo> tickersByCurrencyPairs = new LinkedHashMap<>();
+        final var currencyPairsWithoutTicker = ImmutableList.<CurrencyPairBo>builder();
+        currencyPairs.stream().distinct().forEach(currencyPair -> {
+            final TickerBo ticker = findStreamedTicker(currencyPair);
+            if (ticker == null) {
+                currencyPairsWithoutTicker.add(currencyPair);
+            } else {
+                tickersByCurrencyPairs.put(currencyPair, ticker);
+            }
+        });
+        final ImmutableList<CurrencyPairBo> currencyPairsToRetrieve = currencyPairsWithoutTicker.build();
+        if (!currencyPairsToRetrieve.isEmpty()) {
+            tickersByCurrencyPairs.putAll(restPublicApiFacade.getTickers(currencyPairsToRetrieve));
+        }
+        return ImmutableMap.copyOf(tickersByCurrencyPairs);
+    }
+
+    /**
+     * Portfolio assets are mostly not streamed, hence always retrieved via REST API.
+     */
+    @Override
+    @NotNull
+    public ImmutableMap<AssetBo, BigDecimal> getAssetPrices(@NotNull final Collection<AssetBo> assets,
+                                                            @NotNull final AssetBo reportingAsset) {
+        return restPublicApiFacade.getAssetPrices(assets, reportingAsset);
+    }
+
+    @Override
+    @NotNull
+    public OrderBookBo getOrderBook(@NotNull final CurrencyPairBo currencyPair, final int depth) {
+        return restPublicApiFacade.getOrderBook(currencyPair, depth);
+    }
+
+    @Nullable
+    private TickerBo findStreamedTicker(@NotNull final CurrencyPairBo currencyPair) {
+        final String pairName = currencyPairBoToKrakenWebSocketPairNameConverter.convert(currencyPair);
+        final KrakenQuoteDto quote = krakenMarketDataConnector.getLatestQuote(pairName);
+        if (quote == null || quote.getReceivedAt().plus(maxQuoteAge).isBefore(clock.instant())) {
+            krakenMarketDataConnector.subscribe(ImmutableList.of(pairName));
+            return null;
+        }
+        return new TickerBo(pairName, quote.getAskPrice(), quote.getBidPrice());
+    }
+}
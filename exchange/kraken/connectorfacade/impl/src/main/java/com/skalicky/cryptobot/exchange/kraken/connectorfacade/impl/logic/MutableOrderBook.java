@@ -0,0 +1,177 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Level-2 order book keeping at most the given depth of price levels per side and updated in place. Prices and
+ * volumes are longs scaled like in {@link OrderBookBo}. Levels are stored in sorted primitive arrays, hence updates do
+ * not allocate any objects.
+ * <p>
+ * Asks are sorted ascending and bids descending by price, i.e. the level 0 is the best one on both sides.
+ * <p>
+ * Instances are not thread-safe, hence they are not handed out of the connector facade, see {@link #toOrderBookBo()}.
+ */
+class MutableOrderBook {
+    private final int priceScale;
+    private final int volumeScale;
+    @NotNull
+    private final long[] askPrices;
+    @NotNull
+    private final long[] askVolumes;
+    @NotNull
+    private final long[] bidPrices;
+    @NotNull
+    private final long[] bidVolumes;
+    private int askCount;
+    private int bidCount;
+
+    MutableOrderBook(final int priceScale, final int volumeScale, final int depth) {
+        if (priceScale < 0 || volumeScale < 0) {
+            throw new IllegalArgumentException("Scales must not be negative [" + priceScale + ", " + volumeScale + "]");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be positive [" + depth + "]");
+        }
+        this.priceScale = priceScale;
+        this.volumeScale = volumeScale;
+        this.askPrices = new long[depth];
+        this.askVolumes = new long[depth];
+        this.bidPrices = new long[depth];
+        this.bidVolumes = new long[depth];
+    }
+
+    int getPriceScale() {
+        return priceScale;
+    }
+
+    int getVolumeScale() {
+        return volumeScale;
+    }
+
+    int getAskCount() {
+        return askCount;
+    }
+
+    int getBidCount() {
+        return bidCount;
+    }
+
+    long getAskPrice(final int level) {
+        return askPrices[checkLevel(level, askCount)];
+    }
+
+    long getAskVolume(final int level) {
+        return askVolumes[checkLevel(level, askCount)];
+    }
+
+    long getBidPrice(final int level) {
+        return bidPrices[checkLevel(level, bidCount)];
+    }
+
+    long getBidVolume(final int level) {
+        return bidVolumes[checkLevel(level, bidCount)];
+    }
+
+    /**
+     * Sets the volume of the ask price level. The volume 0 removes the level. A new level worse than all levels of a
+     * full side is dropped.
+     */
+    void updateAsk(final long price, final long volume) {
+        askCount = update(askPrices, askVolumes, askCount, price, volume, false);
+    }
+
+    /**
+     * Sets the volume of the bid price level. The volume 0 removes the level. A new level worse than all levels of a
+     * full side is dropped.
+     */
+    void updateBid(final long price, final long volume) {
+        bidCount = update(bidPrices, bidVolumes, bidCount, price, volume, true);
+    }
+
+    @NotNull
+    OrderBookBo toOrderBookBo() {
+        return new OrderBookBo(priceScale, volumeScale, Arrays.copyOf(askPrices, askCount),
+                Arrays.copyOf(askVolumes, askCount), Arrays.copyOf(bidPrices, bidCount),
+                Arrays.copyOf(bidVolumes, bidCount));
+    }
+
+    private static int update(@NotNull final long[] prices,
+                              @NotNull final long[] volumes,
+                              final int count,
+                              final long price,
+                              final long volume,
+                              final boolean descending) {
+        int level = descending
+                ? binarySearchDescending(prices, count, price)
+                : Arrays.binarySearch(prices, 0, count, price);
+        if (level >= 0) {
+            if (volume == 0) {
+                System.arraycopy(prices, level + 1, prices, level, count - level - 1);
+                System.arraycopy(volumes, level + 1, volumes, level, count - level - 1);
+                return count - 1;
+            }
+            volumes[level] = volume;
+            return count;
+        }
+        if (volume == 0) {
+            return count;
+        }
+        level = -level - 1;
+        if (level == prices.length) {
+            return count;
+        }
+        final int shiftedCount = Math.min(count, prices.length - 1) - level;
+        System.arraycopy(prices, level, prices, level + 1, shiftedCount);
+        System.arraycopy(volumes, level, volumes, level + 1, shiftedCount);
+        prices[level] = price;
+        volumes[level] = volume;
+        return Math.min(count + 1, prices.length);
+    }
+
+    /**
+     * Same contract as {@link Arrays#binarySearch(long[], int, int, long)}, just for an array sorted descending.
+     */
+    private static int binarySearchDescending(@NotNull final long[] prices, final int count, final long price) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (prices[middle] > price) {
+                low = middle + 1;
+            } else if (prices[middle] < price) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int checkLevel(final int level, final int count) {
+        if (level < 0 || level >= count) {
+            throw new IndexOutOfBoundsException("Level " + level + " out of " + count);
+        }
+        return level;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import org.jetbrains.annotations.NotNull;
+
+public final class KrakenAssetMetadata {
+    /**
+     * E.g. XXBT, ZEUR or DOT.S.
+     */
+    @NotNull
+    private final String name;
+    /**
+     * E.g. XBT, EUR or DOT.S.
+     */
+    @NotNull
+    private final String alternativeName;
+    @NotNull
+    private final AssetBo asset;
+    private final int decimals;
+
+    public KrakenAssetMetadata(@NotNull final String name,
+                               @NotNull final String alternativeName,
+                               @NotNull final AssetBo asset,
+                               final int decimals) {
+        this.name = name;
+        this.alternativeName = alternativeName;
+        this.asset = asset;
+        this.decimals = decimals;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public String getAlternativeName() {
+        return alternativeName;
+    }
+
+    @NotNull
+    public AssetBo getAsset() {
+        return asset;
+    }
+
+    public int getDecimals() {
+        return decimals;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "KrakenAssetMetadata{" +
+                "name='" + name + '\'' +
+                ", alternativeName='" + alternativeName + '\'' +
+                ", asset=" + asset +
+                ", decimals=" + decimals +
+                '}';
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.error.KrakenApiException;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.dto.KrakenAssetMetadataCacheDto;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.MapUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Loads metadata of Kraken assets and asset pairs. Retrieved metadata is kept in memory as well as stored in a JSON
+ * file and reused until its time to live expires, hence neither runs nor restarts within that time call Kraken.
+ * Expired metadata is still used when Kraken is not available since the metadata rarely changes.
+ * <p>
+ * The metadata is not loaded before it is needed, hence an unavailable Kraken fails a run rather than the start-up.
+ */
+public class KrakenAssetMetadataCache implements Supplier<KrakenAssetMetadataRegistry> {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenAssetMetadataCache.class);
+
+    @NotNull
+    private final KrakenPublicApiConnector krakenPublicApiConnector;
+    @NotNull
+    private final NonnullConverter<Map.Entry<String, KrakenAssetPairDto>, KrakenAssetPairMetadata> krakenMapEntryToKrakenAssetPairMetadataConverter;
+    @NotNull
+    private final NonnullConverter<Map.Entry<String, KrakenAssetDto>, KrakenAssetMetadata> krakenMapEntryToKrakenAssetMetadataConverter;
+    /**
+     * Null if the metadata should not be stored.
+     */
+    @Nullable
+    private final Path file;
+    @NotNull
+    private final Duration timeToLive;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+    /**
+     * Null until the metadata is loaded for the first time.
+     */
+    @Nullable
+    private volatile LoadedMetadata loadedMetadata;
+
+    public KrakenAssetMetadataCache(@NotNull final KrakenPublicApiConnector krakenPublicApiConnector,
+                                    @NotNull final NonnullConverter<Map.Entry<String, KrakenAssetPairDto>, KrakenAssetPairMetadata> krakenMapEntryToKrakenAssetPairMetadataConverter,
+                                    @NotNull final NonnullConverter<Map.Entry<String, KrakenAssetDto>, KrakenAssetMetadata> krakenMapEntryToKrakenAssetMetadataConverter,
+                                    @Nullable final Path file,
+                                    @NotNull final Duration timeToLive,
+                                    @NotNull final Clock clock) {
+        this.krakenPublicApiConnector = krakenPublicApiConnector;
+        this.krakenMapEntryToKrakenAssetPairMetadataConverter = krakenMapEntryToKrakenAssetPairMetadataConverter;
+        this.krakenMapEntryToKrakenAssetMetadataConverter = krakenMapEntryToKrakenAssetMetadataConverter;
+        this.file = file;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads the metadata unless the one loaded last is still within its time to live. Expected to be called at the
+     * beginning of each run in order to refresh the metadata of a long running process.
+     */
+    @NotNull
+    public synchronized KrakenAssetMetadataRegistry load() {
+        final LoadedMetadata previous = loadedMetadata;
+        if (previous != null && isWithinTimeToLive(previous.retrievedAtInEpochMillis)) {
+            return previous.registry;
+        }
+        final KrakenAssetMetadataCacheDto stored = read();
+        if (stored != null && isWithinTimeToLive(stored.getRetrievedAtInEpochMillis())) {
+            return remember(stored);
+        }
+        final KrakenAssetMetadataCacheDto retrieved;
+        try {
+            retrieved = retrieve();
+        } catch (@NotNull final RuntimeException ex) {
+            if (stored != null) {
+                logger.warn("Metadata of Kraken assets could not be retrieved, going to use the expired one from ["
+                        + file + "]", ex);
+                return remember(stored);
+            } else if (previous != null) {
+                logger.warn("Metadata of Kraken assets could not be retrieved, going to use the expired one loaded"
+                        + " before", ex);
+                return previous.registry;
+            } else {
+                throw ex;
+            }
+        }
+        write(retrieved);
+        return remember(retrieved);
+    }
+
+    /**
+     * Does not call Kraken once the metadata has been loaded, even if expired, since it is called by every
+     * conversion.
+     *
+     * @return the metadata loaded last, loaded now if there is none yet
+     */
+    @Override
+    @NotNull
+    public KrakenAssetMetadataRegistry get() {
+        final LoadedMetadata loaded = loadedMetadata;
+        return loaded == null ? load() : loaded.registry;
+    }
+
+    private boolean isWithinTimeToLive(final long retrievedAtInEpochMillis) {
+        return clock.millis() - retrievedAtInEpochMillis < timeToLive.toMillis();
+    }
+
+    @NotNull
+    private KrakenAssetMetadataRegistry remember(@NotNull final KrakenAssetMetadataCacheDto dto) {
+        final KrakenAssetMetadataRegistry registry = createRegistry(dto);
+        loadedMetadata = new LoadedMetadata(registry, dto.getRetrievedAtInEpochMillis());
+        return registry;
+    }
+
+    @NotNull
+    private KrakenAssetMetadataCacheDto retrieve() {
+        final KrakenResponseDto<Map<String, KrakenAssetPairDto>> assetPairsResponse =
+                krakenPublicApiConnector.assetPairs();
+        if (CollectionUtils.isNotEmpty(assetPairsResponse.getError())) {
+            throw new KrakenApiException(assetPairsResponse.getError());
+        }
+        final KrakenResponseDto<Map<String, KrakenAssetDto>> assetsResponse = krakenPublicApiConnector.assets();
+        if (CollectionUtils.isNotEmpty(assetsResponse.getError())) {
+            throw new KrakenApiException(assetsResponse.getError());
+        }
+        if (MapUtils.isEmpty(assetPairsResponse.getResult()) || MapUtils.isEmpty(assetsResponse.getResult())) {
+            throw new IllegalStateException("No asset pairs or no assets retrieved");
+        }
+
+        final var dto = new KrakenAssetMetadataCacheDto();
+        dto.setRetrievedAtInEpochMillis(clock.millis());
+        dto.setAssetPairs(assetPairsResponse.getResult());
+        dto.setAssets(assetsResponse.getResult());
+        return dto;
+    }
+
+    @NotNull
+    private KrakenAssetMetadataRegistry createRegistry(@NotNull final KrakenAssetMetadataCacheDto dto) {
+        return new KrakenAssetMetadataRegistry(dto.getAssetPairs().entrySet().stream() //
+                .map(krakenMapEntryToKrakenAssetPairMetadataConverter::convert) //
+                .collect(ImmutableList.toImmutableList()),
+                dto.getAssets().entrySet().stream() //
+                        .filter(e -> e.getValue().getDecimals() != null) //
+                        .map(krakenMapEntryToKrakenAssetMetadataConverter::convert) //
+                        .collect(ImmutableList.toImmutableList()));
+    }
+
+    /**
+     * An unreadable file is treated as no file, i.e. the metadata is retrieved again.
+     */
+    @Nullable
+    private KrakenAssetMetadataCacheDto read() {
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            final KrakenAssetMetadataCacheDto dto = objectMapper.readValue(file.toFile(),
+                    KrakenAssetMetadataCacheDto.class);
+            if (dto.getRetrievedAtInEpochMillis() == null || MapUtils.isEmpty(dto.getAssetPairs())
+                    || MapUtils.isEmpty(dto.getAssets())) {
+                logger.warn("Metadata of Kraken assets in [" + file + "] is incomplete, going to retrieve it again");
+                return null;
+            }
+            return dto;
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Metadata of Kraken assets could not be loaded from [" + file
+                    + "], going to retrieve it again", ex);
+            return null;
+        }
+    }
+
+    /**
+     * A failure is only logged since the retrieved metadata is still usable.
+     */
+    private void write(@NotNull final KrakenAssetMetadataCacheDto dto) {
+        if (file == null) {
+            return;
+        }
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, file, dto);
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Metadata of Kraken assets could not be stored to [" + file + "]", ex);
+        }
+    }
+
+    private static final class LoadedMetadata {
+        @NotNull
+        private final KrakenAssetMetadataRegistry registry;
+        private final long retrievedAtInEpochMillis;
+
+        private LoadedMetadata(@NotNull final KrakenAssetMetadataRegistry registry,
+                               final long retrievedAtInEpochMillis) {
+            this.registry = registry;
+            this.retrievedAtInEpochMillis = retrievedAtInEpochMillis;
+        }
+    }
+}
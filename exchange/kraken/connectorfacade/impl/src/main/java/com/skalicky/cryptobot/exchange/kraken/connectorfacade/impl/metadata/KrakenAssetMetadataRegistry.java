@@ -0,0 +1,170 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util.PerfectHashIndex;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Indexes metadata of Kraken assets and asset pairs by all names Kraken uses for them. Names are looked up via
+ * perfect hash functions, hence every lookup is a single probe without collision chains.
+ */
+public class KrakenAssetMetadataRegistry {
+    /**
+     * By names (e.g. XXBT) and alternative names (e.g. XBT).
+     */
+    @NotNull
+    private final PerfectHashIndex<KrakenAssetMetadata> assetsByNames;
+    /**
+     * By pair names (e.g. XXBTZEUR), market names (e.g. XBTEUR) and WebSocket pair names (e.g. XBT/EUR).
+     */
+    @NotNull
+    private final PerfectHashIndex<KrakenAssetPairMetadata> assetPairsByNames;
+    /**
+     * By the same names as {@link #assetPairsByNames}, pairs of any unsupported currency are left out.
+     */
+    @NotNull
+    private final PerfectHashIndex<CurrencyPairBo> currencyPairsByNames;
+    @NotNull
+    private final ImmutableMap<CurrencyPairBo, KrakenAssetPairMetadata> assetPairsByCurrencyPairs;
+    /**
+     * By keys composed of ids of the base and quote asset, see {@link #toAssetPairKey(AssetBo, AssetBo)}.
+     */
+    @NotNull
+    private final ImmutableMap<Long, KrakenAssetPairMetadata> assetPairsByAssetPairKeys;
+
+    public KrakenAssetMetadataRegistry(@NotNull final Collection<KrakenAssetPairMetadata> assetPairs,
+                                       @NotNull final Collection<KrakenAssetMetadata> assets) {
+        final var assetsByNamesBuilder = new HashMap<String, KrakenAssetMetadata>();
+        assets.forEach(asset -> assetsByNamesBuilder.putIfAbsent(asset.getName(), asset));
+        // Alternative names are added only after all names since a name has a precedence.
+        assets.forEach(asset -> assetsByNamesBuilder.putIfAbsent(asset.getAlternativeName(), asset));
+        this.assetsByNames = new PerfectHashIndex<>(assetsByNamesBuilder);
+
+        final var assetPairsByNamesBuilder = new HashMap<String, KrakenAssetPairMetadata>();
+        final var currencyPairsByNamesBuilder = new HashMap<String, CurrencyPairBo>();
+        final var assetPairsByCurrencyPairsBuilder = new HashMap<CurrencyPairBo, KrakenAssetPairMetadata>();
+        final var assetPairsByAssetPairKeysBuilder = new HashMap<Long, KrakenAssetPairMetadata>();
+        assetPairs.forEach(assetPair -> {
+            final AssetBo baseAsset = getAsset(assetPair.getBaseAssetName());
+            final AssetBo quoteAsset = getAsset(assetPair.getQuoteAssetName());
+            assetPairsByAssetPairKeysBuilder.putIfAbsent(toAssetPairKey(baseAsset, quoteAsset), assetPair);
+            // Kraken's base is the currency being bought, i.e. the quote currency of CurrencyPairBo.
+            final CurrencyBoEnum quoteCurrency = baseAsset.getCurrency();
+            final CurrencyBoEnum baseCurrency = quoteAsset.getCurrency();
+            final CurrencyPairBo currencyPair = quoteCurrency == CurrencyBoEnum.OTHERS
+                    || baseCurrency == CurrencyBoEnum.OTHERS ? null : new CurrencyPairBo(quoteCurrency, baseCurrency);
+            for (final String name : new String[]{assetPair.getPairName(), assetPair.getMarketName(),
+                    assetPair.getWebSocketPairName()}) {
+                if (name != null && assetPairsByNamesBuilder.putIfAbsent(name, assetPair) == null
+                        && currencyPair != null) {
+                    currencyPairsByNamesBuilder.put(name, currencyPair);
+                }
+            }
+            if (currencyPair != null) {
+                assetPairsByCurrencyPairsBuilder.putIfAbsent(currencyPair, assetPair);
+            }
+        });
+        this.assetPairsByNames = new PerfectHashIndex<>(assetPairsByNamesBuilder);
+        this.currencyPairsByNames = new PerfectHashIndex<>(currencyPairsByNamesBuilder);
+        this.assetPairsByCurrencyPairs = ImmutableMap.copyOf(assetPairsByCurrencyPairsBuilder);
+        this.assetPairsByAssetPairKeys = ImmutableMap.copyOf(assetPairsByAssetPairKeysBuilder);
+    }
+
+    private static long toAssetPairKey(@NotNull final AssetBo baseAsset,
+                                       @NotNull final AssetBo quoteAsset) {
+        return (long) baseAsset.getId() << Integer.SIZE | quoteAsset.getId();
+    }
+
+    @NotNull
+    public KrakenAssetPairMetadata getAssetPair(@NotNull final CurrencyPairBo currencyPair) {
+        final KrakenAssetPairMetadata assetPair = assetPairsByCurrencyPairs.get(currencyPair);
+        if (assetPair == null) {
+            throw new IllegalArgumentException("Unsupported market [" + currencyPair.getQuoteCurrency().getLabel()
+                    + ", " + currencyPair.getBaseCurrency().getLabel() + "]");
+        }
+        return assetPair;
+    }
+
+    /**
+     * @param baseAsset  asset being bought, e.g. BTC
+     * @param quoteAsset asset being paid with, e.g. EUR
+     * @return null if Kraken has no such market
+     */
+    @Nullable
+    public KrakenAssetPairMetadata findAssetPair(@NotNull final AssetBo baseAsset,
+                                                 @NotNull final AssetBo quoteAsset) {
+        return assetPairsByAssetPairKeys.get(toAssetPairKey(baseAsset, quoteAsset));
+    }
+
+    /**
+     * @param name pair name (e.g. XXBTZEUR), market name (e.g. XBTEUR) or WebSocket pair name (e.g. XBT/EUR)
+     */
+    @NotNull
+    public KrakenAssetPairMetadata getAssetPair(@NotNull final String name) {
+        final KrakenAssetPairMetadata assetPair = assetPairsByNames.get(name);
+        if (assetPair == null) {
+            throw new IllegalArgumentException("Unsupported Kraken market name [" + name + "]");
+        }
+        return assetPair;
+    }
+
+    /**
+     * @param name pair name (e.g. XXBTZEUR), market name (e.g. XBTEUR) or WebSocket pair name (e.g. XBT/EUR)
+     */
+    @NotNull
+    public CurrencyPairBo getCurrencyPair(@NotNull final String name) {
+        final CurrencyPairBo currencyPair = currencyPairsByNames.get(name);
+        if (currencyPair == null) {
+            throw new IllegalArgumentException("Unsupported Kraken market name [" + name + "]");
+        }
+        return currencyPair;
+    }
+
+    /**
+     * Assets unknown to the metadata (e.g. listed after the metadata has been retrieved) are returned under their
+     * Kraken name rather than being dropped.
+     *
+     * @param name name (e.g. XXBT) or alternative name (e.g. XBT)
+     */
+    @NotNull
+    public AssetBo getAsset(@NotNull final String name) {
+        final KrakenAssetMetadata asset = assetsByNames.get(name);
+        return asset == null ? AssetBo.valueOf(name) : asset.getAsset();
+    }
+
+    /**
+     * @param name name (e.g. XXBT) or alternative name (e.g. XBT)
+     */
+    public int getAssetDecimals(@NotNull final String name) {
+        final KrakenAssetMetadata asset = assetsByNames.get(name);
+        if (asset == null) {
+            throw new IllegalArgumentException("Unsupported Kraken asset name [" + name + "]");
+        }
+        return asset.getDecimals();
+    }
+}
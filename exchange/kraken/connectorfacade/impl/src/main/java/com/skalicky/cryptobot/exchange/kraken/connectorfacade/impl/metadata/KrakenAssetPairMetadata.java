@@ -0,0 +1,127 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+public final class KrakenAssetPairMetadata {
+    /**
+     * E.g. XXBTZEUR.
+     */
+    @NotNull
+    private final String pairName;
+    /**
+     * E.g. XBTEUR, used in requests.
+     */
+    @NotNull
+    private final String marketName;
+    /**
+     * E.g. XBT/EUR, null if the pair is not available via WebSocket API.
+     */
+    @Nullable
+    private final String webSocketPairName;
+    /**
+     * Kraken name of the asset being bought, e.g. XXBT.
+     */
+    @NotNull
+    private final String baseAssetName;
+    /**
+     * Kraken name of the asset being paid with, e.g. ZEUR.
+     */
+    @NotNull
+    private final String quoteAssetName;
+    private final int priceDecimals;
+    private final int volumeDecimals;
+    @NotNull
+    private final BigDecimal minimumOrderVolume;
+
+    public KrakenAssetPairMetadata(@NotNull final String pairName,
+                                   @NotNull final String marketName,
+                                   @Nullable final String webSocketPairName,
+                                   @NotNull final String baseAssetName,
+                                   @NotNull final String quoteAssetName,
+                                   final int priceDecimals,
+                                   final int volumeDecimals,
+                                   @NotNull final BigDecimal minimumOrderVolume) {
+        this.pairName = pairName;
+        this.marketName = marketName;
+        this.webSocketPairName = webSocketPairName;
+        this.baseAssetName = baseAssetName;
+        this.quoteAssetName = quoteAssetName;
+        this.priceDecimals = priceDecimals;
+        this.volumeDecimals = volumeDecimals;
+        this.minimumOrderVolume = minimumOrderVolume;
+    }
+
+    @NotNull
+    public String getPairName() {
+        return pairName;
+    }
+
+    @NotNull
+    public String getMarketName() {
+        return marketName;
+    }
+
+    @Nullable
+    public String getWebSocketPairName() {
+        return webSocketPairName;
+    }
+
+    @NotNull
+    public String getBaseAssetName() {
+        return baseAssetName;
+    }
+
+    @NotNull
+    public String getQuoteAssetName() {
+        return quoteAssetName;
+    }
+
+    public int getPriceDecimals() {
+        return priceDecimals;
+    }
+
+    public int getVolumeDecimals() {
+        return volumeDecimals;
+    }
+
+    @NotNull
+    public BigDecimal getMinimumOrderVolume() {
+        return minimumOrderVolume;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "KrakenAssetPairMetadata{" +
+                "pairName='" + pairName + '\'' +
+                ", marketName='" + marketName + '\'' +
+                ", webSocketPairName='" + webSocketPairName + '\'' +
+                ", baseAssetName='" + baseAssetName + '\'' +
+                ", quoteAssetName='" + quoteAssetName + '\'' +
+                ", priceDecimals=" + priceDecimals +
+                ", volumeDecimals=" + volumeDecimals +
+                ", minimumOrderVolume=" + minimumOrderVolume +
+                '}';
+    }
+}
@@ -37,6 +37,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
 import static org.assertj.core.api.BDDAssertions.then;
 
 public class KrakenMapEntryToClosedOrderBoConverterUTest {
@@ -46,7 +47,7 @@ public class KrakenMapEntryToClosedOrderBoConverterUTest {
             new KrakenMapEntryToClosedOrderBoConverter(
                     new KrakenOrderTypeToOrderTypeBoEnumConverter(),
                     new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
-                    new KrakenMarketNameToCurrencyPairBoEnumConverter(),
+                    new KrakenMarketNameToCurrencyPairBoEnumConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
                     new EpochSecondBigDecimalToLocalDateTimeConverter(),
                     new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter()
             );
@@ -0,0 +1,65 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadata;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenMapEntryToKrakenAssetMetadataConverterUTest {
+    @NotNull
+    private final KrakenMapEntryToKrakenAssetMetadataConverter converter =
+            new KrakenMapEntryToKrakenAssetMetadataConverter();
+
+    @NotNull
+    private static KrakenAssetDto asset(@NotNull final String alternativeName, final int decimals) {
+        final var asset = new KrakenAssetDto();
+        asset.setAltname(alternativeName);
+        asset.setDecimals(decimals);
+        return asset;
+    }
+
+    @Test
+    public void test_convert_when_krakenSpecificAlternativeName_then_commonLabel() {
+        // When
+        final KrakenAssetMetadata metadata = converter.convert(Map.entry("XXBT", asset("XBT", 10)));
+
+        // Then
+        then(metadata.getName()).isEqualTo("XXBT");
+        then(metadata.getAlternativeName()).isEqualTo("XBT");
+        then(metadata.getAsset()).isSameAs(AssetBo.valueOf("BTC"));
+        then(metadata.getAsset().getCurrency()).isEqualTo(CurrencyBoEnum.BTC);
+        then(metadata.getDecimals()).isEqualTo(10);
+    }
+
+    @Test
+    public void test_convert_when_alternativeNameWithSuffix_then_suffixKept() {
+        then(converter.convert(Map.entry("XBT.M", asset("XBT.M", 10))).getAsset().getLabel()).isEqualTo("BTC.M");
+        then(converter.convert(Map.entry("DOT.S", asset("DOT.S", 10))).getAsset().getLabel()).isEqualTo("DOT.S");
+        then(converter.convert(Map.entry("XETH", asset("ETH", 10))).getAsset().getCurrency())
+                .isEqualTo(CurrencyBoEnum.OTHERS);
+    }
+}
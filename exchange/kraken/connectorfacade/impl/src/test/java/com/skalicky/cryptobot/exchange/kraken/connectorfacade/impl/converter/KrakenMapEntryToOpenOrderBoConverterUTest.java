@@ -38,6 +38,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
 import static org.assertj.core.api.BDDAssertions.then;
 
 public class KrakenMapEntryToOpenOrderBoConverterUTest {
@@ -47,7 +48,7 @@ public class KrakenMapEntryToOpenOrderBoConverterUTest {
             new KrakenMapEntryToOpenOrderBoConverter(
                     new KrakenOrderTypeToOrderTypeBoEnumConverter(),
                     new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
-                    new KrakenMarketNameToCurrencyPairBoEnumConverter(),
+                    new KrakenMarketNameToCurrencyPairBoEnumConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
                     new EpochSecondBigDecimalToLocalDateTimeConverter(),
                     new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter()
             );
@@ -0,0 +1,129 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class JsonFileKrakenOrderJournalUTest {
+
+    @Test
+    public void test_loadPending_when_fileDoesNotExist_then_empty(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var journal = new JsonFileKrakenOrderJournal(temporaryDirectory.resolve("orders.json"), 10);
+
+        // When
+        final ImmutableList<KrakenOrderJournalEntry> pendingEntries = journal.loadPending();
+
+        // Then
+        then(pendingEntries).isEmpty();
+    }
+
+    @Test
+    public void test_loadPending_when_fileUnreadable_then_exception(@TempDir @NotNull final Path temporaryDirectory) throws IOException {
+        // Given
+        final Path file = temporaryDirectory.resolve("orders.json");
+        Files.write(file, "[{\"userReference\":".getBytes(StandardCharsets.UTF_8));
+        final var journal = new JsonFileKrakenOrderJournal(file, 10);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(journal::loadPending);
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Kraken order journal could not be loaded from [" + file + "]");
+    }
+
+    @Test
+    public void test_loadPending_when_pendingEntrySaved_then_sameEntryIsLoaded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var journal = new JsonFileKrakenOrderJournal(
+                temporaryDirectory.resolve("store").resolve("orders.json"), 10);
+        final KrakenOrderJournalEntry pendingEntry = createEntry(1, KrakenOrderJournalEntryStateEnum.PENDING);
+
+        // When
+        journal.save(pendingEntry);
+        final ImmutableList<KrakenOrderJournalEntry> pendingEntries = journal.loadPending();
+
+        // Then
+        then(pendingEntries)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(pendingEntry);
+    }
+
+    @Test
+    public void test_loadPending_when_entryResolved_then_entryNotLoaded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var journal = new JsonFileKrakenOrderJournal(temporaryDirectory.resolve("orders.json"), 10);
+        final KrakenOrderJournalEntry pendingEntry = createEntry(1, KrakenOrderJournalEntryStateEnum.PENDING);
+        journal.save(pendingEntry);
+        journal.save(createEntry(2, KrakenOrderJournalEntryStateEnum.PENDING));
+
+        // When
+        journal.save(pendingEntry.resolve(KrakenOrderJournalEntryStateEnum.PLACED,
+                ImmutableList.of("OXXXXO-YYYYY-33244K")));
+        final ImmutableList<KrakenOrderJournalEntry> pendingEntries = journal.loadPending();
+
+        // Then
+        then(pendingEntries)
+                .extracting(KrakenOrderJournalEntry::getUserReference)
+                .containsExactly(2);
+    }
+
+    @Test
+    public void test_save_when_moreResolvedEntriesThanLimit_then_oldestResolvedEntriesRemoved(@TempDir @NotNull final Path temporaryDirectory) throws IOException {
+        // Given
+        final Path file = temporaryDirectory.resolve("orders.json");
+        final var journal = new JsonFileKrakenOrderJournal(file, 2);
+        journal.save(createEntry(1, KrakenOrderJournalEntryStateEnum.PLACED));
+        journal.save(createEntry(2, KrakenOrderJournalEntryStateEnum.PENDING));
+        journal.save(createEntry(3, KrakenOrderJournalEntryStateEnum.NOT_PLACED));
+
+        // When
+        journal.save(createEntry(4, KrakenOrderJournalEntryStateEnum.PLACED));
+
+        // Then
+        final String content = Files.readString(file);
+        then(content)
+                .doesNotContain("\"userReference\":1,")
+                .contains("\"userReference\":2,", "\"userReference\":3,", "\"userReference\":4,");
+        then(journal.loadPending())
+                .extracting(KrakenOrderJournalEntry::getUserReference)
+                .containsExactly(2);
+    }
+
+    @NotNull
+    private static KrakenOrderJournalEntry createEntry(final int userReference,
+                                                       @NotNull final KrakenOrderJournalEntryStateEnum state) {
+        return new KrakenOrderJournalEntry(userReference, "XBTEUR", "buy", "limit", new BigDecimal("7000.3"),
+                new BigDecimal("0.01"), 1583703494L, state, ImmutableList.of());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenOrderBookMaintainerUTest {
+
+    @NotNull
+    private static List<List<Object>> createLevels(@NotNull final String... prices) {
+        return List.of(prices).stream() //
+                .map(price -> List.<Object>of(price, "0.00000500", "1582905487.684110")) //
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    private static List<List<Object>> createDocumentedAsks() {
+        return createLevels("0.05005", "0.05010", "0.05015", "0.05020", "0.05025", "0.05030", "0.05035", "0.05040",
+                "0.05045", "0.05050");
+    }
+
+    /**
+     * Snapshot from the example of the Kraken WebSocket API documentation whose checksum is 974947235.
+     */
+    @NotNull
+    private static KrakenOrderBookMaintainer createMaintainerWithDocumentedSnapshot() {
+        final var maintainer = new KrakenOrderBookMaintainer(10);
+        maintainer.applySnapshot(createDocumentedAsks(),
+                createLevels("0.05000", "0.04995", "0.04990", "0.04980", "0.04975", "0.04970", "0.04965", "0.04960",
+                        "0.04955", "0.04950"));
+        return maintainer;
+    }
+
+    @Test
+    public void test_applySnapshot_when_documentedSnapshot_then_scalesFromFormatting_and_documentedChecksum() {
+        // When
+        final KrakenOrderBookMaintainer maintainer = createMaintainerWithDocumentedSnapshot();
+
+        // Then
+        final OrderBookBo orderBook = maintainer.getOrderBook();
+        then(orderBook.getPriceScale()).isEqualTo(5);
+        then(orderBook.getVolumeScale()).isEqualTo(8);
+        then(orderBook.getAskPrice(0)).isEqualTo(5005L);
+        then(orderBook.getBidPrice(9)).isEqualTo(4950L);
+        then(maintainer.calculateChecksum()).isEqualTo(974947235L);
+    }
+
+    @Test
+    public void test_applyUpdate_when_checksumMatches_then_bookUpdated_but_notEarlierSnapshot() {
+        // Given
+        final KrakenOrderBookMaintainer maintainer = createMaintainerWithDocumentedSnapshot();
+        final OrderBookBo orderBookBeforeUpdate = maintainer.getOrderBook();
+        final List<List<Object>> updatedBids = new ArrayList<>(createLevels("0.04995", "0.04990", "0.04980",
+                "0.04975", "0.04970", "0.04965", "0.04960", "0.04955", "0.04950"));
+        updatedBids.add(List.of("0.04945", "0.00000100", "1582905487.684110"));
+        final var verifyingMaintainer = new KrakenOrderBookMaintainer(10);
+        verifyingMaintainer.applySnapshot(createDocumentedAsks(), updatedBids);
+        final long expectedChecksum = verifyingMaintainer.calculateChecksum();
+
+        // When
+        maintainer.applyUpdate(List.of(),
+                List.of(List.of("0.05000", "0.00000000", "1582905487.684110"),
+                        List.of("0.04945", "0.00000100", "1582905487.684110")),
+                expectedChecksum);
+
+        // Then
+        then(maintainer.getOrderBook().getBidPrice(0)).isEqualTo(4995L);
+        then(maintainer.getOrderBook().getBidPrice(9)).isEqualTo(4945L);
+        then(orderBookBeforeUpdate.getBidPrice(0)).isEqualTo(5000L);
+    }
+
+    @Test
+    public void test_applyUpdate_when_checksumMismatches_then_exception_and_bookDiscarded() {
+        // Given
+        final KrakenOrderBookMaintainer maintainer = createMaintainerWithDocumentedSnapshot();
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> maintainer.applyUpdate(
+                List.of(List.of("0.05005", "0.00000600", "1582905487.684110")), List.of(), 974947235L));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageEndingWith("does not match the expected one [974947235]");
+        then(catchThrowable(maintainer::getOrderBook)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -29,7 +29,7 @@ import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenOpenOrderR
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPrivateApiConnector;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.CurrencyPairBoToKrakenMarketNameConverter;
-import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenCurrencyNameToCurrencyBoEnumConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenAssetNameToAssetBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToClosedOrderBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToOpenOrderBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMarketNameToCurrencyPairBoEnumConverter;
@@ -38,9 +38,16 @@ import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.Kra
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.OrderTypeBoEnumToKrakenOrderTypeConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.PriceOrderTypeBoEnumToKrakenOrderTypeConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.InMemoryKrakenOrderJournal;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournal;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournalEntry;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.journal.KrakenOrderJournalEntryStateEnum;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadata;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.converter.EpochSecondBigDecimalToLocalDateTimeConverter;
 import com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.converter.LocalDateTimeToEpochSecondLongConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
@@ -50,44 +57,64 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
 import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.entry;
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.tuple;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.never;
 import static org.mockito.BDDMockito.reset;
 import static org.mockito.BDDMockito.verify;
 import static org.mockito.BDDMockito.verifyNoMoreInteractions;
 
 public class KrakenPrivateApiFacadeImplUTest {
+    private static final int USER_REFERENCE = 12345;
+    private static final long NOW_IN_EPOCH_SECONDS = 1583703494L;
+
     @NotNull
     private final KrakenPrivateApiConnector krakenPrivateApiConnector = mock(KrakenPrivateApiConnector.class);
     @NotNull
+    private final KrakenOrderJournal krakenOrderJournal = new InMemoryKrakenOrderJournal();
+    @NotNull
     private final KrakenPrivateApiFacadeImpl krakenPrivateApiFacadeImpl = new KrakenPrivateApiFacadeImpl(
             krakenPrivateApiConnector,
-            new CurrencyPairBoToKrakenMarketNameConverter(),
+            new CurrencyPairBoToKrakenMarketNameConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
             new OrderTypeBoEnumToKrakenOrderTypeConverter(),
             new PriceOrderTypeBoEnumToKrakenOrderTypeConverter(),
-            new KrakenCurrencyNameToCurrencyBoEnumConverter(),
+            new KrakenAssetNameToAssetBoConverter(aKrakenAssetMetadataRegistry()
+                    .withAsset(new KrakenAssetMetadata("XXRP", "XRP", AssetBo.valueOf("XRP"), 8))
+                    .buildSupplier()),
             new KrakenMapEntryToOpenOrderBoConverter(
                     new KrakenOrderTypeToOrderTypeBoEnumConverter(),
                     new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
-                    new KrakenMarketNameToCurrencyPairBoEnumConverter(),
+                    new KrakenMarketNameToCurrencyPairBoEnumConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
                     new EpochSecondBigDecimalToLocalDateTimeConverter(),
                     new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter()
             ),
             new KrakenMapEntryToClosedOrderBoConverter(
                     new KrakenOrderTypeToOrderTypeBoEnumConverter(),
                     new KrakenOrderTypeToPriceOrderTypeBoEnumConverter(),
-                    new KrakenMarketNameToCurrencyPairBoEnumConverter(),
+                    new KrakenMarketNameToCurrencyPairBoEnumConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
                     new EpochSecondBigDecimalToLocalDateTimeConverter(),
                     new PairOfKrakenOrderStatusAndTradeCountToOrderStateBoEnumConverter()
             ),
-            new LocalDateTimeToEpochSecondLongConverter());
+            new LocalDateTimeToEpochSecondLongConverter(),
+            aKrakenAssetMetadataRegistry().buildSupplier(),
+            krakenOrderJournal,
+            () -> USER_REFERENCE,
+            Clock.fixed(Instant.ofEpochSecond(NOW_IN_EPOCH_SECONDS), ZoneOffset.UTC));
 
     @AfterEach
     public void assertAndCleanMocks() {
@@ -268,6 +295,35 @@ public class KrakenPrivateApiFacadeImplUTest {
         then(closedOrders.get(0).getOrderId()).isEqualTo(orderId);
     }
 
+    @Test
+    public void test_getClosedOrdersPage_when_krakenResponseWithOneClosedOrder_then_orderAndTotalCountReturned() {
+
+        // Given
+        final KrakenClosedOrderDto order = KrakenClosedOrderDtoBuilder.aKrakenClosedOrderDto().build();
+        final var result = new KrakenClosedOrderResultDto();
+        final var orderId = "orderId1";
+        result.setClosed(Map.of(orderId, order));
+        result.setCount(51L);
+        final var krakenResponseDto = new KrakenResponseDto<KrakenClosedOrderResultDto>();
+        krakenResponseDto.setResult(result);
+        final var from = LocalDateTime.of(2020, 3, 10, 10, 5);
+        final var fromInEpochSeconds = 1583831100L;
+        final var to = LocalDateTime.of(2020, 3, 11, 10, 5);
+        final var toInEpochSeconds = 1583917500L;
+        given(krakenPrivateApiConnector.closedOrders(true, fromInEpochSeconds, toInEpochSeconds, 50))
+                .willReturn(krakenResponseDto);
+
+        // When
+        final ClosedOrdersPageBo page = krakenPrivateApiFacadeImpl.getClosedOrdersPage(true, from, to, 50);
+
+        // Then
+        verify(krakenPrivateApiConnector).closedOrders(true, fromInEpochSeconds, toInEpochSeconds, 50);
+
+        then(page.getClosedOrders()).hasSize(1);
+        then(page.getClosedOrders().get(0).getOrderId()).isEqualTo(orderId);
+        then(page.getTotalCount()).isEqualTo(51);
+    }
+
     @Test
     public void test_getAccountBalance_when_rawKrakenDataProvided_then_askPriceReturned_and_bidPriceReturned() {
 
@@ -289,6 +345,29 @@ public class KrakenPrivateApiFacadeImplUTest {
         then(response.containsKey(CurrencyBoEnum.OTHERS)).isFalse();
     }
 
+    @Test
+    public void test_getAssetBalances_when_rawKrakenDataProvided_then_allAssetsReturned() {
+
+        // Given
+        final var balancesByKrakenAssetNames = Map.of("DOT.S", new BigDecimal("1.5"),
+                "ZEUR", new BigDecimal("34"), "XXRP", new BigDecimal("32"));
+        final var krakenResponseDto = new KrakenResponseDto<Map<String, BigDecimal>>();
+        krakenResponseDto.setResult(balancesByKrakenAssetNames);
+        given(krakenPrivateApiConnector.balance()).willReturn(krakenResponseDto);
+
+        // When
+        final Map<AssetBo, BigDecimal> response = krakenPrivateApiFacadeImpl.getAssetBalances();
+
+        // Then
+        verify(krakenPrivateApiConnector).balance();
+
+        then(response).containsOnly(
+                entry(AssetBo.valueOf("EUR"), new BigDecimal("34")),
+                entry(AssetBo.valueOf("XRP"), new BigDecimal("32")),
+                entry(AssetBo.valueOf("DOT.S"), new BigDecimal("1.5")));
+        then(AssetBo.valueOf("EUR").getCurrency()).isEqualTo(CurrencyBoEnum.EUR);
+    }
+
     @Test
     public void test_placeOrder_when_krakenResponseWithoutErrors_then_noException() {
 
@@ -302,7 +381,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         final var orderExpirationInSecondsFromNow = 0L;
         given(krakenPrivateApiConnector.addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow)).willReturn(new KrakenResponseDto<>());
+                orderExpirationInSecondsFromNow, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
 
         // When
@@ -314,7 +393,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         // Then
         verify(krakenPrivateApiConnector).addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow);
+                orderExpirationInSecondsFromNow, USER_REFERENCE);
     }
 
     @Test
@@ -330,7 +409,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         final var orderExpirationInSecondsFromNow = 0L;
         given(krakenPrivateApiConnector.addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow)).willReturn(new KrakenResponseDto<>());
+                orderExpirationInSecondsFromNow, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
 
         // When
@@ -342,7 +421,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         // Then
         verify(krakenPrivateApiConnector).addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow);
+                orderExpirationInSecondsFromNow, USER_REFERENCE);
     }
 
     @Test
@@ -358,7 +437,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         final var orderExpirationInSecondsFromNow = 0L;
         given(krakenPrivateApiConnector.addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, krakenPrice, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow)).willReturn(new KrakenResponseDto<>());
+                orderExpirationInSecondsFromNow, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
 
         // When
@@ -370,7 +449,53 @@ public class KrakenPrivateApiFacadeImplUTest {
         // Then
         verify(krakenPrivateApiConnector).addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, krakenPrice, volumeInQuoteCurrency, orderFlags,
+                orderExpirationInSecondsFromNow, USER_REFERENCE);
+    }
+
+    @Test
+    public void test_placeOrder_when_volumeHasMoreDecimalPlacesThanLot_then_volumeRoundedDown() {
+
+        // Given
+        final var krakenMarketName = "XBTEUR";
+        final var krakenOrderType = "buy";
+        final var krakenPriceOrderType = "market";
+        final var price = new BigDecimal("7000.3");
+        final var krakenVolume = new BigDecimal("0.01234567");
+        final ImmutableList<String> orderFlags = ImmutableList.of();
+        final var orderExpirationInSecondsFromNow = 0L;
+        given(krakenPrivateApiConnector.addOrder(krakenMarketName, krakenOrderType,
+                krakenPriceOrderType, price, krakenVolume, orderFlags,
+                orderExpirationInSecondsFromNow, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY,
+                PriceOrderTypeBoEnum.MARKET, currencyPair, new BigDecimal("0.0123456789"),
+                price, false,
                 orderExpirationInSecondsFromNow);
+
+        // Then
+        verify(krakenPrivateApiConnector).addOrder(krakenMarketName, krakenOrderType,
+                krakenPriceOrderType, price, krakenVolume, orderFlags,
+                orderExpirationInSecondsFromNow, USER_REFERENCE);
+    }
+
+    @Test
+    public void test_placeOrder_when_volumeLowerThanMinimumOrderVolume_then_exception() {
+
+        // Given
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY,
+                PriceOrderTypeBoEnum.MARKET, currencyPair, new BigDecimal("0.00009"),
+                new BigDecimal("7000.3"), false,
+                0L));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Volume [0.00009] is lower than the minimum order volume [0.0001] of the market XBTEUR");
     }
 
     @Test
@@ -388,7 +513,7 @@ public class KrakenPrivateApiFacadeImplUTest {
         krakenResponseDto.setError(List.of("Kraken error"));
         given(krakenPrivateApiConnector.addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow)).willReturn(krakenResponseDto);
+                orderExpirationInSecondsFromNow, USER_REFERENCE)).willReturn(krakenResponseDto);
         final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
 
         // When
@@ -400,11 +525,269 @@ public class KrakenPrivateApiFacadeImplUTest {
         // Then
         verify(krakenPrivateApiConnector).addOrder(krakenMarketName, krakenOrderType,
                 krakenPriceOrderType, price, volumeInQuoteCurrency, orderFlags,
-                orderExpirationInSecondsFromNow);
+                orderExpirationInSecondsFromNow, USER_REFERENCE);
 
         then(caughtThrowable)
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("[Kraken error]");
+        then(krakenOrderJournal.loadPending()).isEmpty();
+    }
+
+    @Test
+    public void test_placeOrder_when_timeoutAndOrderOpenAtKraken_then_noException() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willThrow(createTimeout());
+        given(krakenPrivateApiConnector.openOrders(false, USER_REFERENCE))
+                .willReturn(createOpenOrdersResponse(Map.of("OXXXXO-YYYYY-33244K", new KrakenOpenOrderDto())));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).openOrders(false, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending()).isEmpty();
+    }
+
+    @Test
+    public void test_placeOrder_when_timeoutAndOrderClosedAtKraken_then_noException() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willThrow(createTimeout());
+        given(krakenPrivateApiConnector.openOrders(false, USER_REFERENCE))
+                .willReturn(createOpenOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.closedOrders(false, NOW_IN_EPOCH_SECONDS - 300, USER_REFERENCE))
+                .willReturn(createClosedOrdersResponse(Map.of("OXXXXO-YYYYY-33244K", new KrakenClosedOrderDto())));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).openOrders(false, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).closedOrders(false, NOW_IN_EPOCH_SECONDS - 300, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending()).isEmpty();
+    }
+
+    @Test
+    public void test_placeOrder_when_timeoutAndOrderNotAtKrakenYet_then_exceptionAndOrderStaysPending() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final UncheckedIOException timeout = createTimeout();
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willThrow(timeout);
+        given(krakenPrivateApiConnector.openOrders(false, USER_REFERENCE))
+                .willReturn(createOpenOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.closedOrders(false, NOW_IN_EPOCH_SECONDS - 300, USER_REFERENCE))
+                .willReturn(createClosedOrdersResponse(Map.of()));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> krakenPrivateApiFacadeImpl.placeOrder(
+                OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair, volumeInQuoteCurrency, price, false,
+                0L));
+
+        // Then
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).openOrders(false, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).closedOrders(false, NOW_IN_EPOCH_SECONDS - 300, USER_REFERENCE);
+
+        then(caughtThrowable).isSameAs(timeout);
+        then(krakenOrderJournal.loadPending())
+                .extracting(KrakenOrderJournalEntry::getUserReference, KrakenOrderJournalEntry::getState)
+                .containsExactly(tuple(USER_REFERENCE, KrakenOrderJournalEntryStateEnum.PENDING));
+    }
+
+    @Test
+    public void test_placeOrder_when_timeoutAndLookupFails_then_exceptionAndOrderStaysPending() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final UncheckedIOException timeout = createTimeout();
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willThrow(timeout);
+        final var lookupFailure = new KrakenResponseDto<KrakenOpenOrderResultDto>();
+        lookupFailure.setError(List.of("EService:Unavailable"));
+        given(krakenPrivateApiConnector.openOrders(false, USER_REFERENCE)).willReturn(lookupFailure);
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> krakenPrivateApiFacadeImpl.placeOrder(
+                OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair, volumeInQuoteCurrency, price, false,
+                0L));
+
+        // Then
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+        verify(krakenPrivateApiConnector).openOrders(false, USER_REFERENCE);
+
+        then(caughtThrowable).isSameAs(timeout);
+        then(caughtThrowable.getSuppressed())
+                .hasSize(1)
+                .hasOnlyElementsOfType(IllegalStateException.class);
+        then(krakenOrderJournal.loadPending())
+                .extracting(KrakenOrderJournalEntry::getUserReference, KrakenOrderJournalEntry::getState)
+                .containsExactly(tuple(USER_REFERENCE, KrakenOrderJournalEntryStateEnum.PENDING));
+    }
+
+    @Test
+    public void test_placeOrder_when_samePendingOrderPlaced_then_orderNotPlacedAgain() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final int pendingUserReference = 777;
+        krakenOrderJournal.save(new KrakenOrderJournalEntry(pendingUserReference, "XBTEUR", "buy", "limit", price,
+                volumeInQuoteCurrency, NOW_IN_EPOCH_SECONDS - 60, KrakenOrderJournalEntryStateEnum.PENDING,
+                ImmutableList.of()));
+        given(krakenPrivateApiConnector.openOrders(false, pendingUserReference))
+                .willReturn(createOpenOrdersResponse(Map.of("OXXXXO-YYYYY-33244K", new KrakenOpenOrderDto())));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).openOrders(false, pendingUserReference);
+        verify(krakenPrivateApiConnector, never()).addOrder("XBTEUR", "buy", "limit", price,
+                volumeInQuoteCurrency, ImmutableList.of(), 0L, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending()).isEmpty();
+    }
+
+    @Test
+    public void test_placeOrder_when_differentPendingOrderNotPlaced_then_orderPlaced() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final int pendingUserReference = 777;
+        krakenOrderJournal.save(new KrakenOrderJournalEntry(pendingUserReference, "XBTEUR", "buy", "limit",
+                new BigDecimal("6000"), volumeInQuoteCurrency, NOW_IN_EPOCH_SECONDS - 600,
+                KrakenOrderJournalEntryStateEnum.PENDING, ImmutableList.of()));
+        given(krakenPrivateApiConnector.openOrders(false, pendingUserReference))
+                .willReturn(createOpenOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.closedOrders(false, NOW_IN_EPOCH_SECONDS - 900, pendingUserReference))
+                .willReturn(createClosedOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).openOrders(false, pendingUserReference);
+        verify(krakenPrivateApiConnector).closedOrders(false, NOW_IN_EPOCH_SECONDS - 900, pendingUserReference);
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending()).isEmpty();
     }
 
+    @Test
+    public void test_placeOrder_when_samePendingOrderNotFoundWithinGracePeriod_then_orderNotPlacedAgain() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final int pendingUserReference = 777;
+        krakenOrderJournal.save(new KrakenOrderJournalEntry(pendingUserReference, "XBTEUR", "buy", "limit", price,
+                volumeInQuoteCurrency, NOW_IN_EPOCH_SECONDS - 60, KrakenOrderJournalEntryStateEnum.PENDING,
+                ImmutableList.of()));
+        given(krakenPrivateApiConnector.openOrders(false, pendingUserReference))
+                .willReturn(createOpenOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.closedOrders(false, NOW_IN_EPOCH_SECONDS - 360, pendingUserReference))
+                .willReturn(createClosedOrdersResponse(Map.of()));
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).openOrders(false, pendingUserReference);
+        verify(krakenPrivateApiConnector).closedOrders(false, NOW_IN_EPOCH_SECONDS - 360, pendingUserReference);
+        verify(krakenPrivateApiConnector, never()).addOrder("XBTEUR", "buy", "limit", price,
+                volumeInQuoteCurrency, ImmutableList.of(), 0L, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending())
+                .extracting(KrakenOrderJournalEntry::getUserReference, KrakenOrderJournalEntry::getState)
+                .containsExactly(tuple(pendingUserReference, KrakenOrderJournalEntryStateEnum.PENDING));
+    }
+
+    @Test
+    public void test_placeOrder_when_samePendingOrderNotFoundAfterGracePeriod_then_orderPlaced() {
+
+        // Given
+        final var price = new BigDecimal("7000.3");
+        final var volumeInQuoteCurrency = new BigDecimal("0.01");
+        final int pendingUserReference = 777;
+        krakenOrderJournal.save(new KrakenOrderJournalEntry(pendingUserReference, "XBTEUR", "buy", "limit", price,
+                volumeInQuoteCurrency, NOW_IN_EPOCH_SECONDS - 300, KrakenOrderJournalEntryStateEnum.PENDING,
+                ImmutableList.of()));
+        given(krakenPrivateApiConnector.openOrders(false, pendingUserReference))
+                .willReturn(createOpenOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.closedOrders(false, NOW_IN_EPOCH_SECONDS - 600, pendingUserReference))
+                .willReturn(createClosedOrdersResponse(Map.of()));
+        given(krakenPrivateApiConnector.addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE)).willReturn(new KrakenResponseDto<>());
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        krakenPrivateApiFacadeImpl.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, currencyPair,
+                volumeInQuoteCurrency, price, false, 0L);
+
+        // Then
+        verify(krakenPrivateApiConnector).openOrders(false, pendingUserReference);
+        verify(krakenPrivateApiConnector).closedOrders(false, NOW_IN_EPOCH_SECONDS - 600, pendingUserReference);
+        verify(krakenPrivateApiConnector).addOrder("XBTEUR", "buy", "limit", price, volumeInQuoteCurrency,
+                ImmutableList.of(), 0L, USER_REFERENCE);
+
+        then(krakenOrderJournal.loadPending()).isEmpty();
+    }
+
+    @NotNull
+    private static UncheckedIOException createTimeout() {
+        return new UncheckedIOException(new SocketTimeoutException("Read timed out"));
+    }
+
+    @NotNull
+    private static KrakenResponseDto<KrakenOpenOrderResultDto> createOpenOrdersResponse(@NotNull final Map<String, KrakenOpenOrderDto> openOrders) {
+        final var result = new KrakenOpenOrderResultDto();
+        result.setOpen(openOrders);
+        final var response = new KrakenResponseDto<KrakenOpenOrderResultDto>();
+        response.setResult(result);
+        return response;
+    }
+
+    @NotNull
+    private static KrakenResponseDto<KrakenClosedOrderResultDto> createClosedOrdersResponse(@NotNull final Map<String, KrakenClosedOrderDto> closedOrders) {
+        final var result = new KrakenClosedOrderResultDto();
+        result.setClosed(closedOrders);
+        final var response = new KrakenResponseDto<KrakenClosedOrderResultDto>();
+        response.setResult(result);
+        return response;
+    }
 }
@@ -19,11 +19,20 @@
 package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenDepthDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
 import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.CurrencyPairBoToKrakenMarketNameConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToFixedPointTickerBoConverter;
 import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToTickerBoConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadata;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetPairMetadata;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.FixedPointTickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.PriceBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
 import org.jetbrains.annotations.NotNull;
@@ -34,6 +43,9 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.entry;
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
@@ -47,8 +59,10 @@ public class KrakenPublicApiFacadeImplUTest {
     @NotNull
     private final KrakenPublicApiFacadeImpl krakenPublicApiFacadeImpl = new KrakenPublicApiFacadeImpl(
             krakenPublicApiConnector,
-            new CurrencyPairBoToKrakenMarketNameConverter(),
-            new KrakenMapEntryToTickerBoConverter());
+            new CurrencyPairBoToKrakenMarketNameConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
+            new KrakenMapEntryToTickerBoConverter(),
+            new KrakenMapEntryToFixedPointTickerBoConverter(),
+            aKrakenAssetMetadataRegistry().buildSupplier());
 
     @AfterEach
     public void assertAndCleanMocks() {
@@ -80,4 +94,219 @@ public class KrakenPublicApiFacadeImplUTest {
         then(response.getAskPrice().stripTrailingZeros()).isEqualTo(new BigDecimal("8903.3").stripTrailingZeros());
         then(response.getBidPrice().stripTrailingZeros()).isEqualTo(new BigDecimal("8902.4").stripTrailingZeros());
     }
+
+    @Test
+    public void test_getFixedPointTicker_when_rawKrakenDataProvided_then_pricesConvertedExactlyWithKrakenDecimals() {
+
+        // Given
+        final Map<String, Object> pairData = Map.of("a", List.of("8903.30000"), "b", List.of("8902.40000"));
+        final var expectedResponse = new KrakenResponseDto<Map<String, Map<String, Object>>>();
+        expectedResponse.setResult(Map.of("XXBTZEUR", pairData));
+        final var marketNames = ImmutableList.of("XBTEUR");
+        given(krakenPublicApiConnector.ticker(marketNames)).willReturn(expectedResponse);
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        final FixedPointTickerBo response = krakenPublicApiFacadeImpl.getFixedPointTicker(currencyPair);
+
+        // Then
+        verify(krakenPublicApiConnector).ticker(marketNames);
+
+        then(response.getTickerName()).isEqualTo("XXBTZEUR");
+        then(response.getAskPrice()).isEqualTo(new PriceBo(890330000L, 5));
+        then(response.getBidPrice()).isEqualTo(new PriceBo(890240000L, 5));
+    }
+
+    @Test
+    public void test_getTickers_when_severalPairsRequested_then_oneCallIsMade_and_tickersAreReturnedByPairs() {
+
+        // Given
+        final var btcEur = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+        final var otherEur = new CurrencyPairBo(CurrencyBoEnum.OTHERS, CurrencyBoEnum.EUR);
+        final var facade = new KrakenPublicApiFacadeImpl(krakenPublicApiConnector,
+                currencyPair -> currencyPair.equals(btcEur) ? "XBTEUR" : "DOTEUR",
+                new KrakenMapEntryToTickerBoConverter(),
+                new KrakenMapEntryToFixedPointTickerBoConverter(),
+                aKrakenAssetMetadataRegistry()
+                        .withAssetPair(new KrakenAssetPairMetadata("DOTEUR", "DOTEUR", "DOT/EUR", "DOT", "ZEUR",
+                                4, 8, new BigDecimal("0.1")))
+                        .buildSupplier());
+        final var result = Map.<String, Map<String, Object>>of(
+                "DOTEUR", Map.of("a", List.of("21.5"), "b", List.of("21.4")),
+                "XXBTZEUR", Map.of("a", List.of("8903.3"), "b", List.of("8902.4")));
+        final var expectedResponse = new KrakenResponseDto<Map<String, Map<String, Object>>>();
+        expectedResponse.setResult(result);
+        final var marketNames = ImmutableList.of("XBTEUR", "DOTEUR");
+        given(krakenPublicApiConnector.ticker(marketNames)).willReturn(expectedResponse);
+
+        // When
+        final ImmutableMap<CurrencyPairBo, TickerBo> response = facade.getTickers(List.of(btcEur, otherEur, btcEur));
+
+        // Then
+        verify(krakenPublicApiConnector).ticker(marketNames);
+
+        then(response).containsOnlyKeys(btcEur, otherEur);
+        then(response.get(btcEur).getTickerName()).isEqualTo("XXBTZEUR");
+        then(response.get(btcEur).getAskPrice()).isEqualTo(new BigDecimal("8903.3"));
+        then(response.get(otherEur).getTickerName()).isEqualTo("DOTEUR");
+        then(response.get(otherEur).getBidPrice()).isEqualTo(new BigDecimal("21.4"));
+    }
+
+    @Test
+    public void test_getTickers_when_resultForPairMissing_then_exception() {
+
+        // Given
+        final var btcEur = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+        final var otherEur = new CurrencyPairBo(CurrencyBoEnum.OTHERS, CurrencyBoEnum.EUR);
+        final var facade = new KrakenPublicApiFacadeImpl(krakenPublicApiConnector,
+                currencyPair -> currencyPair.equals(btcEur) ? "XBTEUR" : "DOTEUR",
+                new KrakenMapEntryToTickerBoConverter(),
+                new KrakenMapEntryToFixedPointTickerBoConverter(),
+                aKrakenAssetMetadataRegistry()
+                        .withAssetPair(new KrakenAssetPairMetadata("DOTEUR", "DOTEUR", "DOT/EUR", "DOT", "ZEUR",
+                                4, 8, new BigDecimal("0.1")))
+                        .buildSupplier());
+        final var result = Map.<String, Map<String, Object>>of(
+                "XXBTZEUR", Map.of("a", List.of("8903.3"), "b", List.of("8902.4")));
+        final var expectedResponse = new KrakenResponseDto<Map<String, Map<String, Object>>>();
+        expectedResponse.setResult(result);
+        final var marketNames = ImmutableList.of("XBTEUR", "DOTEUR");
+        given(krakenPublicApiConnector.ticker(marketNames)).willReturn(expectedResponse);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> facade.getTickers(List.of(btcEur, otherEur)));
+
+        // Then
+        verify(krakenPublicApiConnector).ticker(marketNames);
+
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No result for the market name DOTEUR");
+    }
+
+    @Test
+    public void test_getTickers_when_noPairRequested_then_noCallIsMade() {
+
+        // When
+        final ImmutableMap<CurrencyPairBo, TickerBo> response = krakenPublicApiFacadeImpl.getTickers(List.of());
+
+        // Then
+        then(response).isEmpty();
+    }
+
+    @Test
+    public void test_getAssetPrices_when_directInverseStakedAndUnlistedAssets_then_oneCallIsMade_and_listedAssetsPriced() {
+
+        // Given
+        final var btc = AssetBo.valueOf("BTC");
+        final var eur = AssetBo.valueOf("EUR");
+        final var stakedDot = AssetBo.valueOf("DOT.S");
+        final var usd = AssetBo.valueOf("USD");
+        final var unlisted = AssetBo.valueOf("UNLISTED");
+        final var facade = new KrakenPublicApiFacadeImpl(krakenPublicApiConnector,
+                new CurrencyPairBoToKrakenMarketNameConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
+                new KrakenMapEntryToTickerBoConverter(),
+                new KrakenMapEntryToFixedPointTickerBoConverter(),
+                aKrakenAssetMetadataRegistry()
+                        .withAsset(new KrakenAssetMetadata("DOT", "DOT", AssetBo.valueOf("DOT"), 10))
+                        .withAsset(new KrakenAssetMetadata("ZUSD", "USD", usd, 4))
+                        .withAssetPair(new KrakenAssetPairMetadata("DOTEUR", "DOTEUR", "DOT/EUR", "DOT", "ZEUR",
+                                4, 8, new BigDecimal("0.1")))
+                        .withAssetPair(new KrakenAssetPairMetadata("ZEURZUSD", "EURUSD", "EUR/USD", "ZEUR", "ZUSD",
+                                5, 8, new BigDecimal("10")))
+                        .buildSupplier());
+        final var result = Map.<String, Map<String, Object>>of(
+                "XXBTZEUR", Map.of("a", List.of("8903.3"), "b", List.of("8902.4")),
+                "DOTEUR", Map.of("a", List.of("21.5"), "b", List.of("21.4")),
+                "ZEURZUSD", Map.of("a", List.of("1.25"), "b", List.of("1.24")));
+        final var expectedResponse = new KrakenResponseDto<Map<String, Map<String, Object>>>();
+        expectedResponse.setResult(result);
+        final var marketNames = ImmutableList.of("XBTEUR", "DOTEUR", "EURUSD");
+        given(krakenPublicApiConnector.ticker(marketNames)).willReturn(expectedResponse);
+
+        // When
+        final ImmutableMap<AssetBo, BigDecimal> response = facade.getAssetPrices(
+                List.of(btc, stakedDot, eur, usd, unlisted), eur);
+
+        // Then
+        verify(krakenPublicApiConnector).ticker(marketNames);
+
+        then(response).containsOnlyKeys(btc, stakedDot, eur, usd);
+        then(response.get(btc)).isEqualTo(new BigDecimal("8902.4"));
+        then(response.get(stakedDot)).isEqualTo(new BigDecimal("21.4"));
+        then(response.get(eur)).isEqualTo(BigDecimal.ONE);
+        then(response.get(usd)).isEqualByComparingTo("0.8");
+    }
+
+    @Test
+    public void test_getAssetPrices_when_liquidAndStakedVariantOfAssetHeld_then_pairRequestedOnce_and_bothPriced() {
+
+        // Given
+        final var dot = AssetBo.valueOf("DOT");
+        final var stakedDot = AssetBo.valueOf("DOT.S");
+        final var eur = AssetBo.valueOf("EUR");
+        final var facade = new KrakenPublicApiFacadeImpl(krakenPublicApiConnector,
+                new CurrencyPairBoToKrakenMarketNameConverter(aKrakenAssetMetadataRegistry().buildSupplier()),
+                new KrakenMapEntryToTickerBoConverter(),
+                new KrakenMapEntryToFixedPointTickerBoConverter(),
+                aKrakenAssetMetadataRegistry()
+                        .withAsset(new KrakenAssetMetadata("DOT", "DOT", dot, 10))
+                        .withAssetPair(new KrakenAssetPairMetadata("DOTEUR", "DOTEUR", "DOT/EUR", "DOT", "ZEUR",
+                                4, 8, new BigDecimal("0.1")))
+                        .buildSupplier());
+        final var expectedResponse = new KrakenResponseDto<Map<String, Map<String, Object>>>();
+        expectedResponse.setResult(Map.of("DOTEUR", Map.of("a", List.of("21.5"), "b", List.of("21.4"))));
+        final var marketNames = ImmutableList.of("DOTEUR");
+        given(krakenPublicApiConnector.ticker(marketNames)).willReturn(expectedResponse);
+
+        // When
+        final ImmutableMap<AssetBo, BigDecimal> response = facade.getAssetPrices(List.of(dot, stakedDot), eur);
+
+        // Then
+        verify(krakenPublicApiConnector).ticker(marketNames);
+
+        then(response).containsOnly(
+                entry(dot, new BigDecimal("21.4")),
+                entry(stakedDot, new BigDecimal("21.4")));
+    }
+
+    @Test
+    public void test_getAssetPrices_when_onlyReportingAssetRequested_then_noCallIsMade() {
+
+        // Given
+        final var eur = AssetBo.valueOf("EUR");
+
+        // When
+        final ImmutableMap<AssetBo, BigDecimal> response = krakenPublicApiFacadeImpl.getAssetPrices(List.of(eur), eur);
+
+        // Then
+        then(response).containsOnly(entry(eur, BigDecimal.ONE));
+    }
+
+    @Test
+    public void test_getOrderBook_when_rawKrakenDepthProvided_then_levelsScaledByFormatting() {
+
+        // Given
+        final var depth = new KrakenDepthDto();
+        depth.setAsks(List.of(List.of("8903.30000", "1.234", 1616663113), List.of("8904.10000", "0.500", 1616663112)));
+        depth.setBids(List.of(List.of("8902.40000", "2.000", 1616663113)));
+        final var expectedResponse = new KrakenResponseDto<Map<String, KrakenDepthDto>>();
+        expectedResponse.setResult(Map.of("XXBTZEUR", depth));
+        given(krakenPublicApiConnector.depth("XBTEUR", 10)).willReturn(expectedResponse);
+        final var currencyPair = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+        // When
+        final OrderBookBo response = krakenPublicApiFacadeImpl.getOrderBook(currencyPair, 10);
+
+        // Then
+        verify(krakenPublicApiConnector).depth("XBTEUR", 10);
+
+        then(response.getPriceScale()).isEqualTo(5);
+        then(response.getVolumeScale()).isEqualTo(3);
+        then(response.getAskCount()).isEqualTo(2);
+        then(response.getAskPrice(0)).isEqualTo(890330000L);
+        then(response.getAskVolume(1)).isEqualTo(500L);
+        then(response.getBidCount()).isEqualTo(1);
+        then(response.getBidVolume(0)).isEqualTo(2000L);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenQuoteDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenMarketDataConnector;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.api.logic.KrakenPublicApiFacade;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.CurrencyPairBoToKrakenWebSocketPairNameConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata.KrakenAssetMetadataRegistryBuilder.aKrakenAssetMetadataRegistry;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+
+public class KrakenStreamingPublicApiFacadeImplUTest {
+    @NotNull
+    private static final Instant NOW = Instant.parse("2021-06-20T12:00:00Z");
+    @NotNull
+    private static final CurrencyPairBo BTC_EUR = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+
+    @NotNull
+    private final KrakenMarketDataConnector krakenMarketDataConnector = mock(KrakenMarketDataConnector.class);
+    @NotNull
+    private final KrakenPublicApiFacade restPublicApiFacade = mock(KrakenPublicApiFacade.class);
+    @NotNull
+    private final KrakenStreamingPublicApiFacadeImpl krakenStreamingPublicApiFacadeImpl =
+            new KrakenStreamingPublicApiFacadeImpl(krakenMarketDataConnector, restPublicApiFacade,
+                    new CurrencyPairBoToKrakenWebSocketPairNameConverter(aKrakenAssetMetadataRegistry().buildSupplier()), Clock.fixed(NOW, ZoneOffset.UTC),
+                    Duration.ofSeconds(30));
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(krakenMarketDataConnector, restPublicApiFacade);
+        reset(krakenMarketDataConnector, restPublicApiFacade);
+    }
+
+    @Test
+    public void test_getTicker_when_recentQuoteAvailable_then_tickerIsServedFromQuote() {
+        // Given
+        given(krakenMarketDataConnector.getLatestQuote("XBT/EUR")).willReturn(new KrakenQuoteDto("XBT/EUR",
+                new BigDecimal("29011.9"), new BigDecimal("29012.1"), NOW.minusSeconds(30)));
+
+        // When
+        final TickerBo ticker = krakenStreamingPublicApiFacadeImpl.getTicker(BTC_EUR);
+
+        // Then
+        verify(krakenMarketDataConnector).getLatestQuote("XBT/EUR");
+
+        then(ticker.getTickerName()).isEqualTo("XBT/EUR");
+        then(ticker.getBidPrice()).isEqualTo(new BigDecimal("29011.9"));
+        then(ticker.getAskPrice()).isEqualTo(new BigDecimal("29012.1"));
+    }
+
+    @Test
+    public void test_getTicker_when_quoteIsStale_then_pairIsSubscribed_and_tickerIsRetrievedViaRest() {
+        // Given
+        given(krakenMarketDataConnector.getLatestQuote("XBT/EUR")).willReturn(new KrakenQuoteDto("XBT/EUR",
+                new BigDecimal("29011.9"), new BigDecimal("29012.1"), NOW.minusSeconds(31)));
+        final var restTicker = new TickerBo("XXBTZEUR", new BigDecimal("29100"), new BigDecimal("29099"));
+        given(restPublicApiFacade.getTicker(BTC_EUR)).willReturn(restTicker);
+
+        // When
+        final TickerBo ticker = krakenStreamingPublicApiFacadeImpl.getTicker(BTC_EUR);
+
+        // Then
+        verify(krakenMarketDataConnector).getLatestQuote("XBT/EUR");
+        verify(krakenMarketDataConnector).subscribe(ImmutableList.of("XBT/EUR"));
+        verify(restPublicApiFacade).getTicker(BTC_EUR);
+
+        then(ticker).isSameAs(restTicker);
+    }
+
+    @Test
+    public void test_getTickers_when_noQuoteAvailable_then_tickersAreRetrievedViaRestAtOnce() {
+        // Given
+        given(krakenMarketDataConnector.getLatestQuote("XBT/EUR")).willReturn(null);
+        final var restTicker = new TickerBo("XXBTZEUR", new BigDecimal("29100"), new BigDecimal("29099"));
+        given(restPublicApiFacade.getTickers(ImmutableList.of(BTC_EUR))).willReturn(ImmutableMap.of(BTC_EUR,
+                restTicker));
+
+        // When
+        final ImmutableMap<CurrencyPairBo, TickerBo> tickers = krakenStreamingPublicApiFacadeImpl.getTickers(
+                List.of(BTC_EUR));
+
+        // Then
+        verify(krakenMarketDataConnector).getLatestQuote("XBT/EUR");
+        verify(krakenMarketDataConnector).subscribe(ImmutableList.of("XBT/EUR"));
+        verify(restPublicApiFacade).getTickers(ImmutableList.of(BTC_EUR));
+
+        then(tickers).containsOnlyKeys(BTC_EUR);
+        then(tickers.get(BTC_EUR)).isSameAs(restTicker);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class MutableOrderBookUTest {
+
+    @Test
+    public void test_updateAsk_and_updateBid_when_levelsAddedInRandomOrder_then_asksAscending_and_bidsDescending() {
+        // Given
+        final var orderBook = new MutableOrderBook(1, 8, 10);
+
+        // When
+        orderBook.updateAsk(89040, 100);
+        orderBook.updateAsk(89033, 200);
+        orderBook.updateAsk(89035, 300);
+        orderBook.updateBid(89020, 400);
+        orderBook.updateBid(89024, 500);
+        orderBook.updateBid(89010, 600);
+
+        // Then
+        then(orderBook.getAskCount()).isEqualTo(3);
+        then(new long[]{orderBook.getAskPrice(0), orderBook.getAskPrice(1), orderBook.getAskPrice(2)})
+                .containsExactly(89033, 89035, 89040);
+        then(orderBook.getAskVolume(0)).isEqualTo(200);
+        then(orderBook.getBidCount()).isEqualTo(3);
+        then(new long[]{orderBook.getBidPrice(0), orderBook.getBidPrice(1), orderBook.getBidPrice(2)})
+                .containsExactly(89024, 89020, 89010);
+        then(orderBook.getBidVolume(0)).isEqualTo(500);
+    }
+
+    @Test
+    public void test_updateBid_when_existingLevel_then_volumeReplaced_or_levelRemovedOnZeroVolume() {
+        // Given
+        final var orderBook = new MutableOrderBook(1, 8, 10);
+        orderBook.updateBid(89024, 500);
+        orderBook.updateBid(89020, 400);
+        orderBook.updateBid(89010, 600);
+
+        // When
+        orderBook.updateBid(89020, 700);
+        orderBook.updateBid(89024, 0);
+        orderBook.updateBid(89000, 0);
+
+        // Then
+        then(orderBook.getBidCount()).isEqualTo(2);
+        then(orderBook.getBidPrice(0)).isEqualTo(89020);
+        then(orderBook.getBidVolume(0)).isEqualTo(700);
+        then(orderBook.getBidPrice(1)).isEqualTo(89010);
+    }
+
+    @Test
+    public void test_updateAsk_when_sideFull_then_worstLevelDropped() {
+        // Given
+        final var orderBook = new MutableOrderBook(1, 8, 2);
+        orderBook.updateAsk(89033, 200);
+        orderBook.updateAsk(89035, 300);
+
+        // When
+        orderBook.updateAsk(89040, 100);
+        orderBook.updateAsk(89030, 400);
+
+        // Then
+        then(orderBook.getAskCount()).isEqualTo(2);
+        then(orderBook.getAskPrice(0)).isEqualTo(89030);
+        then(orderBook.getAskPrice(1)).isEqualTo(89033);
+    }
+
+    @Test
+    public void test_toOrderBookBo_when_bookUpdatedAfterwards_then_snapshotUnchanged() {
+        // Given
+        final var orderBook = new MutableOrderBook(1, 8, 10);
+        orderBook.updateAsk(89033, 200);
+        orderBook.updateBid(89024, 500);
+
+        // When
+        final OrderBookBo snapshot = orderBook.toOrderBookBo();
+        orderBook.updateAsk(89033, 0);
+        orderBook.updateBid(89025, 100);
+
+        // Then
+        then(snapshot.getPriceScale()).isEqualTo(1);
+        then(snapshot.getVolumeScale()).isEqualTo(8);
+        then(snapshot.getAskCount()).isEqualTo(1);
+        then(snapshot.getAskPrice(0)).isEqualTo(89033);
+        then(snapshot.getBidCount()).isEqualTo(1);
+        then(snapshot.getBidPrice(0)).isEqualTo(89024);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenAssetPairDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.dto.KrakenResponseDto;
+import com.skalicky.cryptobot.exchange.kraken.connector.api.logic.KrakenPublicApiConnector;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToKrakenAssetMetadataConverter;
+import com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.converter.KrakenMapEntryToKrakenAssetPairMetadataConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.times;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+
+public class KrakenAssetMetadataCacheUTest {
+    @NotNull
+    private static final Instant NOW = Instant.parse("2021-06-01T10:00:00Z");
+    @NotNull
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(24);
+
+    @NotNull
+    private final KrakenPublicApiConnector krakenPublicApiConnector = mock(KrakenPublicApiConnector.class);
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(krakenPublicApiConnector);
+        reset(krakenPublicApiConnector);
+    }
+
+    @NotNull
+    private KrakenAssetMetadataCache createCache(@NotNull final Path file, @NotNull final Instant now) {
+        return createCache(file, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @NotNull
+    private KrakenAssetMetadataCache createCache(@Nullable final Path file, @NotNull final Clock clock) {
+        return new KrakenAssetMetadataCache(krakenPublicApiConnector,
+                new KrakenMapEntryToKrakenAssetPairMetadataConverter(), new KrakenMapEntryToKrakenAssetMetadataConverter(),
+                file, TIME_TO_LIVE, clock);
+    }
+
+    private void givenKrakenMetadata() {
+        final var xbtEur = new KrakenAssetPairDto();
+        xbtEur.setAltname("XBTEUR");
+        xbtEur.setWsname("XBT/EUR");
+        xbtEur.setBase("XXBT");
+        xbtEur.setQuote("ZEUR");
+        xbtEur.setPair_decimals(1);
+        xbtEur.setLot_decimals(8);
+        xbtEur.setOrdermin(new BigDecimal("0.0001"));
+        final var dotEur = new KrakenAssetPairDto();
+        dotEur.setAltname("DOTEUR");
+        dotEur.setWsname("DOT/EUR");
+        dotEur.setBase("DOT");
+        dotEur.setQuote("ZEUR");
+        dotEur.setPair_decimals(4);
+        dotEur.setLot_decimals(8);
+        final var assetPairsResponse = new KrakenResponseDto<Map<String, KrakenAssetPairDto>>();
+        assetPairsResponse.setResult(Map.of("XXBTZEUR", xbtEur, "DOTEUR", dotEur));
+        given(krakenPublicApiConnector.assetPairs()).willReturn(assetPairsResponse);
+
+        final var xbt = new KrakenAssetDto();
+        xbt.setAltname("XBT");
+        xbt.setDecimals(10);
+        final var eur = new KrakenAssetDto();
+        eur.setAltname("EUR");
+        eur.setDecimals(4);
+        final var assetsResponse = new KrakenResponseDto<Map<String, KrakenAssetDto>>();
+        assetsResponse.setResult(Map.of("XXBT", xbt, "ZEUR", eur));
+        given(krakenPublicApiConnector.assets()).willReturn(assetsResponse);
+    }
+
+    @Test
+    public void test_load_when_noFile_then_metadataRetrieved_and_lookupsByAllNamesWork(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        givenKrakenMetadata();
+
+        // When
+        final KrakenAssetMetadataRegistry registry = createCache(temporaryDirectory.resolve("metadata.json"), NOW)
+                .load();
+
+        // Then
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+
+        final KrakenAssetPairMetadata xbtEur = registry.getAssetPair(
+                new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR));
+        then(xbtEur.getMarketName()).isEqualTo("XBTEUR");
+        then(xbtEur.getPriceDecimals()).isEqualTo(1);
+        then(xbtEur.getMinimumOrderVolume()).isEqualByComparingTo("0.0001");
+        then(List.of(registry.getAssetPair("XXBTZEUR"), registry.getAssetPair("XBT/EUR"))).containsOnly(xbtEur);
+        then(registry.getCurrencyPair("XBT/EUR")).isEqualTo(new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR));
+        then(catchThrowable(() -> registry.getCurrencyPair("DOTEUR"))).isInstanceOf(IllegalArgumentException.class);
+        then(registry.getAssetPair("DOTEUR").getMinimumOrderVolume()).isZero();
+        then(registry.getAssetDecimals("XBT")).isEqualTo(10);
+        then(registry.getAsset("XXBT")).isSameAs(AssetBo.valueOf("BTC"));
+        then(registry.getAsset("DOT")).isSameAs(AssetBo.valueOf("DOT"));
+    }
+
+    @Test
+    public void test_load_when_fileNotExpired_then_noRetrieval(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final Path file = temporaryDirectory.resolve("metadata.json");
+        givenKrakenMetadata();
+        createCache(file, NOW).load();
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+
+        // When
+        final KrakenAssetMetadataRegistry registry = createCache(file, NOW.plus(TIME_TO_LIVE).minusSeconds(1))
+                .load();
+
+        // Then
+        then(registry.getAssetPair("XBTEUR").getVolumeDecimals()).isEqualTo(8);
+    }
+
+    @Test
+    public void test_load_when_fileExpired_and_retrievalFails_then_expiredMetadataUsed(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final Path file = temporaryDirectory.resolve("metadata.json");
+        givenKrakenMetadata();
+        createCache(file, NOW).load();
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+        final var failure = new KrakenResponseDto<Map<String, KrakenAssetPairDto>>();
+        failure.setError(List.of("EService:Unavailable"));
+        given(krakenPublicApiConnector.assetPairs()).willReturn(failure);
+
+        // When
+        final KrakenAssetMetadataRegistry registry = createCache(file, NOW.plus(TIME_TO_LIVE)).load();
+
+        // Then
+        verify(krakenPublicApiConnector, times(2)).assetPairs();
+
+        then(registry.getAssetPair("XBTEUR").getPairName()).isEqualTo("XXBTZEUR");
+    }
+
+    @Test
+    public void test_load_when_noFile_and_retrievalFails_then_exception(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final var failure = new KrakenResponseDto<Map<String, KrakenAssetPairDto>>();
+        failure.setError(List.of("EService:Unavailable"));
+        given(krakenPublicApiConnector.assetPairs()).willReturn(failure);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> createCache(temporaryDirectory.resolve("metadata.json"),
+                NOW).load());
+
+        // Then
+        verify(krakenPublicApiConnector).assetPairs();
+
+        then(caughtThrowable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("[EService:Unavailable]");
+    }
+
+    @Test
+    public void test_load_when_loadedMetadataNotExpired_then_neitherFileReadNorRetrieval(@TempDir @NotNull final Path temporaryDirectory) throws IOException {
+        // Given
+        final Path file = temporaryDirectory.resolve("metadata.json");
+        final var clock = new MutableClock(NOW);
+        final KrakenAssetMetadataCache cache = createCache(file, clock);
+        givenKrakenMetadata();
+        final KrakenAssetMetadataRegistry loadedRegistry = cache.load();
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+        Files.delete(file);
+        clock.advance(TIME_TO_LIVE.minusSeconds(1));
+
+        // When
+        final KrakenAssetMetadataRegistry registry = cache.load();
+
+        // Then
+        then(registry).isSameAs(loadedRegistry);
+    }
+
+    @Test
+    public void test_load_when_loadedMetadataExpired_then_retrievedAgain() {
+        // Given
+        final var clock = new MutableClock(NOW);
+        final KrakenAssetMetadataCache cache = createCache(null, clock);
+        givenKrakenMetadata();
+        final KrakenAssetMetadataRegistry loadedRegistry = cache.load();
+        clock.advance(TIME_TO_LIVE);
+
+        // When
+        final KrakenAssetMetadataRegistry registry = cache.load();
+
+        // Then
+        verify(krakenPublicApiConnector, times(2)).assetPairs();
+        verify(krakenPublicApiConnector, times(2)).assets();
+
+        then(registry).isNotSameAs(loadedRegistry);
+        then(cache.get()).isSameAs(registry);
+    }
+
+    @Test
+    public void test_load_when_noFile_and_loadedMetadataExpired_and_retrievalFails_then_expiredMetadataUsed() {
+        // Given
+        final var clock = new MutableClock(NOW);
+        final KrakenAssetMetadataCache cache = createCache(null, clock);
+        givenKrakenMetadata();
+        final KrakenAssetMetadataRegistry loadedRegistry = cache.load();
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+        final var failure = new KrakenResponseDto<Map<String, KrakenAssetPairDto>>();
+        failure.setError(List.of("EService:Unavailable"));
+        given(krakenPublicApiConnector.assetPairs()).willReturn(failure);
+        clock.advance(TIME_TO_LIVE);
+
+        // When
+        final KrakenAssetMetadataRegistry registry = cache.load();
+
+        // Then
+        verify(krakenPublicApiConnector, times(2)).assetPairs();
+
+        then(registry).isSameAs(loadedRegistry);
+    }
+
+    @Test
+    public void test_get_when_notLoadedYet_then_loaded_and_notReloadedOnceExpired() {
+        // Given
+        final var clock = new MutableClock(NOW);
+        final KrakenAssetMetadataCache cache = createCache(null, clock);
+        givenKrakenMetadata();
+
+        // When
+        final KrakenAssetMetadataRegistry registry = cache.get();
+        clock.advance(TIME_TO_LIVE);
+        final KrakenAssetMetadataRegistry registryOnceExpired = cache.get();
+
+        // Then
+        verify(krakenPublicApiConnector).assetPairs();
+        verify(krakenPublicApiConnector).assets();
+
+        then(registry.getAssetPair("XBTEUR").getPairName()).isEqualTo("XXBTZEUR");
+        then(registryOnceExpired).isSameAs(registry);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.connectorfacade.impl.metadata;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Contains XBT/EUR with its metadata as of Kraken by default.
+ */
+public final class KrakenAssetMetadataRegistryBuilder {
+    @NotNull
+    private final List<KrakenAssetPairMetadata> assetPairs = new ArrayList<>(List.of(new KrakenAssetPairMetadata(
+            "XXBTZEUR", "XBTEUR", "XBT/EUR", "XXBT", "ZEUR", 1, 8, new BigDecimal("0.0001"))));
+    @NotNull
+    private final List<KrakenAssetMetadata> assets = new ArrayList<>(List.of(
+            new KrakenAssetMetadata("XXBT", "XBT", AssetBo.valueOf("BTC"), 10),
+            new KrakenAssetMetadata("ZEUR", "EUR", AssetBo.valueOf("EUR"), 4)));
+
+    private KrakenAssetMetadataRegistryBuilder() {
+    }
+
+    @NotNull
+    public static KrakenAssetMetadataRegistryBuilder aKrakenAssetMetadataRegistry() {
+        return new KrakenAssetMetadataRegistryBuilder();
+    }
+
+    @NotNull
+    public KrakenAssetMetadataRegistryBuilder withAssetPair(@NotNull final KrakenAssetPairMetadata assetPair) {
+        this.assetPairs.add(assetPair);
+        return this;
+    }
+
+    @NotNull
+    public KrakenAssetMetadataRegistryBuilder withAsset(@NotNull final KrakenAssetMetadata asset) {
+        this.assets.add(asset);
+        return this;
+    }
+
+    @NotNull
+    public KrakenAssetMetadataRegistry build() {
+        return new KrakenAssetMetadataRegistry(assetPairs, assets);
+    }
+
+    /**
+     * For the converters and facades which look the metadata up anew in each call.
+     */
+    @NotNull
+    public Supplier<KrakenAssetMetadataRegistry> buildSupplier() {
+        final KrakenAssetMetadataRegistry registry = build();
+        return () -> registry;
+    }
+}
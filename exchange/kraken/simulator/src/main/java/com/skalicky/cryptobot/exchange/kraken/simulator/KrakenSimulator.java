@@ -0,0 +1,504 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP server standing in for the REST API of Kraken, e.g. to load test the bot offline. Serves the public
+ * methods Assets, AssetPairs and Ticker and the private methods Balance, OpenOrders, ClosedOrders and AddOrder of one
+ * API key against a {@link KrakenSimulatorExchange}.
+ * <p>
+ * Private calls are checked like Kraken does: the API key, the signature and the nonce, which must increase, and the
+ * call rate counter of the key. Responses can be delayed per method and faults can be injected per method, e.g. errors
+ * or HTTP 5xx. Bound to the loopback address only.
+ */
+public class KrakenSimulator implements AutoCloseable {
+
+    /**
+     * Method name matching all methods when setting latencies or injecting faults.
+     */
+    @NotNull
+    public static final String ANY_METHOD = "*";
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(KrakenSimulator.class);
+    @NotNull
+    private static final String PUBLIC_PATH = "/0/public/";
+    @NotNull
+    private static final String PRIVATE_PATH = "/0/private/";
+    @NotNull
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    private static final int STOP_DELAY_IN_SECONDS = 0;
+    /**
+     * Limits of the starter verification tier.
+     */
+    private static final int DEFAULT_MAX_RATE_COUNTER = 15;
+    private static final double DEFAULT_RATE_COUNTER_DECREASE_PER_SECOND = 0.33;
+    /**
+     * Cost is 1 for other methods. Orders are limited by a separate counter at Kraken, not emulated here.
+     */
+    @NotNull
+    private static final ImmutableMap<String, Integer> RATE_COSTS_BY_METHOD_NAMES = ImmutableMap.<String, Integer>builder()
+            .put("AddOrder", 0)
+            .put("CancelOrder", 0)
+            .put("Ledgers", 2)
+            .put("QueryLedgers", 2)
+            .put("TradesHistory", 2)
+            .put("QueryTrades", 2)
+            .build();
+
+    @NotNull
+    private final HttpServer httpServer;
+    @NotNull
+    private final ExecutorService executorService;
+    @NotNull
+    private final String apiKey;
+    @NotNull
+    private final SecretKeySpec hmacKey;
+    @NotNull
+    private final KrakenSimulatorExchange exchange;
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final ObjectMapper objectMapper;
+    @NotNull
+    private final Map<String, Duration> latenciesByMethodNames = new ConcurrentHashMap<>();
+    /**
+     * Guarded by itself.
+     */
+    @NotNull
+    private final Map<String, List<FaultInjection>> faultInjectionsByMethodNames = new HashMap<>();
+    @NotNull
+    private final Map<String, AtomicLong> requestCountsByMethodNames = new ConcurrentHashMap<>();
+    @NotNull
+    private volatile KrakenSimulatorRateCounter rateCounter;
+    /**
+     * Guarded by this.
+     */
+    private long lastNonce;
+
+    /**
+     * @param port      0 to bind to any free port, see {@link #getBaseUrl()}
+     * @param apiSecret base64 encoded like the secrets issued by Kraken
+     */
+    public KrakenSimulator(final int port,
+                           @NotNull final String apiKey,
+                           @NotNull final String apiSecret,
+                           @NotNull final KrakenSimulatorExchange exchange,
+                           @NotNull final Clock clock,
+                           @NotNull final ObjectMapper objectMapper) {
+        this.apiKey = apiKey;
+        this.hmacKey = new SecretKeySpec(Base64.getDecoder().decode(apiSecret), HMAC_SHA512);
+        this.exchange = exchange;
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.rateCounter = new KrakenSimulatorRateCounter(DEFAULT_MAX_RATE_COUNTER,
+                DEFAULT_RATE_COUNTER_DECREASE_PER_SECOND, clock);
+        try {
+            this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (@NotNull final IOException ex) {
+            throw new UncheckedIOException("Binding of the Kraken simulator to the port " + port + " failed", ex);
+        }
+        final var threadCount = new AtomicInteger();
+        // Unbounded, hence concurrent requests are not queued behind delayed responses.
+        this.executorService = Executors.newCachedThreadPool(runnable -> {
+            final var thread = new Thread(runnable, "kraken-simulator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executorService);
+        httpServer.createContext("/", this::handle);
+    }
+
+    public void start() {
+        httpServer.start();
+        logger.info("Simulating Kraken at " + getBaseUrl());
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(STOP_DELAY_IN_SECONDS);
+        executorService.shutdownNow();
+    }
+
+    /**
+     * E.g. http://127.0.0.1:8090, to be passed to the bot as the base URL of Kraken.
+     */
+    @NotNull
+    public String getBaseUrl() {
+        final InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    @NotNull
+    public KrakenSimulatorExchange getExchange() {
+        return exchange;
+    }
+
+    /**
+     * @param methodName e.g. "Balance", or {@link #ANY_METHOD} for methods without their own latency
+     */
+    public void setLatency(@NotNull final String methodName,
+                           @NotNull final Duration latency) {
+        latenciesByMethodNames.put(methodName, latency);
+    }
+
+    /**
+     * Injects the fault into the next calls of the method.
+     *
+     * @param methodName e.g. "AddOrder", or {@link #ANY_METHOD}
+     */
+    public void injectFault(@NotNull final String methodName,
+                            @NotNull final KrakenSimulatorFault fault,
+                            final int callCount) {
+        addFaultInjection(methodName, new FaultInjection(fault, 1, callCount));
+    }
+
+    /**
+     * Injects the fault into every n-th call of the method until {@link #clearFaults()}, e.g. for a steady error rate
+     * during a load test.
+     *
+     * @param methodName e.g. "Ticker", or {@link #ANY_METHOD}
+     */
+    public void injectFaultPeriodically(@NotNull final String methodName,
+                                        @NotNull final KrakenSimulatorFault fault,
+                                        final int period) {
+        addFaultInjection(methodName, new FaultInjection(fault, period, Integer.MAX_VALUE));
+    }
+
+    public void clearFaults() {
+        synchronized (faultInjectionsByMethodNames) {
+            faultInjectionsByMethodNames.clear();
+        }
+    }
+
+    /**
+     * Replaces the call rate counter of the API key by an empty one with the given limits.
+     */
+    public void setRateLimit(final int maxCounter,
+                             final double decreasePerSecond) {
+        rateCounter = new KrakenSimulatorRateCounter(maxCounter, decreasePerSecond, clock);
+    }
+
+    /**
+     * @return count of requests of the method received so far, including the rejected ones
+     */
+    public long getRequestCount(@NotNull final String methodName) {
+        final AtomicLong requestCount = requestCountsByMethodNames.get(methodName);
+        return requestCount == null ? 0 : requestCount.get();
+    }
+
+    private void addFaultInjection(@NotNull final String methodName,
+                                   @NotNull final FaultInjection faultInjection) {
+        synchronized (faultInjectionsByMethodNames) {
+            faultInjectionsByMethodNames.computeIfAbsent(methodName, name -> new ArrayList<>()).add(faultInjection);
+        }
+    }
+
+    private void handle(@NotNull final HttpExchange httpExchange) throws IOException {
+        try {
+            final String path = httpExchange.getRequestURI().getPath();
+            final boolean isPublic = path.startsWith(PUBLIC_PATH);
+            if (!isPublic && !path.startsWith(PRIVATE_PATH)) {
+                respond(httpExchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            final String methodName = path.substring((isPublic ? PUBLIC_PATH : PRIVATE_PATH).length());
+            requestCountsByMethodNames.computeIfAbsent(methodName, name -> new AtomicLong()).incrementAndGet();
+            final String postData = new String(httpExchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            sleep(latenciesByMethodNames.getOrDefault(methodName,
+                    latenciesByMethodNames.getOrDefault(ANY_METHOD, Duration.ZERO)));
+            final KrakenSimulatorFault fault = nextFault(methodName);
+            if (fault != null) {
+                sleep(fault.getExtraLatency());
+                if (fault.getKrakenError() != null) {
+                    respondWithError(httpExchange, fault.getKrakenError());
+                    return;
+                }
+                if (fault.isRejecting()) {
+                    respond(httpExchange, fault.getHttpStatusCode(), "text/html", ("<html><body><h1>"
+                            + fault.getHttpStatusCode() + "</h1></body></html>").getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+
+            final ObjectNode result;
+            try {
+                final Map<String, String> parameters = parseParameters(httpExchange.getRequestURI().getRawQuery(),
+                        postData);
+                if (isPublic) {
+                    result = callPublicMethod(methodName, parameters);
+                } else {
+                    authenticate(httpExchange, path, postData, parameters, methodName);
+                    result = callPrivateMethod(methodName, parameters);
+                }
+            } catch (@NotNull final KrakenSimulatorException ex) {
+                respondWithError(httpExchange, ex.getMessage());
+                return;
+            }
+            final ObjectNode response = objectMapper.createObjectNode();
+            response.putArray("error");
+            response.set("result", result);
+            respond(httpExchange, 200, "application/json", objectMapper.writeValueAsBytes(response));
+        } catch (@NotNull final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    @NotNull
+    private ObjectNode callPublicMethod(@NotNull final String methodName,
+                                        @NotNull final Map<String, String> parameters) {
+        switch (methodName) {
+            case "Assets":
+                return exchange.assets();
+            case "AssetPairs":
+                return exchange.assetPairs();
+            case "Ticker":
+                return exchange.ticker(parameters);
+            default:
+                throw new KrakenSimulatorException("EGeneral:Unknown method");
+        }
+    }
+
+    @NotNull
+    private ObjectNode callPrivateMethod(@NotNull final String methodName,
+                                         @NotNull final Map<String, String> parameters) {
+        switch (methodName) {
+            case "Balance":
+                return exchange.balance();
+            case "OpenOrders":
+                return exchange.openOrders(parameters);
+            case "ClosedOrders":
+                return exchange.closedOrders(parameters);
+            case "AddOrder":
+                return exchange.addOrder(parameters);
+            default:
+                throw new KrakenSimulatorException("EGeneral:Unknown method");
+        }
+    }
+
+    /**
+     * API-Sign is the base64 encoded HMAC-SHA512 of the URI path followed by SHA256(nonce + POST data), keyed by the
+     * decoded API secret.
+     */
+    private void authenticate(@NotNull final HttpExchange httpExchange,
+                              @NotNull final String path,
+                              @NotNull final String postData,
+                              @NotNull final Map<String, String> parameters,
+                              @NotNull final String methodName) {
+        if (!apiKey.equals(httpExchange.getRequestHeaders().getFirst("API-Key"))) {
+            throw new KrakenSimulatorException("EAPI:Invalid key");
+        }
+        final String signature = httpExchange.getRequestHeaders().getFirst("API-Sign");
+        final String nonce = parameters.get("nonce");
+        if (signature == null || nonce == null || !isSignatureValid(signature, path, nonce, postData)) {
+            throw new KrakenSimulatorException("EAPI:Invalid signature");
+        }
+        acceptNonce(nonce);
+        if (!rateCounter.tryIncrease(RATE_COSTS_BY_METHOD_NAMES.getOrDefault(methodName, 1))) {
+            throw new KrakenSimulatorException("EAPI:Rate limit exceeded");
+        }
+    }
+
+    private boolean isSignatureValid(@NotNull final String signature,
+                                     @NotNull final String path,
+                                     @NotNull final String nonce,
+                                     @NotNull final String postData) {
+        final byte[] receivedSignature;
+        try {
+            receivedSignature = Base64.getDecoder().decode(signature);
+        } catch (@NotNull final IllegalArgumentException ex) {
+            return false;
+        }
+        try {
+            final byte[] nonceAndPostDataDigest = MessageDigest.getInstance("SHA-256")
+                    .digest((nonce + postData).getBytes(StandardCharsets.UTF_8));
+            final Mac mac = Mac.getInstance(HMAC_SHA512);
+            mac.init(hmacKey);
+            mac.update(path.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(mac.doFinal(nonceAndPostDataDigest), receivedSignature);
+        } catch (@NotNull final GeneralSecurityException ex) {
+            throw new IllegalStateException("Signature verification failed", ex);
+        }
+    }
+
+    private synchronized void acceptNonce(@NotNull final String nonce) {
+        final long nonceValue;
+        try {
+            nonceValue = Long.parseLong(nonce);
+        } catch (@NotNull final NumberFormatException ex) {
+            throw new KrakenSimulatorException("EAPI:Invalid nonce");
+        }
+        if (nonceValue <= lastNonce) {
+            throw new KrakenSimulatorException("EAPI:Invalid nonce");
+        }
+        lastNonce = nonceValue;
+    }
+
+    /**
+     * Each injection for the method or for all methods counts the call, the first one due wins.
+     */
+    @Nullable
+    private KrakenSimulatorFault nextFault(@NotNull final String methodName) {
+        synchronized (faultInjectionsByMethodNames) {
+            KrakenSimulatorFault fault = null;
+            for (final String name : new String[]{methodName, ANY_METHOD}) {
+                final List<FaultInjection> faultInjections = faultInjectionsByMethodNames.get(name);
+                if (faultInjections != null) {
+                    for (final FaultInjection faultInjection : faultInjections) {
+                        if (faultInjection.isDue() && fault == null) {
+                            fault = faultInjection.getFault();
+                        }
+                    }
+                    faultInjections.removeIf(FaultInjection::isExhausted);
+                }
+            }
+            return fault;
+        }
+    }
+
+    @NotNull
+    private static Map<String, String> parseParameters(@Nullable final String query,
+                                                       @NotNull final String postData) {
+        final Map<String, String> parameters = new HashMap<>();
+        for (final String encodedParameters : new String[]{query, postData}) {
+            if (encodedParameters == null) {
+                continue;
+            }
+            for (final String parameter : encodedParameters.split("&")) {
+                final int equalSignIndex = parameter.indexOf('=');
+                if (equalSignIndex > 0) {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, equalSignIndex), StandardCharsets.UTF_8),
+                            URLDecoder.decode(parameter.substring(equalSignIndex + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private void respondWithError(@NotNull final HttpExchange httpExchange,
+                                  @NotNull final String krakenError) throws IOException {
+        final ObjectNode response = objectMapper.createObjectNode();
+        response.putArray("error").add(krakenError);
+        respond(httpExchange, 200, "application/json", objectMapper.writeValueAsBytes(response));
+    }
+
+    private static void respond(@NotNull final HttpExchange httpExchange,
+                                final int statusCode,
+                                @NotNull final String contentType,
+                                @NotNull final byte[] body) throws IOException {
+        httpExchange.getResponseHeaders().set("Content-Type", contentType);
+        httpExchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream responseBody = httpExchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static void sleep(@NotNull final Duration duration) throws InterruptedException {
+        if (!duration.isZero()) {
+            Thread.sleep(duration.toMillis());
+        }
+    }
+
+    /**
+     * Guarded by the map of fault injections.
+     */
+    private static final class FaultInjection {
+
+        @NotNull
+        private final KrakenSimulatorFault fault;
+        private final int period;
+        /**
+         * {@link Integer#MAX_VALUE} for unlimited.
+         */
+        private int remainingCount;
+        private long callCount;
+
+        private FaultInjection(@NotNull final KrakenSimulatorFault fault,
+                               final int period,
+                               final int remainingCount) {
+            if (period <= 0 || remainingCount <= 0) {
+                throw new IllegalArgumentException("Period [" + period + "] and count [" + remainingCount
+                        + "] must be positive");
+            }
+            this.fault = fault;
+            this.period = period;
+            this.remainingCount = remainingCount;
+        }
+
+        /**
+         * Counts the call.
+         */
+        private boolean isDue() {
+            ++callCount;
+            if (remainingCount == 0 || callCount % period != 0) {
+                return false;
+            }
+            if (remainingCount != Integer.MAX_VALUE) {
+                --remainingCount;
+            }
+            return true;
+        }
+
+        private boolean isExhausted() {
+            return remainingCount == 0;
+        }
+
+        @NotNull
+        private KrakenSimulatorFault getFault() {
+            return fault;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.beust.jcommander.JCommander;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Runs a {@link KrakenSimulator} until the JVM is terminated, e.g. to run the bot against it with
+ * --tradingPlatformBaseUrl.
+ */
+public class KrakenSimulatorApplication {
+
+    public static void main(String[] args) {
+        final var arguments = new KrakenSimulatorArguments();
+        JCommander.newBuilder()
+                .addObject(arguments)
+                .build()
+                .parse(args);
+
+        final var objectMapper = new ObjectMapper();
+        final var exchange = new KrakenSimulatorExchange(Clock.systemUTC(), objectMapper);
+        exchange.setBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME, arguments.getEurBalance());
+        exchange.setBalance(KrakenSimulatorExchange.BASE_ASSET_NAME, arguments.getBtcBalance());
+        final var simulator = new KrakenSimulator(arguments.getPort(), arguments.getApiKey(),
+                arguments.getApiSecret(), exchange, Clock.systemUTC(), objectMapper);
+        simulator.setLatency(KrakenSimulator.ANY_METHOD, Duration.ofMillis(arguments.getLatencyInMillis()));
+        if (arguments.getUnavailableEveryNthCall() > 0) {
+            simulator.injectFaultPeriodically(KrakenSimulator.ANY_METHOD,
+                    KrakenSimulatorFault.krakenError("EService:Unavailable"), arguments.getUnavailableEveryNthCall());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close, "kraken-simulator-shutdown"));
+        simulator.start();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.beust.jcommander.Parameter;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+
+public class KrakenSimulatorArguments {
+
+    @Parameter(names = {"--port"},
+            description = "Port to listen on at the loopback address. Default value is 8090.")
+    private int port = 8090;
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--apiKey"},
+            description = "API key the bot is to use",
+            required = true)
+    private String apiKey = "";
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--apiSecret"},
+            description = "Base64 encoded API secret the bot is to use",
+            required = true)
+    private String apiSecret = "";
+
+    @Parameter(names = {"--latencyInMillis"},
+            description = "Latency in milliseconds of each response. Default value is 0.")
+    private int latencyInMillis = 0;
+
+    @Parameter(names = {"--unavailableEveryNthCall"},
+            description = "Every n-th call fails with EService:Unavailable. Default value is 0, i.e. no call fails.")
+    private int unavailableEveryNthCall = 0;
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--eurBalance"},
+            description = "Initial EUR balance. Default value is 1000.")
+    private BigDecimal eurBalance = new BigDecimal("1000");
+
+    /**
+     * Initialized to avoid nullability.
+     */
+    @NotNull
+    @Parameter(names = {"--btcBalance"},
+            description = "Initial BTC balance. Default value is 0.")
+    private BigDecimal btcBalance = BigDecimal.ZERO;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(final int port) {
+        this.port = port;
+    }
+
+    @NotNull
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(@NotNull final String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    @NotNull
+    public String getApiSecret() {
+        return apiSecret;
+    }
+
+    public void setApiSecret(@NotNull final String apiSecret) {
+        this.apiSecret = apiSecret;
+    }
+
+    public int getLatencyInMillis() {
+        return latencyInMillis;
+    }
+
+    public void setLatencyInMillis(final int latencyInMillis) {
+        this.latencyInMillis = latencyInMillis;
+    }
+
+    public int getUnavailableEveryNthCall() {
+        return unavailableEveryNthCall;
+    }
+
+    public void setUnavailableEveryNthCall(final int unavailableEveryNthCall) {
+        this.unavailableEveryNthCall = unavailableEveryNthCall;
+    }
+
+    @NotNull
+    public BigDecimal getEurBalance() {
+        return eurBalance;
+    }
+
+    public void setEurBalance(@NotNull final BigDecimal eurBalance) {
+        this.eurBalance = eurBalance;
+    }
+
+    @NotNull
+    public BigDecimal getBtcBalance() {
+        return btcBalance;
+    }
+
+    public void setBtcBalance(@NotNull final BigDecimal btcBalance) {
+        this.btcBalance = btcBalance;
+    }
+}
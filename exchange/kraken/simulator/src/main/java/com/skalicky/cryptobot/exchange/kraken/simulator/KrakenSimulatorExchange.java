@@ -0,0 +1,452 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Balances, market and orders of one Kraken account trading the only pair the bot trades, i.e. XBT/EUR. Orders are
+ * matched against the ticker, not against an order book: market orders and limit orders crossing the ticker are
+ * filled at once at the ticker, other limit orders rest until {@link #setTicker} crosses their prices. There are no
+ * fees.
+ */
+public class KrakenSimulatorExchange {
+
+    @NotNull
+    public static final String BASE_ASSET_NAME = "XXBT";
+    @NotNull
+    public static final String QUOTE_ASSET_NAME = "ZEUR";
+    @NotNull
+    public static final String PAIR_NAME = "XXBTZEUR";
+    @NotNull
+    private static final String MARKET_NAME = "XBTEUR";
+    private static final int BASE_ASSET_DECIMALS = 10;
+    private static final int QUOTE_ASSET_DECIMALS = 4;
+    private static final int PAIR_DECIMALS = 1;
+    private static final int LOT_DECIMALS = 8;
+    private static final int COST_DECIMALS = 5;
+    @NotNull
+    private static final BigDecimal ORDER_MIN = new BigDecimal("0.0001");
+    private static final int CLOSED_ORDERS_PAGE_SIZE = 50;
+    @NotNull
+    private static final Splitter COMMA_SPLITTER = Splitter.on(',').omitEmptyStrings().trimResults();
+
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final ObjectMapper objectMapper;
+    @NotNull
+    private final Map<String, BigDecimal> balancesByAssetNames = new HashMap<>();
+    @NotNull
+    private final Map<String, KrakenSimulatorOrder> openOrdersByTransactionIds = new LinkedHashMap<>();
+    @NotNull
+    private final List<KrakenSimulatorOrder> closedOrders = new ArrayList<>();
+    @NotNull
+    private BigDecimal askPrice = new BigDecimal("30000.1");
+    @NotNull
+    private BigDecimal bidPrice = new BigDecimal("30000.0");
+    private int lastOrderNumber;
+
+    public KrakenSimulatorExchange(@NotNull final Clock clock,
+                                   @NotNull final ObjectMapper objectMapper) {
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        balancesByAssetNames.put(BASE_ASSET_NAME, BigDecimal.ZERO);
+        balancesByAssetNames.put(QUOTE_ASSET_NAME, BigDecimal.ZERO);
+    }
+
+    /**
+     * Fills the resting limit orders the new prices cross at their limit prices.
+     */
+    public synchronized void setTicker(@NotNull final BigDecimal askPrice,
+                                       @NotNull final BigDecimal bidPrice) {
+        if (bidPrice.signum() <= 0 || askPrice.compareTo(bidPrice) < 0) {
+            throw new IllegalArgumentException("Ask price [" + askPrice + "] must not be lower than positive bid price ["
+                    + bidPrice + "]");
+        }
+        this.askPrice = askPrice;
+        this.bidPrice = bidPrice;
+        expireOpenOrders();
+        ImmutableList.copyOf(openOrdersByTransactionIds.values()).stream()
+                .filter(this::crossesTicker)
+                .forEach(order -> fill(order, order.getLimitPrice()));
+    }
+
+    public synchronized void setBalance(@NotNull final String assetName,
+                                        @NotNull final BigDecimal balance) {
+        checkAssetName(assetName);
+        balancesByAssetNames.put(assetName, balance);
+    }
+
+    @NotNull
+    public synchronized BigDecimal getBalance(@NotNull final String assetName) {
+        checkAssetName(assetName);
+        return balancesByAssetNames.get(assetName);
+    }
+
+    public synchronized int getOpenOrderCount() {
+        expireOpenOrders();
+        return openOrdersByTransactionIds.size();
+    }
+
+    public synchronized int getClosedOrderCount() {
+        expireOpenOrders();
+        return closedOrders.size();
+    }
+
+    @NotNull
+    ObjectNode assets() {
+        final ObjectNode result = objectMapper.createObjectNode();
+        result.putObject(BASE_ASSET_NAME).put("aclass", "currency").put("altname", "XBT")
+                .put("decimals", BASE_ASSET_DECIMALS).put("display_decimals", 5);
+        result.putObject(QUOTE_ASSET_NAME).put("aclass", "currency").put("altname", "EUR")
+                .put("decimals", QUOTE_ASSET_DECIMALS).put("display_decimals", 2);
+        return result;
+    }
+
+    @NotNull
+    ObjectNode assetPairs() {
+        final ObjectNode result = objectMapper.createObjectNode();
+        result.putObject(PAIR_NAME).put("altname", MARKET_NAME).put("wsname", "XBT/EUR")
+                .put("base", BASE_ASSET_NAME).put("quote", QUOTE_ASSET_NAME)
+                .put("pair_decimals", PAIR_DECIMALS).put("lot_decimals", LOT_DECIMALS)
+                .put("ordermin", ORDER_MIN.toPlainString());
+        return result;
+    }
+
+    @NotNull
+    synchronized ObjectNode ticker(@NotNull final Map<String, String> parameters) {
+        final List<String> pairNames = COMMA_SPLITTER.splitToList(requireParameter(parameters, "pair"));
+        pairNames.forEach(KrakenSimulatorExchange::checkPairName);
+        final ObjectNode result = objectMapper.createObjectNode();
+        final ObjectNode ticker = result.putObject(PAIR_NAME);
+        ticker.putArray("a").add(askPrice.toPlainString()).add("1").add("1.000");
+        ticker.putArray("b").add(bidPrice.toPlainString()).add("1").add("1.000");
+        ticker.putArray("c").add(bidPrice.toPlainString()).add("0.00100000");
+        return result;
+    }
+
+    @NotNull
+    synchronized ObjectNode balance() {
+        final ObjectNode result = objectMapper.createObjectNode();
+        result.put(BASE_ASSET_NAME, balancesByAssetNames.get(BASE_ASSET_NAME)
+                .setScale(BASE_ASSET_DECIMALS, RoundingMode.DOWN).toPlainString());
+        result.put(QUOTE_ASSET_NAME, balancesByAssetNames.get(QUOTE_ASSET_NAME)
+                .setScale(QUOTE_ASSET_DECIMALS, RoundingMode.DOWN).toPlainString());
+        return result;
+    }
+
+    @NotNull
+    synchronized ObjectNode openOrders(@NotNull final Map<String, String> parameters) {
+        expireOpenOrders();
+        final boolean includeTrades = Boolean.parseBoolean(parameters.get("trades"));
+        final Long userReference = parseUserReference(parameters);
+        final ObjectNode result = objectMapper.createObjectNode();
+        final ObjectNode open = result.putObject("open");
+        openOrdersByTransactionIds.values().stream()
+                .filter(order -> userReference == null || userReference.equals(order.getUserReference()))
+                .forEach(order -> open.set(order.getTransactionId(), toOrderNode(order, includeTrades)));
+        return result;
+    }
+
+    /**
+     * The newest closed orders first, filtered by close time: after "start" and not after "end".
+     */
+    @NotNull
+    synchronized ObjectNode closedOrders(@NotNull final Map<String, String> parameters) {
+        expireOpenOrders();
+        final boolean includeTrades = Boolean.parseBoolean(parameters.get("trades"));
+        final Long userReference = parseUserReference(parameters);
+        final Long startInEpochSeconds = parseLong(parameters, "start");
+        final Long endInEpochSeconds = parseLong(parameters, "end");
+        final Long offset = parseLong(parameters, "ofs");
+        final List<KrakenSimulatorOrder> matchingOrders = closedOrders.stream()
+                .filter(order -> userReference == null || userReference.equals(order.getUserReference()))
+                .filter(order -> startInEpochSeconds == null
+                        || closeEpochSecond(order) > startInEpochSeconds)
+                .filter(order -> endInEpochSeconds == null || closeEpochSecond(order) <= endInEpochSeconds)
+                .sorted(Comparator.comparing(KrakenSimulatorOrder::getCloseDateTime, Comparator.nullsFirst(
+                        Comparator.<Instant>naturalOrder()))
+                        .thenComparing(KrakenSimulatorOrder::getTransactionId).reversed())
+                .collect(Collectors.toList());
+        final ObjectNode result = objectMapper.createObjectNode();
+        final ObjectNode closed = result.putObject("closed");
+        matchingOrders.stream()
+                .skip(offset == null ? 0 : offset)
+                .limit(CLOSED_ORDERS_PAGE_SIZE)
+                .forEach(order -> closed.set(order.getTransactionId(), toOrderNode(order, includeTrades)));
+        result.put("count", matchingOrders.size());
+        return result;
+    }
+
+    @NotNull
+    synchronized ObjectNode addOrder(@NotNull final Map<String, String> parameters) {
+        expireOpenOrders();
+        checkPairName(requireParameter(parameters, "pair"));
+        final String type = requireParameter(parameters, "type");
+        if (!"buy".equals(type) && !"sell".equals(type)) {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:type");
+        }
+        final String priceOrderType = requireParameter(parameters, "ordertype");
+        final BigDecimal limitPrice;
+        if ("limit".equals(priceOrderType)) {
+            limitPrice = parseDecimal(requireParameter(parameters, "price"), "price")
+                    .setScale(PAIR_DECIMALS, RoundingMode.HALF_EVEN);
+        } else if ("market".equals(priceOrderType)) {
+            limitPrice = null;
+        } else {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:ordertype");
+        }
+        final String orderFlags = parameters.getOrDefault("oflags", "");
+        final ImmutableSet<String> orderFlagSet = ImmutableSet.copyOf(COMMA_SPLITTER.split(orderFlags));
+        final boolean isBuy = "buy".equals(type);
+        final BigDecimal fillPrice = isBuy ? askPrice : bidPrice;
+        final BigDecimal requestedVolume = parseDecimal(requireParameter(parameters, "volume"), "volume");
+        final BigDecimal volume = (orderFlagSet.contains("viqc")
+                ? requestedVolume.divide(limitPrice == null ? fillPrice : limitPrice, LOT_DECIMALS, RoundingMode.DOWN)
+                : requestedVolume).setScale(LOT_DECIMALS, RoundingMode.DOWN);
+        if (volume.compareTo(ORDER_MIN) < 0) {
+            throw new KrakenSimulatorException("EOrder:Order minimum not met");
+        }
+        checkFunds(isBuy, volume, limitPrice == null ? fillPrice : limitPrice);
+
+        final ObjectNode result = objectMapper.createObjectNode();
+        result.putObject("descr").put("order", describeOrder(type, volume, limitPrice));
+        if (Boolean.parseBoolean(parameters.get("validate"))) {
+            return result;
+        }
+
+        final Instant now = clock.instant();
+        final var order = new KrakenSimulatorOrder(String.format(Locale.ROOT, "OSIMUL-%05d-KRAKEN", ++lastOrderNumber),
+                parseUserReference(parameters), type, priceOrderType, limitPrice, volume, orderFlags, now,
+                parseExpirationDateTime(parameters.get("expiretm"), now));
+        result.putArray("txid").add(order.getTransactionId());
+        if (limitPrice == null) {
+            fill(order, fillPrice);
+        } else if (crossesTicker(order)) {
+            if (orderFlagSet.contains("post")) {
+                order.close("canceled", "Post only order", now);
+                closedOrders.add(order);
+            } else {
+                fill(order, fillPrice);
+            }
+        } else {
+            openOrdersByTransactionIds.put(order.getTransactionId(), order);
+        }
+        return result;
+    }
+
+    private boolean crossesTicker(@NotNull final KrakenSimulatorOrder order) {
+        final BigDecimal limitPrice = order.getLimitPrice();
+        return limitPrice != null && (order.isBuy() ? limitPrice.compareTo(askPrice) >= 0
+                : limitPrice.compareTo(bidPrice) <= 0);
+    }
+
+    private void fill(@NotNull final KrakenSimulatorOrder order,
+                      @NotNull final BigDecimal price) {
+        final BigDecimal cost = order.getVolume().multiply(price).setScale(COST_DECIMALS, RoundingMode.HALF_EVEN);
+        final BigDecimal signedVolume = order.isBuy() ? order.getVolume() : order.getVolume().negate();
+        final BigDecimal signedCost = order.isBuy() ? cost.negate() : cost;
+        balancesByAssetNames.merge(BASE_ASSET_NAME, signedVolume, BigDecimal::add);
+        balancesByAssetNames.merge(QUOTE_ASSET_NAME, signedCost, BigDecimal::add);
+        order.fill(price, cost, order.getTransactionId().replaceFirst("^O", "T"), clock.instant());
+        openOrdersByTransactionIds.remove(order.getTransactionId());
+        closedOrders.add(order);
+    }
+
+    /**
+     * Funds of resting orders are reserved like at Kraken.
+     */
+    private void checkFunds(final boolean isBuy,
+                            @NotNull final BigDecimal volume,
+                            @NotNull final BigDecimal price) {
+        final BigDecimal reserved = openOrdersByTransactionIds.values().stream()
+                .filter(order -> order.isBuy() == isBuy)
+                .map(order -> isBuy ? order.getVolume().multiply(order.getLimitPrice()) : order.getVolume())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        final BigDecimal needed = isBuy ? volume.multiply(price) : volume;
+        final BigDecimal balance = balancesByAssetNames.get(isBuy ? QUOTE_ASSET_NAME : BASE_ASSET_NAME);
+        if (balance.subtract(reserved).compareTo(needed) < 0) {
+            throw new KrakenSimulatorException("EOrder:Insufficient funds");
+        }
+    }
+
+    private void expireOpenOrders() {
+        final Instant now = clock.instant();
+        ImmutableList.copyOf(openOrdersByTransactionIds.values()).stream()
+                .filter(order -> order.getExpirationDateTime() != null && !order.getExpirationDateTime().isAfter(now))
+                .forEach(order -> {
+                    order.close("expired", null, order.getExpirationDateTime());
+                    openOrdersByTransactionIds.remove(order.getTransactionId());
+                    closedOrders.add(order);
+                });
+    }
+
+    @NotNull
+    private ObjectNode toOrderNode(@NotNull final KrakenSimulatorOrder order,
+                                   final boolean includeTrades) {
+        final ObjectNode node = objectMapper.createObjectNode();
+        node.putNull("refid");
+        if (order.getUserReference() != null) {
+            node.put("userref", order.getUserReference());
+        }
+        node.put("status", order.getStatus());
+        if (order.getReason() != null) {
+            node.put("reason", order.getReason());
+        }
+        node.put("opentm", toEpochSeconds(order.getOpenDateTime()));
+        if (order.getCloseDateTime() != null) {
+            node.put("closetm", toEpochSeconds(order.getCloseDateTime()));
+        }
+        node.put("starttm", 0);
+        node.put("expiretm", order.getExpirationDateTime() == null ? BigDecimal.ZERO
+                : toEpochSeconds(order.getExpirationDateTime()));
+        node.putObject("descr")
+                .put("pair", MARKET_NAME)
+                .put("type", order.getType())
+                .put("ordertype", order.getPriceOrderType())
+                .put("price", order.getLimitPrice() == null ? "0" : order.getLimitPrice().toPlainString())
+                .put("price2", "0")
+                .put("leverage", "none")
+                .put("order", describeOrder(order.getType(), order.getVolume(), order.getLimitPrice()))
+                .put("close", "");
+        node.put("vol", order.getVolume().toPlainString());
+        node.put("vol_exec", order.getExecutedVolume().setScale(LOT_DECIMALS, RoundingMode.DOWN).toPlainString());
+        node.put("cost", order.getCost().setScale(COST_DECIMALS, RoundingMode.HALF_EVEN).toPlainString());
+        node.put("fee", BigDecimal.ZERO.setScale(COST_DECIMALS, RoundingMode.HALF_EVEN).toPlainString());
+        node.put("price", order.getAveragePrice() == null ? "0" : order.getAveragePrice().toPlainString());
+        node.put("stopprice", "0");
+        node.put("limitprice", "0");
+        node.put("misc", "");
+        node.put("oflags", order.getOrderFlags());
+        if (includeTrades && order.getTradeId() != null) {
+            node.putArray("trades").add(order.getTradeId());
+        }
+        return node;
+    }
+
+    /**
+     * E.g. "buy 0.00100000 XBTEUR @ limit 30000.0".
+     */
+    @NotNull
+    private static String describeOrder(@NotNull final String type,
+                                        @NotNull final BigDecimal volume,
+                                        @Nullable final BigDecimal limitPrice) {
+        return type + " " + volume.toPlainString() + " " + MARKET_NAME + " @ "
+                + (limitPrice == null ? "market" : "limit " + limitPrice.toPlainString());
+    }
+
+    @NotNull
+    private static BigDecimal toEpochSeconds(@NotNull final Instant instant) {
+        return BigDecimal.valueOf(instant.toEpochMilli()).movePointLeft(3);
+    }
+
+    private static long closeEpochSecond(@NotNull final KrakenSimulatorOrder order) {
+        final Instant closeDateTime = order.getCloseDateTime();
+        return closeDateTime == null ? 0 : closeDateTime.getEpochSecond();
+    }
+
+    /**
+     * @param expiration "+&lt;seconds from now&gt;", "&lt;epoch seconds&gt;" or "0" for no expiration
+     */
+    @Nullable
+    private static Instant parseExpirationDateTime(@Nullable final String expiration,
+                                                   @NotNull final Instant now) {
+        if (expiration == null || "0".equals(expiration)) {
+            return null;
+        }
+        try {
+            return expiration.startsWith("+") ? now.plusSeconds(Long.parseLong(expiration.substring(1)))
+                    : Instant.ofEpochSecond(Long.parseLong(expiration));
+        } catch (@NotNull final NumberFormatException ex) {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:expiretm");
+        }
+    }
+
+    @Nullable
+    private static Long parseUserReference(@NotNull final Map<String, String> parameters) {
+        return parseLong(parameters, "userref");
+    }
+
+    @Nullable
+    private static Long parseLong(@NotNull final Map<String, String> parameters,
+                                  @NotNull final String name) {
+        final String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (@NotNull final NumberFormatException ex) {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:" + name);
+        }
+    }
+
+    @NotNull
+    private static BigDecimal parseDecimal(@NotNull final String value,
+                                           @NotNull final String name) {
+        try {
+            return new BigDecimal(value);
+        } catch (@NotNull final NumberFormatException ex) {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:" + name);
+        }
+    }
+
+    @NotNull
+    private static String requireParameter(@NotNull final Map<String, String> parameters,
+                                           @NotNull final String name) {
+        final String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new KrakenSimulatorException("EGeneral:Invalid arguments:" + name);
+        }
+        return value;
+    }
+
+    private static void checkPairName(@NotNull final String pairName) {
+        if (!PAIR_NAME.equals(pairName) && !MARKET_NAME.equals(pairName)) {
+            throw new KrakenSimulatorException("EQuery:Unknown asset pair");
+        }
+    }
+
+    private static void checkAssetName(@NotNull final String assetName) {
+        if (!BASE_ASSET_NAME.equals(assetName) && !QUOTE_ASSET_NAME.equals(assetName)) {
+            throw new IllegalArgumentException("Unsupported asset [" + assetName + "], supported are "
+                    + BASE_ASSET_NAME + " and " + QUOTE_ASSET_NAME);
+        }
+    }
+}
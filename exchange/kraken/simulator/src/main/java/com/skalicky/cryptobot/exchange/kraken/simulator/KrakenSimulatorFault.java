@@ -0,0 +1,90 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Misbehaviour of Kraken injected into responses of a {@link KrakenSimulator}.
+ */
+public final class KrakenSimulatorFault {
+
+    @Nullable
+    private final String krakenError;
+    private final int httpStatusCode;
+    @NotNull
+    private final Duration extraLatency;
+
+    private KrakenSimulatorFault(@Nullable final String krakenError,
+                                 final int httpStatusCode,
+                                 @NotNull final Duration extraLatency) {
+        this.krakenError = krakenError;
+        this.httpStatusCode = httpStatusCode;
+        this.extraLatency = extraLatency;
+    }
+
+    /**
+     * Rejects the call with the given error in a response with HTTP 200, e.g. "EService:Unavailable".
+     */
+    @NotNull
+    public static KrakenSimulatorFault krakenError(@NotNull final String krakenError) {
+        return new KrakenSimulatorFault(krakenError, 200, Duration.ZERO);
+    }
+
+    /**
+     * Rejects the call with the given HTTP status and a non-JSON body, like the proxy in front of Kraken does, e.g.
+     * with 502 or 504.
+     */
+    @NotNull
+    public static KrakenSimulatorFault httpStatus(final int httpStatusCode) {
+        if (httpStatusCode < 400 || httpStatusCode > 599) {
+            throw new IllegalArgumentException("Not an HTTP error status [" + httpStatusCode + "]");
+        }
+        return new KrakenSimulatorFault(null, httpStatusCode, Duration.ZERO);
+    }
+
+    /**
+     * Processes the call but delays its response, e.g. to shape the tail latency or to provoke a read timeout.
+     */
+    @NotNull
+    public static KrakenSimulatorFault delay(@NotNull final Duration extraLatency) {
+        return new KrakenSimulatorFault(null, 200, extraLatency);
+    }
+
+    @Nullable
+    String getKrakenError() {
+        return krakenError;
+    }
+
+    int getHttpStatusCode() {
+        return httpStatusCode;
+    }
+
+    @NotNull
+    Duration getExtraLatency() {
+        return extraLatency;
+    }
+
+    boolean isRejecting() {
+        return krakenError != null || httpStatusCode != 200;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Order placed at a {@link KrakenSimulatorExchange}. Filled at once and entirely, there are no partial fills.
+ */
+class KrakenSimulatorOrder {
+
+    @NotNull
+    private final String transactionId;
+    @Nullable
+    private final Long userReference;
+    @NotNull
+    private final String type;
+    @NotNull
+    private final String priceOrderType;
+    /**
+     * Null for market orders.
+     */
+    @Nullable
+    private final BigDecimal limitPrice;
+    @NotNull
+    private final BigDecimal volume;
+    @NotNull
+    private final String orderFlags;
+    @NotNull
+    private final Instant openDateTime;
+    @Nullable
+    private final Instant expirationDateTime;
+    @NotNull
+    private String status = "open";
+    @Nullable
+    private String reason;
+    @Nullable
+    private Instant closeDateTime;
+    @NotNull
+    private BigDecimal executedVolume = BigDecimal.ZERO;
+    @NotNull
+    private BigDecimal cost = BigDecimal.ZERO;
+    @Nullable
+    private BigDecimal averagePrice;
+    @Nullable
+    private String tradeId;
+
+    KrakenSimulatorOrder(@NotNull final String transactionId,
+                         @Nullable final Long userReference,
+                         @NotNull final String type,
+                         @NotNull final String priceOrderType,
+                         @Nullable final BigDecimal limitPrice,
+                         @NotNull final BigDecimal volume,
+                         @NotNull final String orderFlags,
+                         @NotNull final Instant openDateTime,
+                         @Nullable final Instant expirationDateTime) {
+        this.transactionId = transactionId;
+        this.userReference = userReference;
+        this.type = type;
+        this.priceOrderType = priceOrderType;
+        this.limitPrice = limitPrice;
+        this.volume = volume;
+        this.orderFlags = orderFlags;
+        this.openDateTime = openDateTime;
+        this.expirationDateTime = expirationDateTime;
+    }
+
+    void fill(@NotNull final BigDecimal price,
+              @NotNull final BigDecimal cost,
+              @NotNull final String tradeId,
+              @NotNull final Instant closeDateTime) {
+        this.executedVolume = volume;
+        this.averagePrice = price;
+        this.cost = cost;
+        this.tradeId = tradeId;
+        close("closed", null, closeDateTime);
+    }
+
+    void close(@NotNull final String status,
+               @Nullable final String reason,
+               @NotNull final Instant closeDateTime) {
+        this.status = status;
+        this.reason = reason;
+        this.closeDateTime = closeDateTime;
+    }
+
+    boolean isBuy() {
+        return "buy".equals(type);
+    }
+
+    @NotNull
+    String getTransactionId() {
+        return transactionId;
+    }
+
+    @Nullable
+    Long getUserReference() {
+        return userReference;
+    }
+
+    @NotNull
+    String getType() {
+        return type;
+    }
+
+    @NotNull
+    String getPriceOrderType() {
+        return priceOrderType;
+    }
+
+    @Nullable
+    BigDecimal getLimitPrice() {
+        return limitPrice;
+    }
+
+    @NotNull
+    BigDecimal getVolume() {
+        return volume;
+    }
+
+    @NotNull
+    String getOrderFlags() {
+        return orderFlags;
+    }
+
+    @NotNull
+    Instant getOpenDateTime() {
+        return openDateTime;
+    }
+
+    @Nullable
+    Instant getExpirationDateTime() {
+        return expirationDateTime;
+    }
+
+    @NotNull
+    String getStatus() {
+        return status;
+    }
+
+    @Nullable
+    String getReason() {
+        return reason;
+    }
+
+    @Nullable
+    Instant getCloseDateTime() {
+        return closeDateTime;
+    }
+
+    @NotNull
+    BigDecimal getExecutedVolume() {
+        return executedVolume;
+    }
+
+    @NotNull
+    BigDecimal getCost() {
+        return cost;
+    }
+
+    @Nullable
+    BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    @Nullable
+    String getTradeId() {
+        return tradeId;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Clock;
+
+/**
+ * Call rate counter of an API key as Kraken keeps it: each private call increases the counter by its cost, the counter
+ * decreases continuously over time and calls which would exceed the maximum are rejected.
+ */
+class KrakenSimulatorRateCounter {
+
+    private final int maxCounter;
+    private final double decreasePerSecond;
+    @NotNull
+    private final Clock clock;
+    private double counter;
+    private long lastUpdateInMillis;
+
+    KrakenSimulatorRateCounter(final int maxCounter,
+                               final double decreasePerSecond,
+                               @NotNull final Clock clock) {
+        if (maxCounter <= 0 || decreasePerSecond <= 0) {
+            throw new IllegalArgumentException("Max counter [" + maxCounter + "] and decrease per second ["
+                    + decreasePerSecond + "] must be positive");
+        }
+        this.maxCounter = maxCounter;
+        this.decreasePerSecond = decreasePerSecond;
+        this.clock = clock;
+        this.lastUpdateInMillis = clock.millis();
+    }
+
+    /**
+     * @return false if the call is to be rejected, then the counter is not increased
+     */
+    synchronized boolean tryIncrease(final int cost) {
+        final long nowInMillis = clock.millis();
+        counter = Math.max(0, counter - (nowInMillis - lastUpdateInMillis) / 1000.0 * decreasePerSecond);
+        lastUpdateInMillis = nowInMillis;
+        if (counter + cost > maxCounter) {
+            return false;
+        }
+        counter += cost;
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenSimulatorExchangeUTest {
+
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+    @NotNull
+    private final KrakenSimulatorExchange exchange = new KrakenSimulatorExchange(clock, new ObjectMapper());
+
+    @BeforeEach
+    public void setUp() {
+        exchange.setTicker(new BigDecimal("30000.1"), new BigDecimal("30000.0"));
+        exchange.setBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME, new BigDecimal("1000"));
+    }
+
+    @Test
+    public void test_addOrder_when_marketBuyWithVolumeInQuoteCurrency_then_filledAtAsk() {
+        // When
+        final JsonNode result = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy", "ordertype", "market",
+                "volume", "300.001", "oflags", "viqc", "userref", "7"));
+
+        // Then
+        final String transactionId = result.at("/txid/0").asText();
+        then(result.at("/descr/order").asText()).isEqualTo("buy 0.01000000 XBTEUR @ market");
+        then(exchange.getBalance(KrakenSimulatorExchange.BASE_ASSET_NAME)).isEqualByComparingTo("0.01");
+        then(exchange.getBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME)).isEqualByComparingTo("699.999");
+        final JsonNode closedOrder = exchange.closedOrders(Map.of("trades", "true")).at("/closed/" + transactionId);
+        then(closedOrder.get("status").asText()).isEqualTo("closed");
+        then(closedOrder.get("userref").asLong()).isEqualTo(7L);
+        then(closedOrder.get("vol_exec").asText()).isEqualTo("0.01000000");
+        then(closedOrder.get("price").asText()).isEqualTo("30000.1");
+        then(closedOrder.get("cost").asText()).isEqualTo("300.00100");
+        then(closedOrder.get("closetm").decimalValue()).isEqualByComparingTo("1624190400");
+        then(closedOrder.get("trades")).hasSize(1);
+    }
+
+    @Test
+    public void test_addOrder_when_limitBuyBelowAsk_then_restsUntilTickerCrossesIt() {
+        // Given
+        final String transactionId = exchange.addOrder(Map.of("pair", "XXBTZEUR", "type", "buy",
+                "ordertype", "limit", "price", "29000.0", "volume", "0.01")).at("/txid/0").asText();
+        then(exchange.openOrders(Map.of()).at("/open/" + transactionId + "/status").asText()).isEqualTo("open");
+
+        // When
+        exchange.setTicker(new BigDecimal("28999.0"), new BigDecimal("28998.0"));
+
+        // Then
+        then(exchange.getOpenOrderCount()).isZero();
+        then(exchange.closedOrders(Map.of()).at("/closed/" + transactionId + "/price").asText())
+                .isEqualTo("29000.0");
+        then(exchange.getBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME)).isEqualByComparingTo("710");
+    }
+
+    @Test
+    public void test_addOrder_when_fundsReservedByOpenOrder_then_insufficientFunds() {
+        // Given
+        exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy", "ordertype", "limit", "price", "20000",
+                "volume", "0.03"));
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> exchange.addOrder(Map.of("pair", "XBTEUR",
+                "type", "buy", "ordertype", "limit", "price", "20000", "volume", "0.03")));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(KrakenSimulatorException.class).hasMessage("EOrder:Insufficient funds");
+        then(exchange.getOpenOrderCount()).isOne();
+    }
+
+    @Test
+    public void test_addOrder_when_postOnlyCrossingTicker_then_canceled() {
+        // When
+        final String transactionId = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy",
+                "ordertype", "limit", "price", "30001", "volume", "0.01", "oflags", "post,fciq"))
+                .at("/txid/0").asText();
+
+        // Then
+        final JsonNode closedOrder = exchange.closedOrders(Map.of()).at("/closed/" + transactionId);
+        then(closedOrder.get("status").asText()).isEqualTo("canceled");
+        then(closedOrder.get("reason").asText()).isEqualTo("Post only order");
+        then(exchange.getBalance(KrakenSimulatorExchange.QUOTE_ASSET_NAME)).isEqualByComparingTo("1000");
+    }
+
+    @Test
+    public void test_addOrder_when_validateOnly_then_nothingPlaced() {
+        // Given
+        exchange.setBalance(KrakenSimulatorExchange.BASE_ASSET_NAME, BigDecimal.ONE);
+
+        // When
+        final JsonNode result = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "sell", "ordertype", "market",
+                "volume", "0.01", "validate", "true"));
+
+        // Then
+        then(result.has("txid")).isFalse();
+        then(exchange.getOpenOrderCount() + exchange.getClosedOrderCount()).isZero();
+    }
+
+    @Test
+    public void test_addOrder_when_belowOrderMinimum_then_rejected() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> exchange.addOrder(Map.of("pair", "XBTEUR",
+                "type", "buy", "ordertype", "market", "volume", "0.00009")));
+
+        // Then
+        then(caughtThrowable).hasMessage("EOrder:Order minimum not met");
+    }
+
+    @Test
+    public void test_openOrders_when_expirationPassed_then_orderExpired() {
+        // Given
+        final String transactionId = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy",
+                "ordertype", "limit", "price", "29000", "volume", "0.01", "expiretm", "+60")).at("/txid/0").asText();
+
+        // When
+        clock.advance(Duration.ofSeconds(60));
+
+        // Then
+        then(exchange.openOrders(Map.of()).get("open")).isEmpty();
+        final JsonNode closedOrder = exchange.closedOrders(Map.of()).at("/closed/" + transactionId);
+        then(closedOrder.get("status").asText()).isEqualTo("expired");
+        then(closedOrder.get("vol_exec").decimalValue()).isZero();
+    }
+
+    @Test
+    public void test_closedOrders_when_filteredByUserReferenceAndCloseTime_then_onlyMatchingOnesNewestFirst() {
+        // Given
+        exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy", "ordertype", "market", "volume", "0.001",
+                "userref", "1"));
+        clock.advance(Duration.ofSeconds(10));
+        final String secondTransactionId = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy",
+                "ordertype", "market", "volume", "0.001", "userref", "1")).at("/txid/0").asText();
+        clock.advance(Duration.ofSeconds(10));
+        final String thirdTransactionId = exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy",
+                "ordertype", "market", "volume", "0.001", "userref", "1")).at("/txid/0").asText();
+        exchange.addOrder(Map.of("pair", "XBTEUR", "type", "buy", "ordertype", "market", "volume", "0.001",
+                "userref", "2"));
+
+        // When
+        final JsonNode result = exchange.closedOrders(Map.of("userref", "1", "start", "1624190400"));
+
+        // Then
+        then(result.get("closed").fieldNames()).toIterable().containsExactly(thirdTransactionId,
+                secondTransactionId);
+        then(result.get("count").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_ticker_when_unknownPair_then_rejected() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> exchange.ticker(Map.of("pair", "ETHEUR")));
+
+        // Then
+        then(caughtThrowable).hasMessage("EQuery:Unknown asset pair");
+    }
+}
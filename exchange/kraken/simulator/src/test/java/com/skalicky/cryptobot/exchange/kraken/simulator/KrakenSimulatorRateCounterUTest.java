@@ -0,0 +1,55 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenSimulatorRateCounterUTest {
+
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+
+    @Test
+    public void test_tryIncrease_when_maxReached_then_rejectedUntilCounterDecreased() {
+        // Given
+        final var rateCounter = new KrakenSimulatorRateCounter(3, 0.5, clock);
+        then(rateCounter.tryIncrease(2)).isTrue();
+        then(rateCounter.tryIncrease(1)).isTrue();
+
+        // When
+        final boolean acceptedAtMax = rateCounter.tryIncrease(1);
+        clock.advance(Duration.ofSeconds(1));
+        final boolean acceptedAfterHalfDecrease = rateCounter.tryIncrease(1);
+        clock.advance(Duration.ofSeconds(1));
+        final boolean acceptedAfterDecrease = rateCounter.tryIncrease(1);
+
+        // Then
+        then(acceptedAtMax).isFalse();
+        then(acceptedAfterHalfDecrease).isFalse();
+        then(acceptedAfterDecrease).isTrue();
+        then(rateCounter.tryIncrease(0)).isTrue();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.kraken.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class KrakenSimulatorUTest {
+
+    @NotNull
+    private static final String API_KEY = "simulatedKey";
+    @NotNull
+    private static final String API_SECRET =
+            "kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==";
+
+    @NotNull
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @NotNull
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @NotNull
+    private final KrakenSimulator simulator = new KrakenSimulator(0, API_KEY, API_SECRET,
+            new KrakenSimulatorExchange(Clock.systemUTC(), objectMapper), Clock.systemUTC(), objectMapper);
+
+    @BeforeEach
+    public void startSimulator() {
+        simulator.start();
+    }
+
+    @AfterEach
+    public void stopSimulator() {
+        simulator.close();
+    }
+
+    @Test
+    public void test_publicMethod_when_called_then_resultServed() throws Exception {
+        // When
+        final HttpResponse<String> response = post("/0/public/Ticker", "pair=XBTEUR", null);
+
+        // Then
+        then(response.statusCode()).isEqualTo(200);
+        final JsonNode body = objectMapper.readTree(response.body());
+        then(body.get("error")).isEmpty();
+        then(body.at("/result/XXBTZEUR/a/0").asText()).isEqualTo("30000.1");
+        then(body.at("/result/XXBTZEUR/b/0").asText()).isEqualTo("30000.0");
+        then(simulator.getRequestCount("Ticker")).isOne();
+    }
+
+    @Test
+    public void test_injectFault_when_httpStatusInjectedIntoNextCall_then_onlyNextCallFails() throws Exception {
+        // Given
+        simulator.injectFault("Ticker", KrakenSimulatorFault.httpStatus(502), 1);
+
+        // When
+        final HttpResponse<String> firstResponse = post("/0/public/Ticker", "pair=XBTEUR", null);
+        final HttpResponse<String> secondResponse = post("/0/public/Ticker", "pair=XBTEUR", null);
+
+        // Then
+        then(firstResponse.statusCode()).isEqualTo(502);
+        then(firstResponse.body()).startsWith("<html>");
+        then(secondResponse.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    public void test_injectFaultPeriodically_when_anyMethod_then_everyNthCallRejected() throws Exception {
+        // Given
+        simulator.injectFaultPeriodically(KrakenSimulator.ANY_METHOD,
+                KrakenSimulatorFault.krakenError("EService:Unavailable"), 2);
+
+        // When
+        final JsonNode firstBody = objectMapper.readTree(post("/0/public/Assets", "", null).body());
+        final JsonNode secondBody = objectMapper.readTree(post("/0/public/AssetPairs", "", null).body());
+        final JsonNode thirdBody = objectMapper.readTree(post("/0/public/Ticker", "pair=XBTEUR", null).body());
+        final JsonNode fourthBody = objectMapper.readTree(post("/0/public/Ticker", "pair=XBTEUR", null).body());
+
+        // Then
+        then(firstBody.get("error")).isEmpty();
+        then(secondBody.at("/error/0").asText()).isEqualTo("EService:Unavailable");
+        then(secondBody.has("result")).isFalse();
+        then(thirdBody.get("error")).isEmpty();
+        then(fourthBody.at("/error/0").asText()).isEqualTo("EService:Unavailable");
+    }
+
+    @Test
+    public void test_setLatency_when_set_then_responseDelayed() throws Exception {
+        // Given
+        simulator.setLatency("Ticker", Duration.ofMillis(200));
+        final long startNanos = System.nanoTime();
+
+        // When
+        post("/0/public/Ticker", "pair=XBTEUR", null);
+
+        // Then
+        then(Duration.ofNanos(System.nanoTime() - startNanos)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    public void test_privateMethod_when_wrongKey_then_invalidKey() throws Exception {
+        // When
+        final JsonNode body = objectMapper.readTree(post("/0/private/Balance", "nonce=1", "otherKey").body());
+
+        // Then
+        then(body.at("/error/0").asText()).isEqualTo("EAPI:Invalid key");
+    }
+
+    @Test
+    public void test_privateMethod_when_unsigned_then_invalidSignature() throws Exception {
+        // When
+        final JsonNode body = objectMapper.readTree(post("/0/private/Balance", "nonce=1", API_KEY).body());
+
+        // Then
+        then(body.at("/error/0").asText()).isEqualTo("EAPI:Invalid signature");
+    }
+
+    @Test
+    public void test_request_when_notApiPath_then_notFound() throws Exception {
+        // When
+        final HttpResponse<String> response = post("/status", "", null);
+
+        // Then
+        then(response.statusCode()).isEqualTo(404);
+    }
+
+    @NotNull
+    private HttpResponse<String> post(@NotNull final String path,
+                                      @NotNull final String postData,
+                                      @Nullable final String apiKey)
+            throws IOException, InterruptedException {
+        final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(simulator.getBaseUrl() + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(postData));
+        if (apiKey != null) {
+            requestBuilder.header("API-Key", apiKey);
+        }
+        return httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
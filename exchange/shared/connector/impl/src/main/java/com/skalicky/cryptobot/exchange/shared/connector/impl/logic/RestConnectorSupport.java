@@ -22,6 +22,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.internal.util.collection.ImmutableMultivaluedMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -37,17 +38,33 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.net.URI;
+import java.time.Duration;
 
 public class RestConnectorSupport {
 
     @NotNull
     private static final Logger logger = LoggerFactory.getLogger(RestConnectorSupport.class);
     @NotNull
-    private static final Client client = ClientBuilder.newClient(new ClientConfig());
+    private final Client client;
     @NotNull
     private final ObjectMapper objectMapper;
 
+    /**
+     * Requests never time out.
+     */
     public RestConnectorSupport(@NotNull final ObjectMapper objectMapper) {
+        this(objectMapper, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Zero timeouts mean no timeouts.
+     */
+    public RestConnectorSupport(@NotNull final ObjectMapper objectMapper,
+                                @NotNull final Duration connectTimeout,
+                                @NotNull final Duration readTimeout) {
+        this.client = ClientBuilder.newClient(new ClientConfig()
+                .property(ClientProperties.CONNECT_TIMEOUT, Math.toIntExact(connectTimeout.toMillis()))
+                .property(ClientProperties.READ_TIMEOUT, Math.toIntExact(readTimeout.toMillis())));
         this.objectMapper = objectMapper;
     }
 
@@ -73,27 +90,42 @@ public class RestConnectorSupport {
                                                                                     @Nullable final RequestPayload requestPayload,
                                                                                     @NotNull TypeReference<ResponsePayload> responseTypeReference) {
 
-        final Response response = sendJson(httpMethod, uri, requestHeaders, requestPayload);
-        final Response.StatusType responseStatusInfo = response.getStatusInfo();
-        final String responsePayloadString = response.readEntity(String.class);
-        logRawResponse(uri, responsePayloadString);
-
-        if (responseStatusInfo.getFamily() != Response.Status.Family.SUCCESSFUL) {
-            throw new IllegalStateException("Unexpected response status code [" + responseStatusInfo.getStatusCode() + "]");
-        }
-
-        final String normalizedResponsePayloadString = normalizeResponseBodyString(responsePayloadString,
-                responseTypeReference);
-
+        final var event = new RestRequestEvent();
+        event.begin();
         try {
-            return objectMapper.readValue(normalizedResponsePayloadString,
+            final Response response = sendJson(httpMethod, uri, requestHeaders, requestPayload);
+            final Response.StatusType responseStatusInfo = response.getStatusInfo();
+            event.statusCode = responseStatusInfo.getStatusCode();
+            final String responsePayloadString = response.readEntity(String.class);
+            event.responsePayloadLength = responsePayloadString.length();
+            logRawResponse(uri, responsePayloadString);
+
+            if (responseStatusInfo.getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw new IllegalStateException("Unexpected response status code [" + responseStatusInfo.getStatusCode() + "]");
+            }
+
+            final String normalizedResponsePayloadString = normalizeResponseBodyString(responsePayloadString,
                     responseTypeReference);
 
-        } catch (@NotNull final JsonProcessingException ex) {
-            final String message = "Snapshot of data: responsePayloadString = " + responsePayloadString
-                    + ", normalizedResponseBodyString = " + normalizedResponsePayloadString + "";
-            logger.error(message);
-            throw new IllegalStateException(ex.getMessage() + " " + message, ex);
+            try {
+                final ResponsePayload responsePayload = objectMapper.readValue(normalizedResponsePayloadString,
+                        responseTypeReference);
+                event.succeeded = true;
+                return responsePayload;
+
+            } catch (@NotNull final JsonProcessingException ex) {
+                final String message = "Snapshot of data: responsePayloadString = " + responsePayloadString
+                        + ", normalizedResponseBodyString = " + normalizedResponsePayloadString + "";
+                logger.error(message);
+                throw new IllegalStateException(ex.getMessage() + " " + message, ex);
+            }
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.httpMethod = httpMethod;
+                event.host = uri.getHost();
+                event.commit();
+            }
         }
     }
 
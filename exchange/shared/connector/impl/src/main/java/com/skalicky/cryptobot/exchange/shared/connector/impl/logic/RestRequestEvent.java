@@ -0,0 +1,56 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.shared.connector.impl.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * JDK Flight Recorder event covering one request sent by {@link RestConnectorSupport}. Only the host of the URI is
+ * recorded since paths may contain secrets, e.g. the one of a Slack webhook.
+ */
+@Name("com.skalicky.cryptobot.RestRequest")
+@Label("REST Request")
+@Category({"Crypto Bot", "Exchange"})
+@Description("HTTP request accepting JSON")
+class RestRequestEvent extends Event {
+
+    @Label("HTTP Method")
+    @Nullable
+    String httpMethod;
+
+    @Label("Host")
+    @Nullable
+    String host;
+
+    @Label("Status Code")
+    @Description("0 if no response has been received")
+    int statusCode;
+
+    @Label("Response Payload Length")
+    @Description("Length of the response payload in characters")
+    long responsePayloadLength;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,80 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts decimal numbers received as text to longs scaled by a power of ten without any intermediate
+ * {@link java.math.BigDecimal}.
+ */
+public final class FixedPointUtil {
+
+    private FixedPointUtil() {
+    }
+
+    /**
+     * Parses e.g. "8903.30000" with the scale 1 to 89033. Non-zero digits beyond the scale are rejected since they
+     * would be lost.
+     */
+    public static long parse(@NotNull final CharSequence decimal, final int scale) {
+        final int length = decimal.length();
+        final boolean negative = length > 0 && decimal.charAt(0) == '-';
+        int index = negative ? 1 : 0;
+        if (index == length) {
+            throw new IllegalArgumentException("Not a decimal number [" + decimal + "]");
+        }
+        long value = 0;
+        int decimalCount = -1;
+        for (; index < length; ++index) {
+            final char character = decimal.charAt(index);
+            if (character == '.' && decimalCount < 0) {
+                decimalCount = 0;
+            } else if (character >= '0' && character <= '9') {
+                if (decimalCount < scale) {
+                    value = Math.addExact(Math.multiplyExact(value, 10), character - '0');
+                    if (decimalCount >= 0) {
+                        ++decimalCount;
+                    }
+                } else if (character != '0') {
+                    throw new IllegalArgumentException("Decimal number [" + decimal + "] has more than " + scale
+                            + " decimals");
+                }
+            } else {
+                throw new IllegalArgumentException("Not a decimal number [" + decimal + "]");
+            }
+        }
+        for (int missingDecimal = Math.max(decimalCount, 0); missingDecimal < scale; ++missingDecimal) {
+            value = Math.multiplyExact(value, 10);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Counts digits after the decimal point, e.g. 5 for "8903.30000".
+     */
+    public static int countDecimals(@NotNull final CharSequence decimal) {
+        for (int index = 0; index < decimal.length(); ++index) {
+            if (decimal.charAt(index) == '.') {
+                return decimal.length() - index - 1;
+            }
+        }
+        return 0;
+    }
+}
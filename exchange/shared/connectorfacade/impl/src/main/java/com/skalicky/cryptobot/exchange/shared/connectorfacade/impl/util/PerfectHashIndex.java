@@ -0,0 +1,169 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of values by a fixed set of string keys which is built once and looked up often, e.g. names of
+ * assets used by a trading platform.
+ * <p>
+ * Keys are mapped to slots by a perfect hash function built by the hash-and-displace method: keys are first split
+ * into small buckets and then every bucket gets a seed which places all its keys to free slots. A lookup therefore
+ * hashes the key twice and compares it with the single candidate key in its slot, there are no collision chains.
+ */
+public final class PerfectHashIndex<V> {
+    private static final int MAX_SEED = 1 << 16;
+    private static final int MAX_TABLE_SIZE_DOUBLINGS = 4;
+
+    private final int bucketMask;
+    private final int slotMask;
+    @NotNull
+    private final int[] seedsByBuckets;
+    @NotNull
+    private final String[] keysBySlots;
+    @NotNull
+    private final Object[] valuesBySlots;
+
+    public PerfectHashIndex(@NotNull final Map<String, V> valuesByKeys) {
+        final int keyCount = valuesByKeys.size();
+        final int bucketCount = ceilToPowerOfTwo(Math.max(1, keyCount / 2));
+        this.bucketMask = bucketCount - 1;
+        final var keysByBuckets = new ArrayList<List<String>>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; ++bucket) {
+            keysByBuckets.add(new ArrayList<>());
+        }
+        valuesByKeys.keySet().forEach(key -> keysByBuckets.get(hash(key, 0) & bucketMask).add(key));
+        // The largest buckets are placed first while there are still plenty of free slots.
+        final var bucketsBySizes = new ArrayList<Integer>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; ++bucket) {
+            bucketsBySizes.add(bucket);
+        }
+        bucketsBySizes.sort(Comparator.comparingInt((Integer bucket) -> keysByBuckets.get(bucket).size()).reversed());
+
+        int slotCount = ceilToPowerOfTwo(Math.max(2, 2 * keyCount));
+        int[] seeds = placeBuckets(keysByBuckets, bucketsBySizes, slotCount);
+        for (int doubling = 0; seeds == null; ++doubling) {
+            if (doubling == MAX_TABLE_SIZE_DOUBLINGS) {
+                throw new IllegalStateException("No perfect hash function found for " + keyCount + " keys");
+            }
+            slotCount *= 2;
+            seeds = placeBuckets(keysByBuckets, bucketsBySizes, slotCount);
+        }
+        this.slotMask = slotCount - 1;
+        this.seedsByBuckets = seeds;
+        this.keysBySlots = new String[slotCount];
+        this.valuesBySlots = new Object[slotCount];
+        valuesByKeys.forEach((key, value) -> {
+            final int slot = slotOf(key);
+            keysBySlots[slot] = key;
+            valuesBySlots[slot] = value;
+        });
+    }
+
+    /**
+     * @return null if there is no such key
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NotNull final String key) {
+        final int slot = slotOf(key);
+        return key.equals(keysBySlots[slot]) ? (V) valuesBySlots[slot] : null;
+    }
+
+    private int slotOf(@NotNull final String key) {
+        return hash(key, seedsByBuckets[hash(key, 0) & bucketMask]) & slotMask;
+    }
+
+    /**
+     * @return seeds by buckets, null if some bucket could not be placed
+     */
+    @Nullable
+    private int[] placeBuckets(@NotNull final List<List<String>> keysByBuckets,
+                               @NotNull final List<Integer> bucketsBySizes,
+                               final int slotCount) {
+        final int[] seeds = new int[keysByBuckets.size()];
+        final boolean[] occupiedSlots = new boolean[slotCount];
+        for (final int bucket : bucketsBySizes) {
+            final List<String> keys = keysByBuckets.get(bucket);
+            if (keys.isEmpty()) {
+                break;
+            }
+            final int[] slots = new int[keys.size()];
+            int seed = 1;
+            while (!tryPlace(keys, seed, slotCount - 1, occupiedSlots, slots)) {
+                if (++seed > MAX_SEED) {
+                    return null;
+                }
+            }
+            for (final int slot : slots) {
+                occupiedSlots[slot] = true;
+            }
+            seeds[bucket] = seed;
+        }
+        return seeds;
+    }
+
+    private static boolean tryPlace(@NotNull final List<String> keys,
+                                    final int seed,
+                                    final int slotMask,
+                                    @NotNull final boolean[] occupiedSlots,
+                                    @NotNull final int[] slots) {
+        for (int index = 0; index < keys.size(); ++index) {
+            final int slot = hash(keys.get(index), seed) & slotMask;
+            if (occupiedSlots[slot]) {
+                return false;
+            }
+            for (int previousIndex = 0; previousIndex < index; ++previousIndex) {
+                if (slots[previousIndex] == slot) {
+                    return false;
+                }
+            }
+            slots[index] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a seeded by the given seed followed by the MurmurHash3 finalizer. Unlike {@link String#hashCode()}, keys
+     * with equal hash codes (e.g. "Aa" and "BB") are still separated by some seed.
+     */
+    private static int hash(@NotNull final String key, final int seed) {
+        int hash = 0x811C9DC5 ^ seed * 0x9E3779B9;
+        for (int index = 0; index < key.length(); ++index) {
+            hash = (hash ^ key.charAt(index)) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static int ceilToPowerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
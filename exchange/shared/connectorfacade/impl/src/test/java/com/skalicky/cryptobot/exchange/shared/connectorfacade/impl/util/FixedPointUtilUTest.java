@@ -0,0 +1,52 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class FixedPointUtilUTest {
+
+    @Test
+    public void test_parse_when_trailingZerosBeyondScale_or_fewerDecimals_then_exactScaledValue() {
+        then(FixedPointUtil.parse("8903.30000", 1)).isEqualTo(89033L);
+        then(FixedPointUtil.parse("8903", 2)).isEqualTo(890300L);
+        then(FixedPointUtil.parse("0.00000500", 8)).isEqualTo(500L);
+        then(FixedPointUtil.parse("-1.5", 1)).isEqualTo(-15L);
+    }
+
+    @Test
+    public void test_parse_when_nonZeroDigitBeyondScale_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> FixedPointUtil.parse("8903.35", 1));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Decimal number [8903.35] has more than 1 decimals");
+    }
+
+    @Test
+    public void test_countDecimals_then_digitsAfterDecimalPointCounted() {
+        then(FixedPointUtil.countDecimals("0.05005")).isEqualTo(5);
+        then(FixedPointUtil.countDecimals("8903")).isEqualTo(0);
+    }
+}
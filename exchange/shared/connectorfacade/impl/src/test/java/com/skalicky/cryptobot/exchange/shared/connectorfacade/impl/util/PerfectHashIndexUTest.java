@@ -0,0 +1,65 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.shared.connectorfacade.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class PerfectHashIndexUTest {
+
+    @Test
+    public void test_get_when_manyKeys_then_everyKeyFound_and_unknownKeysNotFound() {
+        // Given
+        final var valuesByKeys = new HashMap<String, Integer>();
+        for (int index = 0; index < 1000; ++index) {
+            valuesByKeys.put("ASSET" + index, index);
+        }
+
+        // When
+        final var index = new PerfectHashIndex<>(valuesByKeys);
+
+        // Then
+        valuesByKeys.forEach((key, value) -> then(index.get(key)).isEqualTo(value));
+        then(index.get("ASSET1000")).isNull();
+        then(index.get("")).isNull();
+    }
+
+    @Test
+    public void test_get_when_keysWithEqualStringHashCodes_then_bothFound() {
+        // Given
+        // "Aa" and "BB" have the same String#hashCode().
+        final var index = new PerfectHashIndex<>(Map.of("Aa", 1, "BB", 2, "XXBT", 3, "DOT.S", 4));
+
+        // When & Then
+        then(index.get("Aa")).isEqualTo(1);
+        then(index.get("BB")).isEqualTo(2);
+        then(index.get("XXBT")).isEqualTo(3);
+        then(index.get("DOT.S")).isEqualTo(4);
+        then(index.get("XBT")).isNull();
+    }
+
+    @Test
+    public void test_get_when_noKeys_then_nothingFound() {
+        then(new PerfectHashIndex<>(Map.<String, Integer>of()).get("XXBT")).isNull();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.slack.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands messages over to a background thread which coalesces them and sends them via the delegate. Hence callers
+ * are never blocked by a slow Slack Webhook.
+ * <p>
+ * Messages are coalesced into one message until {@link #flush()} is called, the coalescing window elapses or
+ * the coalesced message would get too long. Messages which do not fit into the bounded queue are dropped.
+ */
+public class AsyncBatchingSlackFacade implements SlackFacade {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBatchingSlackFacade.class);
+    /**
+     * Slack truncates longer messages.
+     */
+    private static final int MAX_BATCH_MESSAGE_LENGTH = 4000;
+    @NotNull
+    private static final Notification BATCH_END = new Notification(null);
+    @NotNull
+    private static final Notification SHUTDOWN = new Notification(null);
+
+    @NotNull
+    private final SlackFacade delegate;
+    @NotNull
+    private final BlockingQueue<Notification> notificationQueue;
+    @NotNull
+    private final Duration coalescingWindow;
+    @NotNull
+    private final ExecutorService workerExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "slack-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean acceptingMessages = true;
+
+    public AsyncBatchingSlackFacade(@NotNull final SlackFacade delegate,
+                                    final int queueCapacity,
+                                    @NotNull final Duration coalescingWindow) {
+        if (coalescingWindow.isNegative() || coalescingWindow.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive [" + coalescingWindow + "]");
+        }
+        this.delegate = delegate;
+        this.notificationQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    public void start() {
+        workerExecutorService.execute(this::processNotifications);
+    }
+
+    @Override
+    public void sendMessage(@NotNull final String text) {
+        if (!acceptingMessages) {
+            logger.warn("Slack notifications already shut down, dropping the message [{}]", text);
+        } else if (!notificationQueue.offer(new Notification(text))) {
+            logger.warn("Slack notification queue is full, dropping the message [{}]", text);
+        }
+    }
+
+    /**
+     * Completes the current coalesced message, e.g. at the end of a run, so that it is sent without waiting for
+     * the coalescing window to elapse.
+     */
+    public void flush() {
+        // If the queue is full, the coalesced message is sent once the coalescing window elapses.
+        notificationQueue.offer(BATCH_END);
+    }
+
+    /**
+     * Stops accepting messages and waits at most the given timeout for already accepted messages to be sent.
+     */
+    public void shutdown(@NotNull final Duration timeout) {
+        acceptingMessages = false;
+        workerExecutorService.shutdown();
+        try {
+            final long deadlineInNanos = System.nanoTime() + timeout.toNanos();
+            if (!notificationQueue.offer(SHUTDOWN, timeout.toNanos(), TimeUnit.NANOSECONDS)
+                    || !workerExecutorService.awaitTermination(deadlineInNanos - System.nanoTime(),
+                    TimeUnit.NANOSECONDS)) {
+                logger.warn("Slack notifications have not been drained within [{}], {} messages dropped", timeout,
+                        notificationQueue.size());
+                workerExecutorService.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            workerExecutorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processNotifications() {
+        final var batchMessageBuilder = new StringBuilder();
+        long batchDeadlineInNanos = 0;
+        try {
+            while (true) {
+                final Notification notification;
+                if (batchMessageBuilder.length() == 0) {
+                    notification = notificationQueue.take();
+                } else {
+                    notification = notificationQueue.poll(batchDeadlineInNanos - System.nanoTime(),
+                            TimeUnit.NANOSECONDS);
+                }
+
+                if (notification == SHUTDOWN) {
+                    sendBatch(batchMessageBuilder);
+                    return;
+                } else if (notification == null || notification == BATCH_END) {
+                    sendBatch(batchMessageBuilder);
+                } else {
+                    final String text = notification.getText();
+                    if (batchMessageBuilder.length() + System.lineSeparator().length() + text.length()
+                            > MAX_BATCH_MESSAGE_LENGTH) {
+                        sendBatch(batchMessageBuilder);
+                    }
+                    if (batchMessageBuilder.length() == 0) {
+                        batchDeadlineInNanos = System.nanoTime() + coalescingWindow.toNanos();
+                    } else {
+                        batchMessageBuilder.append(System.lineSeparator());
+                    }
+                    batchMessageBuilder.append(text);
+                }
+            }
+        } catch (final InterruptedException e) {
+            logger.warn("Slack notifications interrupted, dropping the message [{}]", batchMessageBuilder);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendBatch(@NotNull final StringBuilder batchMessageBuilder) {
+        if (batchMessageBuilder.length() > 0) {
+            final String batchMessage = batchMessageBuilder.toString();
+            batchMessageBuilder.setLength(0);
+            try {
+                delegate.sendMessage(batchMessage);
+            } catch (final RuntimeException e) {
+                logger.error("Slack notification [" + batchMessage + "] could not be sent", e);
+            }
+        }
+    }
+
+    private static final class Notification {
+        @Nullable
+        private final String text;
+
+        private Notification(@Nullable final String text) {
+            this.text = text;
+        }
+
+        @NotNull
+        private String getText() {
+            if (text == null) {
+                throw new IllegalStateException("Marker notification has no text");
+            }
+            return text;
+        }
+    }
+}
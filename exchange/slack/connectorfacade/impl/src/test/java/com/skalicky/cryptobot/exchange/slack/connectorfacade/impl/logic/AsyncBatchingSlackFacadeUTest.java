@@ -0,0 +1,168 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.slack.connectorfacade.impl.logic;
+
+import com.skalicky.cryptobot.exchange.slack.connectorfacade.api.logic.SlackFacade;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.timeout;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+
+public class AsyncBatchingSlackFacadeUTest {
+
+    private static final long VERIFICATION_TIMEOUT_IN_MILLIS = 5_000;
+
+    @NotNull
+    private final SlackFacade delegate = mock(SlackFacade.class);
+    @NotNull
+    private final AsyncBatchingSlackFacade asyncBatchingSlackFacade = new AsyncBatchingSlackFacade(delegate, 10,
+            Duration.ofMinutes(1));
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        asyncBatchingSlackFacade.shutdown(Duration.ofSeconds(5));
+        verifyNoMoreInteractions(delegate);
+        reset(delegate);
+    }
+
+    @Test
+    public void test_flush_when_messagesSent_then_oneCoalescedMessageSent() {
+        // Given
+        asyncBatchingSlackFacade.start();
+
+        // When
+        asyncBatchingSlackFacade.sendMessage("Open orders on kraken: none");
+        asyncBatchingSlackFacade.sendMessage("Closed orders since 08.03. 10:30 on kraken: none");
+        asyncBatchingSlackFacade.flush();
+
+        // Then
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("Open orders on kraken: none"
+                + System.lineSeparator() + "Closed orders since 08.03. 10:30 on kraken: none");
+    }
+
+    @Test
+    public void test_sendMessage_when_coalescingWindowElapses_then_messageSentWithoutFlush() {
+        // Given
+        final var shortWindowSlackFacade = new AsyncBatchingSlackFacade(delegate, 10, Duration.ofMillis(50));
+        shortWindowSlackFacade.start();
+
+        // When
+        shortWindowSlackFacade.sendMessage("Open orders on kraken: none");
+
+        // Then
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("Open orders on kraken: none");
+
+        shortWindowSlackFacade.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void test_sendMessage_when_delegateIsSlow_then_callerIsNotBlocked() throws Exception {
+        // Given
+        final var delegateRelease = new CountDownLatch(1);
+        willAnswer(invocation -> delegateRelease.await(VERIFICATION_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS))
+                .given(delegate).sendMessage("first run");
+        asyncBatchingSlackFacade.start();
+        asyncBatchingSlackFacade.sendMessage("first run");
+        asyncBatchingSlackFacade.flush();
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("first run");
+
+        // When
+        final long startInNanos = System.nanoTime();
+        asyncBatchingSlackFacade.sendMessage("second run");
+        asyncBatchingSlackFacade.flush();
+        final long durationInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startInNanos);
+        delegateRelease.countDown();
+
+        // Then
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("second run");
+
+        then(durationInMillis).isLessThan(VERIFICATION_TIMEOUT_IN_MILLIS);
+    }
+
+    @Test
+    public void test_sendMessage_when_delegateThrowsException_then_laterMessagesStillSent() {
+        // Given
+        willThrow(new IllegalStateException("Unexpected response status code [500]"))
+                .given(delegate).sendMessage("first run");
+        asyncBatchingSlackFacade.start();
+
+        // When
+        asyncBatchingSlackFacade.sendMessage("first run");
+        asyncBatchingSlackFacade.flush();
+        asyncBatchingSlackFacade.sendMessage("second run");
+        asyncBatchingSlackFacade.flush();
+
+        // Then
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("first run");
+        verify(delegate, timeout(VERIFICATION_TIMEOUT_IN_MILLIS)).sendMessage("second run");
+    }
+
+    @Test
+    public void test_shutdown_when_messagesNotFlushed_then_messagesDrained() {
+        // Given
+        asyncBatchingSlackFacade.start();
+        asyncBatchingSlackFacade.sendMessage("Open orders on kraken: none");
+
+        // When
+        asyncBatchingSlackFacade.shutdown(Duration.ofSeconds(5));
+
+        // Then
+        verify(delegate).sendMessage("Open orders on kraken: none");
+    }
+
+    @Test
+    public void test_sendMessage_when_queueFull_then_messageDropped() {
+        // Given
+        final var smallQueueSlackFacade = new AsyncBatchingSlackFacade(delegate, 1, Duration.ofMinutes(1));
+
+        // When
+        smallQueueSlackFacade.sendMessage("accepted");
+        smallQueueSlackFacade.sendMessage("dropped");
+        smallQueueSlackFacade.start();
+        smallQueueSlackFacade.shutdown(Duration.ofSeconds(5));
+
+        // Then
+        verify(delegate).sendMessage("accepted");
+    }
+
+    @Test
+    public void test_constructor_when_zeroCoalescingWindow_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new AsyncBatchingSlackFacade(delegate, 10,
+                Duration.ZERO));
+
+        // Then
+        then(caughtThrowable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Coalescing window must be positive [PT0S]");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Any asset held on a trading platform, including those not covered by {@link CurrencyBoEnum}. Instances are
+ * interned, i.e. there is exactly one instance per label, hence they can be compared by identity and used as keys of
+ * identity-based or array-based lookups via {@link #getId()}.
+ */
+public final class AssetBo {
+    @NotNull
+    private static final ConcurrentMap<String, AssetBo> assetsByLabels = new ConcurrentHashMap<>();
+    @NotNull
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Dense and starting at 0, hence usable as an array index.
+     */
+    private final int id;
+    /**
+     * E.g. BTC, ETH or DOT.S (staked DOT).
+     */
+    @NotNull
+    private final String label;
+    /**
+     * {@link CurrencyBoEnum#OTHERS} if the asset is not a supported currency.
+     */
+    @NotNull
+    private final CurrencyBoEnum currency;
+
+    private AssetBo(final int id,
+                    @NotNull final String label) {
+        this.id = id;
+        this.label = label;
+        this.currency = CurrencyBoEnum.getByLabelOrOthers(label);
+    }
+
+    @NotNull
+    public static AssetBo valueOf(@NotNull final String label) {
+        final AssetBo asset = assetsByLabels.get(label);
+        if (asset != null) {
+            return asset;
+        }
+        return assetsByLabels.computeIfAbsent(label, l -> new AssetBo(nextId.getAndIncrement(), l));
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @NotNull
+    public String getLabel() {
+        return label;
+    }
+
+    @NotNull
+    public CurrencyBoEnum getCurrency() {
+        return currency;
+    }
+
+    @Override
+    @NotNull
+    public String toString() {
+        return label;
+    }
+}
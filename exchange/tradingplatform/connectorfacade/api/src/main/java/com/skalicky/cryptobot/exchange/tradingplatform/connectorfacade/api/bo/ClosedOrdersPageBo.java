@@ -0,0 +1,55 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+public final class ClosedOrdersPageBo {
+    @NotNull
+    private final ImmutableList<ClosedOrderBo> closedOrders;
+    /**
+     * Count of all orders matching the request, not only of those on this page.
+     */
+    private final int totalCount;
+
+    public ClosedOrdersPageBo(@NotNull final ImmutableList<ClosedOrderBo> closedOrders,
+                              final int totalCount) {
+        this.closedOrders = closedOrders;
+        this.totalCount = totalCount;
+    }
+
+    @NotNull
+    public ImmutableList<ClosedOrderBo> getClosedOrders() {
+        return closedOrders;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "ClosedOrdersPageBo{" +
+                "closedOrders=" + closedOrders +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Arithmetic of longs scaled by powers of ten. Results which do not fit into a long throw {@link ArithmeticException},
+ * results which cannot be represented exactly in the target scale are rounded half up like
+ * {@link java.math.RoundingMode#HALF_UP}.
+ */
+final class FixedPointArithmetic {
+    @NotNull
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L,
+            100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+
+    private FixedPointArithmetic() {
+    }
+
+    static void checkScale(final int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + (POWERS_OF_TEN.length - 1) + " ["
+                    + scale + "]");
+        }
+    }
+
+    static long rescale(final long scaledValue, final int fromScale, final int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(scaledValue, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        return divideHalfUp(scaledValue, POWERS_OF_TEN[fromScale - toScale]);
+    }
+
+    /**
+     * Multiplies by the ratio {@code ratioScaledValue / 10^ratioScale} keeping the scale of the value.
+     */
+    static long multiplyByRatio(final long scaledValue, final long ratioScaledValue, final int ratioScale) {
+        checkScale(ratioScale);
+        return divideHalfUp(Math.multiplyExact(scaledValue, ratioScaledValue), POWERS_OF_TEN[ratioScale]);
+    }
+
+    /**
+     * Divides the dividend in the dividend scale by the divisor in the divisor scale and returns the quotient in the
+     * result scale.
+     */
+    static long divide(final long dividend,
+                       final int dividendScale,
+                       final long divisor,
+                       final int divisorScale,
+                       final int resultScale) {
+        checkScale(resultScale);
+        final int exponent = divisorScale + resultScale - dividendScale;
+        if (exponent >= 0) {
+            return divideHalfUp(multiplyByPowerOfTen(dividend, exponent), divisor);
+        }
+        return divideHalfUp(dividend, Math.multiplyExact(divisor, POWERS_OF_TEN[-exponent]));
+    }
+
+    /**
+     * Compares integer parts first and fractional parts rescaled to the higher scale only when the integer parts are
+     * equal, hence never overflows.
+     */
+    static int compare(final long scaledValue1, final int scale1, final long scaledValue2, final int scale2) {
+        if (scale1 == scale2) {
+            return Long.compare(scaledValue1, scaledValue2);
+        }
+        final int integerPartComparison = Long.compare(scaledValue1 / POWERS_OF_TEN[scale1],
+                scaledValue2 / POWERS_OF_TEN[scale2]);
+        if (integerPartComparison != 0) {
+            return integerPartComparison;
+        }
+        final int scale = Math.max(scale1, scale2);
+        return Long.compare((scaledValue1 % POWERS_OF_TEN[scale1]) * POWERS_OF_TEN[scale - scale1],
+                (scaledValue2 % POWERS_OF_TEN[scale2]) * POWERS_OF_TEN[scale - scale2]);
+    }
+
+    @NotNull
+    static String format(final long scaledValue, final int scale) {
+        final var digits = new StringBuilder(Long.toString(Math.abs(scaledValue)));
+        if (scale > 0) {
+            while (digits.length() <= scale) {
+                digits.insert(0, '0');
+            }
+            digits.insert(digits.length() - scale, '.');
+        }
+        if (scaledValue < 0) {
+            digits.insert(0, '-');
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Multiplies in steps since the exponent may exceed the highest power of ten which fits into a long.
+     */
+    private static long multiplyByPowerOfTen(final long value, final int exponent) {
+        long result = value;
+        for (int remainingExponent = exponent; remainingExponent > 0; remainingExponent -= POWERS_OF_TEN.length - 1) {
+            result = Math.multiplyExact(result,
+                    POWERS_OF_TEN[Math.min(remainingExponent, POWERS_OF_TEN.length - 1)]);
+        }
+        return result;
+    }
+
+    private static long divideHalfUp(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        final long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            return (dividend < 0) == (divisor < 0) ? quotient + 1 : quotient - 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link TickerBo} with fixed-point prices.
+ */
+public final class FixedPointTickerBo {
+    @NotNull
+    private final String tickerName;
+    @NotNull
+    private final PriceBo askPrice;
+    @NotNull
+    private final PriceBo bidPrice;
+
+    public FixedPointTickerBo(@NotNull final String tickerName,
+                              @NotNull final PriceBo askPrice,
+                              @NotNull final PriceBo bidPrice) {
+        this.tickerName = tickerName;
+        this.askPrice = askPrice;
+        this.bidPrice = bidPrice;
+    }
+
+    @NotNull
+    public static FixedPointTickerBo valueOf(@NotNull final TickerBo ticker) {
+        return new FixedPointTickerBo(ticker.getTickerName(), PriceBo.valueOf(ticker.getAskPrice()),
+                PriceBo.valueOf(ticker.getBidPrice()));
+    }
+
+    @NotNull
+    public String getTickerName() {
+        return tickerName;
+    }
+
+    @NotNull
+    public PriceBo getAskPrice() {
+        return askPrice;
+    }
+
+    @NotNull
+    public PriceBo getBidPrice() {
+        return bidPrice;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "FixedPointTickerBo{" +
+                "marketName='" + tickerName + '\'' +
+                ", askPrice=" + askPrice +
+                ", bidPrice=" + bidPrice +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of a level-2 order book. Prices and volumes are longs scaled by {@code 10^priceScale} and
+ * {@code 10^volumeScale} respectively, e.g. the price 8903.3 with the price scale 1 is kept as 89033. Levels are kept
+ * in primitive arrays, hence queries do not allocate any objects.
+ * <p>
+ * Asks are sorted ascending and bids descending by price, i.e. the level 0 is the best one on both sides.
+ */
+public final class OrderBookBo {
+    private static final long BASIS_POINTS_PER_UNIT = 10_000L;
+
+    private final int priceScale;
+    private final int volumeScale;
+    @NotNull
+    private final long[] askPrices;
+    @NotNull
+    private final long[] askVolumes;
+    @NotNull
+    private final long[] bidPrices;
+    @NotNull
+    private final long[] bidVolumes;
+
+    /**
+     * The arrays are copied, hence changing them later does not change the book.
+     */
+    public OrderBookBo(final int priceScale,
+                       final int volumeScale,
+                       @NotNull final long[] askPrices,
+                       @NotNull final long[] askVolumes,
+                       @NotNull final long[] bidPrices,
+                       @NotNull final long[] bidVolumes) {
+        if (priceScale < 0 || volumeScale < 0) {
+            throw new IllegalArgumentException("Scales must not be negative [" + priceScale + ", " + volumeScale + "]");
+        }
+        if (askPrices.length != askVolumes.length || bidPrices.length != bidVolumes.length) {
+            throw new IllegalArgumentException("Each price level needs a price and a volume");
+        }
+        this.priceScale = priceScale;
+        this.volumeScale = volumeScale;
+        this.askPrices = askPrices.clone();
+        this.askVolumes = askVolumes.clone();
+        this.bidPrices = bidPrices.clone();
+        this.bidVolumes = bidVolumes.clone();
+    }
+
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    public int getVolumeScale() {
+        return volumeScale;
+    }
+
+    public int getAskCount() {
+        return askPrices.length;
+    }
+
+    public int getBidCount() {
+        return bidPrices.length;
+    }
+
+    public long getAskPrice(final int level) {
+        return askPrices[level];
+    }
+
+    public long getAskVolume(final int level) {
+        return askVolumes[level];
+    }
+
+    public long getBidPrice(final int level) {
+        return bidPrices[level];
+    }
+
+    public long getBidVolume(final int level) {
+        return bidVolumes[level];
+    }
+
+    /**
+     * Sums the bid volume offered at prices not lower than the best bid price decreased by the given basis points, e.g.
+     * 50 basis points means within 0.5 % of the best bid price.
+     */
+    public long getBidVolumeWithinBasisPointsOfBestBid(final long basisPoints) {
+        if (bidPrices.length == 0) {
+            return 0;
+        }
+        final long minPrice = bidPrices[0] - bidPrices[0] * basisPoints / BASIS_POINTS_PER_UNIT;
+        long volume = 0;
+        for (int level = 0; level < bidPrices.length && bidPrices[level] >= minPrice; ++level) {
+            volume += bidVolumes[level];
+        }
+        return volume;
+    }
+
+    /**
+     * Sums the ask volume offered at prices not higher than the best bid price increased by the given basis points,
+     * i.e. the volume which can be bought for at most the given premium over the best bid price.
+     */
+    public long getAskVolumeWithinBasisPointsOfBestBid(final long basisPoints) {
+        if (bidPrices.length == 0) {
+            return 0;
+        }
+        final long maxPrice = bidPrices[0] + bidPrices[0] * basisPoints / BASIS_POINTS_PER_UNIT;
+        long volume = 0;
+        for (int level = 0; level < askPrices.length && askPrices[level] <= maxPrice; ++level) {
+            volume += askVolumes[level];
+        }
+        return volume;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "OrderBookBo{" +
+                "priceScale=" + priceScale +
+                ", volumeScale=" + volumeScale +
+                ", asks=" + Arrays.toString(askPrices) +
+                ", bids=" + Arrays.toString(bidPrices) +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Price of 1 unit of the quote currency in the base currency, e.g. 8903.3 EUR per 1 BTC. The price is kept as a long
+ * scaled by {@code 10^scale}, hence 8903.3 with the scale 1 is kept as 89033 and comparing or rescaling prices does not
+ * allocate any {@link BigDecimal}.
+ * <p>
+ * Like {@link BigDecimal}, {@link #equals(Object)} takes the scale into account whereas {@link #compareTo(PriceBo)}
+ * compares numeric values only.
+ */
+public final class PriceBo implements Comparable<PriceBo> {
+    private final long scaledValue;
+    private final int scale;
+
+    public PriceBo(final long scaledValue, final int scale) {
+        FixedPointArithmetic.checkScale(scale);
+        this.scaledValue = scaledValue;
+        this.scale = scale;
+    }
+
+    /**
+     * Exact conversion keeping the scale of the given value, e.g. 8903.30 is converted to 890330 with the scale 2.
+     */
+    @NotNull
+    public static PriceBo valueOf(@NotNull final BigDecimal value) {
+        final BigDecimal nonNegativeScaleValue = value.scale() < 0 ? value.setScale(0, RoundingMode.UNNECESSARY) : value;
+        return new PriceBo(nonNegativeScaleValue.unscaledValue().longValueExact(), nonNegativeScaleValue.scale());
+    }
+
+    public long getScaledValue() {
+        return scaledValue;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Rounds half up when decreasing the scale.
+     */
+    @NotNull
+    public PriceBo withScale(final int newScale) {
+        FixedPointArithmetic.checkScale(newScale);
+        return new PriceBo(FixedPointArithmetic.rescale(scaledValue, scale, newScale), newScale);
+    }
+
+    /**
+     * Multiplies by the ratio {@code ratioScaledValue / 10^ratioScale}, e.g. by 0.99 given as 99 with the ratio scale
+     * 2. The scale is kept and the result is rounded half up.
+     */
+    @NotNull
+    public PriceBo multiplyByRatio(final long ratioScaledValue, final int ratioScale) {
+        return new PriceBo(FixedPointArithmetic.multiplyByRatio(scaledValue, ratioScaledValue, ratioScale), scale);
+    }
+
+    @NotNull
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(scaledValue, scale);
+    }
+
+    @Override
+    public int compareTo(@NotNull final PriceBo other) {
+        return FixedPointArithmetic.compare(scaledValue, scale, other.scaledValue, other.scale);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(scaledValue) + scale;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (PriceBo) o;
+        return scaledValue == that.scaledValue && scale == that.scale;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return FixedPointArithmetic.format(scaledValue, scale);
+    }
+}
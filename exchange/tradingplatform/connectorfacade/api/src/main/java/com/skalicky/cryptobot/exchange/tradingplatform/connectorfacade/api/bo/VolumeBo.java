@@ -0,0 +1,120 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Volume of a currency kept as a long scaled by {@code 10^scale}, e.g. 8903.3 with the scale 1 is kept as 89033. Unlike
+ * {@link BigDecimal}, arithmetic does not allocate anything but the result.
+ * <p>
+ * Like {@link BigDecimal}, {@link #equals(Object)} takes the scale into account whereas {@link #compareTo(VolumeBo)}
+ * compares numeric values only.
+ */
+public final class VolumeBo implements Comparable<VolumeBo> {
+    private final long scaledValue;
+    private final int scale;
+
+    public VolumeBo(final long scaledValue, final int scale) {
+        FixedPointArithmetic.checkScale(scale);
+        this.scaledValue = scaledValue;
+        this.scale = scale;
+    }
+
+    /**
+     * Exact conversion keeping the scale of the given value, e.g. 8903.30 is converted to 890330 with the scale 2.
+     */
+    @NotNull
+    public static VolumeBo valueOf(@NotNull final BigDecimal value) {
+        final BigDecimal nonNegativeScaleValue = value.scale() < 0 ? value.setScale(0, RoundingMode.UNNECESSARY) : value;
+        return new VolumeBo(nonNegativeScaleValue.unscaledValue().longValueExact(), nonNegativeScaleValue.scale());
+    }
+
+    public long getScaledValue() {
+        return scaledValue;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Rounds half up when decreasing the scale.
+     */
+    @NotNull
+    public VolumeBo withScale(final int newScale) {
+        FixedPointArithmetic.checkScale(newScale);
+        return new VolumeBo(FixedPointArithmetic.rescale(scaledValue, scale, newScale), newScale);
+    }
+
+    /**
+     * Multiplies by the ratio {@code ratioScaledValue / 10^ratioScale}, e.g. by 0.99 given as 99 with the ratio scale
+     * 2. The scale is kept and the result is rounded half up.
+     */
+    @NotNull
+    public VolumeBo multiplyByRatio(final long ratioScaledValue, final int ratioScale) {
+        return new VolumeBo(FixedPointArithmetic.multiplyByRatio(scaledValue, ratioScaledValue, ratioScale), scale);
+    }
+
+    /**
+     * Converts this volume in the base currency to the volume in the quote currency purchasable for the given price.
+     * The result is rounded half up to the given scale.
+     */
+    @NotNull
+    public VolumeBo divide(@NotNull final PriceBo price, final int resultScale) {
+        return new VolumeBo(FixedPointArithmetic.divide(scaledValue, scale, price.getScaledValue(), price.getScale(),
+                resultScale), resultScale);
+    }
+
+    @NotNull
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(scaledValue, scale);
+    }
+
+    @Override
+    public int compareTo(@NotNull final VolumeBo other) {
+        return FixedPointArithmetic.compare(scaledValue, scale, other.scaledValue, other.scale);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(scaledValue) + scale;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final var that = (VolumeBo) o;
+        return scaledValue == that.scaledValue && scale == that.scale;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return FixedPointArithmetic.format(scaledValue, scale);
+    }
+}
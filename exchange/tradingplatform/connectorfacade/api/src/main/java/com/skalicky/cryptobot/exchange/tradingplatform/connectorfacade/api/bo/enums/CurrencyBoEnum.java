@@ -59,4 +59,12 @@ public enum CurrencyBoEnum {
             throw new IllegalArgumentException("Unsupported label [" + label + "]");
         }
     }
+
+    /**
+     * @return {@link #OTHERS} if the label does not belong to any supported currency
+     */
+    @NotNull
+    public static CurrencyBoEnum getByLabelOrOthers(@Nullable final String label) {
+        return enumValuesByLabels.getOrDefault(label, OTHERS);
+    }
 }
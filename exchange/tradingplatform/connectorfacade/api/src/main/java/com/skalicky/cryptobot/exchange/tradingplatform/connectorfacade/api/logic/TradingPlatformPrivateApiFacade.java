@@ -20,7 +20,9 @@ package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logi
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
@@ -40,9 +42,28 @@ public interface TradingPlatformPrivateApiFacade extends TradingPlatformDesignat
     ImmutableList<ClosedOrderBo> getClosedOrders(boolean includeTrades,
                                                  @NotNull LocalDateTime from);
 
+    /**
+     * Retrieves one page of orders closed between the given date-times. The first page starts at the offset 0, the
+     * following ones at the offset increased by the size of the preceding pages.
+     */
+    @NotNull
+    ClosedOrdersPageBo getClosedOrdersPage(boolean includeTrades,
+                                           @NotNull LocalDateTime from,
+                                           @NotNull LocalDateTime to,
+                                           int offset);
+
+    /**
+     * Balances of supported currencies only, see {@link #getAssetBalances()} for all assets.
+     */
     @NotNull
     ImmutableMap<CurrencyBoEnum, BigDecimal> getAccountBalance();
 
+    /**
+     * Balances of all assets held, including those which are not supported currencies.
+     */
+    @NotNull
+    ImmutableMap<AssetBo, BigDecimal> getAssetBalances();
+
     void placeOrder(@NotNull OrderTypeBoEnum orderType,
                     @NotNull PriceOrderTypeBoEnum priceOrderType,
                     @NotNull CurrencyPairBo currencyPair,
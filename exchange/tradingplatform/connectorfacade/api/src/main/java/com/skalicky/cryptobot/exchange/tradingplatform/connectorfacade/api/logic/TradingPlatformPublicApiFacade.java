@@ -18,12 +18,50 @@
 
 package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic;
 
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.FixedPointTickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
 import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
 import org.jetbrains.annotations.NotNull;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+
 public interface TradingPlatformPublicApiFacade extends TradingPlatformDesignated {
 
     @NotNull
     TickerBo getTicker(@NotNull CurrencyPairBo currencyPair);
+
+    /**
+     * Variant of {@link #getTicker(CurrencyPairBo)} with fixed-point prices. Implementations are supposed to convert
+     * prices directly from the data received from the trading platform, the default one converts the result of
+     * {@link #getTicker(CurrencyPairBo)}.
+     */
+    @NotNull
+    default FixedPointTickerBo getFixedPointTicker(@NotNull final CurrencyPairBo currencyPair) {
+        return FixedPointTickerBo.valueOf(getTicker(currencyPair));
+    }
+
+    /**
+     * Retrieves tickers of all given currency pairs at once.
+     */
+    @NotNull
+    ImmutableMap<CurrencyPairBo, TickerBo> getTickers(@NotNull Collection<CurrencyPairBo> currencyPairs);
+
+    /**
+     * Retrieves prices of all given assets in the reporting asset at once. The price of an asset is the best bid of
+     * its market to the reporting asset or, if there is only the opposite market, the inverse of its best ask. Assets
+     * without any such market are left out, the reporting asset itself has the price 1.
+     */
+    @NotNull
+    ImmutableMap<AssetBo, BigDecimal> getAssetPrices(@NotNull Collection<AssetBo> assets,
+                                                     @NotNull AssetBo reportingAsset);
+
+    /**
+     * Retrieves at most the given count of best price levels per side of the order book.
+     */
+    @NotNull
+    OrderBookBo getOrderBook(@NotNull CurrencyPairBo currencyPair, int depth);
 }
@@ -0,0 +1,68 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class OrderBookBoUTest {
+
+    @Test
+    public void test_getBidVolumeWithinBasisPointsOfBestBid_when_levelsInsideAndOutside_then_onlyInsideLevelsSummed() {
+        // Given
+        final var orderBook = new OrderBookBo(0, 0, new long[]{10_050, 10_051}, new long[]{8, 16},
+                new long[]{10_000, 9_950, 9_949}, new long[]{1, 2, 4});
+
+        // When
+        final long bidVolume = orderBook.getBidVolumeWithinBasisPointsOfBestBid(50);
+        final long askVolume = orderBook.getAskVolumeWithinBasisPointsOfBestBid(50);
+
+        // Then
+        then(bidVolume).isEqualTo(3);
+        then(askVolume).isEqualTo(8);
+    }
+
+    @Test
+    public void test_constructor_when_givenArraysChangedAfterwards_then_bookUnchanged() {
+        // Given
+        final long[] askPrices = {89033};
+        final long[] bidVolumes = {500};
+        final var orderBook = new OrderBookBo(1, 8, askPrices, new long[]{200}, new long[]{89024}, bidVolumes);
+
+        // When
+        askPrices[0] = 89040;
+        bidVolumes[0] = 0;
+
+        // Then
+        then(orderBook.getAskPrice(0)).isEqualTo(89033);
+        then(orderBook.getBidVolume(0)).isEqualTo(500);
+    }
+
+    @Test
+    public void test_constructor_when_priceWithoutVolume_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new OrderBookBo(1, 8, new long[]{89033}, new long[0],
+                new long[0], new long[0]));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class PriceBoUTest {
+
+    @Test
+    public void test_valueOf_when_bigDecimal_then_exactConversion_and_scaleKept() {
+        // When
+        final PriceBo actual = PriceBo.valueOf(new BigDecimal("8903.30"));
+
+        // Then
+        then(actual.getScaledValue()).isEqualTo(890330L);
+        then(actual.getScale()).isEqualTo(2);
+        then(actual.toBigDecimal()).isEqualTo(new BigDecimal("8903.30"));
+        then(actual).hasToString("8903.30");
+    }
+
+    @Test
+    public void test_multiplyByRatio_when_bidDecreasedByOffset_then_sameResultAsBigDecimalRoundedHalfUp() {
+        // Given
+        final var bidPrice = new BigDecimal("8902.4");
+        final var offsetRatio = new BigDecimal("0.013");
+
+        // When
+        final PriceBo actual = PriceBo.valueOf(bidPrice).multiplyByRatio(1000 - 13, 3);
+
+        // Then
+        then(actual.toBigDecimal()).isEqualTo(bidPrice.multiply(BigDecimal.ONE.subtract(offsetRatio))
+                .setScale(1, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void test_compareTo_and_equals_when_sameValueInDifferentScales_then_equalNumerically_but_notEqual() {
+        // Given
+        final var price1 = new PriceBo(89033L, 1);
+        final var price2 = new PriceBo(890330L, 2);
+
+        // Then
+        then(price1.compareTo(price2)).isZero();
+        then(price1).isNotEqualTo(price2);
+        then(price2.withScale(1)).isEqualTo(price1);
+        then(new PriceBo(89035L, 2).withScale(1)).isEqualTo(new PriceBo(8904L, 1));
+    }
+
+    @Test
+    public void test_compareTo_when_rescalingWouldOverflow_then_comparedWithoutException() {
+        // Given
+        final var hugePrice = new PriceBo(Long.MAX_VALUE, 0);
+        final var smallPrice = new PriceBo(1L, 18);
+
+        // Then
+        then(hugePrice.compareTo(smallPrice)).isPositive();
+        then(smallPrice.compareTo(hugePrice)).isNegative();
+        then(new PriceBo(-15L, 1).compareTo(new PriceBo(-1_400_000_000_000_000_000L, 18))).isNegative();
+        then(new PriceBo(-5L, 1).compareTo(new PriceBo(300_000_000_000_000_000L, 18))).isNegative();
+    }
+
+    @Test
+    public void test_valueOf_when_tooManyDigits_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> PriceBo.valueOf(new BigDecimal("1e19").add(new BigDecimal("0.1"))));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(ArithmeticException.class);
+    }
+}
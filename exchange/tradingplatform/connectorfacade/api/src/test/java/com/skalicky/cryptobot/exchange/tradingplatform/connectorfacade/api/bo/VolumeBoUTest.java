@@ -0,0 +1,80 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class VolumeBoUTest {
+
+    @Test
+    public void test_divide_when_volumeInBaseCurrencyDividedByPrice_then_sameResultAsBigDecimalRoundedHalfUp() {
+        // Given
+        final var volumeInBaseCurrency = new BigDecimal("25.50");
+        final var price = new BigDecimal("8786.7");
+
+        // When
+        final VolumeBo actual = VolumeBo.valueOf(volumeInBaseCurrency).divide(PriceBo.valueOf(price), 10);
+
+        // Then
+        then(actual.getScale()).isEqualTo(10);
+        then(actual.toBigDecimal()).isEqualTo(volumeInBaseCurrency.divide(price, 10, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void test_divide_when_resultScaleLowerThanInputScales_then_roundedHalfUp() {
+        // When
+        final VolumeBo actual = new VolumeBo(-5L, 0).divide(new PriceBo(20L, 1), 0);
+
+        // Then
+        then(actual).isEqualTo(new VolumeBo(-3L, 0));
+    }
+
+    @Test
+    public void test_divide_when_scaleExponentAbove18_and_zeroDividend_then_zero() {
+        // When
+        final VolumeBo actual = new VolumeBo(0L, 0).divide(new PriceBo(1L, 18), 18);
+
+        // Then
+        then(actual).isEqualTo(new VolumeBo(0L, 18));
+    }
+
+    @Test
+    public void test_divide_when_scaleExponentAbove18_and_resultOverflows_then_arithmeticException() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new VolumeBo(1L, 0).divide(new PriceBo(1L, 18), 18));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void test_multiplyByRatio_when_volumeMultiplied_then_scaleKept() {
+        // When
+        final VolumeBo actual = new VolumeBo(2550L, 2).multiplyByRatio(15L, 1);
+
+        // Then
+        then(actual).isEqualTo(new VolumeBo(3825L, 2));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter;
+
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.StoredClosedOrderDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+
+public final class ClosedOrderBoToStoredClosedOrderDtoConverter implements NonnullConverter<ClosedOrderBo, StoredClosedOrderDto> {
+
+    @Override
+    @NotNull
+    public StoredClosedOrderDto convert(@NotNull final ClosedOrderBo closedOrder) {
+        final var dto = new StoredClosedOrderDto();
+        dto.setOrderId(closedOrder.getOrderId());
+        dto.setOrderType(closedOrder.getOrderType().name());
+        dto.setPriceOrderType(closedOrder.getPriceOrderType().name());
+        dto.setQuoteCurrency(closedOrder.getCurrencyPair().getQuoteCurrency().name());
+        dto.setBaseCurrency(closedOrder.getCurrencyPair().getBaseCurrency().name());
+        dto.setDesiredVolumeInQuoteCurrency(closedOrder.getDesiredVolumeInQuoteCurrency());
+        dto.setDesiredPrice(closedOrder.getDesiredPrice());
+        dto.setOpenDateTime(closedOrder.getOpenDateTime());
+        dto.setCloseDateTime(closedOrder.getCloseDateTime());
+        dto.setStatus(closedOrder.getStatus().name());
+        dto.setTotalExecutedVolumeInQuoteCurrency(closedOrder.getTotalExecutedVolumeInQuoteCurrency());
+        dto.setAverageActualPrice(closedOrder.getAverageActualPrice());
+        dto.setActualFeeInQuoteCurrency(closedOrder.getActualFeeInQuoteCurrency());
+        dto.setTradeIds(new ArrayList<>(closedOrder.getTradeIds()));
+        return dto;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderStateBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.PriceOrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.StoredClosedOrderDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+public final class StoredClosedOrderDtoToClosedOrderBoConverter implements NonnullConverter<StoredClosedOrderDto, ClosedOrderBo> {
+
+    @Override
+    @NotNull
+    public ClosedOrderBo convert(@NotNull final StoredClosedOrderDto inputOrder) {
+        Objects.requireNonNull(inputOrder.getOrderId());
+        Objects.requireNonNull(inputOrder.getOrderType());
+        Objects.requireNonNull(inputOrder.getPriceOrderType());
+        Objects.requireNonNull(inputOrder.getQuoteCurrency());
+        Objects.requireNonNull(inputOrder.getBaseCurrency());
+        Objects.requireNonNull(inputOrder.getDesiredVolumeInQuoteCurrency());
+        Objects.requireNonNull(inputOrder.getOpenDateTime());
+        Objects.requireNonNull(inputOrder.getCloseDateTime());
+        Objects.requireNonNull(inputOrder.getStatus());
+        Objects.requireNonNull(inputOrder.getTotalExecutedVolumeInQuoteCurrency());
+        Objects.requireNonNull(inputOrder.getAverageActualPrice());
+        Objects.requireNonNull(inputOrder.getActualFeeInQuoteCurrency());
+        final ImmutableList<String> outputTrades = inputOrder.getTradeIds() == null
+                ? ImmutableList.of() : ImmutableList.copyOf(inputOrder.getTradeIds());
+
+        return new ClosedOrderBo(
+                inputOrder.getOrderId(),
+                OrderTypeBoEnum.valueOf(inputOrder.getOrderType()),
+                PriceOrderTypeBoEnum.valueOf(inputOrder.getPriceOrderType()),
+                new CurrencyPairBo(CurrencyBoEnum.valueOf(inputOrder.getQuoteCurrency()),
+                        CurrencyBoEnum.valueOf(inputOrder.getBaseCurrency())),
+                inputOrder.getDesiredVolumeInQuoteCurrency(),
+                inputOrder.getDesiredPrice(),
+                inputOrder.getOpenDateTime(),
+                inputOrder.getCloseDateTime(),
+                OrderStateBoEnum.valueOf(inputOrder.getStatus()),
+                inputOrder.getTotalExecutedVolumeInQuoteCurrency(),
+                inputOrder.getAverageActualPrice(),
+                inputOrder.getActualFeeInQuoteCurrency(),
+                outputTrades
+        );
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+
+public class ClosedOrderBackfillCheckpointDto {
+    @Nullable
+    private LocalDateTime from;
+    @Nullable
+    private LocalDateTime to;
+    private int totalCount;
+    private int pageSize;
+
+    @Nullable
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(@Nullable final LocalDateTime from) {
+        this.from = from;
+    }
+
+    @Nullable
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(@Nullable final LocalDateTime to) {
+        this.to = to;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(final int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(final int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StoredClosedOrderDto {
+    @Nullable
+    private String orderId;
+    @Nullable
+    private String orderType;
+    @Nullable
+    private String priceOrderType;
+    @Nullable
+    private String quoteCurrency;
+    @Nullable
+    private String baseCurrency;
+    @Nullable
+    private BigDecimal desiredVolumeInQuoteCurrency;
+    @Nullable
+    private BigDecimal desiredPrice;
+    @Nullable
+    private LocalDateTime openDateTime;
+    @Nullable
+    private LocalDateTime closeDateTime;
+    @Nullable
+    private String status;
+    @Nullable
+    private BigDecimal totalExecutedVolumeInQuoteCurrency;
+    @Nullable
+    private BigDecimal averageActualPrice;
+    @Nullable
+    private BigDecimal actualFeeInQuoteCurrency;
+    @Nullable
+    private List<String> tradeIds;
+
+    @Nullable
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(@Nullable final String orderId) {
+        this.orderId = orderId;
+    }
+
+    @Nullable
+    public String getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(@Nullable final String orderType) {
+        this.orderType = orderType;
+    }
+
+    @Nullable
+    public String getPriceOrderType() {
+        return priceOrderType;
+    }
+
+    public void setPriceOrderType(@Nullable final String priceOrderType) {
+        this.priceOrderType = priceOrderType;
+    }
+
+    @Nullable
+    public String getQuoteCurrency() {
+        return quoteCurrency;
+    }
+
+    public void setQuoteCurrency(@Nullable final String quoteCurrency) {
+        this.quoteCurrency = quoteCurrency;
+    }
+
+    @Nullable
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(@Nullable final String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    @Nullable
+    public BigDecimal getDesiredVolumeInQuoteCurrency() {
+        return desiredVolumeInQuoteCurrency;
+    }
+
+    public void setDesiredVolumeInQuoteCurrency(@Nullable final BigDecimal desiredVolumeInQuoteCurrency) {
+        this.desiredVolumeInQuoteCurrency = desiredVolumeInQuoteCurrency;
+    }
+
+    @Nullable
+    public BigDecimal getDesiredPrice() {
+        return desiredPrice;
+    }
+
+    public void setDesiredPrice(@Nullable final BigDecimal desiredPrice) {
+        this.desiredPrice = desiredPrice;
+    }
+
+    @Nullable
+    public LocalDateTime getOpenDateTime() {
+        return openDateTime;
+    }
+
+    public void setOpenDateTime(@Nullable final LocalDateTime openDateTime) {
+        this.openDateTime = openDateTime;
+    }
+
+    @Nullable
+    public LocalDateTime getCloseDateTime() {
+        return closeDateTime;
+    }
+
+    public void setCloseDateTime(@Nullable final LocalDateTime closeDateTime) {
+        this.closeDateTime = closeDateTime;
+    }
+
+    @Nullable
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(@Nullable final String status) {
+        this.status = status;
+    }
+
+    @Nullable
+    public BigDecimal getTotalExecutedVolumeInQuoteCurrency() {
+        return totalExecutedVolumeInQuoteCurrency;
+    }
+
+    public void setTotalExecutedVolumeInQuoteCurrency(@Nullable final BigDecimal totalExecutedVolumeInQuoteCurrency) {
+        this.totalExecutedVolumeInQuoteCurrency = totalExecutedVolumeInQuoteCurrency;
+    }
+
+    @Nullable
+    public BigDecimal getAverageActualPrice() {
+        return averageActualPrice;
+    }
+
+    public void setAverageActualPrice(@Nullable final BigDecimal averageActualPrice) {
+        this.averageActualPrice = averageActualPrice;
+    }
+
+    @Nullable
+    public BigDecimal getActualFeeInQuoteCurrency() {
+        return actualFeeInQuoteCurrency;
+    }
+
+    public void setActualFeeInQuoteCurrency(@Nullable final BigDecimal actualFeeInQuoteCurrency) {
+        this.actualFeeInQuoteCurrency = actualFeeInQuoteCurrency;
+    }
+
+    @Nullable
+    public List<String> getTradeIds() {
+        return tradeIds;
+    }
+
+    public void setTradeIds(@Nullable final List<String> tradeIds) {
+        this.tradeIds = tradeIds;
+    }
+}
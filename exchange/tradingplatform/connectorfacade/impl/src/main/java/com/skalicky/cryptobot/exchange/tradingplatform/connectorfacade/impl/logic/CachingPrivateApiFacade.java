@@ -0,0 +1,177 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.PriceOrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Reuses balances retrieved within the given time to live and lets concurrent requests of balances share one call of
+ * the delegate. Balances are retrieved again after an order has been placed or an order with a newly executed volume
+ * has been seen among open or closed orders. The other calls are delegated as they are.
+ * <p>
+ * Executed volumes are remembered only for the orders of the latest open orders and of the latest closed orders, hence
+ * orders which are neither open nor recently closed any more are forgotten. Pages of closed orders are not observed
+ * since they are retrieved by the backfill of old orders, whose fills the balances already reflect.
+ */
+public class CachingPrivateApiFacade implements TradingPlatformPrivateApiFacade {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(CachingPrivateApiFacade.class);
+    @NotNull
+    private static final String BALANCE_KEY = "balance";
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade delegate;
+    @NotNull
+    private final ExpiringCoalescingCache<String, ImmutableMap<CurrencyBoEnum, BigDecimal>> accountBalances;
+    @NotNull
+    private final ExpiringCoalescingCache<String, ImmutableMap<AssetBo, BigDecimal>> assetBalances;
+    @NotNull
+    private ImmutableMap<String, BigDecimal> executedVolumesOfOpenOrdersByOrderIds = ImmutableMap.of();
+    @NotNull
+    private ImmutableMap<String, BigDecimal> executedVolumesOfClosedOrdersByOrderIds = ImmutableMap.of();
+
+    public CachingPrivateApiFacade(@NotNull final TradingPlatformPrivateApiFacade delegate,
+                                   @NotNull final Clock clock,
+                                   @NotNull final Duration balanceTimeToLive) {
+        this.delegate = delegate;
+        this.accountBalances = new ExpiringCoalescingCache<>(clock, balanceTimeToLive);
+        this.assetBalances = new ExpiringCoalescingCache<>(clock, balanceTimeToLive);
+    }
+
+    @NotNull
+    @Override
+    public String getTradingPlatform() {
+        return delegate.getTradingPlatform();
+    }
+
+    @NotNull
+    @Override
+    public ImmutableList<OpenOrderBo> getOpenOrders(final boolean includeTrades) {
+        final ImmutableList<OpenOrderBo> openOrders = delegate.getOpenOrders(includeTrades);
+        final ImmutableMap<String, BigDecimal> executedVolumesByOrderIds = openOrders.stream() //
+                .collect(ImmutableMap.toImmutableMap(OpenOrderBo::getOrderId,
+                        OpenOrderBo::getAlreadyExecutedVolumeInQuoteCurrency, (volume1, volume2) -> volume2));
+        synchronized (this) {
+            observeExecutedVolumes(executedVolumesByOrderIds, executedVolumesOfOpenOrdersByOrderIds,
+                    executedVolumesOfClosedOrdersByOrderIds);
+            executedVolumesOfOpenOrdersByOrderIds = executedVolumesByOrderIds;
+        }
+        return openOrders;
+    }
+
+    @NotNull
+    @Override
+    public ImmutableList<ClosedOrderBo> getClosedOrders(final boolean includeTrades,
+                                                        @NotNull final LocalDateTime from) {
+        final ImmutableList<ClosedOrderBo> closedOrders = delegate.getClosedOrders(includeTrades, from);
+        final ImmutableMap<String, BigDecimal> executedVolumesByOrderIds = closedOrders.stream() //
+                .collect(ImmutableMap.toImmutableMap(ClosedOrderBo::getOrderId,
+                        ClosedOrderBo::getTotalExecutedVolumeInQuoteCurrency, (volume1, volume2) -> volume2));
+        synchronized (this) {
+            observeExecutedVolumes(executedVolumesByOrderIds, executedVolumesOfClosedOrdersByOrderIds,
+                    executedVolumesOfOpenOrdersByOrderIds);
+            executedVolumesOfClosedOrdersByOrderIds = executedVolumesByOrderIds;
+        }
+        return closedOrders;
+    }
+
+    @NotNull
+    @Override
+    public ClosedOrdersPageBo getClosedOrdersPage(final boolean includeTrades,
+                                                  @NotNull final LocalDateTime from,
+                                                  @NotNull final LocalDateTime to,
+                                                  final int offset) {
+        return delegate.getClosedOrdersPage(includeTrades, from, to, offset);
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<CurrencyBoEnum, BigDecimal> getAccountBalance() {
+        return accountBalances.get(BALANCE_KEY, delegate::getAccountBalance);
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<AssetBo, BigDecimal> getAssetBalances() {
+        return assetBalances.get(BALANCE_KEY, delegate::getAssetBalances);
+    }
+
+    /**
+     * Balances are invalidated also if the placement has failed since a failure, e.g. a timeout, does not guarantee
+     * the order has not been placed.
+     */
+    @Override
+    public void placeOrder(@NotNull final OrderTypeBoEnum orderType,
+                           @NotNull final PriceOrderTypeBoEnum priceOrderType,
+                           @NotNull final CurrencyPairBo currencyPair,
+                           @NotNull final BigDecimal volumeInQuoteCurrency,
+                           @NotNull final BigDecimal price,
+                           final boolean preferFeeInQuoteCurrency,
+                           final long orderExpirationInSecondsFromNow) {
+        try {
+            delegate.placeOrder(orderType, priceOrderType, currencyPair, volumeInQuoteCurrency, price,
+                    preferFeeInQuoteCurrency, orderExpirationInSecondsFromNow);
+        } finally {
+            invalidateBalances();
+        }
+    }
+
+    /**
+     * Previous volumes of the same kind of orders take precedence, e.g. an order closed already has been open before.
+     */
+    private void observeExecutedVolumes(@NotNull final ImmutableMap<String, BigDecimal> executedVolumesByOrderIds,
+                                        @NotNull final ImmutableMap<String, BigDecimal> previousExecutedVolumesByOrderIds,
+                                        @NotNull final ImmutableMap<String, BigDecimal> otherPreviousExecutedVolumesByOrderIds) {
+        executedVolumesByOrderIds.forEach((orderId, executedVolume) -> {
+            final BigDecimal previousExecutedVolume = previousExecutedVolumesByOrderIds.getOrDefault(orderId,
+                    otherPreviousExecutedVolumesByOrderIds.get(orderId));
+            final boolean fillSeen = previousExecutedVolume == null
+                    ? executedVolume.signum() != 0
+                    : previousExecutedVolume.compareTo(executedVolume) != 0;
+            if (fillSeen) {
+                logger.debug("Fill of the order {} seen, balances invalidated", orderId);
+                invalidateBalances();
+            }
+        });
+    }
+
+    private void invalidateBalances() {
+        accountBalances.invalidateAll();
+        assetBalances.invalidateAll();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.FixedPointTickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OrderBookBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPublicApiFacade;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+
+/**
+ * Reuses tickers retrieved within the given time to live and lets concurrent requests of the same ticker share one
+ * call of the delegate. Asset prices and order books are delegated as they are.
+ */
+public class CachingPublicApiFacade implements TradingPlatformPublicApiFacade {
+
+    @NotNull
+    private final TradingPlatformPublicApiFacade delegate;
+    @NotNull
+    private final ExpiringCoalescingCache<CurrencyPairBo, TickerBo> tickersByCurrencyPairs;
+    @NotNull
+    private final ExpiringCoalescingCache<CurrencyPairBo, FixedPointTickerBo> fixedPointTickersByCurrencyPairs;
+
+    public CachingPublicApiFacade(@NotNull final TradingPlatformPublicApiFacade delegate,
+                                  @NotNull final Clock clock,
+                                  @NotNull final Duration tickerTimeToLive) {
+        this.delegate = delegate;
+        this.tickersByCurrencyPairs = new ExpiringCoalescingCache<>(clock, tickerTimeToLive);
+        this.fixedPointTickersByCurrencyPairs = new ExpiringCoalescingCache<>(clock, tickerTimeToLive);
+    }
+
+    @NotNull
+    @Override
+    public String getTradingPlatform() {
+        return delegate.getTradingPlatform();
+    }
+
+    @NotNull
+    @Override
+    public TickerBo getTicker(@NotNull final CurrencyPairBo currencyPair) {
+        return tickersByCurrencyPairs.get(currencyPair, () -> delegate.getTicker(currencyPair));
+    }
+
+    @NotNull
+    @Override
+    public FixedPointTickerBo getFixedPointTicker(@NotNull final CurrencyPairBo currencyPair) {
+        return fixedPointTickersByCurrencyPairs.get(currencyPair, () -> delegate.getFixedPointTicker(currencyPair));
+    }
+
+    /**
+     * Retrieves only the tickers which are not cached, all of them by one call of the delegate.
+     */
+    @NotNull
+    @Override
+    public ImmutableMap<CurrencyPairBo, TickerBo> getTickers(@NotNull final Collection<CurrencyPairBo> currencyPairs) {
+        final var tickersByPairs = new LinkedHashMap<CurrencyPairBo, TickerBo>();
+        final var missingCurrencyPairs = ImmutableList.<CurrencyPairBo>builder();
+        currencyPairs.stream().distinct().forEach(currencyPair -> {
+            final TickerBo ticker = tickersByCurrencyPairs.getIfPresent(currencyPair);
+            if (ticker == null) {
+                missingCurrencyPairs.add(currencyPair);
+            } else {
+                tickersByPairs.put(currencyPair, ticker);
+            }
+        });
+        final ImmutableList<CurrencyPairBo> currencyPairsToRetrieve = missingCurrencyPairs.build();
+        if (!currencyPairsToRetrieve.isEmpty()) {
+            delegate.getTickers(currencyPairsToRetrieve).forEach((currencyPair, ticker) -> {
+                tickersByCurrencyPairs.put(currencyPair, ticker);
+                tickersByPairs.put(currencyPair, ticker);
+            });
+        }
+        return ImmutableMap.copyOf(tickersByPairs);
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<AssetBo, BigDecimal> getAssetPrices(@NotNull final Collection<AssetBo> assets,
+                                                            @NotNull final AssetBo reportingAsset) {
+        return delegate.getAssetPrices(assets, reportingAsset);
+    }
+
+    @NotNull
+    @Override
+    public OrderBookBo getOrderBook(@NotNull final CurrencyPairBo currencyPair,
+                                    final int depth) {
+        return delegate.getOrderBook(currencyPair, depth);
+    }
+}
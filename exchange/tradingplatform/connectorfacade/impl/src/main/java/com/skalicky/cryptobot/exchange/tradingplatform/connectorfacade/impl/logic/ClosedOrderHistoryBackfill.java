@@ -0,0 +1,236 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderBackfillCheckpoint;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderBackfillCheckpointRepository;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncState;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncStateRepository;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+/**
+ * Retrieves the whole history of closed orders since a given date-time page by page and adds it to the local store
+ * of closed orders. Pages are retrieved concurrently, at most the given parallelism at a time. The pacing within the
+ * rate limits of the trading platform is left to the connector, as is the ordering of the requests: Kraken, for
+ * instance, rejects a nonce lower than the one of a request which arrived before, hence its connector sends the
+ * private requests of one API key one by one and the workers overlap only in checkpointing and processing the pages.
+ * <p>
+ * Each retrieved page is checkpointed on its own, hence a backfill interrupted by a crash resumes with the pages not
+ * retrieved yet. The retrieved pages are merged into the store once all of them have been retrieved.
+ */
+public class ClosedOrderHistoryBackfill {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(ClosedOrderHistoryBackfill.class);
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade privateApiFacade;
+    @NotNull
+    private final ClosedOrderBackfillCheckpointRepository closedOrderBackfillCheckpointRepository;
+    @NotNull
+    private final ClosedOrderSyncStateRepository closedOrderSyncStateRepository;
+    @NotNull
+    private final Executor executor;
+    private final int parallelism;
+    /**
+     * In the time zone of the date-times returned by the facade.
+     */
+    @NotNull
+    private final Clock clock;
+
+    public ClosedOrderHistoryBackfill(@NotNull final TradingPlatformPrivateApiFacade privateApiFacade,
+                                      @NotNull final ClosedOrderBackfillCheckpointRepository closedOrderBackfillCheckpointRepository,
+                                      @NotNull final ClosedOrderSyncStateRepository closedOrderSyncStateRepository,
+                                      @NotNull final Executor executor,
+                                      final int parallelism,
+                                      @NotNull final Clock clock) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive [" + parallelism + "]");
+        }
+        this.privateApiFacade = privateApiFacade;
+        this.closedOrderBackfillCheckpointRepository = closedOrderBackfillCheckpointRepository;
+        this.closedOrderSyncStateRepository = closedOrderSyncStateRepository;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.clock = clock;
+    }
+
+    /**
+     * @return count of closed orders retrieved since the given date-time
+     */
+    public int backfill(@NotNull final LocalDateTime from) {
+        final ClosedOrderBackfillCheckpoint checkpoint = loadOrStartBackfill(from);
+        final var progress = new Progress(checkpoint);
+
+        final Queue<Integer> remainingOffsets = new ConcurrentLinkedQueue<>();
+        if (checkpoint.getPageSize() > 0) {
+            for (int offset = 0; offset < checkpoint.getTotalCount(); offset += checkpoint.getPageSize()) {
+                if (!checkpoint.getCompletedOffsets().contains(offset)) {
+                    remainingOffsets.add(offset);
+                }
+            }
+        }
+        logger.info("Backfill of closed orders since {}: {} of {} orders retrieved, {} pages remaining",
+                from, checkpoint.getClosedOrders().size(), checkpoint.getTotalCount(), remainingOffsets.size());
+
+        final CompletableFuture<?>[] workers = IntStream.range(0, Math.min(parallelism, remainingOffsets.size())) //
+                .mapToObj(i -> CompletableFuture.runAsync(() -> retrievePages(checkpoint, remainingOffsets, progress),
+                        executor)) //
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(workers).join();
+        } catch (@NotNull final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+
+        final ImmutableList<ClosedOrderBo> closedOrders = progress.getClosedOrders();
+        mergeIntoSyncState(checkpoint, closedOrders);
+        closedOrderBackfillCheckpointRepository.delete();
+        logger.info("Backfill of closed orders since {} finished: {} orders", from, closedOrders.size());
+        return closedOrders.size();
+    }
+
+    @NotNull
+    private ClosedOrderBackfillCheckpoint loadOrStartBackfill(@NotNull final LocalDateTime from) {
+        final ClosedOrderBackfillCheckpoint checkpoint = closedOrderBackfillCheckpointRepository.load();
+        if (checkpoint != null && checkpoint.getFrom().equals(from)) {
+            return checkpoint;
+        }
+        if (checkpoint != null) {
+            logger.info("Discarding the checkpoint of a backfill since {}", checkpoint.getFrom());
+        }
+
+        final LocalDateTime to = LocalDateTime.now(clock);
+        final ClosedOrdersPageBo firstPage = privateApiFacade.getClosedOrdersPage(true, from, to, 0);
+        final int pageSize = firstPage.getClosedOrders().size();
+        closedOrderBackfillCheckpointRepository.start(from, to, firstPage.getTotalCount(), pageSize);
+        closedOrderBackfillCheckpointRepository.savePage(0, firstPage.getClosedOrders());
+        return new ClosedOrderBackfillCheckpoint(from, to, firstPage.getTotalCount(), pageSize,
+                ImmutableSortedSet.of(0), firstPage.getClosedOrders());
+    }
+
+    private void retrievePages(@NotNull final ClosedOrderBackfillCheckpoint checkpoint,
+                               @NotNull final Queue<Integer> remainingOffsets,
+                               @NotNull final Progress progress) {
+        Integer offset;
+        while ((offset = remainingOffsets.poll()) != null) {
+            try {
+                final ClosedOrdersPageBo page = privateApiFacade.getClosedOrdersPage(true, checkpoint.getFrom(),
+                        checkpoint.getTo(), offset);
+                progress.recordPage(offset, page.getClosedOrders());
+            } catch (@NotNull final RuntimeException ex) {
+                // Other workers stop after their current page. The checkpoint allows to resume later.
+                remainingOffsets.clear();
+                throw ex;
+            }
+        }
+    }
+
+    private void mergeIntoSyncState(@NotNull final ClosedOrderBackfillCheckpoint checkpoint,
+                                    @NotNull final ImmutableList<ClosedOrderBo> backfilledClosedOrders) {
+        final ClosedOrderSyncState state = closedOrderSyncStateRepository.load();
+        final Map<String, ClosedOrderBo> closedOrdersByIds = new LinkedHashMap<>();
+        backfilledClosedOrders.forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+        final LocalDateTime coveredSince;
+        final LocalDateTime syncedUntil;
+        if (state == null || state.getSyncedUntil().isBefore(checkpoint.getFrom())) {
+            // There is a gap between the stored orders and the backfilled ones.
+            coveredSince = checkpoint.getFrom();
+            syncedUntil = checkpoint.getTo();
+        } else {
+            coveredSince = min(state.getCoveredSince(), checkpoint.getFrom());
+            syncedUntil = max(state.getSyncedUntil(), checkpoint.getTo());
+        }
+        if (state != null) {
+            state.getClosedOrders().forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+        }
+
+        closedOrderSyncStateRepository.save(new ClosedOrderSyncState(coveredSince, syncedUntil,
+                closedOrdersByIds.values().stream() //
+                        .sorted(Comparator.comparing(ClosedOrderBo::getCloseDateTime).reversed()) //
+                        .collect(ImmutableList.toImmutableList())));
+    }
+
+    @NotNull
+    private static LocalDateTime min(@NotNull final LocalDateTime a,
+                                     @NotNull final LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    @NotNull
+    private static LocalDateTime max(@NotNull final LocalDateTime a,
+                                     @NotNull final LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Collects the pages retrieved by concurrent workers and checkpoints each of them.
+     */
+    private final class Progress {
+        @NotNull
+        private final ClosedOrderBackfillCheckpoint initialCheckpoint;
+        @NotNull
+        private final Map<String, ClosedOrderBo> closedOrdersByIds = new LinkedHashMap<>();
+
+        private Progress(@NotNull final ClosedOrderBackfillCheckpoint initialCheckpoint) {
+            this.initialCheckpoint = initialCheckpoint;
+            initialCheckpoint.getClosedOrders().forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+        }
+
+        private void recordPage(final int offset,
+                                @NotNull final ImmutableList<ClosedOrderBo> closedOrders) {
+            // Outside of the lock since pages are checkpointed independently of each other.
+            closedOrderBackfillCheckpointRepository.savePage(offset, closedOrders);
+            final int retrievedCount;
+            synchronized (this) {
+                closedOrders.forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+                retrievedCount = closedOrdersByIds.size();
+            }
+            logger.debug("Page of closed orders at offset {} retrieved, {} of {} orders retrieved", offset,
+                    retrievedCount, initialCheckpoint.getTotalCount());
+        }
+
+        @NotNull
+        private synchronized ImmutableList<ClosedOrderBo> getClosedOrders() {
+            return ImmutableList.copyOf(closedOrdersByIds.values());
+        }
+    }
+}
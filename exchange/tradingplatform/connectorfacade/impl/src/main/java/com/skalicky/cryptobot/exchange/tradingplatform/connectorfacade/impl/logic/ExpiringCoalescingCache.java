@@ -0,0 +1,159 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps loaded values for the given time to live, measured from the end of their loading. Concurrent requests of the
+ * same key wait for the single load in flight instead of loading the value again. A failed load is not cached, whatever
+ * it has failed with.
+ * <p>
+ * An invalidation during a load in flight does not cancel it, but its result is not kept for the following requests.
+ */
+final class ExpiringCoalescingCache<K, V> {
+
+    @NotNull
+    private final ConcurrentMap<K, Entry<V>> entriesByKeys = new ConcurrentHashMap<>();
+    @NotNull
+    private final Clock clock;
+    @NotNull
+    private final Duration timeToLive;
+
+    ExpiringCoalescingCache(@NotNull final Clock clock,
+                            @NotNull final Duration timeToLive) {
+        this.clock = clock;
+        this.timeToLive = timeToLive;
+    }
+
+    @NotNull
+    V get(@NotNull final K key,
+          @NotNull final Supplier<V> loader) {
+        while (true) {
+            final Entry<V> entry = entriesByKeys.get(key);
+            if (entry != null && !entry.isExpired(clock.instant(), timeToLive)) {
+                return entry.join();
+            }
+            final var newEntry = new Entry<V>();
+            final boolean installed = entry == null
+                    ? entriesByKeys.putIfAbsent(key, newEntry) == null
+                    : entriesByKeys.replace(key, entry, newEntry);
+            if (installed) {
+                return load(key, newEntry, loader);
+            }
+            // Another thread has just started a load, hence its result is awaited in the next iteration.
+        }
+    }
+
+    /**
+     * @return the value loaded and not yet expired, null if there is no such value or it is still being loaded
+     */
+    @Nullable
+    V getIfPresent(@NotNull final K key) {
+        final Entry<V> entry = entriesByKeys.get(key);
+        if (entry == null || !entry.isLoaded() || entry.isExpired(clock.instant(), timeToLive)) {
+            return null;
+        }
+        return entry.join();
+    }
+
+    void put(@NotNull final K key,
+             @NotNull final V value) {
+        final var entry = new Entry<V>();
+        entry.complete(value, clock.instant());
+        entriesByKeys.put(key, entry);
+    }
+
+    void invalidateAll() {
+        entriesByKeys.clear();
+    }
+
+    @NotNull
+    private V load(@NotNull final K key,
+                   @NotNull final Entry<V> entry,
+                   @NotNull final Supplier<V> loader) {
+        final V value;
+        try {
+            value = loader.get();
+        } catch (@NotNull final Throwable ex) {
+            // Errors too, otherwise the entry would stay in flight and requests of the key would wait forever.
+            entriesByKeys.remove(key, entry);
+            entry.completeExceptionally(ex);
+            throw ex;
+        }
+        entry.complete(value, clock.instant());
+        return value;
+    }
+
+    private static final class Entry<V> {
+        @NotNull
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        /**
+         * Null while the value is being loaded.
+         */
+        @Nullable
+        private volatile Instant loadedAt;
+
+        private boolean isLoaded() {
+            return loadedAt != null;
+        }
+
+        /**
+         * A value being loaded never expires, otherwise requests waiting for it would start another load.
+         */
+        private boolean isExpired(@NotNull final Instant now,
+                                  @NotNull final Duration timeToLive) {
+            final Instant loadedAtSnapshot = loadedAt;
+            return loadedAtSnapshot != null && !now.isBefore(loadedAtSnapshot.plus(timeToLive));
+        }
+
+        private void complete(@NotNull final V value,
+                              @NotNull final Instant now) {
+            loadedAt = now;
+            future.complete(value);
+        }
+
+        private void completeExceptionally(@NotNull final Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+
+        @NotNull
+        private V join() {
+            try {
+                return future.join();
+            } catch (@NotNull final CompletionException ex) {
+                // Requests waiting for a failed load fail with the same exception as the loading request.
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw (RuntimeException) ex.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.PriceOrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncState;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncStateRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the closed orders already retrieved in a local store and asks the trading platform only for orders closed
+ * since the last synchronization. The other calls are delegated as they are.
+ * <p>
+ * Orders opened and closed before both the requested date-time and {@link #retainedSince} are dropped from the store
+ * since nobody asks for them any more, hence the store does not grow forever.
+ */
+public class IncrementalClosedOrdersPrivateApiFacade implements TradingPlatformPrivateApiFacade {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalClosedOrdersPrivateApiFacade.class);
+    /**
+     * Covers a clock skew between the bot and the trading platform.
+     */
+    @NotNull
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade delegate;
+    @NotNull
+    private final ClosedOrderSyncStateRepository closedOrderSyncStateRepository;
+    /**
+     * In the time zone of the date-times returned by the delegate.
+     */
+    @NotNull
+    private final Clock clock;
+    /**
+     * Orders opened or closed since then are kept in the store even if not requested, e.g. the backfilled ones. Null
+     * if only the requested orders are kept.
+     */
+    @Nullable
+    private final LocalDateTime retainedSince;
+
+    public IncrementalClosedOrdersPrivateApiFacade(@NotNull final TradingPlatformPrivateApiFacade delegate,
+                                                   @NotNull final ClosedOrderSyncStateRepository closedOrderSyncStateRepository,
+                                                   @NotNull final Clock clock,
+                                                   @Nullable final LocalDateTime retainedSince) {
+        this.delegate = delegate;
+        this.closedOrderSyncStateRepository = closedOrderSyncStateRepository;
+        this.clock = clock;
+        this.retainedSince = retainedSince;
+    }
+
+    @NotNull
+    @Override
+    public String getTradingPlatform() {
+        return delegate.getTradingPlatform();
+    }
+
+    @NotNull
+    @Override
+    public ImmutableList<OpenOrderBo> getOpenOrders(final boolean includeTrades) {
+        return delegate.getOpenOrders(includeTrades);
+    }
+
+    /**
+     * Returns the orders opened or closed since the given date-time like the delegate does.
+     */
+    @NotNull
+    @Override
+    public synchronized ImmutableList<ClosedOrderBo> getClosedOrders(final boolean includeTrades,
+                                                                     @NotNull final LocalDateTime from) {
+        if (!includeTrades) {
+            // The store contains orders with trades only.
+            return delegate.getClosedOrders(false, from);
+        }
+
+        final LocalDateTime syncStart = LocalDateTime.now(clock);
+        final ClosedOrderSyncState state = closedOrderSyncStateRepository.load();
+        final Map<String, ClosedOrderBo> closedOrdersByIds = new LinkedHashMap<>();
+        final LocalDateTime retrieveFrom;
+        final LocalDateTime coveredSince;
+        if (state == null) {
+            retrieveFrom = from;
+            coveredSince = from;
+        } else {
+            state.getClosedOrders().forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+            if (from.isBefore(state.getCoveredSince())) {
+                retrieveFrom = from;
+                coveredSince = from;
+            } else {
+                retrieveFrom = state.getSyncedUntil().minus(SYNC_OVERLAP);
+                coveredSince = state.getCoveredSince();
+            }
+        }
+
+        final ImmutableList<ClosedOrderBo> retrievedClosedOrders = delegate.getClosedOrders(true, retrieveFrom);
+        logger.debug("{} closed orders retrieved since {}", retrievedClosedOrders.size(), retrieveFrom);
+        retrievedClosedOrders.forEach(o -> closedOrdersByIds.put(o.getOrderId(), o));
+
+        final LocalDateTime retainFrom = retainedSince == null || from.isBefore(retainedSince) ? from : retainedSince;
+        final ImmutableList<ClosedOrderBo> closedOrders = closedOrdersByIds.values().stream() //
+                .filter(o -> isOpenOrClosedSince(o, retainFrom)) //
+                .sorted(Comparator.comparing(ClosedOrderBo::getCloseDateTime).reversed()) //
+                .collect(ImmutableList.toImmutableList());
+        try {
+            closedOrderSyncStateRepository.save(new ClosedOrderSyncState(
+                    coveredSince.isBefore(retainFrom) ? retainFrom : coveredSince, syncStart, closedOrders));
+        } catch (@NotNull final RuntimeException ex) {
+            // The next synchronization starts from the previous high-water mark again.
+            logger.error("Closed order synchronization state could not be saved", ex);
+        }
+
+        return closedOrders.stream() //
+                .filter(o -> isOpenOrClosedSince(o, from)) //
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @NotNull
+    @Override
+    public ClosedOrdersPageBo getClosedOrdersPage(final boolean includeTrades,
+                                                  @NotNull final LocalDateTime from,
+                                                  @NotNull final LocalDateTime to,
+                                                  final int offset) {
+        return delegate.getClosedOrdersPage(includeTrades, from, to, offset);
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<CurrencyBoEnum, BigDecimal> getAccountBalance() {
+        return delegate.getAccountBalance();
+    }
+
+    @NotNull
+    @Override
+    public ImmutableMap<AssetBo, BigDecimal> getAssetBalances() {
+        return delegate.getAssetBalances();
+    }
+
+    @Override
+    public void placeOrder(@NotNull final OrderTypeBoEnum orderType,
+                           @NotNull final PriceOrderTypeBoEnum priceOrderType,
+                           @NotNull final CurrencyPairBo currencyPair,
+                           @NotNull final BigDecimal volumeInQuoteCurrency,
+                           @NotNull final BigDecimal price,
+                           final boolean preferFeeInQuoteCurrency,
+                           final long orderExpirationInSecondsFromNow) {
+        delegate.placeOrder(orderType, priceOrderType, currencyPair, volumeInQuoteCurrency, price,
+                preferFeeInQuoteCurrency, orderExpirationInSecondsFromNow);
+    }
+
+    private static boolean isOpenOrClosedSince(@NotNull final ClosedOrderBo closedOrder,
+                                               @NotNull final LocalDateTime since) {
+        return !closedOrder.getOpenDateTime().isBefore(since) || !closedOrder.getCloseDateTime().isBefore(since);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a backfill of closed orders. Allows to resume an interrupted backfill without retrieving the pages
+ * already retrieved.
+ */
+public final class ClosedOrderBackfillCheckpoint {
+    @NotNull
+    private final LocalDateTime from;
+    /**
+     * Fixed when the backfill starts so that orders closed in the meantime do not shift the pages.
+     */
+    @NotNull
+    private final LocalDateTime to;
+    private final int totalCount;
+    /**
+     * Size of the first page. Zero if there are no orders at all.
+     */
+    private final int pageSize;
+    @NotNull
+    private final ImmutableSortedSet<Integer> completedOffsets;
+    @NotNull
+    private final ImmutableList<ClosedOrderBo> closedOrders;
+
+    public ClosedOrderBackfillCheckpoint(@NotNull final LocalDateTime from,
+                                         @NotNull final LocalDateTime to,
+                                         final int totalCount,
+                                         final int pageSize,
+                                         @NotNull final ImmutableSortedSet<Integer> completedOffsets,
+                                         @NotNull final ImmutableList<ClosedOrderBo> closedOrders) {
+        this.from = from;
+        this.to = to;
+        this.totalCount = totalCount;
+        this.pageSize = pageSize;
+        this.completedOffsets = completedOffsets;
+        this.closedOrders = closedOrders;
+    }
+
+    @NotNull
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    @NotNull
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @NotNull
+    public ImmutableSortedSet<Integer> getCompletedOffsets() {
+        return completedOffsets;
+    }
+
+    @NotNull
+    public ImmutableList<ClosedOrderBo> getClosedOrders() {
+        return closedOrders;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+
+public interface ClosedOrderBackfillCheckpointRepository {
+
+    /**
+     * @return null if no backfill is in progress
+     */
+    @Nullable
+    ClosedOrderBackfillCheckpoint load();
+
+    /**
+     * Discards the checkpoint of any previous backfill and starts a new one without any page.
+     */
+    void start(@NotNull LocalDateTime from,
+               @NotNull LocalDateTime to,
+               int totalCount,
+               int pageSize);
+
+    /**
+     * Adds a retrieved page to the checkpoint without rewriting the pages saved before. Safe to be called
+     * concurrently for different offsets.
+     */
+    void savePage(int offset,
+                  @NotNull ImmutableList<ClosedOrderBo> closedOrders);
+
+    void delete();
+}
@@ -0,0 +1,66 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed orders already retrieved from a trading platform.
+ */
+public final class ClosedOrderSyncState {
+    /**
+     * All orders opened or closed since then are contained.
+     */
+    @NotNull
+    private final LocalDateTime coveredSince;
+    /**
+     * High-water mark. The next synchronization needs to ask only for orders closed since then.
+     */
+    @NotNull
+    private final LocalDateTime syncedUntil;
+    @NotNull
+    private final ImmutableList<ClosedOrderBo> closedOrders;
+
+    public ClosedOrderSyncState(@NotNull final LocalDateTime coveredSince,
+                                @NotNull final LocalDateTime syncedUntil,
+                                @NotNull final ImmutableList<ClosedOrderBo> closedOrders) {
+        this.coveredSince = coveredSince;
+        this.syncedUntil = syncedUntil;
+        this.closedOrders = closedOrders;
+    }
+
+    @NotNull
+    public LocalDateTime getCoveredSince() {
+        return coveredSince;
+    }
+
+    @NotNull
+    public LocalDateTime getSyncedUntil() {
+        return syncedUntil;
+    }
+
+    @NotNull
+    public ImmutableList<ClosedOrderBo> getClosedOrders() {
+        return closedOrders;
+    }
+}
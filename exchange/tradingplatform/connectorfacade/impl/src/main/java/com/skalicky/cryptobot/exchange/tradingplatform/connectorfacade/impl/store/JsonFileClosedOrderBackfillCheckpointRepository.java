@@ -0,0 +1,179 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.ClosedOrderBackfillCheckpointDto;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.ClosedOrderBackfillPageDto;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.StoredClosedOrderDto;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Stores the checkpoint in a directory: the range and the paging of the backfill in one JSON file and each retrieved
+ * page in a JSON file of its own, hence saving a page neither rewrites nor blocks the pages saved before. Each file is
+ * replaced atomically. An unreadable range is treated as no checkpoint, i.e. the backfill starts from scratch, an
+ * unreadable page as a page not retrieved yet.
+ */
+public class JsonFileClosedOrderBackfillCheckpointRepository implements ClosedOrderBackfillCheckpointRepository {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileClosedOrderBackfillCheckpointRepository.class);
+
+    @NotNull
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint.json";
+    @NotNull
+    private static final String PAGE_FILE_NAME_PREFIX = "page-";
+    @NotNull
+    private static final String JSON_FILE_NAME_SUFFIX = ".json";
+
+    @NotNull
+    private final Path directory;
+    @NotNull
+    private final NonnullConverter<ClosedOrderBo, StoredClosedOrderDto> closedOrderBoToStoredClosedOrderDtoConverter;
+    @NotNull
+    private final NonnullConverter<StoredClosedOrderDto, ClosedOrderBo> storedClosedOrderDtoToClosedOrderBoConverter;
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+
+    public JsonFileClosedOrderBackfillCheckpointRepository(@NotNull final Path directory,
+                                                           @NotNull final NonnullConverter<ClosedOrderBo, StoredClosedOrderDto> closedOrderBoToStoredClosedOrderDtoConverter,
+                                                           @NotNull final NonnullConverter<StoredClosedOrderDto, ClosedOrderBo> storedClosedOrderDtoToClosedOrderBoConverter) {
+        this.directory = directory;
+        this.closedOrderBoToStoredClosedOrderDtoConverter = closedOrderBoToStoredClosedOrderDtoConverter;
+        this.storedClosedOrderDtoToClosedOrderBoConverter = storedClosedOrderDtoToClosedOrderBoConverter;
+    }
+
+    @Nullable
+    @Override
+    public ClosedOrderBackfillCheckpoint load() {
+        final Path checkpointFile = directory.resolve(CHECKPOINT_FILE_NAME);
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        try {
+            final ClosedOrderBackfillCheckpointDto dto = objectMapper.readValue(checkpointFile.toFile(),
+                    ClosedOrderBackfillCheckpointDto.class);
+            Objects.requireNonNull(dto.getFrom());
+            Objects.requireNonNull(dto.getTo());
+            final Map<Integer, ImmutableList<ClosedOrderBo>> closedOrdersByOffsets = new TreeMap<>();
+            try (DirectoryStream<Path> pageFiles = Files.newDirectoryStream(directory,
+                    PAGE_FILE_NAME_PREFIX + "*" + JSON_FILE_NAME_SUFFIX)) {
+                for (final Path pageFile : pageFiles) {
+                    final ClosedOrderBackfillPageDto pageDto = loadPage(pageFile);
+                    if (pageDto != null) {
+                        closedOrdersByOffsets.put(pageDto.getOffset(),
+                                Objects.requireNonNull(pageDto.getClosedOrders()).stream() //
+                                        .map(storedClosedOrderDtoToClosedOrderBoConverter::convert) //
+                                        .collect(ImmutableList.toImmutableList()));
+                    }
+                }
+            }
+            return new ClosedOrderBackfillCheckpoint(dto.getFrom(), dto.getTo(), dto.getTotalCount(), dto.getPageSize(),
+                    ImmutableSortedSet.copyOf(closedOrdersByOffsets.keySet()),
+                    closedOrdersByOffsets.values().stream() //
+                            .flatMap(ImmutableList::stream) //
+                            .collect(ImmutableList.toImmutableList()));
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Backfill checkpoint could not be loaded from [" + directory + "], going to start from scratch",
+                    ex);
+            return null;
+        }
+    }
+
+    @Nullable
+    private ClosedOrderBackfillPageDto loadPage(@NotNull final Path pageFile) {
+        try {
+            final ClosedOrderBackfillPageDto pageDto = objectMapper.readValue(pageFile.toFile(),
+                    ClosedOrderBackfillPageDto.class);
+            Objects.requireNonNull(pageDto.getClosedOrders());
+            return pageDto;
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Backfilled page could not be loaded from [" + pageFile + "], going to retrieve it again", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void start(@NotNull final LocalDateTime from,
+                      @NotNull final LocalDateTime to,
+                      final int totalCount,
+                      final int pageSize) {
+        delete();
+        final var dto = new ClosedOrderBackfillCheckpointDto();
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setTotalCount(totalCount);
+        dto.setPageSize(pageSize);
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, directory.resolve(CHECKPOINT_FILE_NAME), dto);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Backfill checkpoint could not be saved to [" + directory + "]", ex);
+        }
+    }
+
+    @Override
+    public void savePage(final int offset,
+                         @NotNull final ImmutableList<ClosedOrderBo> closedOrders) {
+        final var dto = new ClosedOrderBackfillPageDto();
+        dto.setOffset(offset);
+        dto.setClosedOrders(closedOrders.stream() //
+                .map(closedOrderBoToStoredClosedOrderDtoConverter::convert) //
+                .collect(ImmutableList.toImmutableList()));
+        final Path pageFile = directory.resolve(PAGE_FILE_NAME_PREFIX + offset + JSON_FILE_NAME_SUFFIX);
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, pageFile, dto);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Backfilled page could not be saved to [" + pageFile + "]", ex);
+        }
+    }
+
+    @Override
+    public void delete() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (final Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Backfill checkpoint could not be deleted from [" + directory + "]", ex);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.shared.connectorfacade.api.converter.NonnullConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.ClosedOrderSyncStateDto;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.dto.StoredClosedOrderDto;
+import com.skalicky.cryptobot.shared.json.JsonFileSupport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Stores the state as a JSON file. The file is replaced atomically, hence a crash never leaves a half-written
+ * state behind. An unreadable file is treated as no state, i.e. the orders are retrieved again.
+ */
+public class JsonFileClosedOrderSyncStateRepository implements ClosedOrderSyncStateRepository {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileClosedOrderSyncStateRepository.class);
+
+    @NotNull
+    private final Path file;
+    @NotNull
+    private final NonnullConverter<ClosedOrderBo, StoredClosedOrderDto> closedOrderBoToStoredClosedOrderDtoConverter;
+    @NotNull
+    private final NonnullConverter<StoredClosedOrderDto, ClosedOrderBo> storedClosedOrderDtoToClosedOrderBoConverter;
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+
+    public JsonFileClosedOrderSyncStateRepository(@NotNull final Path file,
+                                                  @NotNull final NonnullConverter<ClosedOrderBo, StoredClosedOrderDto> closedOrderBoToStoredClosedOrderDtoConverter,
+                                                  @NotNull final NonnullConverter<StoredClosedOrderDto, ClosedOrderBo> storedClosedOrderDtoToClosedOrderBoConverter) {
+        this.file = file;
+        this.closedOrderBoToStoredClosedOrderDtoConverter = closedOrderBoToStoredClosedOrderDtoConverter;
+        this.storedClosedOrderDtoToClosedOrderBoConverter = storedClosedOrderDtoToClosedOrderBoConverter;
+    }
+
+    @Nullable
+    @Override
+    public ClosedOrderSyncState load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            final ClosedOrderSyncStateDto dto = objectMapper.readValue(file.toFile(), ClosedOrderSyncStateDto.class);
+            Objects.requireNonNull(dto.getCoveredSince());
+            Objects.requireNonNull(dto.getSyncedUntil());
+            Objects.requireNonNull(dto.getClosedOrders());
+            return new ClosedOrderSyncState(dto.getCoveredSince(), dto.getSyncedUntil(),
+                    dto.getClosedOrders().stream() //
+                            .map(storedClosedOrderDtoToClosedOrderBoConverter::convert) //
+                            .collect(ImmutableList.toImmutableList()));
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            logger.warn("Closed orders could not be loaded from [" + file + "], going to retrieve them again", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(@NotNull final ClosedOrderSyncState state) {
+        final var dto = new ClosedOrderSyncStateDto();
+        dto.setCoveredSince(state.getCoveredSince());
+        dto.setSyncedUntil(state.getSyncedUntil());
+        dto.setClosedOrders(state.getClosedOrders().stream() //
+                .map(closedOrderBoToStoredClosedOrderDtoConverter::convert) //
+                .collect(ImmutableList.toImmutableList()));
+        try {
+            JsonFileSupport.writeAtomically(objectMapper, file, dto);
+        } catch (@NotNull final IOException ex) {
+            throw new IllegalStateException("Closed orders could not be saved to [" + file + "]", ex);
+        }
+    }
+}
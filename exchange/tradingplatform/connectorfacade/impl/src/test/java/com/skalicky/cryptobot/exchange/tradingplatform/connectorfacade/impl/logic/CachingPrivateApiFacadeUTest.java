@@ -0,0 +1,215 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.AssetBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.PriceOrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.OpenOrderBoBuilder.aOpenOrderBo;
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.times;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+import static org.mockito.BDDMockito.willThrow;
+
+public class CachingPrivateApiFacadeUTest {
+
+    @NotNull
+    private static final Duration BALANCE_TIME_TO_LIVE = Duration.ofMinutes(1);
+    @NotNull
+    private static final CurrencyPairBo BTC_EUR = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+    @NotNull
+    private static final ImmutableMap<AssetBo, BigDecimal> ASSET_BALANCES = ImmutableMap.of(
+            AssetBo.valueOf("EUR"), new BigDecimal("1000"));
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade delegate = mock(TradingPlatformPrivateApiFacade.class);
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+    @NotNull
+    private final CachingPrivateApiFacade facade = new CachingPrivateApiFacade(delegate, clock, BALANCE_TIME_TO_LIVE);
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(delegate);
+        reset(delegate);
+    }
+
+    @Test
+    public void test_getAssetBalances_when_calledWithinTimeToLive_then_cachedBalances_and_afterwardsRetrievedAgain() {
+        // Given
+        given(delegate.getAssetBalances()).willReturn(ASSET_BALANCES);
+
+        // When
+        facade.getAssetBalances();
+        clock.advance(BALANCE_TIME_TO_LIVE.minusSeconds(1));
+        final ImmutableMap<AssetBo, BigDecimal> cachedBalances = facade.getAssetBalances();
+        clock.advance(Duration.ofSeconds(1));
+        facade.getAssetBalances();
+
+        // Then
+        verify(delegate, times(2)).getAssetBalances();
+        then(cachedBalances).isSameAs(ASSET_BALANCES);
+    }
+
+    @Test
+    public void test_getAccountBalance_when_orderPlaced_then_balanceRetrievedAgain() {
+        // Given
+        given(delegate.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal("1000")))
+                .willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal("900")));
+        facade.getAccountBalance();
+
+        // When
+        facade.placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, BTC_EUR, new BigDecimal("0.01"),
+                new BigDecimal("10000"), true, 3600);
+        final ImmutableMap<CurrencyBoEnum, BigDecimal> balance = facade.getAccountBalance();
+
+        // Then
+        verify(delegate, times(2)).getAccountBalance();
+        verify(delegate).placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, BTC_EUR,
+                new BigDecimal("0.01"), new BigDecimal("10000"), true, 3600);
+        then(balance).containsEntry(CurrencyBoEnum.EUR, new BigDecimal("900"));
+    }
+
+    @Test
+    public void test_getAccountBalance_when_orderPlacementFailed_then_balanceRetrievedAgain() {
+        // Given
+        given(delegate.getAccountBalance()).willReturn(ImmutableMap.of(CurrencyBoEnum.EUR, new BigDecimal("1000")));
+        willThrow(new IllegalStateException("[EOrder:Insufficient funds]")).given(delegate).placeOrder(
+                OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, BTC_EUR, new BigDecimal("1"),
+                new BigDecimal("10000"), true, 3600);
+        facade.getAccountBalance();
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> facade.placeOrder(OrderTypeBoEnum.BUY,
+                PriceOrderTypeBoEnum.LIMIT, BTC_EUR, new BigDecimal("1"), new BigDecimal("10000"), true, 3600));
+        facade.getAccountBalance();
+
+        // Then
+        verify(delegate, times(2)).getAccountBalance();
+        verify(delegate).placeOrder(OrderTypeBoEnum.BUY, PriceOrderTypeBoEnum.LIMIT, BTC_EUR, new BigDecimal("1"),
+                new BigDecimal("10000"), true, 3600);
+        then(caughtThrowable).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void test_getAssetBalances_when_fillSeenAmongOpenOrders_then_balancesRetrievedAgain_and_notForSameFill() {
+        // Given
+        final OpenOrderBo partiallyFilledOrder = aOpenOrderBo().withOrderId("O1")
+                .withAlreadyExecutedVolumeInQuoteCurrency(new BigDecimal("0.005")).build();
+        given(delegate.getAssetBalances()).willReturn(ASSET_BALANCES);
+        given(delegate.getOpenOrders(true)).willReturn(ImmutableList.of(partiallyFilledOrder));
+        facade.getAssetBalances();
+
+        // When
+        facade.getOpenOrders(true);
+        facade.getAssetBalances();
+        facade.getOpenOrders(true);
+        facade.getAssetBalances();
+
+        // Then
+        verify(delegate, times(2)).getAssetBalances();
+        verify(delegate, times(2)).getOpenOrders(true);
+    }
+
+    @Test
+    public void test_getAssetBalances_when_openOrderSeenClosedWithHigherVolume_then_balancesRetrievedAgain() {
+        // Given
+        final var from = LocalDateTime.of(2021, 6, 19, 12, 0);
+        given(delegate.getAssetBalances()).willReturn(ASSET_BALANCES);
+        given(delegate.getOpenOrders(true)).willReturn(ImmutableList.of(aOpenOrderBo().withOrderId("O1")
+                .withAlreadyExecutedVolumeInQuoteCurrency(BigDecimal.ZERO).build()));
+        given(delegate.getClosedOrders(true, from)).willReturn(ImmutableList.of(aClosedOrderBo().withOrderId("O1")
+                .withTotalExecutedVolumeInQuoteCurrency(new BigDecimal("0.01")).build()));
+        facade.getOpenOrders(true);
+        facade.getAssetBalances();
+
+        // When
+        facade.getClosedOrders(true, from);
+        facade.getAssetBalances();
+
+        // Then
+        verify(delegate).getOpenOrders(true);
+        verify(delegate).getClosedOrders(true, from);
+        verify(delegate, times(2)).getAssetBalances();
+    }
+
+    @Test
+    public void test_getAssetBalances_when_orderNoLongerAmongOpenOrders_then_itsVolumeForgotten() {
+        // Given
+        final OpenOrderBo partiallyFilledOrder = aOpenOrderBo().withOrderId("O1")
+                .withAlreadyExecutedVolumeInQuoteCurrency(new BigDecimal("0.005")).build();
+        given(delegate.getAssetBalances()).willReturn(ASSET_BALANCES);
+        given(delegate.getOpenOrders(true)).willReturn(ImmutableList.of(partiallyFilledOrder), ImmutableList.of(),
+                ImmutableList.of(partiallyFilledOrder));
+        facade.getOpenOrders(true);
+        facade.getOpenOrders(true);
+        facade.getAssetBalances();
+
+        // When
+        facade.getOpenOrders(true);
+        facade.getAssetBalances();
+
+        // Then
+        verify(delegate, times(3)).getOpenOrders(true);
+        verify(delegate, times(2)).getAssetBalances();
+    }
+
+    @Test
+    public void test_getAssetBalances_when_pageOfClosedOrdersRetrieved_then_cachedBalances() {
+        // Given
+        final var from = LocalDateTime.of(2021, 1, 1, 0, 0);
+        final var to = LocalDateTime.of(2021, 6, 20, 12, 0);
+        given(delegate.getAssetBalances()).willReturn(ASSET_BALANCES);
+        given(delegate.getClosedOrdersPage(true, from, to, 0)).willReturn(new ClosedOrdersPageBo(ImmutableList.of(
+                aClosedOrderBo().withOrderId("O1").withTotalExecutedVolumeInQuoteCurrency(new BigDecimal("0.01"))
+                        .build()), 1));
+        facade.getAssetBalances();
+
+        // When
+        facade.getClosedOrdersPage(true, from, to, 0);
+        facade.getAssetBalances();
+
+        // Then
+        verify(delegate).getClosedOrdersPage(true, from, to, 0);
+        verify(delegate).getAssetBalances();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.TickerBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPublicApiFacade;
+import com.skalicky.cryptobot.shared.time.MutableClock;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.times;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+
+public class CachingPublicApiFacadeUTest {
+
+    @NotNull
+    private static final Duration TICKER_TIME_TO_LIVE = Duration.ofSeconds(10);
+    @NotNull
+    private static final CurrencyPairBo BTC_EUR = new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR);
+    @NotNull
+    private static final CurrencyPairBo OTHERS_EUR = new CurrencyPairBo(CurrencyBoEnum.OTHERS, CurrencyBoEnum.EUR);
+    @NotNull
+    private static final TickerBo BTC_EUR_TICKER = new TickerBo("XXBTZEUR", new BigDecimal("8903.3"),
+            new BigDecimal("8902.4"));
+    @NotNull
+    private static final TickerBo OTHERS_EUR_TICKER = new TickerBo("DOTEUR", new BigDecimal("21.5"),
+            new BigDecimal("21.4"));
+
+    @NotNull
+    private final TradingPlatformPublicApiFacade delegate = mock(TradingPlatformPublicApiFacade.class);
+    @NotNull
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-06-20T12:00:00Z"));
+    @NotNull
+    private final CachingPublicApiFacade facade = new CachingPublicApiFacade(delegate, clock, TICKER_TIME_TO_LIVE);
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(delegate);
+        reset(delegate);
+    }
+
+    @Test
+    public void test_getTicker_when_calledWithinTimeToLive_then_cachedTicker_and_afterwardsRetrievedAgain() {
+        // Given
+        given(delegate.getTicker(BTC_EUR)).willReturn(BTC_EUR_TICKER);
+
+        // When
+        final TickerBo firstTicker = facade.getTicker(BTC_EUR);
+        clock.advance(TICKER_TIME_TO_LIVE.minusMillis(1));
+        final TickerBo cachedTicker = facade.getTicker(BTC_EUR);
+        clock.advance(Duration.ofMillis(1));
+        final TickerBo retrievedTicker = facade.getTicker(BTC_EUR);
+
+        // Then
+        verify(delegate, times(2)).getTicker(BTC_EUR);
+        then(firstTicker).isSameAs(BTC_EUR_TICKER);
+        then(cachedTicker).isSameAs(BTC_EUR_TICKER);
+        then(retrievedTicker).isSameAs(BTC_EUR_TICKER);
+    }
+
+    @Test
+    public void test_getTicker_when_delegateFails_then_failureNotCached() {
+        // Given
+        given(delegate.getTicker(BTC_EUR)).willThrow(new IllegalStateException("[EAPI:Rate limit exceeded]"))
+                .willReturn(BTC_EUR_TICKER);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> facade.getTicker(BTC_EUR));
+        final TickerBo ticker = facade.getTicker(BTC_EUR);
+
+        // Then
+        verify(delegate, times(2)).getTicker(BTC_EUR);
+        then(caughtThrowable).isInstanceOf(IllegalStateException.class).hasMessage("[EAPI:Rate limit exceeded]");
+        then(ticker).isSameAs(BTC_EUR_TICKER);
+    }
+
+    @Test
+    public void test_getTicker_when_delegateFailsWithError_then_failureNotCached() {
+        // Given
+        given(delegate.getTicker(BTC_EUR)).willThrow(new StackOverflowError()).willReturn(BTC_EUR_TICKER);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> facade.getTicker(BTC_EUR));
+        final TickerBo ticker = facade.getTicker(BTC_EUR);
+
+        // Then
+        verify(delegate, times(2)).getTicker(BTC_EUR);
+        then(caughtThrowable).isInstanceOf(StackOverflowError.class);
+        then(ticker).isSameAs(BTC_EUR_TICKER);
+    }
+
+    @Test
+    public void test_getTicker_when_concurrentRequests_then_oneCallIsMade() throws Exception {
+        // Given
+        final var loadStarted = new CountDownLatch(1);
+        final var loadReleased = new CountDownLatch(1);
+        given(delegate.getTicker(BTC_EUR)).willAnswer(invocation -> {
+            loadStarted.countDown();
+            then(loadReleased.await(5, TimeUnit.SECONDS)).isTrue();
+            return BTC_EUR_TICKER;
+        });
+        final CompletableFuture<TickerBo> loadingRequest = CompletableFuture.supplyAsync(
+                () -> facade.getTicker(BTC_EUR));
+        then(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        final CompletableFuture<TickerBo> waitingRequest = CompletableFuture.supplyAsync(
+                () -> facade.getTicker(BTC_EUR));
+        loadReleased.countDown();
+
+        // Then
+        then(loadingRequest.get(5, TimeUnit.SECONDS)).isSameAs(BTC_EUR_TICKER);
+        then(waitingRequest.get(5, TimeUnit.SECONDS)).isSameAs(BTC_EUR_TICKER);
+        verify(delegate).getTicker(BTC_EUR);
+    }
+
+    @Test
+    public void test_getTickers_when_someTickersCached_then_onlyMissingTickersRetrievedByOneCall() {
+        // Given
+        given(delegate.getTicker(BTC_EUR)).willReturn(BTC_EUR_TICKER);
+        given(delegate.getTickers(ImmutableList.of(OTHERS_EUR))).willReturn(ImmutableMap.of(
+                OTHERS_EUR, OTHERS_EUR_TICKER));
+        facade.getTicker(BTC_EUR);
+
+        // When
+        final ImmutableMap<CurrencyPairBo, TickerBo> tickers = facade.getTickers(List.of(BTC_EUR, OTHERS_EUR));
+        final TickerBo cachedTicker = facade.getTicker(OTHERS_EUR);
+
+        // Then
+        verify(delegate).getTicker(BTC_EUR);
+        verify(delegate).getTickers(ImmutableList.of(OTHERS_EUR));
+        then(tickers).containsOnlyKeys(BTC_EUR, OTHERS_EUR);
+        then(tickers.get(BTC_EUR)).isSameAs(BTC_EUR_TICKER);
+        then(tickers.get(OTHERS_EUR)).isSameAs(OTHERS_EUR_TICKER);
+        then(cachedTicker).isSameAs(OTHERS_EUR_TICKER);
+    }
+}
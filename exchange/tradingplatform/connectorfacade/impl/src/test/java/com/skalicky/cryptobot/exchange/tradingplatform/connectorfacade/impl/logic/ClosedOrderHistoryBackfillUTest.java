@@ -0,0 +1,189 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrdersPageBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderBackfillCheckpoint;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderBackfillCheckpointRepository;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncState;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncStateRepository;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+
+public class ClosedOrderHistoryBackfillUTest {
+
+    @NotNull
+    private static final LocalDateTime NOW = LocalDateTime.of(2021, 6, 20, 12, 0);
+    @NotNull
+    private static final LocalDateTime FROM = LocalDateTime.of(2018, 1, 1, 0, 0);
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade privateApiFacade = mock(TradingPlatformPrivateApiFacade.class);
+    @NotNull
+    private final ClosedOrderBackfillCheckpointRepository checkpointRepository =
+            mock(ClosedOrderBackfillCheckpointRepository.class);
+    @NotNull
+    private final ClosedOrderSyncStateRepository syncStateRepository = mock(ClosedOrderSyncStateRepository.class);
+    @NotNull
+    private final ClosedOrderHistoryBackfill backfill = new ClosedOrderHistoryBackfill(privateApiFacade,
+            checkpointRepository, syncStateRepository, Runnable::run, 2,
+            Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(privateApiFacade, checkpointRepository, syncStateRepository);
+        reset(privateApiFacade, checkpointRepository, syncStateRepository);
+    }
+
+    @Test
+    public void test_backfill_when_noCheckpoint_then_allPagesAreRetrievedAndStored() {
+        // Given
+        final ClosedOrderBo order1 = createClosedOrder("O1", 1);
+        final ClosedOrderBo order2 = createClosedOrder("O2", 2);
+        final ClosedOrderBo order3 = createClosedOrder("O3", 3);
+        final ClosedOrderBo order4 = createClosedOrder("O4", 4);
+        final ClosedOrderBo order5 = createClosedOrder("O5", 5);
+        given(checkpointRepository.load()).willReturn(null);
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, NOW, 0)).willReturn(
+                new ClosedOrdersPageBo(ImmutableList.of(order1, order2), 5));
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, NOW, 2)).willReturn(
+                new ClosedOrdersPageBo(ImmutableList.of(order3, order4), 5));
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, NOW, 4)).willReturn(
+                new ClosedOrdersPageBo(ImmutableList.of(order5), 5));
+        given(syncStateRepository.load()).willReturn(null);
+
+        // When
+        final int closedOrderCount = backfill.backfill(FROM);
+
+        // Then
+        then(closedOrderCount).isEqualTo(5);
+        verify(checkpointRepository).load();
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, NOW, 0);
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, NOW, 2);
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, NOW, 4);
+        verify(checkpointRepository).start(FROM, NOW, 5, 2);
+        verify(checkpointRepository).savePage(0, ImmutableList.of(order1, order2));
+        verify(checkpointRepository).savePage(2, ImmutableList.of(order3, order4));
+        verify(checkpointRepository).savePage(4, ImmutableList.of(order5));
+        verify(syncStateRepository).load();
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(FROM);
+        then(savedState.getSyncedUntil()).isEqualTo(NOW);
+        then(savedState.getClosedOrders()).containsExactly(order5, order4, order3, order2, order1);
+        verify(checkpointRepository).delete();
+    }
+
+    @Test
+    public void test_backfill_when_checkpointExists_then_onlyRemainingPagesAreRetrievedAndMergedWithStoredOrders() {
+        // Given
+        final LocalDateTime to = NOW.minusDays(1);
+        final ClosedOrderBo order1 = createClosedOrder("O1", 1);
+        final ClosedOrderBo order3 = createClosedOrder("O3", 3);
+        final ClosedOrderBo storedOrder = createClosedOrder("S1", 0);
+        given(checkpointRepository.load()).willReturn(new ClosedOrderBackfillCheckpoint(FROM, to, 3, 1,
+                ImmutableSortedSet.of(0, 1), ImmutableList.of(order1)));
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, to, 2)).willReturn(
+                new ClosedOrdersPageBo(ImmutableList.of(order3), 3));
+        given(syncStateRepository.load()).willReturn(new ClosedOrderSyncState(NOW.minusDays(3), NOW.minusHours(1),
+                ImmutableList.of(storedOrder)));
+
+        // When
+        final int closedOrderCount = backfill.backfill(FROM);
+
+        // Then
+        then(closedOrderCount).isEqualTo(2);
+        verify(checkpointRepository).load();
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, to, 2);
+        verify(checkpointRepository).savePage(2, ImmutableList.of(order3));
+        verify(syncStateRepository).load();
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(FROM);
+        then(savedState.getSyncedUntil()).isEqualTo(NOW.minusHours(1));
+        then(savedState.getClosedOrders()).containsExactly(order3, order1, storedOrder);
+        verify(checkpointRepository).delete();
+    }
+
+    @Test
+    public void test_backfill_when_pageRetrievalFails_then_exception_and_checkpointIsKept() {
+        // Given
+        final ClosedOrderBo order1 = createClosedOrder("O1", 1);
+        given(checkpointRepository.load()).willReturn(null);
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, NOW, 0)).willReturn(
+                new ClosedOrdersPageBo(ImmutableList.of(order1), 2));
+        given(privateApiFacade.getClosedOrdersPage(true, FROM, NOW, 1)).willThrow(
+                new IllegalStateException("[EAPI:Rate limit exceeded]"));
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> backfill.backfill(FROM));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(IllegalStateException.class).hasMessage("[EAPI:Rate limit exceeded]");
+        verify(checkpointRepository).load();
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, NOW, 0);
+        verify(privateApiFacade).getClosedOrdersPage(true, FROM, NOW, 1);
+        verify(checkpointRepository).start(FROM, NOW, 2, 1);
+        verify(checkpointRepository).savePage(0, ImmutableList.of(order1));
+    }
+
+    @Test
+    public void test_constructor_when_parallelismIsNotPositive_then_exception() {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new ClosedOrderHistoryBackfill(privateApiFacade,
+                checkpointRepository, syncStateRepository, Runnable::run, 0, Clock.systemUTC()));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Parallelism must be positive [0]");
+    }
+
+    @NotNull
+    private static ClosedOrderBo createClosedOrder(@NotNull final String orderId,
+                                                   final int closeDayOfMonth) {
+        return aClosedOrderBo().withOrderId(orderId) //
+                .withOpenDateTime(LocalDateTime.of(2019, 5, closeDayOfMonth + 1, 10, 0)) //
+                .withCloseDateTime(LocalDateTime.of(2019, 5, closeDayOfMonth + 1, 11, 0)) //
+                .build();
+    }
+
+    @NotNull
+    private ClosedOrderSyncState captureSavedState() {
+        final ArgumentCaptor<ClosedOrderSyncState> captor = ArgumentCaptor.forClass(ClosedOrderSyncState.class);
+        verify(syncStateRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.logic;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.logic.TradingPlatformPrivateApiFacade;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncState;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store.ClosedOrderSyncStateRepository;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.reset;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.verifyNoMoreInteractions;
+import static org.mockito.BDDMockito.willThrow;
+
+public class IncrementalClosedOrdersPrivateApiFacadeUTest {
+
+    @NotNull
+    private static final LocalDateTime NOW = LocalDateTime.of(2021, 6, 20, 12, 0);
+    @NotNull
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @NotNull
+    private final TradingPlatformPrivateApiFacade delegate = mock(TradingPlatformPrivateApiFacade.class);
+    @NotNull
+    private final ClosedOrderSyncStateRepository repository = mock(ClosedOrderSyncStateRepository.class);
+    @NotNull
+    private final IncrementalClosedOrdersPrivateApiFacade facade = new IncrementalClosedOrdersPrivateApiFacade(
+            delegate, repository, CLOCK, null);
+
+    @AfterEach
+    public void assertAndCleanMocks() {
+        verifyNoMoreInteractions(delegate, repository);
+        reset(delegate, repository);
+    }
+
+    @Test
+    public void test_getClosedOrders_when_noStoredState_then_ordersSinceFromAreRetrievedAndStored() {
+        // Given
+        final LocalDateTime from = NOW.minusDays(3);
+        final ClosedOrderBo order = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(2)).withCloseDateTime(NOW.minusDays(1)).build();
+        given(repository.load()).willReturn(null);
+        given(delegate.getClosedOrders(true, from)).willReturn(ImmutableList.of(order));
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = facade.getClosedOrders(true, from);
+
+        // Then
+        then(result).containsExactly(order);
+        verify(repository).load();
+        verify(delegate).getClosedOrders(true, from);
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(from);
+        then(savedState.getSyncedUntil()).isEqualTo(NOW);
+        then(savedState.getClosedOrders()).containsExactly(order);
+    }
+
+    @Test
+    public void test_getClosedOrders_when_storedStateCoversFrom_then_onlyOrdersSinceLastSyncAreRetrieved_and_olderOrdersDropped() {
+        // Given
+        final LocalDateTime from = NOW.minusDays(3);
+        final LocalDateTime syncedUntil = NOW.minusHours(1);
+        final ClosedOrderBo storedOrder = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(2)).withCloseDateTime(NOW.minusDays(2)).build();
+        final ClosedOrderBo tooOldOrder = aClosedOrderBo().withOrderId("O0") //
+                .withOpenDateTime(NOW.minusDays(10)).withCloseDateTime(NOW.minusDays(9)).build();
+        final ClosedOrderBo newOrder = aClosedOrderBo().withOrderId("O2") //
+                .withOpenDateTime(NOW.minusHours(2)).withCloseDateTime(NOW.minusMinutes(30)).build();
+        given(repository.load()).willReturn(new ClosedOrderSyncState(NOW.minusDays(20), syncedUntil,
+                ImmutableList.of(storedOrder, tooOldOrder)));
+        given(delegate.getClosedOrders(true, syncedUntil.minusMinutes(5))).willReturn(ImmutableList.of(newOrder));
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = facade.getClosedOrders(true, from);
+
+        // Then
+        then(result).containsExactly(newOrder, storedOrder);
+        verify(repository).load();
+        verify(delegate).getClosedOrders(true, syncedUntil.minusMinutes(5));
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(from);
+        then(savedState.getSyncedUntil()).isEqualTo(NOW);
+        then(savedState.getClosedOrders()).containsExactly(newOrder, storedOrder);
+    }
+
+    @Test
+    public void test_getClosedOrders_when_retainedSinceBeforeFrom_then_ordersSinceRetainedSinceKept() {
+        // Given
+        final var retainingFacade = new IncrementalClosedOrdersPrivateApiFacade(delegate, repository, CLOCK,
+                NOW.minusDays(15));
+        final LocalDateTime from = NOW.minusDays(3);
+        final LocalDateTime syncedUntil = NOW.minusHours(1);
+        final ClosedOrderBo retainedOrder = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(10)).withCloseDateTime(NOW.minusDays(9)).build();
+        final ClosedOrderBo tooOldOrder = aClosedOrderBo().withOrderId("O0") //
+                .withOpenDateTime(NOW.minusDays(18)).withCloseDateTime(NOW.minusDays(17)).build();
+        given(repository.load()).willReturn(new ClosedOrderSyncState(NOW.minusDays(20), syncedUntil,
+                ImmutableList.of(retainedOrder, tooOldOrder)));
+        given(delegate.getClosedOrders(true, syncedUntil.minusMinutes(5))).willReturn(ImmutableList.of());
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = retainingFacade.getClosedOrders(true, from);
+
+        // Then
+        then(result).isEmpty();
+        verify(repository).load();
+        verify(delegate).getClosedOrders(true, syncedUntil.minusMinutes(5));
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(NOW.minusDays(15));
+        then(savedState.getClosedOrders()).containsExactly(retainedOrder);
+    }
+
+    @Test
+    public void test_getClosedOrders_when_fromIsBeforeStoredState_then_ordersSinceFromAreRetrievedAndMerged() {
+        // Given
+        final LocalDateTime from = NOW.minusDays(30);
+        final ClosedOrderBo storedOrder = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(2)).withCloseDateTime(NOW.minusDays(2)).build();
+        final ClosedOrderBo retrievedOrder = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(2)).withCloseDateTime(NOW.minusDays(2)).build();
+        given(repository.load()).willReturn(new ClosedOrderSyncState(NOW.minusDays(3), NOW.minusHours(1),
+                ImmutableList.of(storedOrder)));
+        given(delegate.getClosedOrders(true, from)).willReturn(ImmutableList.of(retrievedOrder));
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = facade.getClosedOrders(true, from);
+
+        // Then
+        then(result).containsExactly(retrievedOrder);
+        verify(repository).load();
+        verify(delegate).getClosedOrders(true, from);
+        final ClosedOrderSyncState savedState = captureSavedState();
+        then(savedState.getCoveredSince()).isEqualTo(from);
+        then(savedState.getClosedOrders()).containsExactly(retrievedOrder);
+    }
+
+    @Test
+    public void test_getClosedOrders_when_savingFails_then_retrievedOrdersAreReturned() {
+        // Given
+        final LocalDateTime from = NOW.minusDays(3);
+        final ClosedOrderBo order = aClosedOrderBo().withOrderId("O1") //
+                .withOpenDateTime(NOW.minusDays(2)).withCloseDateTime(NOW.minusDays(1)).build();
+        given(repository.load()).willReturn(null);
+        given(delegate.getClosedOrders(true, from)).willReturn(ImmutableList.of(order));
+        willThrow(IllegalStateException.class).given(repository).save(any());
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = facade.getClosedOrders(true, from);
+
+        // Then
+        then(result).containsExactly(order);
+        verify(repository).load();
+        verify(delegate).getClosedOrders(true, from);
+        verify(repository).save(any());
+    }
+
+    @Test
+    public void test_getClosedOrders_when_withoutTrades_then_storeIsBypassed() {
+        // Given
+        final LocalDateTime from = NOW.minusDays(3);
+        given(delegate.getClosedOrders(false, from)).willReturn(ImmutableList.of());
+
+        // When
+        final ImmutableList<ClosedOrderBo> result = facade.getClosedOrders(false, from);
+
+        // Then
+        then(result).isEmpty();
+        verify(delegate).getClosedOrders(false, from);
+    }
+
+    @NotNull
+    private ClosedOrderSyncState captureSavedState() {
+        final ArgumentCaptor<ClosedOrderSyncState> captor = ArgumentCaptor.forClass(ClosedOrderSyncState.class);
+        verify(repository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.ClosedOrderBoToStoredClosedOrderDtoConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.StoredClosedOrderDtoToClosedOrderBoConverter;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class JsonFileClosedOrderBackfillCheckpointRepositoryUTest {
+
+    @NotNull
+    private static final LocalDateTime FROM = LocalDateTime.of(2018, 1, 1, 0, 0);
+    @NotNull
+    private static final LocalDateTime TO = LocalDateTime.of(2021, 6, 20, 12, 0);
+
+    @Test
+    public void test_load_when_pagesSaved_then_pagesAreMergedInOrderOfOffsets(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final Path directory = temporaryDirectory.resolve("closed-orders.json.backfill");
+        final JsonFileClosedOrderBackfillCheckpointRepository repository = createRepository(directory);
+        final ClosedOrderBo order1 = aClosedOrderBo().withOrderId("OQCLML-BW3P3-BUCMWZ").build();
+        final ClosedOrderBo order2 = aClosedOrderBo().withOrderId("O2").build();
+        repository.start(FROM, TO, 120, 50);
+
+        // When
+        repository.savePage(100, ImmutableList.of(order2));
+        repository.savePage(0, ImmutableList.of(order1));
+        final ClosedOrderBackfillCheckpoint loadedCheckpoint = repository.load();
+
+        // Then
+        then(loadedCheckpoint).isNotNull();
+        then(loadedCheckpoint.getFrom()).isEqualTo(FROM);
+        then(loadedCheckpoint.getTo()).isEqualTo(TO);
+        then(loadedCheckpoint.getTotalCount()).isEqualTo(120);
+        then(loadedCheckpoint.getPageSize()).isEqualTo(50);
+        then(loadedCheckpoint.getCompletedOffsets()).containsExactly(0, 100);
+        then(loadedCheckpoint.getClosedOrders()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(order1, order2);
+    }
+
+    @Test
+    public void test_load_when_pageUnreadable_then_pageIsNotCompleted(@TempDir @NotNull final Path temporaryDirectory)
+            throws Exception {
+        // Given
+        final Path directory = temporaryDirectory.resolve("closed-orders.json.backfill");
+        final JsonFileClosedOrderBackfillCheckpointRepository repository = createRepository(directory);
+        repository.start(FROM, TO, 120, 50);
+        repository.savePage(0, ImmutableList.of(aClosedOrderBo().withOrderId("O1").build()));
+        Files.writeString(directory.resolve("page-50.json"), "{\"offset\":50,\"closedOr");
+
+        // When
+        final ClosedOrderBackfillCheckpoint loadedCheckpoint = repository.load();
+
+        // Then
+        then(loadedCheckpoint).isNotNull();
+        then(loadedCheckpoint.getCompletedOffsets()).containsExactly(0);
+        then(loadedCheckpoint.getClosedOrders()).hasSize(1);
+    }
+
+    @Test
+    public void test_start_when_previousBackfillCheckpointed_then_itsPagesAreDiscarded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final JsonFileClosedOrderBackfillCheckpointRepository repository = createRepository(
+                temporaryDirectory.resolve("closed-orders.json.backfill"));
+        repository.start(FROM, TO, 120, 50);
+        repository.savePage(0, ImmutableList.of(aClosedOrderBo().withOrderId("O1").build()));
+
+        // When
+        repository.start(FROM.plusYears(1), TO, 70, 50);
+        final ClosedOrderBackfillCheckpoint loadedCheckpoint = repository.load();
+
+        // Then
+        then(loadedCheckpoint).isNotNull();
+        then(loadedCheckpoint.getFrom()).isEqualTo(FROM.plusYears(1));
+        then(loadedCheckpoint.getCompletedOffsets()).isEmpty();
+        then(loadedCheckpoint.getClosedOrders()).isEmpty();
+    }
+
+    @Test
+    public void test_load_when_checkpointDeleted_then_null(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final Path directory = temporaryDirectory.resolve("closed-orders.json.backfill");
+        final JsonFileClosedOrderBackfillCheckpointRepository repository = createRepository(directory);
+        repository.start(FROM, TO, 0, 0);
+        repository.savePage(0, ImmutableList.of());
+
+        // When
+        repository.delete();
+        final ClosedOrderBackfillCheckpoint loadedCheckpoint = repository.load();
+
+        // Then
+        then(loadedCheckpoint).isNull();
+        then(directory).doesNotExist();
+    }
+
+    @NotNull
+    private static JsonFileClosedOrderBackfillCheckpointRepository createRepository(@NotNull final Path directory) {
+        return new JsonFileClosedOrderBackfillCheckpointRepository(directory,
+                new ClosedOrderBoToStoredClosedOrderDtoConverter(), new StoredClosedOrderDtoToClosedOrderBoConverter());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.store;
+
+import com.google.common.collect.ImmutableList;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.CurrencyPairBo;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.CurrencyBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderStateBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.OrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.enums.PriceOrderTypeBoEnum;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.ClosedOrderBoToStoredClosedOrderDtoConverter;
+import com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.impl.converter.StoredClosedOrderDtoToClosedOrderBoConverter;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static com.skalicky.cryptobot.exchange.tradingplatform.connectorfacade.api.bo.ClosedOrderBoBuilder.aClosedOrderBo;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class JsonFileClosedOrderSyncStateRepositoryUTest {
+
+    @Test
+    public void test_load_when_fileDoesNotExist_then_null(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final JsonFileClosedOrderSyncStateRepository repository = createRepository(
+                temporaryDirectory.resolve("closed-orders.json"));
+
+        // When
+        final ClosedOrderSyncState state = repository.load();
+
+        // Then
+        then(state).isNull();
+    }
+
+    @Test
+    public void test_load_when_fileIsCorrupted_then_null(@TempDir @NotNull final Path temporaryDirectory) throws IOException {
+        // Given
+        final Path file = temporaryDirectory.resolve("closed-orders.json");
+        Files.write(file, "{\"coveredSince\":".getBytes(StandardCharsets.UTF_8));
+        final JsonFileClosedOrderSyncStateRepository repository = createRepository(file);
+
+        // When
+        final ClosedOrderSyncState state = repository.load();
+
+        // Then
+        then(state).isNull();
+    }
+
+    @Test
+    public void test_load_when_stateSaved_then_sameStateIsLoaded(@TempDir @NotNull final Path temporaryDirectory) {
+        // Given
+        final JsonFileClosedOrderSyncStateRepository repository = createRepository(
+                temporaryDirectory.resolve("store").resolve("closed-orders.json"));
+        final ClosedOrderBo order = aClosedOrderBo() //
+                .withOrderId("OQCLML-BW3P3-BUCMWZ") //
+                .withOrderType(OrderTypeBoEnum.SELL) //
+                .withPriceOrderType(PriceOrderTypeBoEnum.MARKET) //
+                .withCurrencyPair(new CurrencyPairBo(CurrencyBoEnum.BTC, CurrencyBoEnum.EUR)) //
+                .withDesiredVolumeInQuoteCurrency(new BigDecimal("1.25")) //
+                .withDesiredPrice(null) //
+                .withOpenDateTime(LocalDateTime.of(2021, 6, 18, 8, 30, 15)) //
+                .withCloseDateTime(LocalDateTime.of(2021, 6, 18, 8, 30, 16)) //
+                .withStatus(OrderStateBoEnum.FULLY_EXECUTED) //
+                .withTotalExecutedVolumeInQuoteCurrency(new BigDecimal("1.25")) //
+                .withAverageActualPrice(new BigDecimal("29999.5")) //
+                .withActualFeeInQuoteCurrency(new BigDecimal("0.0032")) //
+                .withTradeIds(ImmutableList.of("TCCCTY-WE2O6-P3NB37")) //
+                .build();
+        final var savedState = new ClosedOrderSyncState(LocalDateTime.of(2021, 6, 1, 0, 0),
+                LocalDateTime.of(2021, 6, 20, 12, 0), ImmutableList.of(order));
+
+        // When
+        repository.save(savedState);
+        final ClosedOrderSyncState loadedState = repository.load();
+
+        // Then
+        then(loadedState).usingRecursiveComparison().isEqualTo(savedState);
+    }
+
+    @NotNull
+    private static JsonFileClosedOrderSyncStateRepository createRepository(@NotNull final Path file) {
+        return new JsonFileClosedOrderSyncStateRepository(file, new ClosedOrderBoToStoredClosedOrderDtoConverter(),
+                new StoredClosedOrderDtoToClosedOrderBoConverter());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Shared by all local JSON files of the bot, e.g. stores, caches and journals.
+ */
+public final class JsonFileSupport {
+
+    private JsonFileSupport() {
+    }
+
+    /**
+     * Writes date-times as ISO-8601 strings rather than as numbers.
+     */
+    @NotNull
+    public static ObjectMapper createObjectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Writes to a temporary file first and then replaces the given file, hence neither a crash nor a reader ever
+     * sees a half-written file. The temporary file is deleted when the writing fails.
+     */
+    public static void writeAtomically(@NotNull final ObjectMapper objectMapper,
+                                       @NotNull final Path file,
+                                       @NotNull final Object value) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writeValue(temporaryFile.toFile(), value);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (@NotNull final IOException | RuntimeException ex) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (@NotNull final IOException deletionEx) {
+                ex.addSuppressed(deletionEx);
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class JsonFileSupportUTest {
+
+    @NotNull
+    private final ObjectMapper objectMapper = JsonFileSupport.createObjectMapper();
+
+    @Test
+    public void test_writeAtomically_when_directoryMissing_then_directoryCreated_and_valueWritten(
+            @TempDir final Path directory) throws IOException {
+        // Given
+        final Path file = directory.resolve("nested").resolve("state.json");
+
+        // When
+        JsonFileSupport.writeAtomically(objectMapper, file,
+                Map.of("at", LocalDateTime.of(2021, 6, 20, 12, 30)));
+
+        // Then
+        then(Files.readString(file, StandardCharsets.UTF_8)).isEqualTo("{\"at\":\"2021-06-20T12:30:00\"}");
+        then(listFileNames(file.getParent())).containsExactly("state.json");
+    }
+
+    @Test
+    public void test_writeAtomically_when_serializationFails_then_previousFileKept_and_noTemporaryFileLeft(
+            @TempDir final Path directory) throws IOException {
+        // Given
+        final Path file = directory.resolve("state.json");
+        Files.writeString(file, "{\"previous\":true}", StandardCharsets.UTF_8);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> JsonFileSupport.writeAtomically(objectMapper, file,
+                new FailingValue()));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(IOException.class);
+        then(Files.readString(file, StandardCharsets.UTF_8)).isEqualTo("{\"previous\":true}");
+        then(listFileNames(directory)).containsExactly("state.json");
+    }
+
+    @NotNull
+    private static String[] listFileNames(@NotNull final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).toArray(String[]::new);
+        }
+    }
+
+    public static class FailingValue {
+
+        @NotNull
+        public String getValue() {
+            throw new IllegalStateException("Not serializable");
+        }
+    }
+}
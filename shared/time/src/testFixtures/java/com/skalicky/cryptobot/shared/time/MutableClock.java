@@ -0,0 +1,62 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.time;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock in UTC which stands still until it is advanced.
+ */
+public final class MutableClock extends Clock {
+
+    @NotNull
+    private volatile Instant instant;
+
+    public MutableClock(@NotNull final Instant instant) {
+        this.instant = instant;
+    }
+
+    public void advance(@NotNull final Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @NotNull
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @NotNull
+    @Override
+    public Clock withZone(@NotNull final ZoneId zone) {
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends spans to a file, one line per export in the OTLP JSON format of OpenTelemetry, i.e. the JSON encoding of
+ * an ExportTraceServiceRequest. Such a file can be replayed into an OpenTelemetry collector, e.g. by its file
+ * receiver, or read by jq.
+ * <p>
+ * Before the file would exceed the given maximal size, it is rolled, i.e. renamed to {@code <file>.1} while
+ * {@code <file>.1} is renamed to {@code <file>.2} etc. The oldest file is deleted. A failed export is only logged
+ * since traces are not worth failing the run for.
+ */
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(OtlpJsonFileSpanExporter.class);
+    @NotNull
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    @NotNull
+    private final Path file;
+    private final long maxFileSizeInBytes;
+    private final int maxRolledFileCount;
+    @NotNull
+    private final String serviceName;
+    @NotNull
+    private final ObjectMapper objectMapper;
+
+    public OtlpJsonFileSpanExporter(@NotNull final Path file,
+                                    final long maxFileSizeInBytes,
+                                    final int maxRolledFileCount,
+                                    @NotNull final String serviceName,
+                                    @NotNull final ObjectMapper objectMapper) {
+        if (maxFileSizeInBytes <= 0) {
+            throw new IllegalArgumentException("Max file size must be positive [" + maxFileSizeInBytes + "]");
+        }
+        if (maxRolledFileCount < 0) {
+            throw new IllegalArgumentException("Max rolled file count must not be negative [" + maxRolledFileCount
+                    + "]");
+        }
+        this.file = file;
+        this.maxFileSizeInBytes = maxFileSizeInBytes;
+        this.maxRolledFileCount = maxRolledFileCount;
+        this.serviceName = serviceName;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void export(@NotNull final ImmutableList<Span> spans) {
+        try {
+            final byte[] line = objectMapper.writeValueAsBytes(toExportTraceServiceRequest(spans));
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            if (Files.exists(file) && Files.size(file) + line.length + LINE_SEPARATOR.length > maxFileSizeInBytes) {
+                roll();
+            }
+            Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Files.write(file, LINE_SEPARATOR, StandardOpenOption.APPEND);
+        } catch (@NotNull final IOException ex) {
+            logger.warn("Writing of " + spans.size() + " spans to " + file + " failed", ex);
+        }
+    }
+
+    private void roll() throws IOException {
+        if (maxRolledFileCount == 0) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(rolledFile(maxRolledFileCount));
+        for (int index = maxRolledFileCount - 1; index >= 1; --index) {
+            final Path rolledFile = rolledFile(index);
+            if (Files.exists(rolledFile)) {
+                Files.move(rolledFile, rolledFile(index + 1));
+            }
+        }
+        Files.move(file, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @NotNull
+    Path rolledFile(final int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    @NotNull
+    private ObjectNode toExportTraceServiceRequest(@NotNull final ImmutableList<Span> spans) {
+        final ObjectNode request = objectMapper.createObjectNode();
+        final ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        addAttribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", serviceName);
+        final ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", serviceName);
+        final ArrayNode spanNodes = scopeSpans.putArray("spans");
+        spans.forEach(span -> {
+            final ObjectNode spanNode = spanNodes.addObject()
+                    .put("traceId", span.getTraceId())
+                    .put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                spanNode.put("parentSpanId", span.getParentSpanId());
+            }
+            spanNode.put("name", span.getName())
+                    .put("kind", span.getKind().getOtlpValue())
+                    // 64-bit integers are strings in the JSON encoding of protobuf.
+                    .put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()))
+                    .put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+            final ArrayNode attributes = spanNode.putArray("attributes");
+            span.getAttributes().forEach((key, value) -> addAttribute(attributes, key, value));
+            final ObjectNode status = spanNode.putObject("status").put("code", span.getStatus().getOtlpValue());
+            if (span.getStatusMessage() != null) {
+                status.put("message", span.getStatusMessage());
+            }
+        });
+        return request;
+    }
+
+    private static void addAttribute(@NotNull final ArrayNode attributes,
+                                     @NotNull final String key,
+                                     @Nullable final Object value) {
+        final ObjectNode valueNode = attributes.addObject().put("key", key).putObject("value");
+        if (value instanceof Long) {
+            valueNode.put("intValue", value.toString());
+        } else if (value instanceof Boolean) {
+            valueNode.put("boolValue", (Boolean) value);
+        } else {
+            valueNode.put("stringValue", String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timed operation within a trace, see {@link Tracer#startSpan(String, SpanKindEnum)}. A span is meant to be used by
+ * the thread which has started it and must be closed by it, typically by try-with-resources.
+ */
+public final class Span implements AutoCloseable {
+
+    /**
+     * Returned by a disabled tracer. Ignores everything.
+     */
+    @NotNull
+    static final Span NOOP = new Span(null, "", "", null, "", SpanKindEnum.INTERNAL, 0, null);
+
+    @Nullable
+    private final Tracer tracer;
+    @NotNull
+    private final String traceId;
+    @NotNull
+    private final String spanId;
+    @Nullable
+    private final String parentSpanId;
+    @NotNull
+    private final String name;
+    @NotNull
+    private final SpanKindEnum kind;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    /**
+     * The current span of the thread when this span was started.
+     */
+    @Nullable
+    private final Span previousSpan;
+    @NotNull
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    @NotNull
+    private SpanStatusEnum status = SpanStatusEnum.UNSET;
+    @Nullable
+    private String statusMessage;
+    private long endEpochNanos;
+    private boolean ended;
+
+    Span(@Nullable final Tracer tracer,
+         @NotNull final String traceId,
+         @NotNull final String spanId,
+         @Nullable final String parentSpanId,
+         @NotNull final String name,
+         @NotNull final SpanKindEnum kind,
+         final long startEpochNanos,
+         @Nullable final Span previousSpan) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+        this.startNanoTime = System.nanoTime();
+        this.previousSpan = previousSpan;
+    }
+
+    @NotNull
+    public Span setAttribute(@NotNull final String key,
+                             @Nullable final String value) {
+        if (tracer != null && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    @NotNull
+    public Span setAttribute(@NotNull final String key,
+                             final long value) {
+        if (tracer != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    @NotNull
+    public Span setAttribute(@NotNull final String key,
+                             final boolean value) {
+        if (tracer != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed, see the semantic conventions of OpenTelemetry for exceptions.
+     */
+    public void recordFailure(@NotNull final Throwable failure) {
+        if (tracer != null) {
+            status = SpanStatusEnum.ERROR;
+            statusMessage = failure.getMessage();
+            attributes.put("exception.type", failure.getClass().getName());
+            if (failure.getMessage() != null) {
+                attributes.put("exception.message", failure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ends the span and makes the span current before it current again. Closing an ended span has no effect.
+     */
+    @Override
+    public void close() {
+        if (tracer != null && !ended) {
+            ended = true;
+            endEpochNanos = startEpochNanos + (System.nanoTime() - startNanoTime);
+            tracer.end(this);
+        }
+    }
+
+    @NotNull
+    public String getTraceId() {
+        return traceId;
+    }
+
+    @NotNull
+    public String getSpanId() {
+        return spanId;
+    }
+
+    @Nullable
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public SpanKindEnum getKind() {
+        return kind;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    @NotNull
+    public ImmutableMap<String, Object> getAttributes() {
+        return ImmutableMap.copyOf(attributes);
+    }
+
+    @NotNull
+    public SpanStatusEnum getStatus() {
+        return status;
+    }
+
+    @Nullable
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+
+    @Nullable
+    Span getPreviousSpan() {
+        return previousSpan;
+    }
+}
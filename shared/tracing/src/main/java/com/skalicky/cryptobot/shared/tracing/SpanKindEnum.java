@@ -0,0 +1,40 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+/**
+ * Subset of span kinds of OpenTelemetry, see https://opentelemetry.io/docs/reference/specification/trace/api/.
+ */
+public enum SpanKindEnum {
+    INTERNAL(1),
+    /**
+     * Remote call, e.g. an HTTP request.
+     */
+    CLIENT(3);
+
+    private final int otlpValue;
+
+    SpanKindEnum(final int otlpValue) {
+        this.otlpValue = otlpValue;
+    }
+
+    public int getOtlpValue() {
+        return otlpValue;
+    }
+}
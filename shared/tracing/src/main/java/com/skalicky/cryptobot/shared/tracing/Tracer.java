@@ -0,0 +1,179 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Starts spans as children of the current span of the thread, hence a trace is propagated through nested calls
+ * without passing it around. Tasks run on an executor are propagated by {@link #wrap(Executor)}.
+ * <p>
+ * Ended spans are buffered per trace and exported together once the root span of the trace ends. Spans ending
+ * after their root span, e.g. of tasks which have not been cancelled in time, are exported one by one.
+ */
+public class Tracer {
+
+    @NotNull
+    private static final Logger logger = LoggerFactory.getLogger(Tracer.class);
+    @NotNull
+    private static final Tracer DISABLED = new Tracer();
+
+    @Nullable
+    private final Clock clock;
+    @Nullable
+    private final SpanExporter exporter;
+    @NotNull
+    private final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+    @NotNull
+    private final Map<String, List<Span>> endedSpansByTraceIds = new ConcurrentHashMap<>();
+
+    public Tracer(@NotNull final Clock clock,
+                  @NotNull final SpanExporter exporter) {
+        this.clock = clock;
+        this.exporter = exporter;
+    }
+
+    private Tracer() {
+        this.clock = null;
+        this.exporter = null;
+    }
+
+    /**
+     * @return a tracer whose spans are no-ops
+     */
+    @NotNull
+    public static Tracer disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * Starts a span and makes it the current span of the thread until it is closed.
+     */
+    @NotNull
+    public Span startSpan(@NotNull final String name,
+                          @NotNull final SpanKindEnum kind) {
+        if (clock == null) {
+            return Span.NOOP;
+        }
+        final Span parent = currentSpan.get();
+        final Instant now = clock.instant();
+        final String traceId = parent == null ? randomHexId() + randomHexId() : parent.getTraceId();
+        final var span = new Span(this, traceId, randomHexId(), parent == null ? null : parent.getSpanId(), name, kind,
+                now.getEpochSecond() * 1_000_000_000L + now.getNano(), parent);
+        if (parent == null) {
+            endedSpansByTraceIds.put(traceId, new ArrayList<>());
+        }
+        currentSpan.set(span);
+        return span;
+    }
+
+    /**
+     * Runs the given body within a span which is marked as failed if the body throws an exception.
+     */
+    @NotNull
+    public <T> T trace(@NotNull final String name,
+                       @NotNull final SpanKindEnum kind,
+                       @NotNull final Supplier<T> body) {
+        try (final Span span = startSpan(name, kind)) {
+            try {
+                return body.get();
+            } catch (@NotNull final RuntimeException | Error ex) {
+                span.recordFailure(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * @return an executor running tasks within the span current while they were submitted
+     */
+    @NotNull
+    public Executor wrap(@NotNull final Executor executor) {
+        if (!isEnabled()) {
+            return executor;
+        }
+        return command -> {
+            final Span submittingSpan = currentSpan.get();
+            executor.execute(() -> {
+                final Span previousSpan = currentSpan.get();
+                currentSpan.set(submittingSpan);
+                try {
+                    command.run();
+                } finally {
+                    currentSpan.set(previousSpan);
+                }
+            });
+        };
+    }
+
+    void end(@NotNull final Span span) {
+        if (currentSpan.get() == span) {
+            currentSpan.set(span.getPreviousSpan());
+        }
+        final ImmutableList<Span> spansToExport;
+        if (span.getParentSpanId() == null) {
+            final List<Span> endedSpans = endedSpansByTraceIds.remove(span.getTraceId());
+            spansToExport = endedSpans == null
+                    ? ImmutableList.of(span)
+                    : ImmutableList.<Span>builder().addAll(endedSpans).add(span).build();
+        } else if (endedSpansByTraceIds.computeIfPresent(span.getTraceId(), (traceId, endedSpans) -> {
+            // Atomic with the removal by the root span, hence no span gets lost.
+            endedSpans.add(span);
+            return endedSpans;
+        }) == null) {
+            spansToExport = ImmutableList.of(span);
+        } else {
+            spansToExport = ImmutableList.of();
+        }
+        if (!spansToExport.isEmpty() && exporter != null) {
+            try {
+                exporter.export(spansToExport);
+            } catch (@NotNull final RuntimeException ex) {
+                logger.warn("Export of the trace " + span.getTraceId() + " failed", ex);
+            }
+        }
+    }
+
+    @NotNull
+    private static String randomHexId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return String.format("%016x", id);
+    }
+}
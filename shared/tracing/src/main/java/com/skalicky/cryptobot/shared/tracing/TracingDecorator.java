@@ -0,0 +1,83 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Decorates an implementation of an interface so that each call of a method of the interface runs within a span
+ * named {@code <interface>.<method>}. Saves writing a decorator per facade and connector.
+ */
+public final class TracingDecorator {
+
+    private TracingDecorator() {
+    }
+
+    /**
+     * @return the target itself if the tracer is disabled
+     */
+    @NotNull
+    public static <T> T decorate(@NotNull final Class<T> type,
+                                 @NotNull final T target,
+                                 @NotNull final Tracer tracer) {
+        if (!tracer.isEnabled()) {
+            return target;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, arguments) -> invoke(type, target, tracer, method, arguments)));
+    }
+
+    @Nullable
+    private static Object invoke(@NotNull final Class<?> type,
+                                 @NotNull final Object target,
+                                 @NotNull final Tracer tracer,
+                                 @NotNull final Method method,
+                                 @Nullable final Object[] arguments) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeTarget(target, method, arguments);
+        }
+        try (final Span span = tracer.startSpan(type.getSimpleName() + "." + method.getName(),
+                SpanKindEnum.INTERNAL)) {
+            span.setAttribute("code.namespace", target.getClass().getName())
+                    .setAttribute("code.function", method.getName());
+            try {
+                return invokeTarget(target, method, arguments);
+            } catch (@NotNull final Throwable ex) {
+                span.recordFailure(ex);
+                throw ex;
+            }
+        }
+    }
+
+    @Nullable
+    private static Object invokeTarget(@NotNull final Object target,
+                                       @NotNull final Method method,
+                                       @Nullable final Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (@NotNull final InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class OtlpJsonFileSpanExporterUTest {
+
+    @NotNull
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @NotNull
+    private final List<ImmutableList<Span>> exportedTraces = new ArrayList<>();
+    @NotNull
+    private final Tracer tracer = new Tracer(Clock.systemUTC(), exportedTraces::add);
+
+    @Test
+    public void test_export_when_traceEnded_then_oneOtlpJsonLineAppended(@TempDir @NotNull final Path directory)
+            throws IOException {
+        // Given
+        final Path file = directory.resolve("traces").resolve("crypto-bot.jsonl");
+        final var exporter = new OtlpJsonFileSpanExporter(file, 1_000_000L, 1, "crypto-bot", objectMapper);
+        final Span root = tracer.startSpan("root", SpanKindEnum.INTERNAL).setAttribute("tradingPlatform", "kraken");
+        final Span child = tracer.startSpan("KrakenApi.AddOrder", SpanKindEnum.CLIENT)
+                .setAttribute("http.response_content_length", 512L)
+                .setAttribute("dryRun", true);
+        child.recordFailure(new IllegalStateException("EOrder:Insufficient funds"));
+        child.close();
+        root.close();
+
+        // When
+        exporter.export(exportedTraces.get(0));
+
+        // Then
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        then(lines).hasSize(1);
+        final JsonNode resourceSpans = objectMapper.readTree(lines.get(0)).get("resourceSpans").get(0);
+        then(resourceSpans.at("/resource/attributes/0/key").asText()).isEqualTo("service.name");
+        then(resourceSpans.at("/resource/attributes/0/value/stringValue").asText()).isEqualTo("crypto-bot");
+        final JsonNode scopeSpans = resourceSpans.get("scopeSpans").get(0);
+        then(scopeSpans.at("/scope/name").asText()).isEqualTo("crypto-bot");
+        final JsonNode childNode = scopeSpans.get("spans").get(0);
+        then(childNode.get("traceId").asText()).isEqualTo(root.getTraceId());
+        then(childNode.get("spanId").asText()).isEqualTo(child.getSpanId());
+        then(childNode.get("parentSpanId").asText()).isEqualTo(root.getSpanId());
+        then(childNode.get("name").asText()).isEqualTo("KrakenApi.AddOrder");
+        then(childNode.get("kind").asInt()).isEqualTo(3);
+        then(childNode.get("startTimeUnixNano").isTextual()).isTrue();
+        then(childNode.get("startTimeUnixNano").asText()).isEqualTo(Long.toString(child.getStartEpochNanos()));
+        then(childNode.get("endTimeUnixNano").asText()).isEqualTo(Long.toString(child.getEndEpochNanos()));
+        then(childNode.at("/attributes/0/value/intValue").asText()).isEqualTo("512");
+        then(childNode.at("/attributes/1/value/boolValue").asBoolean()).isTrue();
+        then(childNode.at("/status/code").asInt()).isEqualTo(2);
+        then(childNode.at("/status/message").asText()).isEqualTo("EOrder:Insufficient funds");
+        final JsonNode rootNode = scopeSpans.get("spans").get(1);
+        then(rootNode.has("parentSpanId")).isFalse();
+        then(rootNode.at("/attributes/0/value/stringValue").asText()).isEqualTo("kraken");
+        then(rootNode.at("/status/code").asInt()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_export_when_maxFileSizeExceeded_then_fileRolled_and_oldestRolledFileDropped(
+            @TempDir @NotNull final Path directory) throws IOException {
+        // Given
+        final Path file = directory.resolve("crypto-bot.jsonl");
+        final var exporter = new OtlpJsonFileSpanExporter(file, 1L, 2, "crypto-bot", objectMapper);
+        for (int index = 0; index < 4; ++index) {
+            tracer.startSpan("run" + index, SpanKindEnum.INTERNAL).close();
+        }
+
+        // When
+        exportedTraces.forEach(exporter::export);
+
+        // Then
+        then(Files.readString(file, StandardCharsets.UTF_8)).contains("run3");
+        then(Files.readString(exporter.rolledFile(1), StandardCharsets.UTF_8)).contains("run2");
+        then(Files.readString(exporter.rolledFile(2), StandardCharsets.UTF_8)).contains("run1");
+        then(exporter.rolledFile(3)).doesNotExist();
+    }
+
+    @Test
+    public void test_constructor_when_maxFileSizeNotPositive_then_exception(@TempDir @NotNull final Path directory) {
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> new OtlpJsonFileSpanExporter(
+                directory.resolve("crypto-bot.jsonl"), 0L, 1, "crypto-bot", objectMapper));
+
+        // Then
+        then(caughtThrowable).isInstanceOf(IllegalArgumentException.class);
+    }
+}
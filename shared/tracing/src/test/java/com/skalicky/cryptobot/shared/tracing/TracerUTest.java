@@ -0,0 +1,164 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TracerUTest {
+
+    @NotNull
+    private final List<ImmutableList<Span>> exportedTraces = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final Tracer tracer = new Tracer(Clock.fixed(Instant.parse("2021-06-20T12:00:00Z"), ZoneOffset.UTC),
+            exportedTraces::add);
+    @NotNull
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void test_startSpan_when_nested_then_childOfCurrentSpan_and_traceExportedOnceRootEnds() {
+        // Given
+        final Span root = tracer.startSpan("root", SpanKindEnum.INTERNAL);
+        final Span child = tracer.startSpan("child", SpanKindEnum.CLIENT);
+
+        // When
+        child.close();
+        final Span sibling = tracer.startSpan("sibling", SpanKindEnum.INTERNAL);
+        sibling.close();
+        then(exportedTraces).isEmpty();
+        root.close();
+
+        // Then
+        then(exportedTraces).hasSize(1);
+        then(exportedTraces.get(0)).extracting(Span::getName).containsExactly("child", "sibling", "root");
+        then(root.getTraceId()).hasSize(32);
+        then(root.getSpanId()).hasSize(16);
+        then(root.getParentSpanId()).isNull();
+        then(root.getStartEpochNanos()).isEqualTo(Instant.parse("2021-06-20T12:00:00Z").getEpochSecond() * 1_000_000_000L);
+        then(root.getEndEpochNanos()).isGreaterThanOrEqualTo(root.getStartEpochNanos());
+        then(child.getTraceId()).isEqualTo(root.getTraceId());
+        then(child.getParentSpanId()).isEqualTo(root.getSpanId());
+        then(sibling.getParentSpanId()).isEqualTo(root.getSpanId());
+    }
+
+    @Test
+    public void test_startSpan_when_previousTraceEnded_then_newTrace() {
+        // Given
+        final Span first = tracer.startSpan("first", SpanKindEnum.INTERNAL);
+        first.close();
+
+        // When
+        final Span second = tracer.startSpan("second", SpanKindEnum.INTERNAL);
+        second.close();
+
+        // Then
+        then(second.getParentSpanId()).isNull();
+        then(second.getTraceId()).isNotEqualTo(first.getTraceId());
+        then(exportedTraces).hasSize(2);
+    }
+
+    @Test
+    public void test_wrap_when_taskSubmittedWithinSpan_then_spanOfTaskIsChildOfSubmittingSpan() {
+        // Given
+        final Span root = tracer.startSpan("root", SpanKindEnum.INTERNAL);
+
+        // When
+        CompletableFuture.runAsync(() -> tracer.startSpan("task", SpanKindEnum.INTERNAL).close(),
+                tracer.wrap(executorService)).join();
+        root.close();
+        CompletableFuture.runAsync(() -> tracer.startSpan("unrelatedTask", SpanKindEnum.INTERNAL).close(),
+                tracer.wrap(executorService)).join();
+
+        // Then
+        then(exportedTraces).hasSize(2);
+        then(exportedTraces.get(0)).extracting(Span::getName).containsExactly("task", "root");
+        then(exportedTraces.get(0).get(0).getParentSpanId()).isEqualTo(root.getSpanId());
+        then(exportedTraces.get(1)).extracting(Span::getName).containsExactly("unrelatedTask");
+        then(exportedTraces.get(1).get(0).getParentSpanId()).isNull();
+    }
+
+    @Test
+    public void test_close_when_spanEndsAfterRoot_then_exportedOnItsOwn() {
+        // Given
+        final Span root = tracer.startSpan("root", SpanKindEnum.INTERNAL);
+        final Span late = tracer.startSpan("late", SpanKindEnum.INTERNAL);
+
+        // When
+        root.close();
+        late.close();
+        late.close();
+
+        // Then
+        then(exportedTraces).hasSize(2);
+        then(exportedTraces.get(0)).extracting(Span::getName).containsExactly("root");
+        then(exportedTraces.get(1)).extracting(Span::getName).containsExactly("late");
+    }
+
+    @Test
+    public void test_trace_when_bodyFails_then_spanMarkedAsFailed_and_failureRethrown() {
+        // Given
+        final var failure = new IllegalStateException("EService:Unavailable");
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(() -> tracer.trace("failing", SpanKindEnum.INTERNAL, () -> {
+            throw failure;
+        }));
+
+        // Then
+        then(caughtThrowable).isSameAs(failure);
+        final Span span = exportedTraces.get(0).get(0);
+        then(span.getStatus()).isEqualTo(SpanStatusEnum.ERROR);
+        then(span.getStatusMessage()).isEqualTo("EService:Unavailable");
+        then(span.getAttributes()).containsEntry("exception.type", IllegalStateException.class.getName());
+    }
+
+    @Test
+    public void test_disabled_when_spanStarted_then_nothingRecorded() {
+        // Given
+        final Tracer disabledTracer = Tracer.disabled();
+
+        // When
+        final Span span = disabledTracer.startSpan("root", SpanKindEnum.INTERNAL).setAttribute("key", "value");
+        span.close();
+
+        // Then
+        then(disabledTracer.isEnabled()).isFalse();
+        then(span.getAttributes()).isEmpty();
+        then(disabledTracer.wrap(executorService)).isSameAs(executorService);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * A program to automatically trade cryptocurrencies.
+ * Copyright (C) 2020 Tomas Skalicky
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.skalicky.cryptobot.shared.tracing;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+
+public class TracingDecoratorUTest {
+
+    @NotNull
+    private final List<ImmutableList<Span>> exportedTraces = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final Tracer tracer = new Tracer(Clock.systemUTC(), exportedTraces::add);
+
+    @Test
+    public void test_decorate_when_methodCalled_then_calledWithinSpan() {
+        // Given
+        final Supplier<String> target = () -> "ticker";
+        @SuppressWarnings("unchecked") final Supplier<String> decorated = TracingDecorator.decorate(Supplier.class,
+                target, tracer);
+
+        // When
+        final String result = decorated.get();
+
+        // Then
+        then(result).isEqualTo("ticker");
+        then(exportedTraces).hasSize(1);
+        final Span span = exportedTraces.get(0).get(0);
+        then(span.getName()).isEqualTo("Supplier.get");
+        then(span.getStatus()).isEqualTo(SpanStatusEnum.UNSET);
+        then(span.getAttributes()).containsEntry("code.namespace", target.getClass().getName())
+                .containsEntry("code.function", "get");
+    }
+
+    @Test
+    public void test_decorate_when_methodThrowsCheckedException_then_exceptionRethrownAsItIs_and_spanMarkedAsFailed() {
+        // Given
+        final var failure = new IOException("Read timed out");
+        @SuppressWarnings("unchecked") final Callable<String> decorated = TracingDecorator.decorate(Callable.class,
+                () -> {
+                    throw failure;
+                }, tracer);
+
+        // When
+        final Throwable caughtThrowable = catchThrowable(decorated::call);
+
+        // Then
+        then(caughtThrowable).isSameAs(failure);
+        then(exportedTraces.get(0).get(0).getStatus()).isEqualTo(SpanStatusEnum.ERROR);
+    }
+
+    @Test
+    public void test_decorate_when_objectMethodCalled_then_noSpan() {
+        // Given
+        final Runnable decorated = TracingDecorator.decorate(Runnable.class, () -> {
+            throw new UncheckedIOException(new IOException());
+        }, tracer);
+
+        // When
+        decorated.toString();
+
+        // Then
+        then(exportedTraces).isEmpty();
+    }
+
+    @Test
+    public void test_decorate_when_tracerDisabled_then_targetItself() {
+        // Given
+        final Runnable target = () -> {
+        };
+
+        // When
+        final Runnable decorated = TracingDecorator.decorate(Runnable.class, target, Tracer.disabled());
+
+        // Then
+        then(decorated).isSameAs(target);
+    }
+}